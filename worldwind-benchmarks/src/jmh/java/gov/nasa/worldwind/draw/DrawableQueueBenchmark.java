@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.WorldWind;
+
+/**
+ * Measures sorting a frame's drawable queue, which orders the drawables by group and then back to front before the
+ * OpenGL thread draws them. A quarter of the drawables are surface drawables and the rest are shapes at random depths,
+ * offered in an arbitrary order as layers render them. The queue is refilled before each sort.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DrawableQueueBenchmark {
+
+    @Param({"1000", "10000"})
+    public int drawableCount;
+
+    protected DrawableQueue queue = new DrawableQueue();
+
+    protected Drawable drawable = new EmptyDrawable();
+
+    protected int[] groupIds;
+
+    protected double[] depths;
+
+    protected static class EmptyDrawable implements Drawable {
+
+        @Override
+        public void recycle() {
+        }
+
+        @Override
+        public void draw(DrawContext dc) {
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.groupIds = new int[this.drawableCount];
+        this.depths = new double[this.drawableCount];
+
+        Random random = new Random(0);
+        for (int idx = 0; idx < this.drawableCount; idx++) {
+            boolean surface = (idx % 4 == 0);
+            this.groupIds[idx] = surface ? WorldWind.SURFACE_DRAWABLE : WorldWind.SHAPE_DRAWABLE;
+            this.depths[idx] = surface ? 0 : 1e6 * random.nextDouble(); // shapes' distance from the eye point
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillQueue() {
+        this.queue.clearDrawables();
+        for (int idx = 0; idx < this.drawableCount; idx++) {
+            this.queue.offerDrawable(this.drawable, this.groupIds[idx], this.depths[idx]);
+        }
+    }
+
+    @Benchmark
+    public Drawable sortDrawables() {
+        this.queue.sortDrawables();
+        return this.queue.peekDrawable();
+    }
+}
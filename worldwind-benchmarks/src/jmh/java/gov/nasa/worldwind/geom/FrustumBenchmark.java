@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.geom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Frustum tests used to cull terrain tiles, shapes and placemarks: computing the frustum from the viewing
+ * matrices, and testing points and segments against it. Half of the test points lie inside the frustum.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrustumBenchmark {
+
+    protected static final int POINT_COUNT = 1024;
+
+    protected Matrix4 projection = new Matrix4();
+
+    protected Matrix4 modelview = new Matrix4();
+
+    protected Viewport viewport = new Viewport(0, 0, 1080, 1920);
+
+    protected Frustum frustum = new Frustum();
+
+    protected Vec3[] points = new Vec3[POINT_COUNT];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.projection.setToPerspectiveProjection(1080, 1920, 45, 1, 1000);
+        this.modelview.setToIdentity();
+        this.frustum.setToModelviewProjection(this.projection, this.modelview, this.viewport);
+
+        // Points in a box around the frustum, which looks down the negative Z axis from the origin.
+        Random random = new Random(0);
+        for (int idx = 0; idx < POINT_COUNT; idx++) {
+            double z = -1000 * random.nextDouble();
+            double extent = (idx % 2 == 0) ? 0.2 : 4; // even points are well inside the frustum's sides
+            this.points[idx] = new Vec3(extent * z * (random.nextDouble() - 0.5), extent * z * (random.nextDouble() - 0.5), z);
+        }
+    }
+
+    @Benchmark
+    public Frustum setToModelviewProjection() {
+        return this.frustum.setToModelviewProjection(this.projection, this.modelview, this.viewport);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINT_COUNT)
+    public int containsPoint() {
+        int count = 0;
+        for (int idx = 0; idx < POINT_COUNT; idx++) {
+            if (this.frustum.containsPoint(this.points[idx])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINT_COUNT - 1)
+    public int intersectsSegment() {
+        int count = 0;
+        for (int idx = 1; idx < POINT_COUNT; idx++) {
+            if (this.frustum.intersectsSegment(this.points[idx - 1], this.points[idx])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.geom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Matrix4 operations performed for every frame and for every shape: composing the modelview-projection
+ * matrix, and inverting general and orthonormal matrices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Matrix4Benchmark {
+
+    protected Matrix4 projection = new Matrix4();
+
+    protected Matrix4 modelview = new Matrix4();
+
+    protected Matrix4 modelviewProjection = new Matrix4();
+
+    protected Matrix4 result = new Matrix4();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // A typical viewing state: a phone-sized viewport looking at the globe from 10,000 km.
+        this.projection.setToPerspectiveProjection(1080, 1920, 45, 1, 1e7);
+        this.modelview.setToTranslation(0, 0, -1e7);
+        this.modelview.multiplyByRotation(1, 0, 0, -30);
+        this.modelview.multiplyByRotation(0, 1, 0, 45);
+        this.modelviewProjection.setToMultiply(this.projection, this.modelview);
+    }
+
+    @Benchmark
+    public Matrix4 setToMultiply() {
+        return this.result.setToMultiply(this.projection, this.modelview);
+    }
+
+    @Benchmark
+    public Matrix4 multiplyByMatrix() {
+        return this.result.set(this.projection).multiplyByMatrix(this.modelview);
+    }
+
+    @Benchmark
+    public Matrix4 invertMatrix() {
+        return this.result.invertMatrix(this.modelviewProjection);
+    }
+
+    @Benchmark
+    public Matrix4 invertOrthonormalMatrix() {
+        return this.result.invertOrthonormalMatrix(this.modelview);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Vec3;
+
+/**
+ * Measures ProjectionWgs84's conversion of a terrain tile's grid of geographic positions to Cartesian points, which runs
+ * for every terrain tile whose elevations change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionWgs84Benchmark {
+
+    @Param({"32", "64"})
+    public int tileDensity;
+
+    protected Globe globe;
+
+    protected Sector sector = new Sector(30, -120, 1, 1);
+
+    protected Vec3 origin = new Vec3();
+
+    protected float[] heights;
+
+    protected float[] points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProjectionWgs84 projection = new ProjectionWgs84();
+        this.globe = new Globe(WorldWind.WGS84_ELLIPSOID, projection);
+
+        // Tile grids have one more row and column than the tile density.
+        int count = (this.tileDensity + 1) * (this.tileDensity + 1);
+        this.heights = new float[count];
+        for (int idx = 0; idx < count; idx++) {
+            this.heights[idx] = (idx * 31) % 4000;
+        }
+
+        this.points = new float[count * 3];
+        this.globe.geographicToCartesian(this.sector.centroidLatitude(), this.sector.centroidLongitude(), 0, this.origin);
+    }
+
+    @Benchmark
+    public float[] geographicToCartesianGrid() {
+        int num = this.tileDensity + 1;
+        return this.globe.getProjection().geographicToCartesianGrid(this.globe, this.sector, num, num, this.heights, 1,
+            this.origin, this.points, 0, 0);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.TileMatrix;
+import gov.nasa.worldwind.geom.TileMatrixSet;
+
+/**
+ * Measures TiledElevationCoverage's interpolation of a terrain tile's height grid from coverage tiles, and its scan of
+ * coverage tiles for the height limits of a sector. Coverage tiles are synthetic and held in memory, so the benchmark
+ * excludes retrieval and cache lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TiledElevationCoverageBenchmark {
+
+    protected static final int TILE_SIZE = 256;
+
+    protected static final int MATRIX_INDEX = 7;
+
+    @Param({"32", "64"})
+    public int tileDensity;
+
+    protected SyntheticCoverage coverage;
+
+    protected Sector sector = new Sector(30.25, -120.25, 1, 1); // spans coverage tile boundaries at the matrix index
+
+    protected TiledElevationCoverage.TileBlock gridBlock = new TiledElevationCoverage.TileBlock();
+
+    protected TiledElevationCoverage.TileBlock limitsBlock = new TiledElevationCoverage.TileBlock();
+
+    protected float[] heights;
+
+    protected float[] limits = new float[2];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.coverage = new SyntheticCoverage();
+        this.coverage.setTileMatrixSet(TileMatrixSet.fromTilePyramid(new Sector().setFullSphere(), 2, 1, TILE_SIZE, TILE_SIZE, MATRIX_INDEX + 1));
+        this.heights = new float[(this.tileDensity + 1) * (this.tileDensity + 1)];
+
+        // Fetch the coverage tiles the benchmarks read, as getHeightGrid and getHeightLimits do before reading them.
+        int num = this.tileDensity + 1;
+        TileMatrix tileMatrix = this.coverage.getTileMatrixSet().matrix(MATRIX_INDEX);
+        if (!this.coverage.fetchTileBlock(this.sector, num, num, tileMatrix, this.gridBlock) ||
+            !this.coverage.fetchTileBlock(this.sector, tileMatrix, this.limitsBlock)) {
+            throw new IllegalStateException("Coverage tiles are missing");
+        }
+    }
+
+    @Benchmark
+    public float[] readHeightGrid() {
+        int num = this.tileDensity + 1;
+        this.coverage.readHeightGrid(this.sector, num, num, this.gridBlock, this.heights);
+        return this.heights;
+    }
+
+    @Benchmark
+    public float[] scanHeightLimits() {
+        this.limits[0] = Float.MAX_VALUE;
+        this.limits[1] = -Float.MAX_VALUE;
+        this.coverage.scanHeightLimits(this.sector, this.limitsBlock, this.limits);
+        return this.limits;
+    }
+
+    /**
+     * Coverage whose tiles are generated on demand and kept in memory, in place of retrieved coverage tiles.
+     */
+    protected static class SyntheticCoverage extends TiledElevationCoverage {
+
+        protected Map<Long, short[]> tiles = new HashMap<>();
+
+        @Override
+        protected short[] fetchTileArray(TileMatrix tileMatrix, int row, int column) {
+            long key = tileKey(tileMatrix, row, column);
+            short[] tileArray = this.tiles.get(key);
+            if (tileArray == null) {
+                tileArray = new short[tileMatrix.tileWidth * tileMatrix.tileHeight];
+                for (int idx = 0; idx < tileArray.length; idx++) {
+                    tileArray[idx] = (short) ((idx * 31 + row * 17 + column * 13) % 4000);
+                }
+                this.tiles.put(key, tileArray);
+            }
+
+            return tileArray;
+        }
+    }
+}
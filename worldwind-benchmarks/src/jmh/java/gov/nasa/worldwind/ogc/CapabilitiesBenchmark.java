@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.ogc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.ogc.wms.WmsCapabilities;
+import gov.nasa.worldwind.ogc.wmts.WmtsCapabilities;
+
+/**
+ * Measures parsing of WMS and WMTS capabilities documents with WmsXmlParser and WmtsXmlParser. The documents are the
+ * specification examples used by the instrumented tests, read into memory before measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CapabilitiesBenchmark {
+
+    protected byte[] wmsDocument;
+
+    protected byte[] wmtsDocument;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.wmsDocument = readResource("/test_gov_nasa_worldwind_wms_capabilities_v1_3_0_spec.xml");
+        this.wmtsDocument = readResource("/test_gov_nasa_worldwind_wmts_capabilities_spec.xml");
+    }
+
+    @Benchmark
+    public WmsCapabilities parseWmsCapabilities() throws Exception {
+        return WmsCapabilities.getCapabilities(new ByteArrayInputStream(this.wmsDocument));
+    }
+
+    @Benchmark
+    public WmtsCapabilities parseWmtsCapabilities() throws Exception {
+        return WmtsCapabilities.getCapabilities(new ByteArrayInputStream(this.wmtsDocument));
+    }
+
+    protected static byte[] readResource(String name) throws IOException {
+        InputStream stream = CapabilitiesBenchmark.class.getResourceAsStream(name);
+        if (stream == null) {
+            throw new IOException("Missing benchmark resource " + name);
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+}
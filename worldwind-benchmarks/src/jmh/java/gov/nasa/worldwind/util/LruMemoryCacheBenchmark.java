@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures LruMemoryCache on a single thread, as used by the render resource cache and elevation coverage caches:
+ * puts that evict the least recently used entries, and gets of a working set that mostly fits in the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LruMemoryCacheBenchmark {
+
+    protected static final int KEY_COUNT = 4096;
+
+    protected static final int KEY_MASK = KEY_COUNT - 1;
+
+    @Param({"false", "true"})
+    public boolean segmented;
+
+    protected LruMemoryCache<Integer, Object> cache;
+
+    protected Integer[] keys = new Integer[KEY_COUNT];
+
+    protected int[] sequence = new int[KEY_COUNT];
+
+    protected int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.cache = new LruMemoryCache<>(KEY_COUNT / 4); // a quarter of the keys fit, so puts evict continuously
+        this.cache.setSegmented(this.segmented);
+
+        // A random access sequence skewed towards the lower keys, which stand in for the tiles in regular use.
+        Random random = new Random(0);
+        for (int idx = 0; idx < KEY_COUNT; idx++) {
+            this.keys[idx] = idx;
+            double r = random.nextDouble();
+            this.sequence[idx] = (int) (r * r * KEY_COUNT);
+        }
+
+        for (int idx = 0; idx < KEY_COUNT; idx++) {
+            this.cache.put(this.keys[this.sequence[idx]], this, 1);
+        }
+    }
+
+    @Benchmark
+    public Object putAndEvict() {
+        Integer key = this.keys[this.sequence[this.next++ & KEY_MASK]];
+        return this.cache.put(key, this, 1);
+    }
+
+    @Benchmark
+    public Object getOrPut() {
+        Integer key = this.keys[this.sequence[this.next++ & KEY_MASK]];
+        Object value = this.cache.get(key);
+        if (value == null) {
+            this.cache.put(key, this, 1);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cross-thread memory caches under the access pattern of RenderResourceCache's image retrieval cache:
+ * one render thread looking up images every frame while several retrieval threads add decoded images.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemoryCacheBenchmark {
+
+    protected static final int KEY_COUNT = 4096;
+
+    protected static final int ENTRY_SIZE = 256 * 256 * 4; // a 256x256 ARGB_8888 image tile
+
+    @Param({"synchronized", "concurrent"})
+    public String cacheType;
+
+    protected LruMemoryCache<Integer, Object> cache;
+
+    protected Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int capacity = ENTRY_SIZE * KEY_COUNT / 4; // a quarter of the keys fit, so writers evict continuously
+        if (this.cacheType.equals("synchronized")) {
+            this.cache = new SynchronizedMemoryCache<>(capacity);
+        } else {
+            this.cache = new ConcurrentMemoryCache<>(capacity);
+        }
+
+        this.keys = new Integer[KEY_COUNT];
+        for (int idx = 0; idx < KEY_COUNT; idx++) {
+            this.keys[idx] = idx;
+            this.cache.put(this.keys[idx], this.keys[idx], ENTRY_SIZE);
+        }
+    }
+
+    @Benchmark
+    @Group("renderAndRetrieve")
+    @GroupThreads(1)
+    public Object renderThreadGet() {
+        return this.cache.get(this.keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)]);
+    }
+
+    @Benchmark
+    @Group("renderAndRetrieve")
+    @GroupThreads(4)
+    public Object retrievalThreadPut() {
+        Integer key = this.keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+        return this.cache.put(key, key, ENTRY_SIZE);
+    }
+
+    @Benchmark
+    @Group("renderOnly")
+    @GroupThreads(1)
+    public Object uncontendedGet() {
+        return this.cache.get(this.keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)]);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.glu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures GLU tessellation of a large concave polygon with a hole, configured with the callbacks Polygon uses to
+ * tessellate its interior.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GluTessellatorBenchmark {
+
+    @Param({"1000", "10000"})
+    public int vertexCount;
+
+    protected GLUtessellator tess;
+
+    protected double[][] outerCoords;
+
+    protected double[][] innerCoords;
+
+    protected int emittedVertices;
+
+    protected GLUtessellatorCallbackAdapter callback = new GLUtessellatorCallbackAdapter() {
+        @Override
+        public void combineData(double[] coords, Object[] data, float[] weight, Object[] outData, Object polygonData) {
+            outData[0] = coords.clone();
+        }
+
+        @Override
+        public void vertexData(Object vertexData, Object polygonData) {
+            emittedVertices++;
+        }
+
+        @Override
+        public void edgeFlagData(boolean boundaryEdge, Object polygonData) {
+        }
+
+        @Override
+        public void errorData(int errnum, Object polygonData) {
+            throw new IllegalStateException(GLU.gluErrorString(errnum));
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.tess = GLU.gluNewTess();
+
+        // A star-shaped outer contour whose alternating radii make it concave, and a circular hole.
+        this.outerCoords = new double[this.vertexCount][];
+        for (int idx = 0; idx < this.vertexCount; idx++) {
+            double angle = 2 * Math.PI * idx / this.vertexCount;
+            double radius = (idx % 2 == 0) ? 1.0 : 0.8;
+            this.outerCoords[idx] = new double[]{radius * Math.cos(angle), radius * Math.sin(angle), 0};
+        }
+
+        int holeCount = this.vertexCount / 10;
+        this.innerCoords = new double[holeCount][];
+        for (int idx = 0; idx < holeCount; idx++) {
+            double angle = -2 * Math.PI * idx / holeCount;
+            this.innerCoords[idx] = new double[]{0.5 * Math.cos(angle), 0.5 * Math.sin(angle), 0};
+        }
+    }
+
+    @Benchmark
+    public int tessellatePolygon() {
+        this.emittedVertices = 0;
+
+        GLU.gluTessNormal(this.tess, 0, 0, 1);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_COMBINE_DATA, this.callback);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_VERTEX_DATA, this.callback);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_EDGE_FLAG_DATA, this.callback);
+        GLU.gluTessCallback(this.tess, GLU.GLU_TESS_ERROR_DATA, this.callback);
+        GLU.gluTessBeginPolygon(this.tess, null);
+        this.tessellateContour(this.outerCoords);
+        this.tessellateContour(this.innerCoords);
+        GLU.gluTessEndPolygon(this.tess);
+
+        return this.emittedVertices;
+    }
+
+    protected void tessellateContour(double[][] coords) {
+        GLU.gluTessBeginContour(this.tess);
+        for (double[] vertex : coords) {
+            GLU.gluTessVertex(this.tess, vertex, 0 /*coords_offset*/, vertex);
+        }
+        GLU.gluTessEndContour(this.tess);
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.content.res;
+
+import java.io.InputStream;
+
+/**
+ * Minimal stand-in for Android's Resources class, allowing WorldWind classes that accept application resources to be
+ * compiled for the JVM. Benchmarks do not load resources through this class, and attempts to do so fail.
+ */
+public class Resources {
+
+    protected Resources() {
+    }
+
+    public InputStream openRawResource(int id) {
+        throw new UnsupportedOperationException("Resources are not available on the JVM");
+    }
+}
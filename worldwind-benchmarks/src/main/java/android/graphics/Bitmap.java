@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.graphics;
+
+/**
+ * Minimal stand-in for Android's Bitmap class, storing pixels as packed ARGB colors regardless of the bitmap's
+ * configuration.
+ */
+public final class Bitmap {
+
+    public enum Config {
+        ALPHA_8, RGB_565, ARGB_4444, ARGB_8888
+    }
+
+    private final int width;
+
+    private final int height;
+
+    private final Config config;
+
+    private final int[] pixels;
+
+    private boolean recycled;
+
+    private Bitmap(int width, int height, Config config) {
+        this.width = width;
+        this.height = height;
+        this.config = config;
+        this.pixels = new int[width * height];
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be > 0");
+        }
+
+        return new Bitmap(width, height, config);
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public Config getConfig() {
+        return this.config;
+    }
+
+    public int getByteCount() {
+        return this.pixels.length * 4;
+    }
+
+    public boolean isRecycled() {
+        return this.recycled;
+    }
+
+    public void recycle() {
+        this.recycled = true;
+    }
+
+    public int getPixel(int x, int y) {
+        return this.pixels[y * this.width + x];
+    }
+
+    public void setPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(pixels, offset + row * stride, this.pixels, (y + row) * this.width + x, width);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.opengl;
+
+/**
+ * Minimal stand-in for Android's GLES10 class, defining the primitive types reported by WorldWind's GLU tessellator.
+ */
+public class GLES10 {
+
+    public static final int GL_LINE_LOOP = 0x0002;
+
+    public static final int GL_TRIANGLES = 0x0004;
+
+    public static final int GL_TRIANGLE_STRIP = 0x0005;
+
+    public static final int GL_TRIANGLE_FAN = 0x0006;
+
+    protected GLES10() {
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.os;
+
+/**
+ * Minimal stand-in for Android's Handler class. Posted runnables run immediately on the calling thread, since the JVM
+ * has no main thread message loop to dispatch them to.
+ */
+public class Handler {
+
+    public interface Callback {
+
+        boolean handleMessage(Message msg);
+    }
+
+    public Handler(Looper looper) {
+        this(looper, null);
+    }
+
+    public Handler(Looper looper, Callback callback) {
+    }
+
+    public final boolean post(Runnable r) {
+        r.run();
+        return true;
+    }
+}
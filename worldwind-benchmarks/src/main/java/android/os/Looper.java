@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.os;
+
+/**
+ * Minimal stand-in for Android's Looper class. The JVM has no main thread message loop, so the main looper is a
+ * placeholder identifying the thread on which {@link Handler} callbacks run.
+ */
+public final class Looper {
+
+    private static final Looper mainLooper = new Looper();
+
+    private Looper() {
+    }
+
+    public static Looper getMainLooper() {
+        return mainLooper;
+    }
+}
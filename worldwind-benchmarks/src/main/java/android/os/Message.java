@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.os;
+
+/**
+ * Minimal stand-in for Android's Message class.
+ */
+public final class Message {
+
+    public int what;
+
+    public Object obj;
+
+    public Message() {
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.util;
+
+/**
+ * Minimal stand-in for Android's Log class, allowing WorldWind's Logger to run on the JVM. Messages are discarded so
+ * that logging does not affect benchmark results.
+ */
+public final class Log {
+
+    public static final int VERBOSE = 2;
+
+    public static final int DEBUG = 3;
+
+    public static final int INFO = 4;
+
+    public static final int WARN = 5;
+
+    public static final int ERROR = 6;
+
+    public static final int ASSERT = 7;
+
+    private Log() {
+    }
+
+    public static boolean isLoggable(String tag, int level) {
+        return false;
+    }
+
+    public static int println(int priority, String tag, String msg) {
+        return 0;
+    }
+
+    public static String getStackTraceString(Throwable tr) {
+        return "";
+    }
+
+    public static int v(String tag, String msg) {
+        return 0;
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}
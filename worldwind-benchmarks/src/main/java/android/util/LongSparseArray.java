@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * Minimal stand-in for Android's LongSparseArray class. Like Android's implementation, keys are kept in a sorted array
+ * and located by binary search, so benchmarks measure comparable lookup costs.
+ */
+public class LongSparseArray<E> {
+
+    private long[] keys = new long[10];
+
+    private Object[] values = new Object[10];
+
+    private int size;
+
+    public LongSparseArray() {
+    }
+
+    public E get(long key) {
+        return this.get(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long key, E valueIfKeyNotFound) {
+        int idx = Arrays.binarySearch(this.keys, 0, this.size, key);
+        return (idx >= 0) ? (E) this.values[idx] : valueIfKeyNotFound;
+    }
+
+    public void put(long key, E value) {
+        int idx = Arrays.binarySearch(this.keys, 0, this.size, key);
+        if (idx >= 0) {
+            this.values[idx] = value;
+            return;
+        }
+
+        idx = ~idx;
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+
+        System.arraycopy(this.keys, idx, this.keys, idx + 1, this.size - idx);
+        System.arraycopy(this.values, idx, this.values, idx + 1, this.size - idx);
+        this.keys[idx] = key;
+        this.values[idx] = value;
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        Arrays.fill(this.values, 0, this.size, null);
+        this.size = 0;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * Minimal stand-in for Android's SparseIntArray class. Like Android's implementation, keys are kept in a sorted array
+ * and located by binary search, so benchmarks measure comparable lookup costs.
+ */
+public class SparseIntArray {
+
+    private int[] keys = new int[10];
+
+    private int[] values = new int[10];
+
+    private int size;
+
+    public SparseIntArray() {
+    }
+
+    public int get(int key) {
+        return this.get(key, 0);
+    }
+
+    public int get(int key, int valueIfKeyNotFound) {
+        int idx = Arrays.binarySearch(this.keys, 0, this.size, key);
+        return (idx >= 0) ? this.values[idx] : valueIfKeyNotFound;
+    }
+
+    public void put(int key, int value) {
+        int idx = Arrays.binarySearch(this.keys, 0, this.size, key);
+        if (idx >= 0) {
+            this.values[idx] = value;
+            return;
+        }
+
+        idx = ~idx;
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+
+        System.arraycopy(this.keys, idx, this.keys, idx + 1, this.size - idx);
+        System.arraycopy(this.values, idx, this.values, idx + 1, this.size - idx);
+        this.keys[idx] = key;
+        this.values[idx] = value;
+        this.size++;
+    }
+
+    public void append(int key, int value) {
+        if (this.size > 0 && key <= this.keys[this.size - 1]) {
+            this.put(key, value);
+            return;
+        }
+
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int keyAt(int index) {
+        return this.keys[index];
+    }
+
+    public int valueAt(int index) {
+        return this.values[index];
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+}
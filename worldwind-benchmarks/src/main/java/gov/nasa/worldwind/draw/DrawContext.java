@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+/**
+ * Minimal stand-in for WorldWind's DrawContext class. The benchmarked drawable queue refers to DrawContext only through
+ * the {@link Drawable} interface, so this placeholder keeps the OpenGL rendering classes out of the JVM benchmarks.
+ */
+public class DrawContext {
+
+    public DrawContext() {
+    }
+}
@@ -336,8 +336,9 @@ public class PlacemarksSelectDragActivity extends GeneralGlobeActivity {
             // Reset our last picked object
             this.pickedObject = null;
 
-            // Perform the pick at the screen x, y
-            PickedObjectList pickList = getWorldWindow().pick(event.getX(), event.getY());
+            // Perform the pick at the screen x, y. Picking geometrically avoids waiting for the OpenGL thread to draw a
+            // pick frame, which keeps the response to touch fast.
+            PickedObjectList pickList = getWorldWindow().pickGeometric(event.getX(), event.getY());
 
             // Examine the picked objects for Renderables
             PickedObject topPickedObject = pickList.topPickedObject();
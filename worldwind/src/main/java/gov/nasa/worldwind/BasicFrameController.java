@@ -14,11 +14,13 @@ import gov.nasa.worldwind.draw.Drawable;
 import gov.nasa.worldwind.draw.DrawableSurfaceColor;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.layer.ParallelLayerRenderer;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
+import gov.nasa.worldwind.util.Tracer;
 
 public class BasicFrameController implements FrameController {
 
@@ -28,19 +30,86 @@ public class BasicFrameController implements FrameController {
 
     private Position pickPos = new Position();
 
+    protected ParallelLayerRenderer parallelLayerRenderer;
+
     public BasicFrameController() {
     }
 
+    /**
+     * Indicates whether this frame controller renders layers on several threads. See {@link
+     * #setParallelRenderingEnabled(boolean)}.
+     */
+    public boolean isParallelRenderingEnabled() {
+        return this.parallelLayerRenderer != null;
+    }
+
+    /**
+     * Enables rendering layers on several threads, one per available processor. Layers render concurrently, and large
+     * layers implementing {@link gov.nasa.worldwind.layer.Partitionable} are split into ranges that render concurrently.
+     * Drawables are sorted exactly as when layers render serially. Disabled by default; frames rendered for picking
+     * always render serially.
+     * <p/>
+     * Layers and renderables must not share mutable state when parallel rendering is enabled. The renderables provided
+     * by WorldWind meet this requirement, provided each renderable belongs to a single layer.
+     *
+     * @param enabled true to render layers on several threads, false to render layers on the render thread
+     */
+    public void setParallelRenderingEnabled(boolean enabled) {
+        if (enabled && this.parallelLayerRenderer == null) {
+            this.parallelLayerRenderer = new ParallelLayerRenderer();
+        } else if (!enabled) {
+            this.parallelLayerRenderer = null;
+        }
+    }
+
+    /**
+     * Returns the renderer used when parallel rendering is enabled, or null if parallel rendering is disabled. The
+     * renderer's parallelism and partition size may be configured.
+     */
+    public ParallelLayerRenderer getParallelLayerRenderer() {
+        return this.parallelLayerRenderer;
+    }
+
     @Override
     public void renderFrame(RenderContext rc) {
-        rc.terrainTessellator.tessellate(rc);
+        FrameMetrics metrics = rc.frameMetrics; // null unless profiling
+        long begin = (metrics != null) ? System.nanoTime() : 0;
+
+        Tracer.begin(Tracer.TESSELLATE);
+        try {
+            rc.terrainTessellator.tessellate(rc);
+        } finally {
+            Tracer.end(Tracer.TESSELLATE);
+        }
 
         if (rc.pickMode) {
             this.renderTerrainPickedObject(rc);
         }
 
-        rc.layers.render(rc);
+        if (metrics != null) {
+            long now = System.nanoTime();
+            metrics.recordRenderPhase(FrameMetrics.PHASE_TESSELLATE, now - begin);
+            begin = now;
+        }
+
+        ParallelLayerRenderer parallelLayerRenderer = this.parallelLayerRenderer;
+        if (parallelLayerRenderer != null) {
+            parallelLayerRenderer.render(rc, rc.layers);
+        } else {
+            rc.layers.render(rc);
+        }
+
+        if (metrics != null) {
+            long now = System.nanoTime();
+            metrics.recordRenderPhase(FrameMetrics.PHASE_RENDER_LAYERS, now - begin);
+            begin = now;
+        }
+
         rc.sortDrawables();
+
+        if (metrics != null) {
+            metrics.recordRenderPhase(FrameMetrics.PHASE_SORT_DRAWABLES, System.nanoTime() - begin);
+        }
     }
 
     protected void renderTerrainPickedObject(RenderContext rc) {
@@ -89,10 +158,15 @@ public class BasicFrameController implements FrameController {
     protected void drawDrawables(DrawContext dc) {
         dc.rewindDrawables();
 
+        FrameMetrics metrics = dc.frameMetrics; // null unless profiling
         Drawable next;
         while ((next = dc.pollDrawable()) != null) {
+            long begin = (metrics != null) ? System.nanoTime() : 0;
             try {
                 next.draw(dc);
+                if (metrics != null) {
+                    metrics.recordDrawable(next, System.nanoTime() - begin);
+                }
             } catch (Exception e) {
                 Logger.logMessage(Logger.ERROR, "BasicFrameController", "drawDrawables",
                     "Exception while drawing \'" + next + "\'", e);
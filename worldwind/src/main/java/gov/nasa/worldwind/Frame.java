@@ -5,12 +5,14 @@
 
 package gov.nasa.worldwind;
 
+import java.util.ArrayList;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import gov.nasa.worldwind.draw.DrawableList;
 import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.geom.Camera;
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Vec2;
@@ -27,6 +29,15 @@ public class Frame {
 
     public final Matrix4 infiniteProjection = new Matrix4();
 
+    /**
+     * The navigator state the frame is rendered from, captured when the frame is obtained and not modified afterwards.
+     */
+    public final Camera camera = new Camera();
+
+    public double fieldOfView;
+
+    public double verticalExaggeration;
+
     public final DrawableQueue drawableQueue = new DrawableQueue();
 
     public final DrawableQueue drawableTerrain = new DrawableQueue();
@@ -41,6 +52,16 @@ public class Frame {
 
     public boolean pickMode;
 
+    /**
+     * The callback notified when the pick frame is done, for pick frames nobody waits on.
+     */
+    public PickCallback pickCallback;
+
+    /**
+     * Asynchronous point picks resolved geometrically while the frame renders.
+     */
+    public final ArrayList<PickRequest> pickRequests = new ArrayList<>();
+
     private boolean isDone;
 
     private boolean isAwaitingDone;
@@ -77,6 +98,8 @@ public class Frame {
         this.pickPoint = null;
         this.pickRay = null;
         this.pickMode = false;
+        this.pickCallback = null;
+        this.pickRequests.clear();
 
         if (this.pool != null) { // return this instance to the pool
             this.pool.release(this);
@@ -5,14 +5,66 @@
 
 package gov.nasa.worldwind;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Locale;
 
 import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.draw.Drawable;
+import gov.nasa.worldwind.layer.Layer;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.LruMemoryCache;
-
+import gov.nasa.worldwind.util.TimeHistogram;
+
+/**
+ * Collects the time WorldWindow spends rendering and drawing frames, and the state of the render resource cache.
+ * <p/>
+ * When profiling is enabled, FrameMetrics additionally records where the time goes within each frame: tessellating
+ * terrain, rendering each layer, sorting drawables, drawing each class of drawable and uploading textures. Each of these
+ * is timed in nanoseconds and accumulated in a fixed-size {@link TimeHistogram}, and the times of the most recent
+ * frames are kept in a ring buffer. Use {@link #getProfile()} to take a snapshot of these timings. Profiling is
+ * disabled by default, in which case rendering and drawing code pays only for a null check at each timed section.
+ */
 public class FrameMetrics {
 
+    /**
+     * Profile phase timing the entire frame render on the render thread.
+     */
+    public static final String PHASE_RENDER = "render";
+
+    /**
+     * Profile phase timing terrain tessellation.
+     */
+    public static final String PHASE_TESSELLATE = "tessellate";
+
+    /**
+     * Profile phase timing the rendering of all layers. Individual layers are timed in the {@link
+     * FrameProfile#CATEGORY_LAYER} category.
+     */
+    public static final String PHASE_RENDER_LAYERS = "renderLayers";
+
+    /**
+     * Profile phase timing the sorting of the frame's drawables.
+     */
+    public static final String PHASE_SORT_DRAWABLES = "sortDrawables";
+
+    /**
+     * Profile phase timing the entire frame draw on the OpenGL thread.
+     */
+    public static final String PHASE_DRAW = "draw";
+
+    /**
+     * Profile phase timing texture uploads to OpenGL while drawing. Uploads are also included in the time of the
+     * drawable that caused them.
+     */
+    public static final String PHASE_TEXTURE_UPLOAD = "textureUpload";
+
+    protected static final int DEFAULT_HISTORY_CAPACITY = 120;
+
+    private final Object renderLock = new Object();
+
     private final Object drawLock = new Object();
 
     protected TimeMetrics renderMetrics = new TimeMetrics();
@@ -21,32 +73,122 @@ public class FrameMetrics {
 
     protected CacheMetrics renderResourceCacheMetrics = new CacheMetrics();
 
+    protected volatile boolean profilingEnabled;
+
+    protected int historyCapacity = DEFAULT_HISTORY_CAPACITY;
+
+    protected ProfileMetrics renderProfile = new ProfileMetrics(DEFAULT_HISTORY_CAPACITY);
+
+    protected ProfileMetrics drawProfile = new ProfileMetrics(DEFAULT_HISTORY_CAPACITY);
+
     public FrameMetrics() {
     }
 
+    /**
+     * Indicates whether frames are profiled in detail. See {@link #setProfilingEnabled(boolean)}.
+     */
+    public boolean isProfilingEnabled() {
+        return this.profilingEnabled;
+    }
+
+    /**
+     * Specifies whether to profile frames in detail. Frames rendered or drawn after profiling is enabled record the
+     * time of each frame phase, layer and drawable class. Disabling profiling keeps the timings collected so far.
+     *
+     * @param enabled true to profile frames, otherwise false
+     */
+    public void setProfilingEnabled(boolean enabled) {
+        this.profilingEnabled = enabled;
+    }
+
+    /**
+     * Indicates the number of recent frames whose profile times are kept.
+     */
+    public int getHistoryCapacity() {
+        synchronized (this.renderLock) {
+            return this.historyCapacity;
+        }
+    }
+
+    /**
+     * Specifies the number of recent frames whose profile times are kept. Changing the capacity discards the recent
+     * frames' times, but keeps the histograms.
+     *
+     * @param capacity the number of frames to keep
+     *
+     * @throws IllegalArgumentException If the capacity is less than 1
+     */
+    public void setHistoryCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameMetrics", "setHistoryCapacity", "invalidCapacity"));
+        }
+
+        synchronized (this.renderLock) {
+            this.historyCapacity = capacity;
+            this.renderProfile.resetHistory(capacity);
+        }
+
+        synchronized (this.drawLock) {
+            this.drawProfile.resetHistory(capacity);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the frame profile collected since profiling was enabled or the metrics were last reset.
+     * The returned profile is a copy, and does not change as frames continue to render.
+     *
+     * @return a new frame profile
+     */
+    public FrameProfile getProfile() {
+        ArrayList<FrameProfile.Entry> renderEntries = new ArrayList<>();
+        ArrayList<FrameProfile.FrameTimes> renderHistory = new ArrayList<>();
+        synchronized (this.renderLock) {
+            this.assembleProfile(this.renderProfile, renderEntries, renderHistory);
+        }
+
+        ArrayList<FrameProfile.Entry> drawEntries = new ArrayList<>();
+        ArrayList<FrameProfile.FrameTimes> drawHistory = new ArrayList<>();
+        synchronized (this.drawLock) {
+            this.assembleProfile(this.drawProfile, drawEntries, drawHistory);
+        }
+
+        return new FrameProfile(renderEntries, drawEntries, renderHistory, drawHistory);
+    }
+
     public long getRenderTime() {
-        return this.renderMetrics.time;
+        synchronized (this.renderLock) {
+            return toMillis(this.renderMetrics.time);
+        }
     }
 
     public double getRenderTimeAverage() {
-        return this.computeTimeAverage(this.renderMetrics);
+        synchronized (this.renderLock) {
+            return this.computeTimeAverage(this.renderMetrics);
+        }
     }
 
     public double getRenderTimeStdDev() {
-        return this.computeTimeStdDev(this.renderMetrics);
+        synchronized (this.renderLock) {
+            return this.computeTimeStdDev(this.renderMetrics);
+        }
     }
 
     public long getRenderTimeTotal() {
-        return this.renderMetrics.timeSum;
+        synchronized (this.renderLock) {
+            return toMillis(this.renderMetrics.timeSum);
+        }
     }
 
     public long getRenderCount() {
-        return this.renderMetrics.count;
+        synchronized (this.renderLock) {
+            return this.renderMetrics.count;
+        }
     }
 
     public long getDrawTime() {
         synchronized (this.drawLock) {
-            return this.drawMetrics.time;
+            return toMillis(this.drawMetrics.time);
         }
     }
 
@@ -64,7 +206,7 @@ public class FrameMetrics {
 
     public long getDrawTimeTotal() {
         synchronized (this.drawLock) {
-            return this.drawMetrics.timeSum;
+            return toMillis(this.drawMetrics.timeSum);
         }
     }
 
@@ -75,75 +217,218 @@ public class FrameMetrics {
     }
 
     public int getRenderResourceCacheCapacity() {
-        return this.renderResourceCacheMetrics.capacity;
+        synchronized (this.renderLock) {
+            return this.renderResourceCacheMetrics.capacity;
+        }
     }
 
     public int getRenderResourceCacheUsedCapacity() {
-        return this.renderResourceCacheMetrics.usedCapacity;
+        synchronized (this.renderLock) {
+            return this.renderResourceCacheMetrics.usedCapacity;
+        }
     }
 
     public int getRenderResourceCacheEntryCount() {
-        return this.renderResourceCacheMetrics.entryCount;
+        synchronized (this.renderLock) {
+            return this.renderResourceCacheMetrics.entryCount;
+        }
+    }
+
+    public long getRenderResourceCacheHitCount() {
+        synchronized (this.renderLock) {
+            return this.renderResourceCacheMetrics.hitCount;
+        }
+    }
+
+    public long getRenderResourceCacheMissCount() {
+        synchronized (this.renderLock) {
+            return this.renderResourceCacheMetrics.missCount;
+        }
+    }
+
+    public long getRenderResourceCacheEvictionCount() {
+        synchronized (this.renderLock) {
+            return this.renderResourceCacheMetrics.evictionCount;
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("FrameMetrics");
-        sb.append("{renderMetrics={");
-        this.printTimeMetrics(this.renderMetrics, sb);
-        sb.append("}, drawMetrics={");
-        this.printTimeMetrics(this.drawMetrics, sb);
-        sb.append("}, renderResourceCacheMetrics={");
-        this.printCacheMetrics(this.renderResourceCacheMetrics, sb);
+        synchronized (this.renderLock) {
+            sb.append("{renderMetrics={");
+            this.printTimeMetrics(this.renderMetrics, sb);
+        }
+        synchronized (this.drawLock) {
+            sb.append("}, drawMetrics={");
+            this.printTimeMetrics(this.drawMetrics, sb);
+        }
+        synchronized (this.renderLock) {
+            sb.append("}, renderResourceCacheMetrics={");
+            this.printCacheMetrics(this.renderResourceCacheMetrics, sb);
+        }
         sb.append("}");
 
         return sb.toString();
     }
 
     public void beginRendering(RenderContext rc) {
-        long now = System.currentTimeMillis();
+        long now = System.nanoTime();
 
-        this.markBegin(this.renderMetrics, now);
+        synchronized (this.renderLock) {
+            this.markBegin(this.renderMetrics, now);
+            this.beginProfile(this.renderProfile, now);
+        }
+
+        // Give the render context access to the profiler only when profiling, which limits the cost of timed sections
+        // to a null check when profiling is disabled.
+        rc.frameMetrics = this.renderProfile.active ? this : null;
     }
 
     public void endRendering(RenderContext rc) {
-        long now = System.currentTimeMillis();
-        this.markEnd(this.renderMetrics, now);
-        this.assembleCacheMetrics(this.renderResourceCacheMetrics, rc.renderResourceCache);
+        long now = System.nanoTime();
+
+        synchronized (this.renderLock) {
+            this.markEnd(this.renderMetrics, now);
+            this.endProfile(this.renderProfile, PHASE_RENDER, this.renderMetrics.time);
+            this.assembleCacheMetrics(this.renderResourceCacheMetrics, rc.renderResourceCache);
+        }
+
+        rc.frameMetrics = null;
     }
 
     public void beginDrawing(DrawContext dc) {
-        long now = System.currentTimeMillis();
+        long now = System.nanoTime();
 
         synchronized (this.drawLock) {
             this.markBegin(this.drawMetrics, now);
+            this.beginProfile(this.drawProfile, now);
         }
+
+        dc.frameMetrics = this.drawProfile.active ? this : null;
     }
 
     public void endDrawing(DrawContext dc) {
-        long now = System.currentTimeMillis();
+        long now = System.nanoTime();
 
         synchronized (this.drawLock) {
             this.markEnd(this.drawMetrics, now);
+            this.endProfile(this.drawProfile, PHASE_DRAW, this.drawMetrics.time);
+        }
+
+        dc.frameMetrics = null;
+    }
+
+    /**
+     * Records the time of a phase of the frame being rendered. Called on the render thread between {@link
+     * #beginRendering(RenderContext)} and {@link #endRendering(RenderContext)} when profiling is enabled. Times
+     * recorded for the same phase more than once in a frame are added together.
+     *
+     * @param phase the phase name, such as {@link #PHASE_TESSELLATE}
+     * @param nanos the phase's time in nanoseconds
+     *
+     * @throws IllegalArgumentException If the phase is null
+     */
+    public void recordRenderPhase(String phase, long nanos) {
+        if (phase == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameMetrics", "recordRenderPhase", "missingName"));
+        }
+
+        synchronized (this.renderLock) {
+            this.recordTime(this.renderProfile, FrameProfile.CATEGORY_PHASE, phase, phase, nanos);
+        }
+    }
+
+    /**
+     * Records the time a layer took to render in the frame being rendered. Called when profiling is enabled, possibly
+     * from multiple threads rendering layers in parallel. Layers are identified by reference, and labeled with the
+     * display name they had when first recorded, so layers sharing a display name are timed separately. A layer
+     * rendered in partitions records the sum of its partitions' times.
+     *
+     * @param layer the layer
+     * @param nanos the layer's render time in nanoseconds
+     *
+     * @throws IllegalArgumentException If the layer is null
+     */
+    public void recordLayer(Layer layer, long nanos) {
+        if (layer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameMetrics", "recordLayer", "missingLayer"));
+        }
+
+        String name = layer.getDisplayName();
+        if (name == null) {
+            name = layer.getClass().getName();
+        }
+
+        synchronized (this.renderLock) {
+            this.recordTime(this.renderProfile, FrameProfile.CATEGORY_LAYER, layer, name, nanos);
+        }
+    }
+
+    /**
+     * Records the time of a phase of the frame being drawn. Called on the OpenGL thread between {@link
+     * #beginDrawing(DrawContext)} and {@link #endDrawing(DrawContext)} when profiling is enabled. Times recorded for
+     * the same phase more than once in a frame are added together.
+     *
+     * @param phase the phase name, such as {@link #PHASE_TEXTURE_UPLOAD}
+     * @param nanos the phase's time in nanoseconds
+     *
+     * @throws IllegalArgumentException If the phase is null
+     */
+    public void recordDrawPhase(String phase, long nanos) {
+        if (phase == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameMetrics", "recordDrawPhase", "missingName"));
+        }
+
+        synchronized (this.drawLock) {
+            this.recordTime(this.drawProfile, FrameProfile.CATEGORY_PHASE, phase, phase, nanos);
+        }
+    }
+
+    /**
+     * Records the time a drawable took to draw in the frame being drawn. Called on the OpenGL thread when profiling is
+     * enabled. Drawables are grouped by class, and each class records the sum of its drawables' times in the frame.
+     *
+     * @param drawable the drawable
+     * @param nanos    the drawable's draw time in nanoseconds
+     *
+     * @throws IllegalArgumentException If the drawable is null
+     */
+    public void recordDrawable(Drawable drawable, long nanos) {
+        if (drawable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameMetrics", "recordDrawable", "missingDrawable"));
+        }
+
+        Class<?> drawableClass = drawable.getClass();
+        synchronized (this.drawLock) {
+            this.recordTime(this.drawProfile, FrameProfile.CATEGORY_DRAWABLE, drawableClass, drawableClass.getSimpleName(), nanos);
         }
     }
 
     public void reset() {
-        this.resetTimeMetrics(this.renderMetrics);
+        synchronized (this.renderLock) {
+            this.resetTimeMetrics(this.renderMetrics);
+            this.renderProfile.reset(this.historyCapacity);
+        }
 
         synchronized (this.drawLock) {
             this.resetTimeMetrics(this.drawMetrics);
+            this.drawProfile.reset(this.historyCapacity);
         }
     }
 
-    protected void markBegin(TimeMetrics metrics, long timeMillis) {
-        metrics.begin = timeMillis;
+    protected void markBegin(TimeMetrics metrics, long timeNanos) {
+        metrics.begin = timeNanos;
     }
 
-    protected void markEnd(TimeMetrics metrics, long timeMillis) {
-        metrics.time = timeMillis - metrics.begin;
+    protected void markEnd(TimeMetrics metrics, long timeNanos) {
+        metrics.time = timeNanos - metrics.begin;
         metrics.timeSum += metrics.time;
-        metrics.timeSumOfSquares += (metrics.time * metrics.time);
+        metrics.timeSumOfSquares += ((double) metrics.time * (double) metrics.time);
         metrics.count++;
     }
 
@@ -156,7 +441,7 @@ public class FrameMetrics {
 
     protected double computeTimeAverage(TimeMetrics metrics) {
         if (metrics.count > 0) {
-            return metrics.timeSum / (double) metrics.count;
+            return metrics.timeSum / (double) metrics.count / 1.0e6;
         } else {
             return 0;
         }
@@ -165,28 +450,109 @@ public class FrameMetrics {
     protected double computeTimeStdDev(TimeMetrics metrics) {
         if (metrics.count > 0) {
             double avg = (double) metrics.timeSum / (double) metrics.count;
-            double var = ((double) metrics.timeSumOfSquares / (double) metrics.count) - (avg * avg);
-            return Math.sqrt(var);
+            double var = (metrics.timeSumOfSquares / (double) metrics.count) - (avg * avg);
+            return Math.sqrt(Math.max(0, var)) / 1.0e6;
         } else {
             return 0;
         }
     }
 
+    protected static long toMillis(long nanos) {
+        return nanos / 1000000;
+    }
+
+    protected void beginProfile(ProfileMetrics profile, long timeNanos) {
+        // Capture the profiling flag for the duration of the frame, so the frame is profiled in its entirety or not at
+        // all.
+        profile.active = this.profilingEnabled;
+        profile.frameBegin = timeNanos;
+    }
+
+    protected void endProfile(ProfileMetrics profile, String framePhase, long frameNanos) {
+        if (!profile.active) {
+            return;
+        }
+
+        this.recordTime(profile, FrameProfile.CATEGORY_PHASE, framePhase, framePhase, frameNanos);
+
+        // Add the frame's times to the histograms of the entries timed in this frame, and to the next frame record in
+        // the ring buffer of recent frames.
+        ArrayList<ProfileEntry> entries = profile.entries;
+        FrameRecord record = profile.nextRecord(entries.size());
+        record.frameNumber = profile.frameNumber++;
+        record.beginNanos = profile.frameBegin;
+
+        for (int idx = 0, len = entries.size(); idx < len; idx++) {
+            ProfileEntry entry = entries.get(idx);
+            if (entry.frameTimed) {
+                entry.histogram.record(entry.frameTime);
+                record.times[idx] = entry.frameTime;
+                entry.frameTime = 0;
+                entry.frameTimed = false;
+            }
+        }
+
+        profile.active = false;
+    }
+
+    protected ProfileEntry recordTime(ProfileMetrics profile, String category, Object key, String name, long nanos) {
+        if (!profile.active) {
+            return null; // the profile was reset or profiling was disabled when this frame began
+        }
+
+        // Phases and named entries are looked up separately, so a layer or drawable class named after a phase is
+        // timed separately from that phase.
+        HashMap<Object, ProfileEntry> map = FrameProfile.CATEGORY_PHASE.equals(category) ? profile.phaseMap : profile.entryMap;
+        ProfileEntry entry = map.get(key);
+        if (entry == null) {
+            entry = new ProfileEntry(category, name);
+            map.put(key, entry);
+            profile.entries.add(entry);
+        }
+
+        entry.frameTime += nanos;
+        entry.frameTimed = true;
+
+        return entry;
+    }
+
+    protected void assembleProfile(ProfileMetrics profile, ArrayList<FrameProfile.Entry> entries,
+                                   ArrayList<FrameProfile.FrameTimes> history) {
+        for (int idx = 0, len = profile.entries.size(); idx < len; idx++) {
+            ProfileEntry entry = profile.entries.get(idx);
+            entries.add(new FrameProfile.Entry(entry.category, entry.name, entry.histogram));
+        }
+
+        // Copy the ring buffer's records oldest first.
+        int capacity = profile.history.length;
+        int first = (profile.historyNext - profile.historyCount + capacity) % capacity;
+        for (int idx = 0; idx < profile.historyCount; idx++) {
+            FrameRecord record = profile.history[(first + idx) % capacity];
+            history.add(new FrameProfile.FrameTimes(record.frameNumber, record.beginNanos, record.times));
+        }
+    }
+
     protected void assembleCacheMetrics(CacheMetrics metrics, LruMemoryCache cache) {
         metrics.capacity = cache.getCapacity();
         metrics.usedCapacity = cache.getUsedCapacity();
         metrics.entryCount = cache.getEntryCount();
+        metrics.hitCount = cache.getHitCount();
+        metrics.missCount = cache.getMissCount();
+        metrics.evictionCount = cache.getEvictionCount();
     }
 
     protected void printCacheMetrics(CacheMetrics metrics, StringBuilder out) {
         out.append("capacity=").append(String.format(Locale.US, "%,.0f", metrics.capacity / 1024.0)).append("KB");
         out.append(", usedCapacity=").append(String.format(Locale.US, "%,.0f", metrics.usedCapacity / 1024.0)).append("KB");
         out.append(", entryCount=").append(metrics.entryCount);
+        out.append(", hitCount=").append(metrics.hitCount);
+        out.append(", missCount=").append(metrics.missCount);
+        out.append(", evictionCount=").append(metrics.evictionCount);
     }
 
     protected void printTimeMetrics(TimeMetrics metrics, StringBuilder out) {
-        out.append("lastTime=").append(metrics.time).append("ms");
-        out.append(", totalTime=").append(metrics.timeSum).append("ms");
+        out.append("lastTime=").append(toMillis(metrics.time)).append("ms");
+        out.append(", totalTime=").append(toMillis(metrics.timeSum)).append("ms");
         out.append(", count=").append(metrics.count);
         out.append(", avg=").append(String.format(Locale.US, "%.1f", this.computeTimeAverage(metrics))).append("ms");
         out.append(", stdDev=").append(String.format(Locale.US, "%.1f", this.computeTimeStdDev(metrics))).append("ms");
@@ -199,6 +565,12 @@ public class FrameMetrics {
         public int usedCapacity;
 
         public int entryCount;
+
+        public long hitCount;
+
+        public long missCount;
+
+        public long evictionCount;
     }
 
     protected static class TimeMetrics {
@@ -209,8 +581,94 @@ public class FrameMetrics {
 
         public long timeSum;
 
-        public long timeSumOfSquares;
+        public double timeSumOfSquares;
 
         public long count;
     }
+
+    protected static class ProfileMetrics {
+
+        public boolean active;
+
+        public long frameBegin;
+
+        public long frameNumber;
+
+        public ArrayList<ProfileEntry> entries = new ArrayList<>();
+
+        public HashMap<Object, ProfileEntry> phaseMap = new HashMap<>();
+
+        public HashMap<Object, ProfileEntry> entryMap = new HashMap<>();
+
+        public FrameRecord[] history;
+
+        public int historyNext;
+
+        public int historyCount;
+
+        public ProfileMetrics(int historyCapacity) {
+            this.resetHistory(historyCapacity);
+        }
+
+        public FrameRecord nextRecord(int entryCount) {
+            FrameRecord record = this.history[this.historyNext];
+            if (record == null) {
+                record = this.history[this.historyNext] = new FrameRecord();
+            }
+
+            if (record.times.length < entryCount) {
+                record.times = new long[entryCount];
+            } else {
+                Arrays.fill(record.times, 0);
+            }
+
+            this.historyNext = (this.historyNext + 1) % this.history.length;
+            this.historyCount = Math.min(this.historyCount + 1, this.history.length);
+
+            return record;
+        }
+
+        public void resetHistory(int historyCapacity) {
+            this.history = new FrameRecord[historyCapacity];
+            this.historyNext = 0;
+            this.historyCount = 0;
+        }
+
+        public void reset(int historyCapacity) {
+            // Discard the entries, keeping the current frame's active state. Entries timed during the remainder of
+            // the current frame are added again as they're recorded.
+            this.frameNumber = 0;
+            this.entries.clear();
+            this.phaseMap.clear();
+            this.entryMap.clear();
+            this.resetHistory(historyCapacity);
+        }
+    }
+
+    protected static class ProfileEntry {
+
+        public String category;
+
+        public String name;
+
+        public TimeHistogram histogram = new TimeHistogram();
+
+        public long frameTime;
+
+        public boolean frameTimed;
+
+        public ProfileEntry(String category, String name) {
+            this.category = category;
+            this.name = name;
+        }
+    }
+
+    protected static class FrameRecord {
+
+        public long frameNumber;
+
+        public long beginNanos;
+
+        public long[] times = new long[0];
+    }
 }
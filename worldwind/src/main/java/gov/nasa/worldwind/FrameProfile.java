@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.TimeHistogram;
+
+/**
+ * Snapshot of the timings collected by a {@link FrameMetrics} profiler. A FrameProfile is a copy that does not change
+ * as frames continue to render, and may be inspected or exported on any thread.
+ * <p/>
+ * Timings are organized in two sets of entries: those collected while rendering frames on the render thread, and those
+ * collected while drawing frames on the OpenGL thread. Each entry has a category and a name, and a histogram of the
+ * entry's time per frame in nanoseconds. The profile also contains the time each entry took in the most recent frames,
+ * oldest first, which identifies the entries responsible for an individual slow frame.
+ */
+public class FrameProfile {
+
+    /**
+     * Category of entries timing a frame phase, such as tessellating terrain or sorting drawables.
+     */
+    public static final String CATEGORY_PHASE = "phase";
+
+    /**
+     * Category of entries timing an individual layer's render method, named after the layer's display name. Layers
+     * sharing a display name have separate entries with the same name.
+     */
+    public static final String CATEGORY_LAYER = "layer";
+
+    /**
+     * Category of entries timing the drawables of one class, named after the drawable's class.
+     */
+    public static final String CATEGORY_DRAWABLE = "drawable";
+
+    protected List<Entry> renderEntries;
+
+    protected List<Entry> drawEntries;
+
+    protected List<FrameTimes> renderHistory;
+
+    protected List<FrameTimes> drawHistory;
+
+    public FrameProfile(List<Entry> renderEntries, List<Entry> drawEntries, List<FrameTimes> renderHistory,
+                        List<FrameTimes> drawHistory) {
+        if (renderEntries == null || drawEntries == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameProfile", "constructor", "missingList"));
+        }
+
+        if (renderHistory == null || drawHistory == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameProfile", "constructor", "missingList"));
+        }
+
+        this.renderEntries = Collections.unmodifiableList(new ArrayList<>(renderEntries));
+        this.drawEntries = Collections.unmodifiableList(new ArrayList<>(drawEntries));
+        this.renderHistory = Collections.unmodifiableList(new ArrayList<>(renderHistory));
+        this.drawHistory = Collections.unmodifiableList(new ArrayList<>(drawHistory));
+    }
+
+    /**
+     * Returns the entries timed while rendering frames. The indices of this list correspond to the indices of the
+     * times in each of the {@link #getRenderHistory()} frames.
+     */
+    public List<Entry> getRenderEntries() {
+        return this.renderEntries;
+    }
+
+    /**
+     * Returns the entries timed while drawing frames. The indices of this list correspond to the indices of the times
+     * in each of the {@link #getDrawHistory()} frames.
+     */
+    public List<Entry> getDrawEntries() {
+        return this.drawEntries;
+    }
+
+    /**
+     * Returns the times of the most recently rendered frames, oldest first.
+     */
+    public List<FrameTimes> getRenderHistory() {
+        return this.renderHistory;
+    }
+
+    /**
+     * Returns the times of the most recently drawn frames, oldest first.
+     */
+    public List<FrameTimes> getDrawHistory() {
+        return this.drawHistory;
+    }
+
+    /**
+     * Returns the render or draw entry with a specified category and name.
+     *
+     * @param category the entry's category
+     * @param name     the entry's name
+     *
+     * @return the entry, or null if the profile has no entry with the category and name
+     */
+    public Entry getEntry(String category, String name) {
+        for (int idx = 0, len = this.renderEntries.size(); idx < len; idx++) {
+            Entry entry = this.renderEntries.get(idx);
+            if (entry.category.equals(category) && entry.name.equals(name)) {
+                return entry;
+            }
+        }
+
+        for (int idx = 0, len = this.drawEntries.size(); idx < len; idx++) {
+            Entry entry = this.drawEntries.get(idx);
+            if (entry.category.equals(category) && entry.name.equals(name)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes a summary of each entry's histogram as comma-separated values, one row per entry. Times are in
+     * nanoseconds.
+     *
+     * @param out the destination of the summary
+     *
+     * @throws IOException If the destination cannot be written
+     */
+    public void exportSummary(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameProfile", "exportSummary", "missingBuffer"));
+        }
+
+        out.append("thread,category,name,count,mean,p50,p95,p99,max\n");
+        this.exportSummary("render", this.renderEntries, out);
+        this.exportSummary("draw", this.drawEntries, out);
+    }
+
+    /**
+     * Writes the times of the most recent frames as comma-separated values, one row per frame and one column per
+     * entry. Times are in nanoseconds, and entries not timed in a frame have the time zero.
+     *
+     * @param out the destination of the frame times
+     *
+     * @throws IOException If the destination cannot be written
+     */
+    public void exportHistory(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "FrameProfile", "exportHistory", "missingBuffer"));
+        }
+
+        this.exportHistory("render", this.renderEntries, this.renderHistory, out);
+        out.append('\n');
+        this.exportHistory("draw", this.drawEntries, this.drawHistory, out);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            this.exportSummary(sb);
+        } catch (IOException ignored) {
+            // StringBuilder does not throw IOException
+        }
+        return sb.toString();
+    }
+
+    protected void exportSummary(String thread, List<Entry> entries, Appendable out) throws IOException {
+        for (int idx = 0, len = entries.size(); idx < len; idx++) {
+            Entry entry = entries.get(idx);
+            TimeHistogram histogram = entry.histogram;
+            out.append(thread).append(',');
+            out.append(entry.category).append(',');
+            out.append(escape(entry.name)).append(',');
+            out.append(Long.toString(histogram.getCount())).append(',');
+            out.append(Long.toString(Math.round(histogram.getMean()))).append(',');
+            out.append(Long.toString(histogram.getPercentile(0.50))).append(',');
+            out.append(Long.toString(histogram.getPercentile(0.95))).append(',');
+            out.append(Long.toString(histogram.getPercentile(0.99))).append(',');
+            out.append(Long.toString(histogram.getMax())).append('\n');
+        }
+    }
+
+    protected void exportHistory(String thread, List<Entry> entries, List<FrameTimes> history, Appendable out) throws IOException {
+        out.append(thread).append(" frame,begin");
+        for (int idx = 0, len = entries.size(); idx < len; idx++) {
+            Entry entry = entries.get(idx);
+            out.append(',').append(escape(entry.category + ":" + entry.name));
+        }
+        out.append('\n');
+
+        for (int idx = 0, len = history.size(); idx < len; idx++) {
+            FrameTimes frame = history.get(idx);
+            out.append(Long.toString(frame.frameNumber)).append(',');
+            out.append(Long.toString(frame.beginNanos));
+            for (int eidx = 0, elen = entries.size(); eidx < elen; eidx++) {
+                out.append(',').append(Long.toString(frame.getTime(eidx)));
+            }
+            out.append('\n');
+        }
+    }
+
+    protected static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A timed part of a frame, and the histogram of its time per frame.
+     */
+    public static class Entry {
+
+        protected String category;
+
+        protected String name;
+
+        protected TimeHistogram histogram;
+
+        public Entry(String category, String name, TimeHistogram histogram) {
+            if (category == null || name == null) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "Entry", "constructor", "missingName"));
+            }
+
+            if (histogram == null) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "Entry", "constructor", "missingHistogram"));
+            }
+
+            this.category = category;
+            this.name = name;
+            this.histogram = new TimeHistogram(histogram);
+        }
+
+        /**
+         * Indicates this entry's category, one of {@link #CATEGORY_PHASE}, {@link #CATEGORY_LAYER} or {@link
+         * #CATEGORY_DRAWABLE}.
+         */
+        public String getCategory() {
+            return this.category;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Returns the histogram of this entry's time per frame in nanoseconds. The histogram is a copy owned by this
+         * profile.
+         */
+        public TimeHistogram getHistogram() {
+            return this.histogram;
+        }
+
+        @Override
+        public String toString() {
+            return this.category + " " + this.name + " {" + this.histogram + "}";
+        }
+    }
+
+    /**
+     * The time each entry took in one frame.
+     */
+    public static class FrameTimes {
+
+        protected long frameNumber;
+
+        protected long beginNanos;
+
+        protected long[] times;
+
+        public FrameTimes(long frameNumber, long beginNanos, long[] times) {
+            if (times == null) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "FrameTimes", "constructor", "missingArray"));
+            }
+
+            this.frameNumber = frameNumber;
+            this.beginNanos = beginNanos;
+            this.times = times.clone();
+        }
+
+        /**
+         * Indicates the frame's sequence number, counted from the most recent reset of the profiler.
+         */
+        public long getFrameNumber() {
+            return this.frameNumber;
+        }
+
+        /**
+         * Indicates when the frame began, as a {@link System#nanoTime()} value.
+         */
+        public long getBeginNanos() {
+            return this.beginNanos;
+        }
+
+        /**
+         * Returns the time an entry took in this frame.
+         *
+         * @param entryIndex the entry's index in the profile's render or draw entries
+         *
+         * @return the time in nanoseconds, or zero if the entry was not timed in this frame
+         */
+        public long getTime(int entryIndex) {
+            return (entryIndex >= 0 && entryIndex < this.times.length) ? this.times[entryIndex] : 0;
+        }
+    }
+}
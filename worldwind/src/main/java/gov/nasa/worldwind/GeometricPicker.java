@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import java.util.ArrayList;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.layer.Layer;
+import gov.nasa.worldwind.layer.LayerList;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.RayPickable;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Picks the WorldWind objects at a screen point by intersecting the pick ray with terrain and with renderable geometry,
+ * without drawing a pick frame and reading back the OpenGL color buffer. GeometricPicker runs on the thread that
+ * renders frames, and produces the same picked objects as the color buffer pick: the top renderable at the pick point
+ * marked as 'on top', and the terrain position at the pick point.
+ * <p/>
+ * Only renderables in a {@link RenderableLayer} that implement {@link RayPickable} are picked. Each layer's spatial
+ * index, when enabled, limits the renderables tested to those near the pick point. Renderables hidden behind the
+ * terrain are omitted, and renderables draped on the terrain are on top in layer order when they overlap. Where the
+ * rendered terrain has no tiles, the globe's ellipsoid stands in for the terrain.
+ */
+public class GeometricPicker {
+
+    protected static final double DEFAULT_TOLERANCE = 8;
+
+    protected double tolerance = DEFAULT_TOLERANCE;
+
+    protected ArrayList<Renderable> candidates = new ArrayList<>();
+
+    protected Vec3 terrainPoint = new Vec3();
+
+    protected Vec3 pickPoint = new Vec3();
+
+    protected Position pickPos = new Position();
+
+    public GeometricPicker() {
+    }
+
+    /**
+     * Indicates the distance in screen pixels within which lines and placemark icons intersect the pick point.
+     */
+    public double getTolerance() {
+        return this.tolerance;
+    }
+
+    /**
+     * Specifies the distance in screen pixels within which lines and placemark icons intersect the pick point. Larger
+     * tolerances make thin lines and small icons easier to select by touch.
+     *
+     * @param tolerance the tolerance in screen pixels
+     *
+     * @throws IllegalArgumentException If the tolerance is negative
+     */
+    public void setTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GeometricPicker", "setTolerance", "invalidTolerance"));
+        }
+
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Picks the objects intersecting the render context's pick ray. The render context specifies the viewing state,
+     * the terrain most recently rendered, the layers to pick, and the pick ray, pick point and pick viewport.
+     *
+     * @param rc     the current render context
+     * @param result the list in which to return the picked objects
+     *
+     * @throws IllegalArgumentException If either argument is null
+     */
+    public void pick(RenderContext rc, PickedObjectList result) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GeometricPicker", "pick", "missingRenderContext"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GeometricPicker", "pick", "missingList"));
+        }
+
+        // Intersect the pick ray with the terrain, or with the globe's ellipsoid where the terrain has no tiles, as the
+        // shape picker does for surface shapes. Renderables farther than the terrain by more than the tolerance are
+        // hidden behind the terrain.
+        double terrainDistance = Double.POSITIVE_INFINITY;
+        if ((rc.terrain != null && rc.terrain.intersect(rc.pickRay, this.terrainPoint))
+            || rc.globe.intersect(rc.pickRay, this.terrainPoint)) {
+            terrainDistance = this.terrainPoint.distanceTo(rc.pickRay.origin);
+        }
+
+        double maxDistance = terrainDistance + rc.pixelSizeAtDistance(terrainDistance) * this.tolerance;
+        double topDistance = Double.POSITIVE_INFINITY;
+        Renderable topRenderable = null;
+        Layer topLayer = null;
+
+        LayerList layers = rc.layers;
+        for (int idx = 0, len = layers.count(); idx < len; idx++) {
+            Layer layer = layers.getLayer(idx);
+            if (!(layer instanceof RenderableLayer) || !layer.isEnabled() || !layer.isPickEnabled()
+                || !layer.isWithinActiveAltitudes(rc)) {
+                continue;
+            }
+
+            rc.currentLayer = layer;
+            ((RenderableLayer) layer).findPickCandidates(rc, this.candidates);
+
+            // Keep the nearest intersection. Later renderables are displayed above earlier ones at the same distance.
+            for (int cidx = 0, clen = this.candidates.size(); cidx < clen; cidx++) {
+                Renderable renderable = this.candidates.get(cidx);
+                if (!renderable.isEnabled() || !(renderable instanceof RayPickable)) {
+                    continue;
+                }
+
+                try {
+                    if (((RayPickable) renderable).intersectsPickRay(rc, this.tolerance, this.pickPoint)) {
+                        double distance = this.pickPoint.distanceTo(rc.pickRay.origin);
+                        if (distance <= maxDistance && distance <= topDistance) {
+                            topDistance = distance;
+                            topRenderable = renderable;
+                            topLayer = layer;
+                        }
+                    }
+                } catch (Exception e) {
+                    Logger.logMessage(Logger.ERROR, "GeometricPicker", "pick",
+                        "Exception while picking \'" + renderable.getDisplayName() + "\'", e);
+                    // Keep going. Pick the remaining renderables.
+                }
+            }
+
+            this.candidates.clear();
+        }
+
+        rc.currentLayer = null;
+
+        // Report the top renderable and the terrain position, marking the top renderable or else the terrain as on top.
+        int nextId = 1;
+        if (topRenderable != null) {
+            PickedObject topObject = PickedObject.fromRenderable(nextId++, topRenderable, topLayer);
+            topObject.markOnTop();
+            result.offerPickedObject(topObject);
+        }
+
+        if (terrainDistance != Double.POSITIVE_INFINITY) {
+            rc.globe.cartesianToGeographic(this.terrainPoint.x, this.terrainPoint.y, this.terrainPoint.z, this.pickPos);
+            this.pickPos.altitude = 0; // report the actual altitude, which may not lie on the terrain's surface
+            PickedObject terrainObject = PickedObject.fromTerrain(nextId, this.pickPos);
+            if (topRenderable == null) {
+                terrainObject.markOnTop();
+            }
+            result.offerPickedObject(terrainObject);
+        }
+    }
+}
@@ -107,14 +107,24 @@ public class NavigatorEventSupport {
     }
 
     public void onFrameRendered(RenderContext rc) {
+        this.onFrameRendered(rc.modelview);
+    }
+
+    /**
+     * Notifies navigator listeners of a frame rendered with a specified modelview matrix. Must be called on the main
+     * thread.
+     *
+     * @param modelview the frame's modelview matrix
+     */
+    public void onFrameRendered(Matrix4 modelview) {
         if (this.listeners.isEmpty()) {
             return; // no listeners to notify; ignore the event
         }
 
         if (this.lastModelview == null) { // this is the first frame; copy the frame's modelview
-            this.lastModelview = new Matrix4(rc.modelview);
-        } else if (!this.lastModelview.equals(rc.modelview)) { // the frame's modelview has changed
-            this.lastModelview.set(rc.modelview);
+            this.lastModelview = new Matrix4(modelview);
+        } else if (!this.lastModelview.equals(modelview)) { // the frame's modelview has changed
+            this.lastModelview.set(modelview);
             // Notify the listeners of a navigator moved event.
             this.onNavigatorMoved();
             // Schedule a navigator stopped event after a specified delay in milliseconds.
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+/**
+ * Receives the result of an asynchronous pick requested with {@link WorldWindow#pickAsync(float, float, PickCallback)}
+ * or {@link WorldWindow#pickShapesInRectAsync(float, float, float, float, PickCallback)}. Callbacks are invoked on the
+ * main thread.
+ */
+public interface PickCallback {
+
+    /**
+     * Called on the main thread when a pick completes.
+     *
+     * @param pickedObjects the picked objects, which is empty when nothing was picked
+     */
+    void onPickCompleted(PickedObjectList pickedObjects);
+}
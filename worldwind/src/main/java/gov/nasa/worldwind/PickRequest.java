@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+/**
+ * An asynchronous pick waiting for the next frame. Point requests are resolved geometrically while the next frame
+ * renders, and rectangle requests are resolved by a pick frame submitted with the next frame. Coordinates are in
+ * OpenGL screen coordinates.
+ */
+public class PickRequest {
+
+    public float x;
+
+    public float y;
+
+    public float width;
+
+    public float height;
+
+    public boolean isRect;
+
+    public PickCallback callback;
+
+    public PickRequest() {
+    }
+
+    public static PickRequest fromPoint(float x, float y, PickCallback callback) {
+        PickRequest request = new PickRequest();
+        request.x = x;
+        request.y = y;
+        request.callback = callback;
+        return request;
+    }
+
+    public static PickRequest fromRect(float x, float y, float width, float height, PickCallback callback) {
+        PickRequest request = new PickRequest();
+        request.x = x;
+        request.y = y;
+        request.width = width;
+        request.height = height;
+        request.isRect = true;
+        request.callback = callback;
+        return request;
+    }
+}
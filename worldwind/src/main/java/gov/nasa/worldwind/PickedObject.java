@@ -44,6 +44,35 @@ public class PickedObject {
         return po;
     }
 
+    /**
+     * Constructs a picked object for a part of a renderable, such as a single point in a point cloud.
+     *
+     * @param identifier the picked object identifier
+     * @param userObject the object describing the picked part
+     * @param layer      the layer containing the renderable
+     *
+     * @return the new picked object
+     *
+     * @throws IllegalArgumentException If either the user object or the layer is null
+     */
+    public static PickedObject fromUserObject(int identifier, Object userObject, Layer layer) {
+        if (userObject == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PickedObject", "fromUserObject", "missingUserObject"));
+        }
+
+        if (layer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PickedObject", "fromUserObject", "missingLayer"));
+        }
+
+        PickedObject po = new PickedObject();
+        po.identifier = identifier;
+        po.userObject = userObject;
+        po.layer = layer;
+        return po;
+    }
+
     public static PickedObject fromTerrain(int identifier, Position position) {
         if (position == null) {
             throw new IllegalArgumentException(
@@ -11,6 +11,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 import gov.nasa.worldwind.geom.Ellipsoid;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.MessageService;
 import gov.nasa.worldwind.util.TaskService;
 
@@ -330,6 +331,12 @@ public class WorldWind {
      */
     protected static TaskService taskService = new TaskService();
 
+    /**
+     * Provides a global cache for resources retrieved from the network by the WorldWind library. The disk cache is
+     * configured by the first WorldWindow constructed in the application, and is null until then.
+     */
+    protected static volatile DiskCache diskCache;
+
     /**
      * Returns a singleton MessageService instance that provides a mechanism for broadcasting notifications within the
      * WorldWind library and WorldWind applications.
@@ -350,6 +357,26 @@ public class WorldWind {
         return taskService;
     }
 
+    /**
+     * Returns the singleton DiskCache instance that persists resources retrieved from the network by the WorldWind
+     * library. This returns null if no disk cache has been configured.
+     *
+     * @return the singleton disk cache, or null if there is no disk cache
+     */
+    public static DiskCache diskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Specifies the singleton DiskCache instance that persists resources retrieved from the network by the WorldWind
+     * library. Applications may specify null to disable disk caching.
+     *
+     * @param cache the disk cache to use, or null to disable disk caching
+     */
+    public static void setDiskCache(DiskCache cache) {
+        diskCache = cache;
+    }
+
     /**
      * Requests that all WorldWindow instances update their display. Internally, this dispatches a REQUEST_REDRAW
      * message to the WorldWind message center.
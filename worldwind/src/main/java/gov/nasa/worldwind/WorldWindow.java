@@ -10,6 +10,7 @@ import android.graphics.PointF;
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
 import android.os.Message;
 import android.util.AttributeSet;
@@ -17,6 +18,8 @@ import android.view.Choreographer;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.Queue;
 import java.util.TimeZone;
@@ -27,6 +30,7 @@ import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
 import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.draw.SurfaceShapeTextureCache;
 import gov.nasa.worldwind.geom.Camera;
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Location;
@@ -34,17 +38,22 @@ import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Vec2;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.globe.BasicTerrain;
 import gov.nasa.worldwind.globe.BasicTessellator;
 import gov.nasa.worldwind.globe.Globe;
 import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.globe.Terrain;
 import gov.nasa.worldwind.globe.Tessellator;
 import gov.nasa.worldwind.layer.LayerList;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.MessageListener;
 import gov.nasa.worldwind.util.Pool;
+import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.SynchronizedPool;
+import gov.nasa.worldwind.util.Tracer;
 
 /**
  * Provides a WorldWind window that implements a virtual globe inside of the Android view hierarchy. By default, World
@@ -81,6 +90,8 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     protected FrameController frameController = new BasicFrameController();
 
+    protected GeometricPicker geometricPicker = new GeometricPicker();
+
     protected FrameMetrics frameMetrics = new FrameMetrics();
 
     protected WorldWindowController worldWindowController = new BasicWorldWindowController();
@@ -95,23 +106,66 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     protected int depthBits;
 
+    /**
+     * Indicates whether the OpenGL context supports 32-bit element indices. Written on the OpenGL thread when the
+     * surface is created, and read by the thread rendering frames.
+     */
+    protected volatile boolean elementIndexUint;
+
     protected Pool<Frame> framePool = new SynchronizedPool<>();
 
     protected Queue<Frame> frameQueue = new ConcurrentLinkedQueue<>();
 
     protected Queue<Frame> pickQueue = new ConcurrentLinkedQueue<>();
 
+    /**
+     * Asynchronous picks waiting for the next frame. Accessed only by the main thread.
+     */
+    protected ArrayList<PickRequest> pickRequests = new ArrayList<>();
+
     protected Frame currentFrame;
 
     protected boolean isPaused;
 
     protected boolean isWaitingForRedraw;
 
+    protected boolean renderThreadEnabled;
+
+    protected HandlerThread renderThread;
+
+    protected Handler renderThreadHandler;
+
+    /**
+     * Indicates whether the render thread is assembling a frame. Written by the main thread when a frame is submitted
+     * and by the render thread when the frame is done.
+     */
+    protected volatile boolean isRenderingFrame;
+
+    protected Matrix4 renderedModelview = new Matrix4();
+
+    /**
+     * The terrain most recently rendered, used by geometric picks. Accessed only by the thread rendering frames.
+     */
+    protected Terrain renderedTerrain;
+
+    /**
+     * Snapshot of the tiles in the terrain most recently rendered. The tessellator reuses its terrain for every frame,
+     * including pick frames tessellated with a narrowed pick frustum, so geometric picks use a snapshot instead.
+     */
+    protected BasicTerrain renderedTerrainSnapshot = new BasicTerrain();
+
+    protected Runnable clearCacheRunnable = new Runnable() {
+        @Override
+        public void run() {
+            renderResourceCache.clear();
+        }
+    };
+
     protected Handler mainThreadHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
         @Override
         public boolean handleMessage(Message msg) {
             if (msg.what == MSG_ID_CLEAR_CACHE) {
-                renderResourceCache.clear();
+                clearRenderResourceCache();
             } else if (msg.what == MSG_ID_REQUEST_REDRAW) {
                 requestRedraw();
             } else if (msg.what == MSG_ID_SET_VIEWPORT) {
@@ -180,6 +234,10 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         // Initialize the WorldWindow's render resource cache.
         int cacheCapacity = RenderResourceCache.recommendedCapacity(this.getContext());
         this.renderResourceCache = new RenderResourceCache(cacheCapacity);
+        this.dc.surfaceShapeTextureCapacity = SurfaceShapeTextureCache.recommendedCapacity(cacheCapacity);
+
+        // Initialize WorldWind's disk cache, which is shared by all WorldWindows in the application.
+        this.initDiskCache();
 
         // Set up to render on demand to an OpenGL ES 2.x context
         // TODO Investigate and use the EGL chooser submitted by jgiovino
@@ -192,6 +250,24 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         Logger.log(Logger.INFO, "WorldWindow initialized");
     }
 
+    /**
+     * Configures WorldWind's disk cache in the application's cache directory, unless the application has already
+     * configured a disk cache.
+     */
+    protected void initDiskCache() {
+        File cacheDir = (this.getContext() != null) ? this.getContext().getCacheDir() : null;
+        if (cacheDir == null) {
+            return;
+        }
+
+        synchronized (WorldWind.class) {
+            if (WorldWind.diskCache() == null) {
+                File directory = new File(cacheDir, "gov.nasa.worldwind");
+                WorldWind.setDiskCache(new DiskCache(directory, DiskCache.recommendedCapacity(cacheDir)));
+            }
+        }
+    }
+
     /**
      * Resets this WorldWindow to its initial internal state.
      */
@@ -200,13 +276,15 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.navigatorEvents.reset();
 
         // Clear the render resource cache; it's entries are now invalid.
-        this.renderResourceCache.clear();
+        this.clearRenderResourceCache();
 
         // Clear the viewport dimensions.
         this.viewport.setEmpty();
 
-        // Clear the frame queue and recycle pending frames back into the frame pool.
+        // Clear the frame queue and recycle pending frames back into the frame pool. Notify asynchronous picks waiting
+        // for the next frame that nothing was picked.
         this.clearFrameQueue();
+        this.cancelPickRequests();
 
         // Cancel any outstanding request redraw messages.
         Choreographer.getInstance().removeFrameCallback(this);
@@ -347,6 +425,22 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.frameController = frameController;
     }
 
+    /**
+     * Returns the picker used by {@link #pickGeometric(float, float)}. The picker's tolerance may be configured.
+     */
+    public GeometricPicker getGeometricPicker() {
+        return this.geometricPicker;
+    }
+
+    public void setGeometricPicker(GeometricPicker geometricPicker) {
+        if (geometricPicker == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "WorldWindow", "setGeometricPicker", "missingPicker"));
+        }
+
+        this.geometricPicker = geometricPicker;
+    }
+
     public FrameMetrics getFrameMetrics() {
         return this.frameMetrics;
     }
@@ -387,6 +481,55 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
         // TODO provide a mechanism for the old cache to evict its entries
         this.renderResourceCache = cache;
+        this.dc.surfaceShapeTextureCapacity = SurfaceShapeTextureCache.recommendedCapacity(cache.getCapacity());
+    }
+
+    /**
+     * Indicates whether this WorldWindow assembles frames on a dedicated render thread rather than on the main thread.
+     */
+    public boolean isRenderThreadEnabled() {
+        return this.renderThreadEnabled;
+    }
+
+    /**
+     * Specifies whether this WorldWindow assembles frames on a dedicated render thread. By default frames are assembled
+     * on the main thread in the Choreographer callback, where tessellation, layer rendering and drawable sorting
+     * compete with touch handling and the application's UI. When the render thread is enabled, the main thread only
+     * captures the navigator's state and the viewing transforms for each frame, and hands that snapshot to the render
+     * thread, which assembles the frame and queues it for the OpenGL thread.
+     * <p/>
+     * While the render thread is enabled, layers and renderables are accessed on the render thread. Applications must
+     * modify the globe, layers and renderables displayed by this WorldWindow on the render thread using {@link
+     * #runOnRenderThread(Runnable)}, or use objects that are safe for concurrent access. Navigator changes may continue
+     * on the main thread. This method must be called on the main thread.
+     *
+     * @param enabled true to assemble frames on a render thread, false to assemble frames on the main thread
+     */
+    public void setRenderThreadEnabled(boolean enabled) {
+        this.renderThreadEnabled = enabled;
+
+        if (!enabled) {
+            this.stopRenderThread();
+        }
+    }
+
+    /**
+     * Runs a task on the thread that assembles this WorldWindow's frames: the render thread when it is enabled, and
+     * otherwise the main thread. Tasks run in order between frames, and may safely modify the globe, layers and
+     * renderables displayed by this WorldWindow.
+     *
+     * @param task the task to run
+     *
+     * @throws IllegalArgumentException If the task is null
+     */
+    public void runOnRenderThread(Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "WorldWindow", "runOnRenderThread", "missingRunnable"));
+        }
+
+        Handler handler = this.renderThreadEnabled ? this.startRenderThread() : this.mainThreadHandler;
+        handler.post(task);
     }
 
     /**
@@ -444,7 +587,8 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         frame.pickPoint = new Vec2(px, py);
         frame.pickRay = pickRay;
         frame.pickMode = true;
-        this.renderFrame(frame);
+        this.prepareFrame(frame);
+        this.submitFrame(frame);
 
         // Wait until the OpenGL thread is done processing the frame and resolving the picked objects.
         frame.awaitDone();
@@ -452,6 +596,83 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         return pickedObjects;
     }
 
+    /**
+     * Determines the WorldWind objects at a screen point by intersecting the pick ray with the terrain and with the
+     * geometry of shapes most recently displayed, without drawing a pick frame on the OpenGL thread. The screen point is
+     * interpreted as coordinates in Android screen pixels relative to this View.
+     * <p/>
+     * The returned list has the same contents as a list returned by {@link #pick(float, float)}: a picked object
+     * identifying the top shape at the screen point, marked as 'on top', and a picked object identifying the terrain
+     * position at the screen point, marked as 'on top' when no shape is at the screen point. Only shapes in a {@link
+     * gov.nasa.worldwind.layer.RenderableLayer} that implement {@link gov.nasa.worldwind.shape.RayPickable} are
+     * picked; use {@link #pick(float, float)} to pick other renderables by their appearance on screen. Lines and
+     * placemark icons within the {@link GeometricPicker} tolerance of the screen point are picked.
+     * <p/>
+     * The pick runs on the thread that renders frames, waiting for the current frame when the render thread is
+     * enabled, and is typically much faster than a pick that waits for the OpenGL thread. This returns an empty list
+     * when nothing in the WorldWind scene intersects the screen point or when the screen point is outside this View's
+     * bounds.
+     *
+     * @param x the screen point's X coordinate in Android screen pixels
+     * @param y the screen point's Y coordinate in Android screen pixels
+     *
+     * @return a list of WorldWind objects at the screen point
+     */
+    public PickedObjectList pickGeometric(float x, float y) {
+        // Allocate a list in which to collect and return the picked objects.
+        PickedObjectList pickedObjects = new PickedObjectList();
+
+        // Compute the pick point in OpenGL screen coordinates. Nothing can be picked if pick point is outside the
+        // WorldWindow's viewport.
+        int px = Math.round(x);
+        int py = Math.round(this.getHeight() - y);
+        if (!this.viewport.contains(px, py)) {
+            return pickedObjects;
+        }
+
+        // Compute the line in Cartesian coordinates that passes through the pick point. Nothing can be picked if the
+        // line cannot be constructed.
+        Line pickRay = new Line();
+        if (!this.rayThroughScreenPoint(x, y, pickRay)) {
+            return pickedObjects;
+        }
+
+        // Obtain a frame from the pool to capture the viewing state, then pick on the thread that renders frames.
+        final Frame frame = Frame.obtain(this.framePool);
+        frame.pickedObjects = pickedObjects;
+        frame.pickViewport = new Viewport(px - 1, py - 1, 3, 3); // 3x3 viewport centered on the pick point
+        frame.pickViewport.intersect(this.viewport); // limit the 3x3 viewport to the screen viewport
+        frame.pickPoint = new Vec2(x, this.getHeight() - y); // use the original XY coordinates for the pick point
+        frame.pickRay = pickRay;
+        frame.pickMode = true;
+        this.prepareFrame(frame);
+
+        if (!this.renderThreadEnabled) {
+            this.pickFrameGeometric(frame);
+        } else {
+            this.startRenderThread().post(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        pickFrameGeometric(frame);
+                    } catch (Exception e) {
+                        Logger.logMessage(Logger.ERROR, "WorldWindow", "pickGeometric",
+                            "Exception while picking in render thread", e);
+                    } finally {
+                        frame.signalDone(); // release the thread waiting for the pick
+                    }
+                }
+            });
+
+            // Wait until the render thread is done picking.
+            frame.awaitDone();
+        }
+
+        frame.recycle();
+
+        return pickedObjects;
+    }
+
     /**
      * Determines the WorldWind shapes displayed in a screen rectangle. The screen rectangle is interpreted as
      * coordinates in Android screen pixels relative to this view.
@@ -482,21 +703,15 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
             return pickedObjects;
         }
 
-        int px = (int) Math.floor(x);
-        int py = (int) Math.floor(this.getHeight() - (y + height));
-        int pw = (int) Math.ceil(width);
-        int ph = (int) Math.ceil(height);
-        if (!this.viewport.intersects(px, py, pw, ph)) {
+        // Obtain a frame from the pool. Nothing can be picked if the rectangle is outside the WorldWindow's viewport.
+        Frame frame = this.obtainPickRectFrame(x, this.getHeight() - (y + height), width, height, pickedObjects);
+        if (frame == null) {
             return pickedObjects;
         }
 
-        // Obtain a frame from the pool and render the frame, accumulating Drawables to process in the OpenGL thread.
-        Frame frame = Frame.obtain(this.framePool);
-        frame.pickedObjects = pickedObjects;
-        frame.pickViewport = new Viewport(px, py, pw, ph); // caller-specified pick rectangle
-        frame.pickViewport.intersect(this.viewport); // limit the pick viewport to the screen viewport
-        frame.pickMode = true;
-        this.renderFrame(frame);
+        // Render the frame, accumulating Drawables to process in the OpenGL thread.
+        this.prepareFrame(frame);
+        this.submitFrame(frame);
 
         // Wait until the OpenGL thread is done processing the frame and resolving the picked objects.
         frame.awaitDone();
@@ -504,6 +719,61 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         return pickedObjects;
     }
 
+    /**
+     * Requests the WorldWind objects displayed at a screen point without blocking the calling thread. The screen point
+     * is interpreted as coordinates in Android screen pixels relative to this View. This method must be called on the
+     * main thread.
+     * <p/>
+     * The pick is resolved geometrically, as by {@link #pickGeometric(float, float)}, while the next frame renders and
+     * using that frame's viewing state, so it does not cause a separate pick frame. The callback receives the picked
+     * objects on the main thread once the frame is rendered. Requests are coalesced: a request replaces any request
+     * with the same callback that is still waiting for the next frame, so a callback receiving a stream of hover or
+     * drag events is notified once per frame with the most recent screen point. The callback receives an empty list
+     * if the screen point is outside this View's bounds, or if the WorldWindow is paused before the next frame.
+     *
+     * @param x        the screen point's X coordinate in Android screen pixels
+     * @param y        the screen point's Y coordinate in Android screen pixels
+     * @param callback the callback to notify with the picked objects
+     *
+     * @throws IllegalArgumentException If the callback is null
+     */
+    public void pickAsync(float x, float y, PickCallback callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "WorldWindow", "pickAsync", "missingCallback"));
+        }
+
+        this.offerPickRequest(PickRequest.fromPoint(x, this.getHeight() - y, callback));
+    }
+
+    /**
+     * Requests the WorldWind shapes displayed in a screen rectangle without blocking the calling thread. The screen
+     * rectangle is interpreted as coordinates in Android screen pixels relative to this view. This method must be
+     * called on the main thread.
+     * <p/>
+     * The pick frame is submitted with the next frame, and the callback receives the same picked objects as {@link
+     * #pickShapesInRect(float, float, float, float)} on the main thread once the OpenGL thread has processed the pick
+     * frame. Requests are coalesced: a request replaces any request with the same callback that is still waiting for
+     * the next frame. The callback receives an empty list if the screen rectangle is outside this View's bounds, or if
+     * the WorldWindow is paused before the pick frame is processed.
+     *
+     * @param x        the screen rectangle's X coordinate in Android screen pixels
+     * @param y        the screen rectangle's Y coordinate in Android screen pixels
+     * @param width    the screen rectangle's width in Android screen pixels
+     * @param height   the screen rectangle's height in Android screen pixels
+     * @param callback the callback to notify with the picked objects
+     *
+     * @throws IllegalArgumentException If the callback is null
+     */
+    public void pickShapesInRectAsync(float x, float y, float width, float height, PickCallback callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "WorldWindow", "pickShapesInRectAsync", "missingCallback"));
+        }
+
+        this.offerPickRequest(PickRequest.fromRect(x, this.getHeight() - (y + height), width, height, callback));
+    }
+
     /**
      * Transforms a Cartesian coordinate point to Android screen coordinates. The resultant screen point is in Android
      * screen pixels relative to this View.
@@ -661,9 +931,9 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
 
     @Override
     public void doFrame(long frameTimeNanos) {
-        // Skip frames when OpenGL thread has fallen two or more frames behind. Continue to request frame callbacks
-        // until the OpenGL thread catches up.
-        if (this.frameQueue.size() >= MAX_FRAME_QUEUE_SIZE) {
+        // Skip frames when OpenGL thread has fallen two or more frames behind, or when the render thread is still
+        // assembling the previous frame. Continue to request frame callbacks until both threads catch up.
+        if (this.frameQueue.size() >= MAX_FRAME_QUEUE_SIZE || this.isRenderingFrame) {
             Choreographer.getInstance().postFrameCallback(this);
             return;
         }
@@ -671,15 +941,24 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         // Allow subsequent redraw requests.
         this.isWaitingForRedraw = false;
 
-        // Obtain a frame from the pool and render the frame, accumulating Drawables to process in the OpenGL thread.
-        // The frame is recycled by the OpenGL thread.
+        // Obtain a frame from the pool, capture the WorldWindow's current viewing state, and render the frame on the
+        // render thread or the main thread, accumulating Drawables to process in the OpenGL thread. The frame is
+        // recycled by the OpenGL thread.
+        Frame frame = Frame.obtain(this.framePool);
         try {
-            Frame frame = Frame.obtain(this.framePool);
-            this.renderFrame(frame);
+            this.prepareFrame(frame);
+            this.renderedModelview.set(frame.modelview);
+            this.submitPickRequests(frame);
+            this.submitFrame(frame); // abandons the frame when rendering fails
         } catch (Exception e) {
             Logger.logMessage(Logger.ERROR, "WorldWindow", "doFrame",
                 "Exception while rendering frame in Choreographer callback \'" + frameTimeNanos + "\'", e);
+            this.abandonFrame(frame);
+            this.cancelPickRequests();
         }
+
+        // Notify navigator change listeners when the modelview matrix associated with the frame has changed.
+        this.navigatorEvents.onFrameRendered(this.renderedModelview);
     }
 
     /**
@@ -734,6 +1013,10 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.mainThreadHandler.sendMessage(
             Message.obtain(this.mainThreadHandler, MSG_ID_SET_DEPTH_BITS /*msg.what*/, depthBits[0] /*msg.obj*/));
 
+        // Determine whether the OpenGL context supports 32-bit element indices.
+        String extensions = GLES20.glGetString(GLES20.GL_EXTENSIONS);
+        this.elementIndexUint = (extensions != null) && extensions.contains("GL_OES_element_index_uint");
+
         // Clear the render resource cache on the main thread.
         this.mainThreadHandler.sendEmptyMessage(MSG_ID_CLEAR_CACHE /*msg.what*/);
     }
@@ -773,6 +1056,7 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
                     "Exception while processing pick in OpenGL thread", e);
             } finally {
                 pickFrame.signalDone();
+                this.notifyPickCallback(pickFrame);
                 pickFrame.recycle();
                 super.requestRender();
             }
@@ -846,6 +1130,17 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         // Mark the WorldWindow as paused.
         this.isPaused = true;
 
+        // Record the disk cache's contents so they are available when the application is next started.
+        final DiskCache diskCache = WorldWind.diskCache();
+        if (diskCache != null) {
+            WorldWind.taskService().execute(new Runnable() {
+                @Override
+                public void run() {
+                    diskCache.flush();
+                }
+            });
+        }
+
         // Reset the WorldWindow's internal state. The OpenGL thread is paused, so frames in the queue will not be
         // processed. Clear the frame queue and recycle pending frames back into the frame pool. We also don't know
         // whether or not the render resources are valid, so we reset and let the GLSurfaceView establish the new
@@ -886,6 +1181,14 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         return true;
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        // Release the render thread. The thread is started again if this WorldWindow is reattached.
+        this.stopRenderThread();
+    }
+
     @Override
     public void onMessage(String name, Object sender, Map<Object, Object> userProperties) {
         if (name.equals(WorldWind.REQUEST_REDRAW)) {
@@ -893,36 +1196,171 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         }
     }
 
+    /**
+     * Captures the WorldWindow's current viewing state in a frame. Called on the main thread before the frame is
+     * rendered, so that the render thread never reads the navigator or the viewport.
+     */
+    protected void prepareFrame(Frame frame) {
+        this.navigator.getAsCamera(this.globe, frame.camera);
+        frame.fieldOfView = this.fieldOfView;
+        frame.verticalExaggeration = this.verticalExaggeration;
+
+        // Configure the frame's Cartesian modelview matrix and eye coordinate projection matrix.
+        this.computeViewingTransform(frame.projection, frame.modelview);
+        frame.viewport.set(this.viewport);
+        frame.infiniteProjection.setToInfiniteProjection(this.viewport.width, this.viewport.height, this.fieldOfView, 1.0);
+        frame.infiniteProjection.multiplyByMatrix(frame.modelview);
+    }
+
+    /**
+     * Renders a prepared frame on the render thread when it is enabled, and otherwise renders the frame immediately.
+     * A frame that fails to render is abandoned; see {@link #abandonFrame(Frame)}.
+     */
+    protected void submitFrame(final Frame frame) {
+        if (!this.renderThreadEnabled) {
+            try {
+                this.renderFrame(frame);
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "WorldWindow", "submitFrame", "Exception while rendering frame", e);
+                this.abandonFrame(frame);
+            }
+            return;
+        }
+
+        if (!frame.pickMode) {
+            this.isRenderingFrame = true;
+        }
+
+        this.startRenderThread().post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    renderFrame(frame);
+                } catch (Exception e) {
+                    Logger.logMessage(Logger.ERROR, "WorldWindow", "submitFrame",
+                        "Exception while rendering frame in render thread", e);
+                    abandonFrame(frame);
+                } finally {
+                    if (!frame.pickMode) {
+                        isRenderingFrame = false;
+                    }
+                }
+            }
+        });
+    }
+
+    protected Handler startRenderThread() {
+        if (this.renderThreadHandler == null) {
+            this.renderThread = new HandlerThread("WorldWind Render");
+            this.renderThread.start();
+            this.renderThreadHandler = new Handler(this.renderThread.getLooper());
+        }
+
+        return this.renderThreadHandler;
+    }
+
+    protected void stopRenderThread() {
+        if (this.renderThreadHandler != null) {
+            // Quit after the tasks already posted have run, so that threads waiting on pick frames are released.
+            this.renderThreadHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    Looper.myLooper().quit();
+                }
+            });
+            this.renderThread = null;
+            this.renderThreadHandler = null;
+        }
+    }
+
+    protected void clearRenderResourceCache() {
+        if (this.renderThreadHandler != null) {
+            this.renderThreadHandler.post(this.clearCacheRunnable); // the cache is in use by the render thread
+        } else {
+            this.renderResourceCache.clear();
+        }
+    }
+
+    /**
+     * Renders a frame prepared by {@link #prepareFrame(Frame)}, accumulating Drawables to process in the OpenGL thread.
+     * Called on the render thread when it is enabled, and otherwise on the main thread.
+     */
     protected void renderFrame(Frame frame) {
         // Mark the beginning of a frame render.
-        boolean pickMode = frame.pickMode;
-        if (!pickMode) {
-            this.frameMetrics.beginRendering(this.rc);
+        Tracer.begin(Tracer.RENDER);
+        try {
+            boolean pickMode = frame.pickMode;
+            if (!pickMode) {
+                this.frameMetrics.beginRendering(this.rc);
+                Retriever.advanceFrame(); // age queued retrievals not requested by this frame
+            }
+
+            // Setup the render context according to the frame's viewing state and the WorldWindow's current state.
+            this.prepareRenderContext(frame);
+
+            // Let the frame controller render the WorldWindow's current state. Keep the terrain rendered for geometric
+            // picks, which don't render terrain.
+            this.frameController.renderFrame(this.rc);
+            if (!pickMode) {
+                this.snapshotRenderedTerrain(this.rc.terrain);
+            }
+
+            // Resolve the asynchronous point picks submitted with the frame, using the frame's viewing state and
+            // terrain.
+            if (!frame.pickRequests.isEmpty()) {
+                this.resolvePickRequests(frame);
+            }
+
+            // Enqueue the frame for processing on the OpenGL thread as soon as possible and wake the OpenGL thread.
+            if (pickMode) {
+                this.pickQueue.offer(frame);
+                super.requestRender();
+            } else {
+                this.frameQueue.offer(frame);
+                super.requestRender();
+            }
+
+            // Propagate redraw requests submitted during rendering. The render context provides a layer of
+            // indirection that insulates rendering code from establishing a dependency on a specific WorldWindow.
+            if (!pickMode && this.rc.isRedrawRequested()) {
+                this.requestRedraw();
+            }
+
+            // Mark the end of a frame render.
+            if (!pickMode) {
+                this.frameMetrics.endRendering(this.rc);
+            }
+
+            // Reset the render context's state in preparation for the next frame.
+            this.rc.reset();
+        } finally {
+            Tracer.end(Tracer.RENDER);
         }
+    }
 
-        // Setup the render context according to the WorldWindow's current state.
+    /**
+     * Configures the render context according to a frame's viewing state and the WorldWindow's current state.
+     */
+    protected void prepareRenderContext(Frame frame) {
         this.rc.globe = this.globe;
         this.rc.terrainTessellator = this.tessellator;
         this.rc.layers = this.layers;
-        this.rc.verticalExaggeration = this.verticalExaggeration;
-        this.rc.fieldOfView = this.fieldOfView;
-        this.rc.horizonDistance = this.globe.horizonDistance(this.navigator.getAltitude());
-        this.rc.camera = this.navigator.getAsCamera(this.globe, this.rc.camera);
+        this.rc.verticalExaggeration = frame.verticalExaggeration;
+        this.rc.fieldOfView = frame.fieldOfView;
+        this.rc.horizonDistance = this.globe.horizonDistance(frame.camera.altitude);
+        this.rc.camera.set(frame.camera);
         this.rc.cameraPoint = this.globe.geographicToCartesian(this.rc.camera.latitude, this.rc.camera.longitude, this.rc.camera.altitude, this.rc.cameraPoint);
         this.rc.renderResourceCache = this.renderResourceCache;
         this.rc.renderResourceCache.setResources(this.getContext().getResources());
         this.rc.resources = this.getContext().getResources();
+        this.rc.elementIndexUint = this.elementIndexUint;
 
-        // Configure the frame's Cartesian modelview matrix and eye coordinate projection matrix.
-        this.computeViewingTransform(frame.projection, frame.modelview);
-        frame.viewport.set(this.viewport);
-        frame.infiniteProjection.setToInfiniteProjection(this.viewport.width, this.viewport.height, this.fieldOfView, 1.0);
-        frame.infiniteProjection.multiplyByMatrix(frame.modelview);
+        // Configure the render context's viewing state from the frame's matrices.
         this.rc.viewport.set(frame.viewport);
         this.rc.projection.set(frame.projection);
         this.rc.modelview.set(frame.modelview);
         this.rc.modelviewProjection.setToMultiply(frame.projection, frame.modelview);
-        if (pickMode) {
+        if (frame.pickMode) {
             this.rc.frustum.setToModelviewProjection(frame.projection, frame.modelview, frame.viewport, frame.pickViewport);
         } else {
             this.rc.frustum.setToModelviewProjection(frame.projection, frame.modelview, frame.viewport);
@@ -936,76 +1374,223 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         this.rc.pickPoint = frame.pickPoint;
         this.rc.pickRay = frame.pickRay;
         this.rc.pickMode = frame.pickMode;
+    }
 
-        // Let the frame controller render the WorldWindow's current state.
-        this.frameController.renderFrame(this.rc);
-
-        // Enqueue the frame for processing on the OpenGL thread as soon as possible and wake the OpenGL thread.
-        if (pickMode) {
-            this.pickQueue.offer(frame);
-            super.requestRender();
+    /**
+     * Retains the terrain rendered in a regular frame for subsequent geometric picks. Terrain provided by the default
+     * tessellator is copied into a snapshot; other terrain implementations are retained by reference.
+     */
+    protected void snapshotRenderedTerrain(Terrain terrain) {
+        if (terrain instanceof BasicTerrain) {
+            this.renderedTerrain = this.renderedTerrainSnapshot.set((BasicTerrain) terrain);
         } else {
-            this.frameQueue.offer(frame);
-            super.requestRender();
+            this.renderedTerrain = terrain;
         }
+    }
 
-        // Propagate redraw requests submitted during rendering. The render context provides a layer of indirection that
-        // insulates rendering code from establishing a dependency on a specific WorldWindow.
-        if (!pickMode && this.rc.isRedrawRequested()) {
-            this.requestRedraw();
+    /**
+     * Picks a frame prepared by {@link #prepareFrame(Frame)} geometrically, using the terrain most recently rendered.
+     * Called on the render thread when it is enabled, and otherwise on the main thread.
+     */
+    protected void pickFrameGeometric(Frame frame) {
+        this.prepareRenderContext(frame);
+        this.rc.terrain = this.renderedTerrain;
+        this.geometricPicker.pick(this.rc, frame.pickedObjects);
+        this.rc.reset();
+    }
+
+    protected Frame obtainPickRectFrame(float x, float y, float width, float height, PickedObjectList pickedObjects) {
+        // Compute the pick rectangle in whole pixels. Nothing can be picked if the rectangle is outside the
+        // WorldWindow's viewport.
+        int px = (int) Math.floor(x);
+        int py = (int) Math.floor(y);
+        int pw = (int) Math.ceil(width);
+        int ph = (int) Math.ceil(height);
+        if (!this.viewport.intersects(px, py, pw, ph)) {
+            return null;
         }
 
-        // Notify navigator change listeners when the modelview matrix associated with the frame has changed.
-        if (!pickMode) {
-            this.navigatorEvents.onFrameRendered(this.rc);
+        Frame frame = Frame.obtain(this.framePool);
+        frame.pickedObjects = pickedObjects;
+        frame.pickViewport = new Viewport(px, py, pw, ph); // caller-specified pick rectangle
+        frame.pickViewport.intersect(this.viewport); // limit the pick viewport to the screen viewport
+        frame.pickMode = true;
+        return frame;
+    }
+
+    protected void offerPickRequest(PickRequest request) {
+        // Nothing can be picked while the WorldWindow is paused.
+        if (this.isPaused) {
+            this.postPickCallback(request.callback, new PickedObjectList());
+            return;
         }
 
-        // Mark the end of a frame render.
-        if (!pickMode) {
-            this.frameMetrics.endRendering(this.rc);
+        // Replace any request with the same callback waiting for the next frame.
+        for (int idx = 0, len = this.pickRequests.size(); idx < len; idx++) {
+            if (this.pickRequests.get(idx).callback == request.callback) {
+                this.pickRequests.remove(idx);
+                break;
+            }
         }
 
-        // Reset the render context's state in preparation for the next frame.
-        this.rc.reset();
+        this.pickRequests.add(request);
+        this.requestRedraw();
     }
 
-    protected void drawFrame(Frame frame) {
-        // Mark the beginning of a frame draw.
-        boolean pickMode = frame.pickMode;
-        if (!pickMode) {
-            this.frameMetrics.beginDrawing(this.dc);
+    /**
+     * Submits the asynchronous picks waiting for the next frame. Point picks are resolved while the frame renders, and
+     * rectangle picks are submitted as pick frames. Called on the main thread.
+     */
+    protected void submitPickRequests(Frame frame) {
+        // Remove each request as it's submitted, so that a request is never both submitted and cancelled.
+        while (!this.pickRequests.isEmpty()) {
+            PickRequest request = this.pickRequests.remove(0);
+            if (!request.isRect) {
+                frame.pickRequests.add(request);
+                continue;
+            }
+
+            PickedObjectList pickedObjects = new PickedObjectList();
+            Frame pickFrame = this.obtainPickRectFrame(request.x, request.y, request.width, request.height, pickedObjects);
+            if (pickFrame == null) {
+                this.postPickCallback(request.callback, pickedObjects);
+                continue;
+            }
+
+            pickFrame.pickCallback = request.callback;
+            this.prepareFrame(pickFrame);
+            this.submitFrame(pickFrame);
         }
+    }
 
-        // Setup the draw context according to the frame's current state.
-        this.dc.eyePoint = frame.modelview.extractEyePoint(this.dc.eyePoint);
-        this.dc.viewport.set(frame.viewport);
-        this.dc.projection.set(frame.projection);
-        this.dc.modelview.set(frame.modelview);
-        this.dc.modelviewProjection.setToMultiply(frame.projection, frame.modelview);
-        this.dc.infiniteProjection.set(frame.infiniteProjection);
-        this.dc.screenProjection.setToScreenProjection(frame.viewport.width, frame.viewport.height);
+    protected void cancelPickRequests() {
+        for (int idx = 0, len = this.pickRequests.size(); idx < len; idx++) {
+            this.postPickCallback(this.pickRequests.get(idx).callback, new PickedObjectList());
+        }
 
-        // Process the drawables in the frame's drawable queue and drawable terrain data structures.
-        this.dc.drawableQueue = frame.drawableQueue;
-        this.dc.drawableTerrain = frame.drawableTerrain;
-        this.dc.pickedObjects = frame.pickedObjects;
-        this.dc.pickViewport = frame.pickViewport;
-        this.dc.pickPoint = frame.pickPoint;
-        this.dc.pickMode = frame.pickMode;
+        this.pickRequests.clear();
+    }
+
+    /**
+     * Resolves a frame's asynchronous point picks geometrically, using the render context configured for the frame.
+     * Called on the render thread when it is enabled, and otherwise on the main thread.
+     */
+    protected void resolvePickRequests(Frame frame) {
+        // Compute the inverse of the frame's modelview-projection matrix, used to compute each pick ray.
+        Matrix4 inverseMvp = new Matrix4().invertMatrix(this.rc.modelviewProjection);
+
+        for (int idx = 0, len = frame.pickRequests.size(); idx < len; idx++) {
+            PickRequest request = frame.pickRequests.get(idx);
+            PickedObjectList pickedObjects = new PickedObjectList();
+            int px = Math.round(request.x);
+            int py = Math.round(request.y);
+            Line pickRay = new Line();
+
+            // Nothing can be picked if the pick point is outside the viewport or if the pick ray cannot be constructed.
+            if (this.rc.viewport.contains(px, py)
+                && inverseMvp.unProject(request.x, request.y, this.rc.viewport, pickRay.origin, pickRay.direction)) {
+                pickRay.direction.subtract(pickRay.origin).normalize();
+                this.rc.pickViewport = new Viewport(px - 1, py - 1, 3, 3);
+                this.rc.pickPoint = new Vec2(request.x, request.y);
+                this.rc.pickRay = pickRay;
+
+                try {
+                    this.geometricPicker.pick(this.rc, pickedObjects);
+                } catch (Exception e) {
+                    Logger.logMessage(Logger.ERROR, "WorldWindow", "resolvePickRequests",
+                        "Exception while picking", e);
+                    pickedObjects.clearPickedObjects();
+                }
+            }
+
+            this.postPickCallback(request.callback, pickedObjects);
+        }
+
+        frame.pickRequests.clear(); // the requests are resolved
+
+        this.rc.pickViewport = frame.pickViewport;
+        this.rc.pickPoint = frame.pickPoint;
+        this.rc.pickRay = frame.pickRay;
+    }
+
+    /**
+     * Abandons a frame that failed to render. Picks waiting for the frame are notified that nothing was picked, and the
+     * frame is recycled back into the frame pool. Called on the render thread when it is enabled, and otherwise on the
+     * main thread.
+     */
+    protected void abandonFrame(Frame frame) {
+        for (int idx = 0, len = frame.pickRequests.size(); idx < len; idx++) {
+            this.postPickCallback(frame.pickRequests.get(idx).callback, new PickedObjectList());
+        }
 
-        // Let the frame controller draw the frame.
-        this.frameController.drawFrame(this.dc);
+        if (frame.pickMode) {
+            if (frame.pickedObjects != null) {
+                frame.pickedObjects.clearPickedObjects(); // discard objects picked before the failure
+            }
+            frame.signalDone(); // release the thread waiting for the pick
+            this.notifyPickCallback(frame);
+        }
 
-        // Release resources evicted during the previous frame.
-        this.renderResourceCache.releaseEvictedResources(this.dc);
+        frame.recycle();
+    }
 
-        // Mark the end of a frame draw.
-        if (!pickMode) {
-            this.frameMetrics.endDrawing(this.dc);
+    protected void notifyPickCallback(Frame frame) {
+        if (frame.pickCallback != null) {
+            this.postPickCallback(frame.pickCallback, frame.pickedObjects);
         }
+    }
+
+    protected void postPickCallback(final PickCallback callback, final PickedObjectList pickedObjects) {
+        this.mainThreadHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onPickCompleted(pickedObjects);
+            }
+        });
+    }
 
-        // Reset the draw context's state in preparation for the next frame.
-        this.dc.reset();
+    protected void drawFrame(Frame frame) {
+        // Mark the beginning of a frame draw.
+        Tracer.begin(Tracer.DRAW);
+        try {
+            boolean pickMode = frame.pickMode;
+            if (!pickMode) {
+                this.frameMetrics.beginDrawing(this.dc);
+            }
+
+            // Setup the draw context according to the frame's current state.
+            this.dc.eyePoint = frame.modelview.extractEyePoint(this.dc.eyePoint);
+            this.dc.viewport.set(frame.viewport);
+            this.dc.projection.set(frame.projection);
+            this.dc.modelview.set(frame.modelview);
+            this.dc.modelviewProjection.setToMultiply(frame.projection, frame.modelview);
+            this.dc.infiniteProjection.set(frame.infiniteProjection);
+            this.dc.screenProjection.setToScreenProjection(frame.viewport.width, frame.viewport.height);
+
+            // Process the drawables in the frame's drawable queue and drawable terrain data structures.
+            this.dc.drawableQueue = frame.drawableQueue;
+            this.dc.drawableTerrain = frame.drawableTerrain;
+            this.dc.pickedObjects = frame.pickedObjects;
+            this.dc.pickViewport = frame.pickViewport;
+            this.dc.pickPoint = frame.pickPoint;
+            this.dc.pickMode = frame.pickMode;
+
+            // Let the frame controller draw the frame.
+            this.frameController.drawFrame(this.dc);
+
+            // Release resources evicted during the previous frame.
+            this.renderResourceCache.releaseEvictedResources(this.dc);
+
+            // Mark the end of a frame draw.
+            if (!pickMode) {
+                this.frameMetrics.endDrawing(this.dc);
+            }
+
+            // Reset the draw context's state in preparation for the next frame.
+            this.dc.reset();
+        } finally {
+            Tracer.end(Tracer.DRAW);
+        }
     }
 
     protected void clearFrameQueue() {
@@ -1014,6 +1599,7 @@ public class WorldWindow extends GLSurfaceView implements Choreographer.FrameCal
         Frame pickFrame;
         while ((pickFrame = this.pickQueue.poll()) != null) {
             pickFrame.signalDone();
+            this.notifyPickCallback(pickFrame);
             pickFrame.recycle();
         }
 
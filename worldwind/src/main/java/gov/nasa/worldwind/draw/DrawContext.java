@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import gov.nasa.worldwind.FrameMetrics;
 import gov.nasa.worldwind.PickedObjectList;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Vec2;
@@ -27,6 +28,11 @@ import gov.nasa.worldwind.render.Texture;
 
 public class DrawContext {
 
+    /**
+     * The width and height of the scratch framebuffer.
+     */
+    protected static final int SCRATCH_FRAMEBUFFER_SIZE = 1024;
+
     public Vec3 eyePoint = new Vec3();
 
     public Viewport viewport = new Viewport();
@@ -53,6 +59,17 @@ public class DrawContext {
 
     public boolean pickMode;
 
+    /**
+     * The profiler timing the frame being drawn, or null when profiling is disabled.
+     */
+    public FrameMetrics frameMetrics;
+
+    /**
+     * The capacity in bytes of the surface shape texture cache, applied when the cache is next created. WorldWindow
+     * derives the capacity from its render resource cache's capacity.
+     */
+    public int surfaceShapeTextureCapacity = SurfaceShapeTextureCache.recommendedCapacity(1024 * 1024 * 64);
+
     private int framebufferId;
 
     private int programId;
@@ -67,12 +84,18 @@ public class DrawContext {
 
     private Framebuffer scratchFramebuffer;
 
+    private SurfaceShapeTextureCache surfaceShapeTextureCache;
+
     private BufferObject unitSquareBuffer;
 
     private ByteBuffer scratchBuffer = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder());
 
     private ArrayList<Object> scratchList = new ArrayList<>();
 
+    private float[] scratchFloatArray = new float[0];
+
+    private int scratchFloatArrayDemand;
+
     private byte[] pixelArray = new byte[4];
 
     public DrawContext() {
@@ -92,8 +115,10 @@ public class DrawContext {
         this.pickViewport = null;
         this.pickPoint = null;
         this.pickMode = false;
+        this.frameMetrics = null;
         this.scratchBuffer.clear();
         this.scratchList.clear();
+        this.trimScratchFloatArray();
     }
 
     public void contextLost() {
@@ -104,6 +129,7 @@ public class DrawContext {
         this.arrayBufferId = 0;
         this.elementArrayBufferId = 0;
         this.scratchFramebuffer = null;
+        this.surfaceShapeTextureCache = null;
         this.unitSquareBuffer = null;
         Arrays.fill(this.textureId, 0);
     }
@@ -174,8 +200,9 @@ public class DrawContext {
         }
 
         Framebuffer framebuffer = new Framebuffer();
-        Texture colorAttachment = new Texture(1024, 1024, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
-        Texture depthAttachment = new Texture(1024, 1024, GLES20.GL_DEPTH_COMPONENT, GLES20.GL_UNSIGNED_SHORT);
+        int size = SCRATCH_FRAMEBUFFER_SIZE;
+        Texture colorAttachment = new Texture(size, size, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+        Texture depthAttachment = new Texture(size, size, GLES20.GL_DEPTH_COMPONENT, GLES20.GL_UNSIGNED_SHORT);
         // TODO consider modifying Texture's tex parameter behavior in order to make this unnecessary
         depthAttachment.setTexParameter(GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
         depthAttachment.setTexParameter(GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
@@ -185,6 +212,25 @@ public class DrawContext {
         return (this.scratchFramebuffer = framebuffer);
     }
 
+    /**
+     * Returns a cache of textures containing surface shapes rasterized for individual terrain tiles. Surface shape
+     * drawables use the cache to avoid rasterizing shapes that have not changed since a previous frame.
+     * <p>
+     * The cache is created on first use with a capacity of {@link #surfaceShapeTextureCapacity} bytes, and retained
+     * until the OpenGL context is lost. Its textures are the size of a typical imagery tile rather than the scratch
+     * framebuffer, so that the cache holds a texture for each visible terrain tile.
+     *
+     * @return the draw context's surface shape texture cache
+     */
+    public SurfaceShapeTextureCache surfaceShapeTextureCache() {
+        if (this.surfaceShapeTextureCache == null) {
+            this.surfaceShapeTextureCache = new SurfaceShapeTextureCache(this.surfaceShapeTextureCapacity,
+                SurfaceShapeTextureCache.DEFAULT_TEXTURE_SIZE);
+        }
+
+        return this.surfaceShapeTextureCache;
+    }
+
     /**
      * Returns the name of the OpenGL program object that is currently active.
      *
@@ -428,4 +474,36 @@ public class DrawContext {
     public ArrayList<Object> scratchList() {
         return this.scratchList;
     }
+
+    /**
+     * Returns a scratch float array suitable for assembling vertex data during drawing. The returned array has length
+     * at least equal to the specified capacity. Its contents are undefined.
+     *
+     * @param capacity the array's minimum length
+     *
+     * @return the draw context's scratch float array
+     */
+    public float[] scratchFloatArray(int capacity) {
+        if (this.scratchFloatArray.length < capacity) {
+            this.scratchFloatArray = new float[capacity];
+        }
+
+        if (this.scratchFloatArrayDemand < capacity) {
+            this.scratchFloatArrayDemand = capacity;
+        }
+
+        return this.scratchFloatArray;
+    }
+
+    /**
+     * Shrinks the scratch float array to the largest capacity requested since the previous frame when the array is more
+     * than twice that size, so that a frame with unusually many vertices does not hold its memory indefinitely.
+     */
+    protected void trimScratchFloatArray() {
+        if (this.scratchFloatArray.length > this.scratchFloatArrayDemand * 2) {
+            this.scratchFloatArray = new float[this.scratchFloatArrayDemand];
+        }
+
+        this.scratchFloatArrayDemand = 0;
+    }
 }
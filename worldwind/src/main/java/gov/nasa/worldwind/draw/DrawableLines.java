@@ -8,14 +8,22 @@ package gov.nasa.worldwind.draw;
 import android.opengl.GLES20;
 
 import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.util.Pool;
 
+/**
+ * Drawable that displays line segments, such as placemark leaders. Consecutive lines in the drawable queue that share
+ * the same color, line width and depth test are coalesced into a single vertex array and drawn with one draw call.
+ */
 public class DrawableLines implements Drawable {
 
+    protected static final Matrix4 IDENTITY_MATRIX = new Matrix4();
+
     public BasicShaderProgram program = null;
 
     public float[] vertexPoints = new float[6]; // initially sized to store two xyz points
@@ -53,13 +61,46 @@ public class DrawableLines implements Drawable {
         }
     }
 
+    @Override
+    public void draw(DrawContext dc) {
+        // Accumulate lines in the draw context's scratch list.
+        ArrayList<Object> scratchList = dc.scratchList();
+
+        try {
+            // Add these lines.
+            scratchList.add(this);
+
+            // Add all DrawableLines adjacent in the queue that share the same GLSL program. Only adjacent lines are
+            // batched, which preserves the drawable queue's back-to-front order.
+            Drawable next;
+            while ((next = dc.peekDrawable()) != null && this.canBatchWith(next)) { // check if the drawable at the front of the queue can be batched
+                scratchList.add(dc.pollDrawable()); // take it off the queue
+            }
+
+            this.drawBatches(dc, scratchList);
+        } finally {
+            // Clear the accumulated lines.
+            scratchList.clear();
+        }
+    }
+
+    protected boolean canBatchWith(Drawable that) {
+        return this.getClass() == that.getClass() && this.program == ((DrawableLines) that).program;
+    }
+
+    protected boolean canDrawWith(DrawableLines that) {
+        return this.color.equals(that.color) && this.lineWidth == that.lineWidth
+            && this.enableDepthTest == that.enableDepthTest;
+    }
+
     /**
-     * Performs the actual rendering of the Placemark.
+     * Draws a list of lines that share the same class and GLSL program, in list order. Adjacent lines that share the
+     * same color, line width and depth test are drawn with one draw call.
      *
-     * @param dc The current draw context.
+     * @param dc        the current draw context
+     * @param drawables the lines to draw
      */
-    @Override
-    public void draw(DrawContext dc) {
+    protected void drawBatches(DrawContext dc, List<Object> drawables) {
         if (this.program == null || !this.program.useProgram(dc)) {
             return; // program unspecified or failed to build
         }
@@ -67,34 +108,108 @@ public class DrawableLines implements Drawable {
         // Disable texturing.
         this.program.enableTexture(false);
 
-        // Use the leader's color.
-        this.program.loadColor(this.color);
+        // Vertex points are transformed to clip coordinates as they're assembled.
+        this.program.loadModelviewProjection(IDENTITY_MATRIX);
 
-        // Use the leader's modelview-projection matrix.
-        this.program.loadModelviewProjection(this.mvpMatrix);
+        // Use client-side vertex arrays for the vertex point attribute.
+        dc.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
 
-        // Disable depth testing if requested.
-        if (!this.enableDepthTest) {
-            GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        // Draw each run of lines that can be drawn together with one draw call.
+        for (int idx = 0, len = drawables.size(), end; idx < len; idx = end) {
+            end = batchEnd(drawables, idx);
+            this.drawBatch(dc, drawables, idx, end);
         }
+    }
 
-        // Apply the leader's line width in screen pixels.
-        GLES20.glLineWidth(this.lineWidth);
+    /**
+     * Returns the end of the run of lines that can be drawn together with the line at a specified index.
+     *
+     * @param drawables the lines to draw
+     * @param fromIndex the index of the run's first line
+     *
+     * @return the index after the run's last line
+     */
+    protected static int batchEnd(List<Object> drawables, int fromIndex) {
+        DrawableLines batchFirst = (DrawableLines) drawables.get(fromIndex);
+        int idx = fromIndex + 1;
+        while (idx < drawables.size() && batchFirst.canDrawWith((DrawableLines) drawables.get(idx))) {
+            idx++;
+        }
 
-        // Use the leader line as the vertex point attribute.
-        dc.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
-        FloatBuffer buffer = dc.scratchBuffer(this.vertexPoints.length * 4).asFloatBuffer();
+        return idx;
+    }
+
+    protected void drawBatch(DrawContext dc, List<Object> drawables, int fromIndex, int toIndex) {
+        // Use the batch's color.
+        DrawableLines batchFirst = (DrawableLines) drawables.get(fromIndex);
+        this.program.loadColor(batchFirst.color);
+
+        // Assemble the batch's line segments in clip coordinates.
+        int floatCount = 0;
+        for (int idx = fromIndex; idx < toIndex; idx++) {
+            floatCount += ((DrawableLines) drawables.get(idx)).lineVertexCount() * 4;
+        }
+
+        float[] array = dc.scratchFloatArray(floatCount);
+        int offset = 0;
+        for (int idx = fromIndex; idx < toIndex; idx++) {
+            offset = ((DrawableLines) drawables.get(idx)).assembleVertices(array, offset);
+        }
+
+        // Use the batch's line segments as the vertex point attribute.
+        FloatBuffer buffer = dc.scratchBuffer(offset * 4).asFloatBuffer();
         buffer.clear();
-        buffer.put(this.vertexPoints).flip();
-        GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 3, GLES20.GL_FLOAT, false, 0, buffer);
+        buffer.put(array, 0, offset).flip();
+        GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 4, GLES20.GL_FLOAT, false, 0, buffer);
 
-        // Draw the leader line.
-        GLES20.glDrawArrays(GLES20.GL_LINES, 0 /*first*/, (buffer.remaining() / 3) /*count*/);
+        // Disable depth testing if requested.
+        if (!batchFirst.enableDepthTest) {
+            GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        }
+
+        // Apply the batch's line width in screen pixels.
+        GLES20.glLineWidth(batchFirst.lineWidth);
+
+        // Draw the batch's line segments.
+        GLES20.glDrawArrays(GLES20.GL_LINES, 0 /*first*/, offset / 4 /*count*/);
 
         // Restore the default WorldWind OpenGL state.
-        if (!this.enableDepthTest) {
+        if (!batchFirst.enableDepthTest) {
             GLES20.glEnable(GLES20.GL_DEPTH_TEST);
         }
         GLES20.glLineWidth(1);
     }
+
+    /**
+     * Indicates the number of vertices this drawable contributes to a batch. Vertex points are drawn as pairs
+     * forming line segments; an unpaired last point is ignored.
+     */
+    protected int lineVertexCount() {
+        return (this.vertexPoints.length / 3) & ~1;
+    }
+
+    /**
+     * Appends this drawable's vertex points to an array in clip coordinates, as XYZW tuples.
+     *
+     * @param result the array in which to store the vertices
+     * @param offset the array index at which to store the first vertex
+     *
+     * @return the array index after the last vertex
+     */
+    protected int assembleVertices(float[] result, int offset) {
+        double[] m = this.mvpMatrix.m;
+        float[] points = this.vertexPoints;
+
+        for (int idx = 0, len = this.lineVertexCount() * 3; idx < len; idx += 3) {
+            double x = points[idx];
+            double y = points[idx + 1];
+            double z = points[idx + 2];
+            result[offset++] = (float) (m[0] * x + m[1] * y + m[2] * z + m[3]);
+            result[offset++] = (float) (m[4] * x + m[5] * y + m[6] * z + m[7]);
+            result[offset++] = (float) (m[8] * x + m[9] * y + m[10] * z + m[11]);
+            result[offset++] = (float) (m[12] * x + m[13] * y + m[14] * z + m[15]);
+        }
+
+        return offset;
+    }
 }
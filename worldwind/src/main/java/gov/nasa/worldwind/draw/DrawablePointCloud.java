@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import android.opengl.GLES20;
+
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.render.BufferObject;
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.PointCloudProgram;
+import gov.nasa.worldwind.util.Pool;
+
+/**
+ * Drawable that displays a range of points from a vertex buffer as point sprites. The vertex buffer holds the points'
+ * attributes as consecutive arrays: XYZ points relative to the vertex origin as floats, followed by RGBA colors as
+ * unsigned bytes, followed by point sizes in pixels as unsigned bytes.
+ */
+public class DrawablePointCloud implements Drawable {
+
+    public PointCloudProgram program = null;
+
+    public BufferObject vertexBuffer = null;
+
+    public Vec3 vertexOrigin = new Vec3();
+
+    public int colorOffset;
+
+    public int sizeOffset;
+
+    public int first;
+
+    public int count;
+
+    public Color pickColor = new Color();
+
+    public boolean enableDepthTest = true;
+
+    private Matrix4 mvpMatrix = new Matrix4();
+
+    private Pool<DrawablePointCloud> pool;
+
+    public DrawablePointCloud() {
+    }
+
+    public static DrawablePointCloud obtain(Pool<DrawablePointCloud> pool) {
+        DrawablePointCloud instance = pool.acquire(); // get an instance from the pool
+        return (instance != null) ? instance.setPool(pool) : new DrawablePointCloud().setPool(pool);
+    }
+
+    private DrawablePointCloud setPool(Pool<DrawablePointCloud> pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    @Override
+    public void recycle() {
+        this.program = null;
+        this.vertexBuffer = null;
+
+        if (this.pool != null) { // return this instance to the pool
+            this.pool.release(this);
+            this.pool = null;
+        }
+    }
+
+    @Override
+    public void draw(DrawContext dc) {
+        if (this.program == null || !this.program.useProgram(dc)) {
+            return; // program unspecified or failed to build
+        }
+
+        if (this.vertexBuffer == null || !this.vertexBuffer.bindBuffer(dc)) {
+            return; // vertex buffer unspecified or failed to bind
+        }
+
+        // Use the draw context's pick mode, and the pick color when picking.
+        this.program.enablePickMode(dc.pickMode);
+        if (dc.pickMode) {
+            this.program.loadPickColor(this.pickColor);
+        }
+
+        // Use the draw context's modelview projection matrix, transformed to the points' local coordinates.
+        this.mvpMatrix.set(dc.modelviewProjection);
+        this.mvpMatrix.multiplyByTranslation(this.vertexOrigin.x, this.vertexOrigin.y, this.vertexOrigin.z);
+        this.program.loadModelviewProjection(this.mvpMatrix);
+
+        // Use the vertex buffer's point, color and size arrays.
+        GLES20.glEnableVertexAttribArray(1 /*vertexColor*/); // only vertexPoint is enabled by default
+        GLES20.glEnableVertexAttribArray(2 /*vertexSize*/);
+        GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 3, GLES20.GL_FLOAT, false, 0, 0);
+        GLES20.glVertexAttribPointer(1 /*vertexColor*/, 4, GLES20.GL_UNSIGNED_BYTE, true, 0, this.colorOffset);
+        GLES20.glVertexAttribPointer(2 /*vertexSize*/, 1, GLES20.GL_UNSIGNED_BYTE, false, 0, this.sizeOffset);
+
+        // Disable depth testing if requested.
+        if (!this.enableDepthTest) {
+            GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        }
+
+        // Draw the points.
+        GLES20.glDrawArrays(GLES20.GL_POINTS, this.first, this.count);
+
+        // Restore the default WorldWind OpenGL state.
+        if (!this.enableDepthTest) {
+            GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        }
+        GLES20.glDisableVertexAttribArray(1 /*vertexColor*/); // only vertexPoint is enabled by default
+        GLES20.glDisableVertexAttribArray(2 /*vertexSize*/);
+    }
+}
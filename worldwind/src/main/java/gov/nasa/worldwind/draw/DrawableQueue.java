@@ -64,6 +64,29 @@ public class DrawableQueue {
         }
     }
 
+    /**
+     * Moves the drawables from a specified queue to the end of this queue, leaving the specified queue empty.
+     * Transferred drawables are ordered after this queue's drawables that have the same group ID and order, and in the
+     * order they were offered to the specified queue. Transferring several queues in a fixed order therefore sorts the
+     * same as offering every drawable to a single queue. The specified queue must not have been sorted.
+     *
+     * @param queue the queue whose drawables to transfer
+     */
+    public void transferDrawables(DrawableQueue queue) {
+        if (queue == null || queue == this) {
+            return;
+        }
+
+        for (int idx = 0, len = queue.size; idx < len; idx++) {
+            Entry entry = queue.entries[idx];
+            this.offerDrawable(entry.drawable, entry.groupId, entry.order);
+            entry.drawable = null; // this queue now owns the drawable
+        }
+
+        queue.size = 0;
+        queue.position = 0;
+    }
+
     public Drawable getDrawable(int index) {
         return (index < this.size) ? this.entries[index].drawable : null;
     }
@@ -7,14 +7,39 @@ package gov.nasa.worldwind.draw;
 
 import android.opengl.GLES20;
 
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.render.TextureAtlas;
 import gov.nasa.worldwind.util.Pool;
 
+/**
+ * Drawable that displays a texture in a screen rectangle, such as a placemark icon or a label. Consecutive screen
+ * textures in the drawable queue are drawn together: textures sharing the same texture or texture atlas page, color
+ * and depth test are coalesced into a single vertex array and drawn with one draw call.
+ */
 public class DrawableScreenTexture implements Drawable {
 
+    /**
+     * The number of floats per vertex in a batch: a screen coordinate XYZ point followed by an ST tex coord.
+     */
+    protected static final int VERTEX_STRIDE = 5;
+
+    /**
+     * The number of vertices per screen rectangle in a batch, which draws rectangles as pairs of triangles.
+     */
+    protected static final int RECT_VERTICES = 6;
+
+    protected static final float[] UNIT_SQUARE_TRIANGLES = {0, 0, 1, 0, 0, 1, 0, 1, 1, 0, 1, 1};
+
+    protected static final Matrix3 IDENTITY_MATRIX = new Matrix3();
+
     public BasicShaderProgram program = null;
 
     public Matrix4 unitSquareTransform = new Matrix4();
@@ -27,8 +52,6 @@ public class DrawableScreenTexture implements Drawable {
 
     private Pool<DrawableScreenTexture> pool;
 
-    private Matrix4 mvpMatrix = new Matrix4();
-
     public DrawableScreenTexture() {
     }
 
@@ -55,16 +78,59 @@ public class DrawableScreenTexture implements Drawable {
 
     @Override
     public void draw(DrawContext dc) {
-        if (this.program == null || !this.program.useProgram(dc)) {
-            return; // program unspecified or failed to build
+        // Accumulate screen textures in the draw context's scratch list.
+        ArrayList<Object> scratchList = dc.scratchList();
+
+        try {
+            // Add this screen texture.
+            scratchList.add(this);
+
+            // Add all DrawableScreenTextures adjacent in the queue that share the same GLSL program.
+            Drawable next;
+            while ((next = dc.peekDrawable()) != null && this.canBatchWith(next)) { // check if the drawable at the front of the queue can be batched
+                scratchList.add(dc.pollDrawable()); // take it off the queue
+            }
+
+            drawBatches(dc, scratchList);
+        } finally {
+            // Clear the accumulated screen textures.
+            scratchList.clear();
         }
+    }
+
+    protected boolean canBatchWith(Drawable that) {
+        return this.getClass() == that.getClass() && this.program == ((DrawableScreenTexture) that).program;
+    }
+
+    protected boolean canDrawWith(DrawableScreenTexture that) {
+        return bindingTexture(this.texture) == bindingTexture(that.texture) && this.color.equals(that.color)
+            && this.enableDepthTest == that.enableDepthTest;
+    }
 
-        if (!dc.unitSquareBuffer().bindBuffer(dc)) {
-            return; // vertex buffer failed to bind
+    /**
+     * Returns the texture bound when a screen texture is drawn. Atlas textures on the same atlas page bind the same
+     * texture, and may be drawn together.
+     */
+    protected static Texture bindingTexture(Texture texture) {
+        return (texture instanceof TextureAtlas.Region) ? ((TextureAtlas.Region) texture).getPage() : texture;
+    }
+
+    /**
+     * Draws a list of screen textures that share the same class and GLSL program, in list order. Adjacent screen
+     * textures that share the same texture, color and depth test are drawn with one draw call.
+     *
+     * @param dc        the current draw context
+     * @param drawables the screen textures to draw
+     */
+    protected static void drawBatches(DrawContext dc, List<Object> drawables) {
+        DrawableScreenTexture first = (DrawableScreenTexture) drawables.get(0);
+        if (first.program == null || !first.program.useProgram(dc)) {
+            return; // program unspecified or failed to build
         }
 
-        // Use the draw context's pick mode and use the drawable's color.
-        this.program.enablePickMode(dc.pickMode);
+        // Use the draw context's pick mode and use the screen projection. Vertex points are in screen coordinates.
+        first.program.enablePickMode(dc.pickMode);
+        first.program.loadModelviewProjection(dc.screenProjection);
 
         // Make multi-texture unit 0 active.
         dc.activeTextureUnit(GLES20.GL_TEXTURE0);
@@ -72,19 +138,14 @@ public class DrawableScreenTexture implements Drawable {
         // Disable writing to the depth buffer.
         GLES20.glDepthMask(false);
 
-        // Use a unit square as the vertex point and vertex tex coord attributes.
+        // Use client-side vertex arrays for the vertex point and vertex tex coord attributes.
+        dc.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
         GLES20.glEnableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
-        GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 2, GLES20.GL_FLOAT, false, 0, 0);
-        GLES20.glVertexAttribPointer(1 /*vertexTexCoord*/, 2, GLES20.GL_FLOAT, false, 0, 0);
-
-        // Draw this DrawableScreenTextures.
-        this.doDraw(dc, this);
 
-        // Draw all DrawableScreenTextures adjacent in the queue that share the same GLSL program.
-        Drawable next;
-        while ((next = dc.peekDrawable()) != null && this.canBatchWith(next)) { // check if the drawable at the front of the queue can be batched
-            DrawableScreenTexture drawable = (DrawableScreenTexture) dc.pollDrawable(); // take it off the queue
-            this.doDraw(dc, drawable);
+        // Draw each run of screen textures that can be drawn together with one draw call.
+        for (int idx = 0, len = drawables.size(), end; idx < len; idx = end) {
+            end = batchEnd(drawables, idx);
+            drawBatch(dc, drawables, idx, end);
         }
 
         // Restore the default WorldWind OpenGL state.
@@ -92,38 +153,96 @@ public class DrawableScreenTexture implements Drawable {
         GLES20.glDisableVertexAttribArray(1 /*vertexTexCoord*/); // only vertexPoint is enabled by default
     }
 
-    protected void doDraw(DrawContext dc, DrawableScreenTexture drawable) {
-        // Use the drawable's color.
-        drawable.program.loadColor(drawable.color);
-
-        // Attempt to bind the drawable's texture, configuring the shader program appropriately if there is no texture
-        // or if the texture failed to bind.
-        if (drawable.texture != null && drawable.texture.bindTexture(dc)) {
-            drawable.program.enableTexture(true);
-            drawable.program.loadTexCoordMatrix(drawable.texture.getTexCoordTransform());
-        } else {
-            drawable.program.enableTexture(false);
+    /**
+     * Returns the end of the run of screen textures that can be drawn together with the screen texture at a specified
+     * index.
+     *
+     * @param drawables the screen textures to draw
+     * @param fromIndex the index of the run's first screen texture
+     *
+     * @return the index after the run's last screen texture
+     */
+    protected static int batchEnd(List<Object> drawables, int fromIndex) {
+        DrawableScreenTexture batchFirst = (DrawableScreenTexture) drawables.get(fromIndex);
+        int idx = fromIndex + 1;
+        while (idx < drawables.size() && batchFirst.canDrawWith((DrawableScreenTexture) drawables.get(idx))) {
+            idx++;
+        }
+
+        return idx;
+    }
+
+    protected static void drawBatch(DrawContext dc, List<Object> drawables, int fromIndex, int toIndex) {
+        // Use the batch's color.
+        DrawableScreenTexture batchFirst = (DrawableScreenTexture) drawables.get(fromIndex);
+        BasicShaderProgram program = batchFirst.program;
+        program.loadColor(batchFirst.color);
+
+        // Attempt to bind the batch's texture, configuring the shader program appropriately if there is no texture or
+        // if the texture failed to bind. Tex coords are transformed into the texture's coordinate system below.
+        Texture texture = batchFirst.texture;
+        boolean enableTexture = texture != null && texture.bindTexture(dc);
+        program.enableTexture(enableTexture);
+        if (enableTexture) {
+            program.loadTexCoordMatrix(IDENTITY_MATRIX);
+        }
+
+        // Assemble the batch's rectangles as pairs of triangles in screen coordinates.
+        float[] array = dc.scratchFloatArray((toIndex - fromIndex) * RECT_VERTICES * VERTEX_STRIDE);
+        int offset = 0;
+        for (int idx = fromIndex; idx < toIndex; idx++) {
+            DrawableScreenTexture drawable = (DrawableScreenTexture) drawables.get(idx);
+            Matrix3 texCoordMatrix = enableTexture ? drawable.texture.getTexCoordTransform() : IDENTITY_MATRIX;
+            offset = drawable.assembleVertices(texCoordMatrix, array, offset);
         }
 
-        // Use a modelview-projection matrix that transforms the unit square to screen coordinates.
-        drawable.mvpMatrix.setToMultiply(dc.screenProjection, drawable.unitSquareTransform);
-        drawable.program.loadModelviewProjection(drawable.mvpMatrix);
+        FloatBuffer buffer = dc.scratchBuffer(offset * 4).asFloatBuffer();
+        buffer.clear();
+        buffer.put(array, 0, offset);
+        buffer.position(0);
+        GLES20.glVertexAttribPointer(0 /*vertexPoint*/, 3, GLES20.GL_FLOAT, false, VERTEX_STRIDE * 4, buffer);
+        buffer.position(3);
+        GLES20.glVertexAttribPointer(1 /*vertexTexCoord*/, 2, GLES20.GL_FLOAT, false, VERTEX_STRIDE * 4, buffer);
 
         // Disable depth testing if requested.
-        if (!drawable.enableDepthTest) {
+        if (!batchFirst.enableDepthTest) {
             GLES20.glDisable(GLES20.GL_DEPTH_TEST);
         }
 
-        // Draw the unit square as triangles.
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+        // Draw the batch's rectangles as triangles.
+        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, offset / VERTEX_STRIDE);
 
         // Restore the default WorldWind OpenGL state.
-        if (!drawable.enableDepthTest) {
+        if (!batchFirst.enableDepthTest) {
             GLES20.glEnable(GLES20.GL_DEPTH_TEST);
         }
     }
 
-    protected boolean canBatchWith(Drawable that) {
-        return this.getClass() == that.getClass() && this.program == ((DrawableScreenTexture) that).program;
+    /**
+     * Appends the vertices of this drawable's screen rectangle to an array, as two triangles with interleaved screen
+     * coordinate points and tex coords.
+     *
+     * @param texCoordMatrix the matrix transforming unit square tex coords to this drawable's texture
+     * @param result         the array in which to store the vertices
+     * @param offset         the array index at which to store the first vertex
+     *
+     * @return the array index after the last vertex
+     */
+    protected int assembleVertices(Matrix3 texCoordMatrix, float[] result, int offset) {
+        double[] m = this.unitSquareTransform.m;
+        double[] t = texCoordMatrix.m;
+        float[] square = UNIT_SQUARE_TRIANGLES;
+
+        for (int idx = 0; idx < square.length; idx += 2) {
+            double x = square[idx];
+            double y = square[idx + 1];
+            result[offset++] = (float) (m[0] * x + m[1] * y + m[3]);
+            result[offset++] = (float) (m[4] * x + m[5] * y + m[7]);
+            result[offset++] = (float) (m[8] * x + m[9] * y + m[11]);
+            result[offset++] = (float) (t[0] * x + t[1] * y + t[2]);
+            result[offset++] = (float) (t[3] * x + t[4] * y + t[5]);
+        }
+
+        return offset;
     }
 }
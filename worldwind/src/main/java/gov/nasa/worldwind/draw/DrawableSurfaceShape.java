@@ -32,6 +32,8 @@ public class DrawableSurfaceShape implements Drawable {
 
     private Color color = new Color();
 
+    private SurfaceShapeTextureCache.Key textureKey = new SurfaceShapeTextureCache.Key();
+
     private Pool<DrawableSurfaceShape> pool;
 
     public DrawableSurfaceShape() {
@@ -86,10 +88,11 @@ public class DrawableSurfaceShape implements Drawable {
             for (int idx = 0, len = dc.getDrawableTerrainCount(); idx < len; idx++) {
                 // Get the drawable terrain associated with the draw context.
                 DrawableTerrain terrain = dc.getDrawableTerrain(idx);
-                // Draw the accumulated surface shapes to a texture representing the terrain's sector.
-                if (this.drawShapesToTexture(dc, terrain) > 0) {
+                // Get a texture containing the accumulated surface shapes in the terrain's sector.
+                Texture texture = this.surfaceTexture(dc, terrain);
+                if (texture != null) {
                     // Draw the texture containing the rasterized shapes onto the terrain geometry.
-                    this.drawTextureToTerrain(dc, terrain);
+                    this.drawTextureToTerrain(dc, terrain, texture);
                 }
             }
         } finally {
@@ -100,7 +103,79 @@ public class DrawableSurfaceShape implements Drawable {
         }
     }
 
-    protected int drawShapesToTexture(DrawContext dc, DrawableTerrain terrain) {
+    protected Texture surfaceTexture(DrawContext dc, DrawableTerrain terrain) {
+        // Pick colors identify shapes in the current frame only. Draw picked shapes to the scratch framebuffer.
+        if (dc.pickMode) {
+            Framebuffer framebuffer = dc.scratchFramebuffer();
+            return (this.drawShapesToTexture(dc, terrain, framebuffer) > 0) ?
+                framebuffer.getAttachedTexture(GLES20.GL_COLOR_ATTACHMENT0) : null;
+        }
+
+        // Identify the texture by the terrain's sector and the content of the shapes that intersect it.
+        if (this.assembleTextureKey(dc, terrain.getSector(), this.textureKey) == 0) {
+            return null; // no shapes intersect the terrain
+        }
+
+        // Use the texture drawn in a previous frame when neither the terrain's sector nor the shapes have changed.
+        SurfaceShapeTextureCache cache = dc.surfaceShapeTextureCache();
+        Texture texture = cache.get(this.textureKey);
+        if (texture != null) {
+            return texture;
+        }
+
+        // Draw the shapes to a new texture and add it to the cache.
+        texture = cache.obtainTexture(dc);
+        Framebuffer framebuffer = cache.framebuffer();
+        if (!framebuffer.attachTexture(dc, texture, GLES20.GL_COLOR_ATTACHMENT0)
+            || this.drawShapesToTexture(dc, terrain, framebuffer) == 0) {
+            cache.recycleTexture(texture);
+            return null;
+        }
+
+        cache.put(this.textureKey.copy(), texture, texture.getByteCount());
+        return texture;
+    }
+
+    protected int assembleTextureKey(DrawContext dc, Sector terrainSector, SurfaceShapeTextureCache.Key key) {
+        // Shapes have been accumulated in the draw context's scratch list.
+        ArrayList<Object> scratchList = dc.scratchList();
+        key.set(terrainSector);
+
+        // Keep track of the number of shapes contributing to the texture.
+        int shapeCount = 0;
+
+        for (int idx = 0, len = scratchList.size(); idx < len; idx++) {
+            DrawableSurfaceShape shape = (DrawableSurfaceShape) scratchList.get(idx);
+            DrawShapeState state = shape.drawState;
+
+            if (!shape.sector.intersectsOrNextTo(terrainSector) || state.vertexBuffer == null || state.elementBuffer == null) {
+                continue; // the shape is not drawn into the terrain's texture
+            }
+
+            key.addContent(state.vertexBuffer).addContent(state.vertexBuffer.getVersion());
+            key.addContent(state.elementBuffer).addContent(state.elementBuffer.getVersion());
+            key.addContent(state.vertexOrigin.x).addContent(state.vertexOrigin.y).addContent(state.vertexOrigin.z);
+            key.addContent(state.vertexStride).addContent(state.primCount);
+
+            for (int primIdx = 0; primIdx < state.primCount; primIdx++) {
+                DrawShapeState.DrawElements prim = state.prims[primIdx];
+                key.addContent(prim.mode).addContent(prim.count).addContent(prim.type).addContent(prim.offset);
+                key.addContent(prim.color.red).addContent(prim.color.green).addContent(prim.color.blue).addContent(prim.color.alpha);
+                key.addContent(prim.lineWidth).addContent(prim.texture);
+                key.addContent(prim.texCoordAttrib.size).addContent(prim.texCoordAttrib.offset);
+
+                for (double value : prim.texCoordMatrix.m) {
+                    key.addContent(value);
+                }
+            }
+
+            shapeCount++;
+        }
+
+        return shapeCount;
+    }
+
+    protected int drawShapesToTexture(DrawContext dc, DrawableTerrain terrain, Framebuffer framebuffer) {
         // Shapes have been accumulated in the draw context's scratch list.
         ArrayList<Object> scratchList = dc.scratchList();
 
@@ -111,7 +186,6 @@ public class DrawableSurfaceShape implements Drawable {
         int shapeCount = 0;
 
         try {
-            Framebuffer framebuffer = dc.scratchFramebuffer();
             if (!framebuffer.bindFramebuffer(dc)) {
                 return 0; // framebuffer failed to bind
             }
@@ -188,7 +262,7 @@ public class DrawableSurfaceShape implements Drawable {
         return shapeCount;
     }
 
-    protected void drawTextureToTerrain(DrawContext dc, DrawableTerrain terrain) {
+    protected void drawTextureToTerrain(DrawContext dc, DrawableTerrain terrain, Texture texture) {
         if (!terrain.useVertexPointAttrib(dc, 0 /*vertexPoint*/)) {
             return; // terrain vertex attribute failed to bind
         }
@@ -197,8 +271,7 @@ public class DrawableSurfaceShape implements Drawable {
             return; // terrain vertex attribute failed to bind
         }
 
-        Texture colorAttachment = dc.scratchFramebuffer().getAttachedTexture(GLES20.GL_COLOR_ATTACHMENT0);
-        if (!colorAttachment.bindTexture(dc)) {
+        if (!texture.bindTexture(dc)) {
             return; // framebuffer texture failed to bind
         }
 
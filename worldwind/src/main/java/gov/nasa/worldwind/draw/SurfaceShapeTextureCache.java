@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import android.opengl.GLES20;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.Framebuffer;
+import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.LruMemoryCache;
+
+/**
+ * Cache of textures containing surface shapes rasterized for a terrain tile. Textures are keyed by the terrain tile's
+ * sector and the content of the shapes drawn into them, allowing surface shapes to be rasterized once and reused in
+ * subsequent frames until either the shapes or the terrain tiles change. Textures evicted from the cache are reused for
+ * subsequent rasterizations, so a cache too small for the current scene costs no more than drawing without a cache.
+ * <p/>
+ * Each texture covers one terrain tile, so the cache is useful only when it holds a texture for every tile a frame draws
+ * shapes into; otherwise the least recently used texture is evicted just before it is needed again. Textures are
+ * therefore sized like imagery tiles rather than the screen, and the cache holds at least a typical frame's visible
+ * terrain tiles.
+ * <p/>
+ * The cached textures are held outside the render resource cache. WorldWindow sizes this cache as a fraction of the
+ * render resource cache's capacity; see {@link #recommendedCapacity(int)}.
+ * <p/>
+ * The cache must be accessed on the OpenGL thread.
+ */
+public class SurfaceShapeTextureCache extends LruMemoryCache<SurfaceShapeTextureCache.Key, Texture> {
+
+    protected static final int DEFAULT_TEXTURE_SIZE = 256;
+
+    /**
+     * The minimum number of textures held by a cache with the recommended capacity; more than the number of terrain
+     * tiles typically visible in one frame.
+     */
+    protected static final int MIN_TEXTURE_COUNT = 64;
+
+    protected static final int MAX_FREE_TEXTURES = 1;
+
+    protected int textureSize;
+
+    protected Framebuffer framebuffer;
+
+    protected ArrayList<Texture> freeTextures = new ArrayList<>();
+
+    protected ArrayList<Texture> releasedTextures = new ArrayList<>();
+
+    public SurfaceShapeTextureCache() {
+        this(recommendedCapacity(1024 * 1024 * 64), DEFAULT_TEXTURE_SIZE);
+    }
+
+    /**
+     * Constructs a surface shape texture cache.
+     *
+     * @param capacity    the cache's capacity in bytes
+     * @param textureSize the width and height of the cached textures
+     */
+    public SurfaceShapeTextureCache(int capacity, int textureSize) {
+        super(capacity, capacity - textureByteCount(textureSize)); // evict one texture at a time, and reuse it
+        this.textureSize = textureSize;
+    }
+
+    /**
+     * Returns the surface shape texture cache capacity appropriate for a render resource cache with the specified
+     * capacity: one eighth of the render resource cache's capacity, rounded down to a whole number of textures of the
+     * default size, and no less than enough textures for a typical frame's visible terrain tiles.
+     *
+     * @param renderResourceCapacity the render resource cache's capacity in bytes
+     *
+     * @return the surface shape texture cache's capacity in bytes
+     */
+    public static int recommendedCapacity(int renderResourceCapacity) {
+        int textureBytes = textureByteCount(DEFAULT_TEXTURE_SIZE);
+        int textureCount = Math.max(MIN_TEXTURE_COUNT, renderResourceCapacity / 8 / textureBytes);
+        return textureCount * textureBytes;
+    }
+
+    protected static int textureByteCount(int textureSize) {
+        return new Texture(textureSize, textureSize, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE).getByteCount();
+    }
+
+    public int getTextureSize() {
+        return this.textureSize;
+    }
+
+    /**
+     * Returns the framebuffer used to rasterize shapes into this cache's textures. The framebuffer has no attachments
+     * until one is specified by the caller.
+     */
+    public Framebuffer framebuffer() {
+        if (this.framebuffer == null) {
+            this.framebuffer = new Framebuffer();
+        }
+
+        return this.framebuffer;
+    }
+
+    /**
+     * Returns a texture suitable for rasterizing shapes into, reusing a texture evicted from the cache when possible.
+     * The texture's contents are undefined.
+     */
+    public Texture obtainTexture(DrawContext dc) {
+        // Release textures that were evicted beyond those kept for reuse.
+        for (int idx = 0, len = this.releasedTextures.size(); idx < len; idx++) {
+            this.releasedTextures.get(idx).release(dc);
+        }
+        this.releasedTextures.clear();
+
+        int last = this.freeTextures.size() - 1;
+        if (last >= 0) {
+            return this.freeTextures.remove(last);
+        }
+
+        return new Texture(this.textureSize, this.textureSize, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+    }
+
+    /**
+     * Returns a texture obtained from {@link #obtainTexture} that was not added to the cache.
+     */
+    public void recycleTexture(Texture texture) {
+        if (this.freeTextures.size() < MAX_FREE_TEXTURES) {
+            this.freeTextures.add(texture);
+        } else {
+            this.releasedTextures.add(texture);
+        }
+    }
+
+    /**
+     * Releases all cached and free textures.
+     */
+    public void release(DrawContext dc) {
+        this.clear(); // moves the cached textures to the free and released lists
+
+        for (int idx = 0, len = this.freeTextures.size(); idx < len; idx++) {
+            this.freeTextures.get(idx).release(dc);
+        }
+        this.freeTextures.clear();
+
+        for (int idx = 0, len = this.releasedTextures.size(); idx < len; idx++) {
+            this.releasedTextures.get(idx).release(dc);
+        }
+        this.releasedTextures.clear();
+
+        if (this.framebuffer != null) {
+            this.framebuffer.release(dc);
+            this.framebuffer = null;
+        }
+    }
+
+    @Override
+    protected void entryRemoved(Key key, Texture oldValue, Texture newValue, boolean evicted) {
+        this.recycleTexture(oldValue);
+    }
+
+    /**
+     * Identifies the contents of a cached texture: the terrain tile's sector, the geometry and texture objects of the
+     * shapes drawn into it, compared by identity, and a hash of the shapes' remaining drawing state.
+     */
+    public static class Key {
+
+        protected double minLatitude;
+
+        protected double maxLatitude;
+
+        protected double minLongitude;
+
+        protected double maxLongitude;
+
+        protected long contentHash;
+
+        protected Object[] contents = new Object[16];
+
+        protected int contentCount;
+
+        public Key() {
+        }
+
+        public Key set(Sector sector) {
+            this.minLatitude = sector.minLatitude();
+            this.maxLatitude = sector.maxLatitude();
+            this.minLongitude = sector.minLongitude();
+            this.maxLongitude = sector.maxLongitude();
+            this.contentHash = 17;
+            Arrays.fill(this.contents, 0, this.contentCount, null);
+            this.contentCount = 0;
+            return this;
+        }
+
+        public Key addContent(Object object) {
+            if (this.contentCount == this.contents.length) {
+                this.contents = Arrays.copyOf(this.contents, this.contentCount * 2);
+            }
+
+            this.contents[this.contentCount++] = object;
+            this.contentHash = 31 * this.contentHash + System.identityHashCode(object);
+            return this;
+        }
+
+        public Key addContent(long value) {
+            this.contentHash = 31 * this.contentHash + value;
+            return this;
+        }
+
+        public Key addContent(double value) {
+            return this.addContent(Double.doubleToLongBits(value));
+        }
+
+        /**
+         * Returns a copy of this key suitable for storing in the cache.
+         */
+        public Key copy() {
+            Key copy = new Key();
+            copy.minLatitude = this.minLatitude;
+            copy.maxLatitude = this.maxLatitude;
+            copy.minLongitude = this.minLongitude;
+            copy.maxLongitude = this.maxLongitude;
+            copy.contentHash = this.contentHash;
+            copy.contents = Arrays.copyOf(this.contents, this.contentCount);
+            copy.contentCount = this.contentCount;
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key that = (Key) o;
+            if (this.minLatitude != that.minLatitude || this.maxLatitude != that.maxLatitude
+                || this.minLongitude != that.minLongitude || this.maxLongitude != that.maxLongitude
+                || this.contentHash != that.contentHash || this.contentCount != that.contentCount) {
+                return false;
+            }
+
+            for (int idx = 0; idx < this.contentCount; idx++) {
+                if (this.contents[idx] != that.contents[idx]) { // compare drawing objects by identity
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            long result = this.contentHash;
+            result = 31 * result + Double.doubleToLongBits(this.minLatitude);
+            result = 31 * result + Double.doubleToLongBits(this.maxLatitude);
+            result = 31 * result + Double.doubleToLongBits(this.minLongitude);
+            result = 31 * result + Double.doubleToLongBits(this.maxLongitude);
+            return (int) (result ^ (result >>> 32));
+        }
+    }
+}
@@ -88,6 +88,32 @@ public class Frustum {
         return this;
     }
 
+    /**
+     * Sets this frustum to the planes and viewport of a specified frustum.
+     *
+     * @param frustum the frustum specifying the new values
+     *
+     * @return this frustum, set to the values of the specified frustum
+     *
+     * @throws IllegalArgumentException If the frustum is null
+     */
+    public Frustum set(Frustum frustum) {
+        if (frustum == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Frustum", "set", "missingFrustum"));
+        }
+
+        this.left.set(frustum.left);
+        this.right.set(frustum.right);
+        this.bottom.set(frustum.bottom);
+        this.top.set(frustum.top);
+        this.near.set(frustum.near);
+        this.far.set(frustum.far);
+        this.viewport.set(frustum.viewport);
+
+        return this;
+    }
+
     /**
      * Sets this frustum to one appropriate for a modelview-projection matrix. A modelview-projection matrix's view
      * frustum is a Cartesian volume that contains everything visible in a scene displayed using that
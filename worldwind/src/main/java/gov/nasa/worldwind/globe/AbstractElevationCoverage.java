@@ -21,6 +21,23 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
 
     protected Map<Object, Object> userProperties;
 
+    /**
+     * Ring buffer of the most recently changed sectors, along with the elevation generation of each change. Changes
+     * that fall out of the ring raise expiredGeneration, which conservatively reports a change to any caller whose
+     * generation predates the discarded entry.
+     */
+    protected Sector[] changedSectors = new Sector[MAX_CHANGED_SECTORS];
+
+    protected long[] changedGenerations = new long[MAX_CHANGED_SECTORS];
+
+    protected int changedCount;
+
+    protected int changedIndex;
+
+    protected long expiredGeneration;
+
+    protected static final int MAX_CHANGED_SECTORS = 256;
+
     public AbstractElevationCoverage() {
         this.updateTimestamp();
     }
@@ -55,6 +72,71 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
         this.timestamp = System.currentTimeMillis();
     }
 
+    /**
+     * Indicates whether this coverage has changed its heights within a sector after a specified elevation generation.
+     * Changes that affect the entire coverage, such as enabling or disabling it, are reported by {@link
+     * #getTimestamp()} instead.
+     *
+     * @param sector     the sector to test
+     * @param generation a generation previously returned by {@link ElevationModel#getGeneration()}
+     *
+     * @return true if heights within the sector may have changed since the generation, false otherwise
+     *
+     * @throws IllegalArgumentException If the sector is null
+     */
+    public boolean hasChangedSince(Sector sector, long generation) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "hasChangedSince", "missingSector"));
+        }
+
+        synchronized (this.changedSectors) {
+            if (this.expiredGeneration > generation) {
+                return true; // the caller predates changes that are no longer tracked
+            }
+
+            // Visit changes from newest to oldest, stopping at the first change the caller has already seen.
+            for (int i = 0, idx = this.changedIndex; i < this.changedCount; i++) {
+                idx = (idx == 0) ? MAX_CHANGED_SECTORS - 1 : idx - 1;
+                if (this.changedGenerations[idx] <= generation) {
+                    break;
+                }
+
+                if (this.changedSectors[idx].intersectsOrNextTo(sector)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Records a change to this coverage's heights within a sector. Unlike {@link #updateTimestamp()}, which causes
+     * every terrain tile to sample the coverage again, this affects only the tiles that intersect or adjoin the sector.
+     *
+     * @param sector the sector whose heights changed
+     */
+    protected void updateTimestamp(Sector sector) {
+        synchronized (this.changedSectors) {
+            int idx = this.changedIndex;
+            if (this.changedCount == MAX_CHANGED_SECTORS) {
+                this.expiredGeneration = this.changedGenerations[idx]; // overwrite the oldest change
+            } else {
+                this.changedCount++;
+            }
+
+            if (this.changedSectors[idx] == null) {
+                this.changedSectors[idx] = new Sector(sector);
+            } else {
+                this.changedSectors[idx].set(sector);
+            }
+
+            this.changedGenerations[idx] = ElevationModel.nextGeneration();
+            this.changedIndex = (idx + 1) % MAX_CHANGED_SECTORS;
+        }
+    }
+
     @Override
     public Object getUserProperty(Object key) {
         return (this.userProperties != null) ? this.userProperties.get(key) : null;
@@ -81,6 +163,23 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
 
     @Override
     public void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
+        this.getHeightGrid(gridSector, gridWidth, gridHeight, 0, result);
+    }
+
+    /**
+     * Computes a grid of heights as {@link #getHeightGrid(Sector, int, int, float[])} does, requesting the data the
+     * heights depend on with a specified retrieval priority. Requests with lower priority values are retrieved first;
+     * callers typically specify the distance from the camera to the grid's sector.
+     *
+     * @param gridSector the grid's sector
+     * @param gridWidth  the number of grid columns
+     * @param gridHeight the number of grid rows
+     * @param priority   the retrieval priority of the data the heights depend on
+     * @param result     a pre-allocated array in which to return the heights
+     *
+     * @throws IllegalArgumentException If either the sector or the result is null
+     */
+    public void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, double priority, float[] result) {
         if (gridSector == null) {
             throw new IllegalArgumentException(
                 Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeightGrid", "missingSector"));
@@ -95,11 +194,26 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
             return;
         }
 
-        this.doGetHeightGrid(gridSector, gridWidth, gridHeight, result);
+        this.doGetHeightGrid(gridSector, gridWidth, gridHeight, priority, result);
     }
 
     @Override
     public void getHeightLimits(Sector sector, float[] result) {
+        this.getHeightLimits(sector, 0, result);
+    }
+
+    /**
+     * Computes height limits as {@link #getHeightLimits(Sector, float[])} does, requesting the data the limits depend
+     * on with a specified retrieval priority. Requests with lower priority values are retrieved first; callers
+     * typically specify the distance from the camera to the sector.
+     *
+     * @param sector   the sector to scan
+     * @param priority the retrieval priority of the data the limits depend on
+     * @param result   a pre-allocated array in which to return the minimum and maximum heights
+     *
+     * @throws IllegalArgumentException If either the sector or the result is null
+     */
+    public void getHeightLimits(Sector sector, double priority, float[] result) {
         if (sector == null) {
             throw new IllegalArgumentException(
                 Logger.logMessage(Logger.ERROR, "AbstractElevationCoverage", "getHeightLimits", "missingSector"));
@@ -114,10 +228,26 @@ public abstract class AbstractElevationCoverage implements ElevationCoverage {
             return;
         }
 
-        this.doGetHeightLimits(sector, result);
+        this.doGetHeightLimits(sector, priority, result);
     }
 
     protected abstract void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result);
 
     protected abstract void doGetHeightLimits(Sector sector, float[] result);
+
+    /**
+     * Computes a grid of heights, requesting the data the heights depend on with a specified retrieval priority. The
+     * default implementation ignores the priority. Coverages that retrieve data should override this method.
+     */
+    protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, double priority, float[] result) {
+        this.doGetHeightGrid(gridSector, gridWidth, gridHeight, result);
+    }
+
+    /**
+     * Computes height limits, requesting the data the limits depend on with a specified retrieval priority. The
+     * default implementation ignores the priority. Coverages that retrieve data should override this method.
+     */
+    protected void doGetHeightLimits(Sector sector, double priority, float[] result) {
+        this.doGetHeightLimits(sector, result);
+    }
 }
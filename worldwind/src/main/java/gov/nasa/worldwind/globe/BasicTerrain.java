@@ -6,11 +6,13 @@
 package gov.nasa.worldwind.globe;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.util.Level;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.WWMath;
 
@@ -22,8 +24,38 @@ public class BasicTerrain implements Terrain {
 
     protected short[] triStripElements;
 
+    /**
+     * Open addressing hash table mapping a tile's level number, row and column to the tile. Assembled on demand after
+     * tiles are added, and used to find the tile containing a geographic location without visiting every tile.
+     */
+    protected long[] tileIndexKeys = new long[0];
+
+    protected TerrainTile[] tileIndexValues = new TerrainTile[0];
+
+    protected List<Level> tileIndexLevels = new ArrayList<>();
+
+    protected volatile boolean tileIndexValid; // layers rendering in parallel may look up tiles concurrently
+
+    protected TerrainTile lastSurfaceTile;
+
+    /**
+     * Triangle strip elements for each block of cells in a tile's points, used to limit ray intersection to the blocks
+     * whose bounds intersect the ray.
+     */
+    protected short[][] blockElements;
+
+    protected int blockRows;
+
+    protected int blockCols;
+
+    protected static final int BLOCK_CELLS = 8;
+
+    protected static final double INDEX_EPSILON = 1.0e-9;
+
     private Vec3 intersectPoint = new Vec3();
 
+    private Vec3 blockIntersectPoint = new Vec3();
+
     public BasicTerrain() {
     }
 
@@ -35,12 +67,39 @@ public class BasicTerrain implements Terrain {
 
         this.tiles.add(tile);
         this.sector.union(tile.sector);
+        this.tileIndexValid = false;
+    }
+
+    /**
+     * Sets this terrain to the tiles of another terrain. The tiles are shared with the other terrain rather than
+     * copied, so this terrain remains valid after the other terrain is cleared and refilled, as long as the tiles
+     * themselves are not modified.
+     *
+     * @param terrain the terrain whose tiles to use
+     *
+     * @return this terrain, containing the other terrain's tiles
+     *
+     * @throws IllegalArgumentException If the terrain is null
+     */
+    public BasicTerrain set(BasicTerrain terrain) {
+        if (terrain == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BasicTerrain", "set", "missingTerrain"));
+        }
+
+        this.clear();
+        this.tiles.addAll(terrain.tiles);
+        this.sector.set(terrain.sector);
+        this.triStripElements = terrain.triStripElements;
+        return this;
     }
 
     public void clear() {
         this.triStripElements = null;
         this.tiles.clear();
         this.sector.setEmpty();
+        this.tileIndexValid = false;
+        this.lastSurfaceTile = null;
     }
 
     public void setTriStripElements(short[] elements) {
@@ -65,16 +124,17 @@ public class BasicTerrain implements Terrain {
         }
 
         double minDist2 = Double.POSITIVE_INFINITY;
+        double dirLen2 = line.direction.magnitudeSquared();
 
         for (int idx = 0, len = this.tiles.size(); idx < len; idx++) {
             // Translate the line to the terrain tile's local coordinate system.
             TerrainTile tile = this.tiles.get(idx);
             line.origin.subtract(tile.origin);
 
-            // Compute the first intersection of the terrain tile with the line. The line is interpreted as a ray;
+            // Compute the nearest intersection of the terrain tile with the line. The line is interpreted as a ray;
             // intersection points behind the line's origin are ignored. Store the nearest intersection found so far
             // in the result argument.
-            if (line.triStripIntersection(tile.points, 3, this.triStripElements, this.triStripElements.length, this.intersectPoint)) {
+            if (this.intersectTile(tile, line, dirLen2, minDist2, this.intersectPoint)) {
                 double dist2 = line.origin.distanceToSquared(this.intersectPoint);
                 if (minDist2 > dist2) {
                     minDist2 = dist2;
@@ -96,52 +156,351 @@ public class BasicTerrain implements Terrain {
                 Logger.logMessage(Logger.ERROR, "BasicTerrain", "surfacePoint", "missingResult"));
         }
 
-        for (int idx = 0, len = this.tiles.size(); idx < len; idx++) {
-            TerrainTile tile = this.tiles.get(idx);
+        // Find the tile that contains the specified location.
+        TerrainTile tile = this.tileContaining(latitude, longitude);
+        if (tile != null) {
             Sector sector = tile.sector;
 
-            // Find the first tile that contains the specified location.
-            if (sector.contains(latitude, longitude)) {
-                // Compute the location's parameterized coordinates (s, t) within the tile grid, along with the
-                // fractional component (sf, tf) and integral component (si, ti).
-                int tileWidth = tile.level.tileWidth;
-                int tileHeight = tile.level.tileHeight;
-                double s = (longitude - sector.minLongitude()) / sector.deltaLongitude() * (tileWidth - 1);
-                double t = (latitude - sector.minLatitude()) / sector.deltaLatitude() * (tileHeight - 1);
-                double sf = (s < tileWidth - 1) ? WWMath.fract(s) : 1;
-                double tf = (t < tileHeight - 1) ? WWMath.fract(t) : 1;
-                int si = (s < tileWidth - 1) ? (int) (s + 1) : (tileWidth - 1);
-                int ti = (t < tileHeight - 1) ? (int) (t + 1) : (tileHeight - 1);
-
-                // Compute the location in the tile's local coordinate system. Perform a bilinear interpolation of
-                // the cell's four points based on the fractional portion of the location's parameterized coordinates.
-                // Tile coordinates are organized in the points array in row major order, starting at the tile's
-                // Southwest corner. Account for the tile's border vertices, which are embedded in the points array but
-                // must be ignored for this computation.
-                int tileRowStride = tileWidth + 2;
-                int i00 = (si + ti * tileRowStride) * 3;       // lower left coordinate
-                int i10 = i00 + 3;                             // lower right coordinate
-                int i01 = (si + (ti + 1) * tileRowStride) * 3; // upper left coordinate
-                int i11 = i01 + 3;                             // upper right coordinate
-                double f00 = (1 - sf) * (1 - tf);
-                double f10 = sf * (1 - tf);
-                double f01 = (1 - sf) * tf;
-                double f11 = sf * tf;
-                float[] points = tile.points;
-                result.x = (points[i00] * f00) + (points[i10] * f10) + (points[i01] * f01) + (points[i11] * f11);
-                result.y = (points[i00 + 1] * f00) + (points[i10 + 1] * f10) + (points[i01 + 1] * f01) + (points[i11 + 1] * f11);
-                result.z = (points[i00 + 2] * f00) + (points[i10 + 2] * f10) + (points[i01 + 2] * f01) + (points[i11 + 2] * f11);
-
-                // Translate the surface point from the tile's local coordinate system to Cartesian coordinates.
-                result.x += tile.origin.x;
-                result.y += tile.origin.y;
-                result.z += tile.origin.z;
-
-                return true;
-            }
+            // Compute the location's parameterized coordinates (s, t) within the tile grid, along with the
+            // fractional component (sf, tf) and integral component (si, ti).
+            int tileWidth = tile.level.tileWidth;
+            int tileHeight = tile.level.tileHeight;
+            double s = (longitude - sector.minLongitude()) / sector.deltaLongitude() * (tileWidth - 1);
+            double t = (latitude - sector.minLatitude()) / sector.deltaLatitude() * (tileHeight - 1);
+            double sf = (s < tileWidth - 1) ? WWMath.fract(s) : 1;
+            double tf = (t < tileHeight - 1) ? WWMath.fract(t) : 1;
+            int si = (s < tileWidth - 1) ? (int) (s + 1) : (tileWidth - 1);
+            int ti = (t < tileHeight - 1) ? (int) (t + 1) : (tileHeight - 1);
+
+            // Compute the location in the tile's local coordinate system. Perform a bilinear interpolation of
+            // the cell's four points based on the fractional portion of the location's parameterized coordinates.
+            // Tile coordinates are organized in the points array in row major order, starting at the tile's
+            // Southwest corner. Account for the tile's border vertices, which are embedded in the points array but
+            // must be ignored for this computation.
+            int tileRowStride = tileWidth + 2;
+            int i00 = (si + ti * tileRowStride) * 3;       // lower left coordinate
+            int i10 = i00 + 3;                             // lower right coordinate
+            int i01 = (si + (ti + 1) * tileRowStride) * 3; // upper left coordinate
+            int i11 = i01 + 3;                             // upper right coordinate
+            double f00 = (1 - sf) * (1 - tf);
+            double f10 = sf * (1 - tf);
+            double f01 = (1 - sf) * tf;
+            double f11 = sf * tf;
+            float[] points = tile.points;
+            result.x = (points[i00] * f00) + (points[i10] * f10) + (points[i01] * f01) + (points[i11] * f11);
+            result.y = (points[i00 + 1] * f00) + (points[i10 + 1] * f10) + (points[i01 + 1] * f01) + (points[i11 + 1] * f11);
+            result.z = (points[i00 + 2] * f00) + (points[i10 + 2] * f10) + (points[i01 + 2] * f01) + (points[i11 + 2] * f11);
+
+            // Translate the surface point from the tile's local coordinate system to Cartesian coordinates.
+            result.x += tile.origin.x;
+            result.y += tile.origin.y;
+            result.z += tile.origin.z;
+
+            return true;
         }
 
         // No tile was found that contains the location.
         return false;
     }
+
+    protected TerrainTile tileContaining(double latitude, double longitude) {
+        // Consecutive lookups tend to be near each other; try the most recently found tile first. The most recent tile
+        // may have been found by another thread, but any tile containing the location gives the same result.
+        TerrainTile tile = this.lastSurfaceTile;
+        if (tile != null && tile.sector.contains(latitude, longitude)) {
+            return tile;
+        }
+
+        if (!this.tileIndexValid) {
+            synchronized (this) {
+                if (!this.tileIndexValid) {
+                    this.assembleTileIndex();
+                }
+            }
+        }
+
+        // Compute the location's row and column in each level that has tiles in the terrain. Allow for rounding error
+        // in the tile sectors by considering both neighbors when the location is on or very near a tile boundary.
+        for (int idx = 0, len = this.tileIndexLevels.size(); idx < len; idx++) {
+            Level level = this.tileIndexLevels.get(idx);
+            double s = (longitude + 180) / level.tileDelta;
+            double t = (latitude + 90) / level.tileDelta;
+            int colMin = (int) Math.floor(s - INDEX_EPSILON);
+            int colMax = (int) Math.floor(s + INDEX_EPSILON);
+            int rowMin = (int) Math.floor(t - INDEX_EPSILON);
+            int rowMax = (int) Math.floor(t + INDEX_EPSILON);
+
+            for (int row = rowMin; row <= rowMax; row++) {
+                for (int col = colMin; col <= colMax; col++) {
+                    tile = this.indexedTile(tileIndexKey(level, row, col));
+                    if (tile != null && tile.sector.contains(latitude, longitude)) {
+                        return (this.lastSurfaceTile = tile);
+                    }
+                }
+            }
+        }
+
+        // The index assumes tiles aligned with a global grid anchored at -90 latitude and -180 longitude. Tiles from
+        // other grids, or sharing a grid cell with another tile, are not found in the index; search every tile.
+        for (int idx = 0, len = this.tiles.size(); idx < len; idx++) {
+            tile = this.tiles.get(idx);
+            if (tile.sector.contains(latitude, longitude)) {
+                return (this.lastSurfaceTile = tile);
+            }
+        }
+
+        return null;
+    }
+
+    protected void assembleTileIndex() {
+        int capacity = Integer.highestOneBit(Math.max(this.tiles.size(), 1) * 2) * 2; // power of two, at most half full
+        if (this.tileIndexKeys.length != capacity) {
+            this.tileIndexKeys = new long[capacity];
+            this.tileIndexValues = new TerrainTile[capacity];
+        } else {
+            Arrays.fill(this.tileIndexValues, null);
+        }
+
+        this.tileIndexLevels.clear();
+
+        for (int idx = 0, len = this.tiles.size(); idx < len; idx++) {
+            // Index tiles by the row and column containing their centroid, which is independent of the row and column
+            // assigned by the tile's creator.
+            TerrainTile tile = this.tiles.get(idx);
+            Level level = tile.level;
+            int row = (int) Math.floor((tile.sector.centroidLatitude() + 90) / level.tileDelta);
+            int col = (int) Math.floor((tile.sector.centroidLongitude() + 180) / level.tileDelta);
+            long key = tileIndexKey(level, row, col);
+
+            int mask = this.tileIndexKeys.length - 1;
+            int slot = tileIndexHash(key) & mask;
+            while (this.tileIndexValues[slot] != null && this.tileIndexKeys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (this.tileIndexValues[slot] == null) { // keep the first tile added at a given location
+                this.tileIndexKeys[slot] = key;
+                this.tileIndexValues[slot] = tile;
+            }
+
+            if (!this.tileIndexLevels.contains(level)) {
+                this.tileIndexLevels.add(level);
+            }
+        }
+
+        this.tileIndexValid = true;
+    }
+
+    protected TerrainTile indexedTile(long key) {
+        int mask = this.tileIndexKeys.length - 1;
+        int slot = tileIndexHash(key) & mask;
+
+        TerrainTile tile;
+        while ((tile = this.tileIndexValues[slot]) != null) {
+            if (this.tileIndexKeys[slot] == key) {
+                return tile;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return null;
+    }
+
+    protected static long tileIndexKey(Level level, int row, int column) {
+        long llev = (level.levelNumber & 0xFFL); // 8 bits
+        long lrow = (row & 0xFFFFFFFL); // 28 bits
+        long lcol = (column & 0xFFFFFFFL); // 28 bits
+        return (llev << 56) | (lrow << 28) | lcol;
+    }
+
+    protected static int tileIndexHash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads adjacent rows and columns
+        return (int) (hash >>> 32);
+    }
+
+    protected boolean intersectTile(TerrainTile tile, Line line, double dirLen2, double minDist2, Vec3 result) {
+        int numLat = tile.level.tileHeight + 2;
+        int numLon = tile.level.tileWidth + 2;
+        int blockRows = (numLat - 2) / BLOCK_CELLS + 1; // ceil((numLat - 1) / BLOCK_CELLS)
+        int blockCols = (numLon - 2) / BLOCK_CELLS + 1;
+
+        if (this.blockElements == null || this.blockRows != blockRows || this.blockCols != blockCols) {
+            this.blockElements = this.assembleBlockElements(numLat, numLon);
+            this.blockRows = blockRows;
+            this.blockCols = blockCols;
+        }
+
+        if (!tile.pointBoundsValid) {
+            tile.pointBounds = this.assemblePointBounds(tile.points, numLat, numLon, tile.pointBounds);
+            tile.pointBoundsValid = true;
+        }
+
+        // Reject the tile when the line misses its bounds, or when the bounds are farther than the nearest intersection
+        // found so far. Otherwise, test only the blocks of cells whose bounds intersect the line.
+        float[] bounds = tile.pointBounds;
+        int numBlocks = this.blockElements.length;
+        double tileEntry = intersectBounds(line, bounds, numBlocks * 6);
+        if (tileEntry < 0 || tileEntry * tileEntry * dirLen2 >= minDist2) {
+            return false;
+        }
+
+        double tileMinDist2 = minDist2;
+        boolean found = false;
+
+        for (int idx = 0; idx < numBlocks; idx++) {
+            double blockEntry = intersectBounds(line, bounds, idx * 6);
+            if (blockEntry < 0 || blockEntry * blockEntry * dirLen2 >= tileMinDist2) {
+                continue;
+            }
+
+            short[] elements = this.blockElements[idx];
+            if (line.triStripIntersection(tile.points, 3, elements, elements.length, this.blockIntersectPoint)) {
+                double dist2 = line.origin.distanceToSquared(this.blockIntersectPoint);
+                if (tileMinDist2 > dist2) {
+                    tileMinDist2 = dist2;
+                    result.set(this.blockIntersectPoint);
+                    found = true;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    protected short[][] assembleBlockElements(int numLat, int numLon) {
+        int blockRows = (numLat - 2) / BLOCK_CELLS + 1;
+        int blockCols = (numLon - 2) / BLOCK_CELLS + 1;
+        short[][] result = new short[blockRows * blockCols][];
+
+        for (int brow = 0, idx = 0; brow < blockRows; brow++) {
+            for (int bcol = 0; bcol < blockCols; bcol++, idx++) {
+                int latMin = brow * BLOCK_CELLS;
+                int latMax = Math.min(latMin + BLOCK_CELLS, numLat - 1);
+                int lonMin = bcol * BLOCK_CELLS;
+                int lonMax = Math.min(lonMin + BLOCK_CELLS, numLon - 1);
+
+                // Create a triangle strip for the block's cells, following the organization used by the tessellator's
+                // triangle strip elements. Join adjacent rows of cells with two degenerate triangles.
+                int rows = latMax - latMin;
+                int cols = lonMax - lonMin + 1;
+                short[] elements = new short[rows * cols * 2 + (rows - 1) * 2];
+                int pos = 0, vertex = 0;
+
+                for (int latIndex = latMin; latIndex < latMax; latIndex++) {
+                    for (int lonIndex = lonMin; lonIndex <= lonMax; lonIndex++) {
+                        vertex = lonIndex + latIndex * numLon;
+                        elements[pos++] = (short) (vertex + numLon);
+                        elements[pos++] = (short) vertex;
+                    }
+
+                    if (latIndex < latMax - 1) {
+                        elements[pos++] = (short) vertex;
+                        elements[pos++] = (short) (lonMin + (latIndex + 2) * numLon);
+                    }
+                }
+
+                result[idx] = elements;
+            }
+        }
+
+        return result;
+    }
+
+    protected float[] assemblePointBounds(float[] points, int numLat, int numLon, float[] result) {
+        int blockRows = (numLat - 2) / BLOCK_CELLS + 1;
+        int blockCols = (numLon - 2) / BLOCK_CELLS + 1;
+        int numBlocks = blockRows * blockCols;
+        if (result == null || result.length != (numBlocks + 1) * 6) {
+            result = new float[(numBlocks + 1) * 6];
+        }
+
+        // Compute the bounds of each block of cells. Vertices on a block's edge contribute to each adjacent block.
+        for (int brow = 0, idx = 0; brow < blockRows; brow++) {
+            for (int bcol = 0; bcol < blockCols; bcol++, idx += 6) {
+                int latMin = brow * BLOCK_CELLS;
+                int latMax = Math.min(latMin + BLOCK_CELLS, numLat - 1);
+                int lonMin = bcol * BLOCK_CELLS;
+                int lonMax = Math.min(lonMin + BLOCK_CELLS, numLon - 1);
+                float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+                float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+
+                for (int latIndex = latMin; latIndex <= latMax; latIndex++) {
+                    for (int lonIndex = lonMin, pos = (lonMin + latIndex * numLon) * 3; lonIndex <= lonMax; lonIndex++) {
+                        float x = points[pos++];
+                        float y = points[pos++];
+                        float z = points[pos++];
+                        if (minX > x) minX = x;
+                        if (maxX < x) maxX = x;
+                        if (minY > y) minY = y;
+                        if (maxY < y) maxY = y;
+                        if (minZ > z) minZ = z;
+                        if (maxZ < z) maxZ = z;
+                    }
+                }
+
+                result[idx] = minX;
+                result[idx + 1] = minY;
+                result[idx + 2] = minZ;
+                result[idx + 3] = maxX;
+                result[idx + 4] = maxY;
+                result[idx + 5] = maxZ;
+            }
+        }
+
+        // Compute the bounds of the entire tile as the union of its blocks.
+        int tileIdx = numBlocks * 6;
+        result[tileIdx] = result[tileIdx + 1] = result[tileIdx + 2] = Float.MAX_VALUE;
+        result[tileIdx + 3] = result[tileIdx + 4] = result[tileIdx + 5] = -Float.MAX_VALUE;
+        for (int idx = 0; idx < tileIdx; idx += 6) {
+            for (int i = 0; i < 3; i++) {
+                result[tileIdx + i] = Math.min(result[tileIdx + i], result[idx + i]);
+                result[tileIdx + 3 + i] = Math.max(result[tileIdx + 3 + i], result[idx + 3 + i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the distance along a line to the point where it enters an axis-aligned box, in units of the line's
+     * direction. Uses the slab method, interpreting the line as a ray.
+     *
+     * @return the entry distance, zero if the line's origin is inside the box, or -1 if the line misses the box
+     */
+    protected static double intersectBounds(Line line, float[] bounds, int offset) {
+        double tMin = 0;
+        double tMax = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < 3; i++) {
+            double o = (i == 0) ? line.origin.x : (i == 1) ? line.origin.y : line.origin.z;
+            double d = (i == 0) ? line.direction.x : (i == 1) ? line.direction.y : line.direction.z;
+            double min = bounds[offset + i];
+            double max = bounds[offset + 3 + i];
+
+            if (d == 0) {
+                if (o < min || o > max) {
+                    return -1; // the line is parallel to the slab and outside it
+                }
+            } else {
+                double t0 = (min - o) / d;
+                double t1 = (max - o) / d;
+                if (t0 > t1) {
+                    double tmp = t0;
+                    t0 = t1;
+                    t1 = tmp;
+                }
+                if (tMin < t0) {
+                    tMin = t0;
+                }
+                if (tMax > t1) {
+                    tMax = t1;
+                }
+                if (tMin > tMax) {
+                    return -1;
+                }
+            }
+        }
+
+        return tMin;
+    }
 }
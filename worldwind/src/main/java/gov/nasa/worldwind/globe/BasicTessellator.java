@@ -170,8 +170,12 @@ public class BasicTessellator implements Tessellator, TileFactory {
         int tileWidth = tile.level.tileWidth;
         int tileHeight = tile.level.tileHeight;
 
-        long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
-        if (elevationTimestamp != tile.getHeightTimestamp()) {
+        ElevationModel elevationModel = rc.globe.getElevationModel();
+        long elevationTimestamp = elevationModel.getTimestamp();
+        long elevationGeneration = elevationModel.getGeneration();
+        boolean heightsChanged = elevationTimestamp != tile.getHeightTimestamp() ||
+            elevationModel.hasChangedSince(tile.sector, tile.getHeightGeneration());
+        if (heightsChanged) {
 
             float[] heights = tile.getHeights();
             if (heights == null) {
@@ -179,13 +183,12 @@ public class BasicTessellator implements Tessellator, TileFactory {
             }
 
             Arrays.fill(heights, 0);
-            rc.globe.getElevationModel().getHeightGrid(tile.sector, tileWidth, tileHeight, heights);
+            elevationModel.getHeightGrid(tile.sector, tileWidth, tileHeight, tile.getDistanceToCamera(), heights);
             tile.setHeights(heights);
         }
 
         double verticalExaggeration = rc.verticalExaggeration;
-        if (verticalExaggeration != tile.getVerticalExaggeration() ||
-            elevationTimestamp != tile.getHeightTimestamp()) {
+        if (verticalExaggeration != tile.getVerticalExaggeration() || heightsChanged) {
 
             Vec3 origin = tile.getOrigin();
             float[] heights = tile.getHeights();
@@ -206,6 +209,7 @@ public class BasicTessellator implements Tessellator, TileFactory {
         }
 
         tile.setHeightTimestamp(elevationTimestamp);
+        tile.setHeightGeneration(elevationGeneration);
         tile.setVerticalExaggeration(verticalExaggeration);
     }
 
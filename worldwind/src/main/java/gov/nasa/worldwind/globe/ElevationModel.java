@@ -7,6 +7,7 @@ package gov.nasa.worldwind.globe;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
 
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.util.Logger;
@@ -15,6 +16,12 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
 
     protected ArrayList<ElevationCoverage> coverages = new ArrayList<>();
 
+    /**
+     * Process-wide counter identifying sector-scoped elevation changes. Shared by all coverages so that a single
+     * generation recorded by a terrain tile orders changes from every coverage in the model.
+     */
+    protected static final AtomicLong generationCounter = new AtomicLong();
+
     public ElevationModel() {
     }
 
@@ -144,7 +151,71 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
         return maxTimestamp;
     }
 
+    /**
+     * Returns the current elevation generation. Callers record this value when they sample the model's heights, then
+     * pass it to {@link #hasChangedSince(Sector, long)} to determine whether heights within a sector must be sampled
+     * again.
+     *
+     * @return the current elevation generation
+     */
+    public long getGeneration() {
+        return generationCounter.get();
+    }
+
+    /**
+     * Indicates whether any coverage in this model has changed its heights within a sector after a specified elevation
+     * generation. Changes that affect an entire coverage are reported by {@link #getTimestamp()} instead.
+     * <p/>
+     * Only coverages extending {@link AbstractElevationCoverage} track the sectors their heights change in. Other
+     * coverages report every change through their timestamp, which causes all terrain to sample heights again.
+     *
+     * @param sector     the sector to test
+     * @param generation a generation previously returned by {@link #getGeneration()}
+     *
+     * @return true if heights within the sector may have changed since the generation, false otherwise
+     *
+     * @throws IllegalArgumentException If the sector is null
+     */
+    public boolean hasChangedSince(Sector sector, long generation) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ElevationModel", "hasChangedSince", "missingSector"));
+        }
+
+        for (int idx = 0, len = this.coverages.size(); idx < len; idx++) {
+            ElevationCoverage coverage = this.coverages.get(idx);
+            if (coverage instanceof AbstractElevationCoverage &&
+                ((AbstractElevationCoverage) coverage).hasChangedSince(sector, generation)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected static long nextGeneration() {
+        return generationCounter.incrementAndGet();
+    }
+
     public void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
+        this.getHeightGrid(gridSector, gridWidth, gridHeight, 0, result);
+    }
+
+    /**
+     * Computes a grid of heights from this model's coverages, requesting the coverage data the heights depend on with
+     * a specified retrieval priority. Requests with lower priority values are retrieved first; callers typically
+     * specify the distance from the camera to the grid's sector. Only coverages extending {@link
+     * AbstractElevationCoverage} prioritize their requests.
+     *
+     * @param gridSector the grid's sector
+     * @param gridWidth  the number of grid columns
+     * @param gridHeight the number of grid rows
+     * @param priority   the retrieval priority of the coverage data the heights depend on
+     * @param result     a pre-allocated array in which to return the heights
+     *
+     * @throws IllegalArgumentException If either the sector or the result is null
+     */
+    public void getHeightGrid(Sector gridSector, int gridWidth, int gridHeight, double priority, float[] result) {
         if (gridSector == null) {
             throw new IllegalArgumentException(
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightGrid", "missingSector"));
@@ -157,11 +228,31 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
 
         for (int idx = 0, len = this.coverages.size(); idx < len; idx++) { // coverages composite from coarse to fine
             ElevationCoverage coverage = this.coverages.get(idx);
-            coverage.getHeightGrid(gridSector, gridWidth, gridHeight, result);
+            if (coverage instanceof AbstractElevationCoverage) {
+                ((AbstractElevationCoverage) coverage).getHeightGrid(gridSector, gridWidth, gridHeight, priority, result);
+            } else {
+                coverage.getHeightGrid(gridSector, gridWidth, gridHeight, result);
+            }
         }
     }
 
     public void getHeightLimits(Sector sector, float[] result) {
+        this.getHeightLimits(sector, 0, result);
+    }
+
+    /**
+     * Computes the minimum and maximum heights of this model's coverages within a sector, requesting the coverage data
+     * the limits depend on with a specified retrieval priority. Requests with lower priority values are retrieved
+     * first; callers typically specify the distance from the camera to the sector. Only coverages extending {@link
+     * AbstractElevationCoverage} prioritize their requests.
+     *
+     * @param sector   the sector to scan
+     * @param priority the retrieval priority of the coverage data the limits depend on
+     * @param result   a pre-allocated array in which to return the minimum and maximum heights
+     *
+     * @throws IllegalArgumentException If either the sector or the result is null
+     */
+    public void getHeightLimits(Sector sector, double priority, float[] result) {
         if (sector == null) {
             throw new IllegalArgumentException(
                 Logger.logMessage(Logger.ERROR, "ElevationModel", "getHeightLimits", "missingSector"));
@@ -174,7 +265,11 @@ public class ElevationModel implements Iterable<ElevationCoverage> {
 
         for (int idx = 0, len = this.coverages.size(); idx < len; idx++) { // coverage order is irrelevant
             ElevationCoverage coverage = this.coverages.get(idx);
-            coverage.getHeightLimits(sector, result);
+            if (coverage instanceof AbstractElevationCoverage) {
+                ((AbstractElevationCoverage) coverage).getHeightLimits(sector, priority, result);
+            } else {
+                coverage.getHeightLimits(sector, result);
+            }
         }
     }
 }
@@ -6,6 +6,8 @@
 package gov.nasa.worldwind.globe;
 
 import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -13,13 +15,18 @@ import java.net.URLConnection;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
 
+import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.formats.tiff.Subfile;
 import gov.nasa.worldwind.formats.tiff.Tiff;
 import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Retriever;
 import gov.nasa.worldwind.util.SynchronizedPool;
+import gov.nasa.worldwind.util.TaskService;
+import gov.nasa.worldwind.util.Tracer;
 import gov.nasa.worldwind.util.WWUtil;
 
 public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer> {
@@ -39,7 +46,15 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
     @Override
     protected void retrieveAsync(ImageSource key, Void unused, Callback<ImageSource, Void, ShortBuffer> callback) {
         try {
-            ShortBuffer buffer = this.decodeCoverage(key);
+            // Look for the decoded coverage in WorldWind's disk cache before retrieving and decoding it. Coverage is
+            // cached in its decoded form, so a cache hit requires no parsing.
+            ShortBuffer buffer = this.readCachedCoverage(key);
+            if (buffer == null) {
+                buffer = this.decodeCoverage(key);
+                if (buffer != null) {
+                    this.writeCachedCoverage(key, buffer);
+                }
+            }
 
             if (buffer != null) {
                 callback.retrievalSucceeded(this, key, unused, buffer);
@@ -51,6 +66,78 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
         }
     }
 
+    @Override
+    protected int taskLane(ImageSource key, Void unused) {
+        if (key.isUrl()) { // coverage found in the disk cache is read from a local file
+            DiskCache diskCache = WorldWind.diskCache();
+            return (diskCache != null && diskCache.containsKey(this.cacheKey(key))) ? TaskService.DECODE : TaskService.NETWORK;
+        } else {
+            return TaskService.DECODE;
+        }
+    }
+
+    /**
+     * Returns decoded coverage from WorldWind's disk cache. Cached coverage is stored as raw 16-bit samples in the
+     * platform's native byte order, and is memory mapped directly into the returned buffer.
+     *
+     * @param imageSource the coverage's image source
+     *
+     * @return a buffer containing the coverage samples, or null if the coverage is not in the disk cache
+     */
+    protected ShortBuffer readCachedCoverage(ImageSource imageSource) {
+        DiskCache diskCache = WorldWind.diskCache();
+        if (diskCache == null || !imageSource.isUrl()) {
+            return null;
+        }
+
+        String cacheKey = this.cacheKey(imageSource);
+        File file = diskCache.get(cacheKey);
+        if (file == null) {
+            return null;
+        }
+
+        FileInputStream stream = null;
+        try {
+            stream = new FileInputStream(file);
+            FileChannel channel = stream.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // valid after close
+            return buffer.order(ByteOrder.nativeOrder()).asShortBuffer();
+        } catch (IOException ignored) { // the file may have been evicted concurrently; treat this as a cache miss
+            diskCache.remove(cacheKey);
+            return null;
+        } finally {
+            WWUtil.closeSilently(stream);
+        }
+    }
+
+    /**
+     * Writes decoded coverage to WorldWind's disk cache in the layout expected by {@link
+     * #readCachedCoverage(ImageSource)}. The buffer's position is left unchanged.
+     *
+     * @param imageSource the coverage's image source
+     * @param buffer      the coverage samples
+     */
+    protected void writeCachedCoverage(ImageSource imageSource, ShortBuffer buffer) {
+        DiskCache diskCache = WorldWind.diskCache();
+        if (diskCache == null || !imageSource.isUrl()) {
+            return;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(buffer.remaining() * 2).order(ByteOrder.nativeOrder());
+        bytes.asShortBuffer().put(buffer.duplicate());
+
+        try {
+            diskCache.put(this.cacheKey(imageSource), bytes);
+        } catch (IOException logged) { // disk caching is an optimization; failing to cache does not fail retrieval
+            Logger.log(Logger.WARN, "Unable to cache coverage \'" + imageSource + "\'", logged);
+        }
+    }
+
+    protected String cacheKey(ImageSource imageSource) {
+        // Distinguish decoded coverage from the original resource, which may be cached under the same URL.
+        return "ElevationRetriever " + imageSource.asUrl();
+    }
+
     protected ShortBuffer decodeCoverage(ImageSource imageSource) throws IOException {
         if (imageSource.isUrl()) {
             return this.decodeUrl(imageSource.asUrl());
@@ -60,7 +147,6 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
     }
 
     protected ShortBuffer decodeUrl(String urlString) throws IOException {
-        // TODO establish a file caching service for remote resources
         // TODO retry absent resources, they are currently handled but suppressed entirely after the first failure
         // TODO configurable connect and read timeouts
 
@@ -72,13 +158,18 @@ public class ElevationRetriever extends Retriever<ImageSource, Void, ShortBuffer
 
             stream = new BufferedInputStream(conn.getInputStream());
             String contentType = conn.getContentType();
-            if (contentType.equalsIgnoreCase("application/bil16")) {
-                return this.readInt16Data(stream);
-            } else if (contentType.equalsIgnoreCase("image/tiff")) {
-                return this.readTiffData(stream);
-            } else {
-                throw new RuntimeException(
-                    Logger.logMessage(Logger.ERROR, "ElevationRetriever", "decodeUrl", "Format not supported"));
+            Tracer.begin(Tracer.DECODE);
+            try {
+                if (contentType.equalsIgnoreCase("application/bil16")) {
+                    return this.readInt16Data(stream);
+                } else if (contentType.equalsIgnoreCase("image/tiff")) {
+                    return this.readTiffData(stream);
+                } else {
+                    throw new RuntimeException(
+                        Logger.logMessage(Logger.ERROR, "ElevationRetriever", "decodeUrl", "Format not supported"));
+                }
+            } finally {
+                Tracer.end(Tracer.DECODE);
             }
         } finally {
             WWUtil.closeSilently(stream);
@@ -22,7 +22,16 @@ import gov.nasa.worldwind.util.Logger;
  */
 public class ProjectionWgs84 implements GeographicProjection {
 
-    private Position scratchPos = new Position();
+    /**
+     * Scratch position used by cartesianToLocalTransform. Each thread has its own instance, since projections are
+     * shared by layers rendering concurrently and by the navigator.
+     */
+    private final ThreadLocal<Position> scratchPos = new ThreadLocal<Position>() {
+        @Override
+        protected Position initialValue() {
+            return new Position();
+        }
+    };
 
     /**
      * Constructs a WGS 84 geographic projection.
@@ -463,7 +472,7 @@ public class ProjectionWgs84 implements GeographicProjection {
                 Logger.logMessage(Logger.ERROR, "ProjectionWgs84", "cartesianToLocalTransform", "missingResult"));
         }
 
-        Position pos = this.cartesianToGeographic(globe, x, y, z, this.scratchPos);
+        Position pos = this.cartesianToGeographic(globe, x, y, z, this.scratchPos.get());
         double radLat = Math.toRadians(pos.latitude);
         double radLon = Math.toRadians(pos.longitude);
         double cosLat = Math.cos(radLat);
@@ -35,8 +35,18 @@ public class TerrainTile extends Tile {
 
     protected Vec3 origin = new Vec3();
 
+    /**
+     * Axis-aligned bounds of the tile's points in local coordinates, organized as blocks of cells followed by the
+     * bounds of the entire tile. Computed on demand by {@link BasicTerrain} for ray intersection.
+     */
+    protected float[] pointBounds;
+
+    protected boolean pointBoundsValid;
+
     private long heightTimestamp;
 
+    private long heightGeneration;
+
     private double verticalExaggeration;
 
     private String pointBufferKey;
@@ -50,10 +60,6 @@ public class TerrainTile extends Tile {
         super(sector, level, row, column);
     }
 
-    public double getDistanceToCamera() {
-        return distanceToCamera;
-    }
-
     public float[] getHeights() {
         return heights;
     }
@@ -78,12 +84,21 @@ public class TerrainTile extends Tile {
         this.heightTimestamp = timestampMillis;
     }
 
+    protected long getHeightGeneration() {
+        return heightGeneration;
+    }
+
+    protected void setHeightGeneration(long generation) {
+        this.heightGeneration = generation;
+    }
+
     public float[] getPoints() {
         return this.points;
     }
 
     public void setPoints(float[] points) {
         this.points = points;
+        this.pointBoundsValid = false;
         this.pointBufferKey = "TerrainTile.points." + this.tileKey + "." + (pointBufferSequence++);
     }
 
@@ -5,15 +5,14 @@
 
 package gov.nasa.worldwind.globe;
 
-import android.os.Handler;
-import android.os.Looper;
-import android.os.Message;
 import android.util.LongSparseArray;
 import android.util.SparseIntArray;
 
 import java.net.SocketTimeoutException;
 import java.nio.ShortBuffer;
 import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.Sector;
@@ -40,9 +39,20 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
     protected LruMemoryCache<ImageSource, short[]> coverageCache;
 
+    /**
+     * Sectors affected by recently requested coverage tiles, keyed by tile source. Accessed only on the thread that
+     * requests heights from this coverage, which is the thread that renders frames.
+     */
+    protected LruMemoryCache<ImageSource, Sector> retrievalSectors;
+
     protected ElevationRetriever coverageRetriever;
 
-    protected Handler coverageHandler;
+    /**
+     * Coverage tiles retrieved since heights were last requested. Retrieval threads add tiles to the queue, and the
+     * thread that requests heights moves them into the coverage cache, so that the coverage's caches are accessed only
+     * on that thread.
+     */
+    protected Queue<RetrievedTile> retrievedTiles = new ConcurrentLinkedQueue<>();
 
     protected boolean enableRetrieval;
 
@@ -51,13 +61,9 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     public TiledElevationCoverage() {
         this.coverageSource = new LruMemoryCache<>(200);
         this.coverageCache = new LruMemoryCache<>(1024 * 1024 * 8);
+        this.coverageCache.setSegmented(true); // height limit scans touch many tiles once; protect tiles in regular use
+        this.retrievalSectors = new LruMemoryCache<>(1024);
         this.coverageRetriever = new ElevationRetriever(4);
-        this.coverageHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
-            @Override
-            public boolean handleMessage(Message msg) {
-                return false;
-            }
-        });
 
         Logger.log(Logger.INFO, String.format(Locale.US, "Coverage cache initialized  %,.0f KB",
             this.coverageCache.getCapacity() / 1024.0));
@@ -97,11 +103,36 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     protected void invalidateTiles() {
         this.coverageSource.clear();
         this.coverageCache.clear();
+        this.retrievalSectors.clear();
+        this.retrievedTiles.clear();
         this.updateTimestamp();
     }
 
+    /**
+     * Moves coverage tiles retrieved since the last call into the coverage cache, and records the sectors whose
+     * heights they change. Tiles invalidated or evicted from the retrieval sectors while their retrieval was in
+     * progress are ignored.
+     */
+    protected void processRetrievedTiles() {
+        RetrievedTile tile;
+        while ((tile = this.retrievedTiles.poll()) != null) {
+            Sector sector = this.retrievalSectors.remove(tile.source);
+            if (sector != null) {
+                this.coverageCache.put(tile.source, tile.array, tile.array.length * 2);
+                this.updateTimestamp(sector);
+            }
+        }
+    }
+
     @Override
     protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
+        this.doGetHeightGrid(gridSector, gridWidth, gridHeight, 0, result);
+    }
+
+    @Override
+    protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, double priority, float[] result) {
+        this.processRetrievedTiles();
+
         if (!this.tileMatrixSet.sector.intersects(gridSector)) {
             return; // no coverage in the specified sector
         }
@@ -115,7 +146,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             this.setEnableRetrieval(idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
 
             TileMatrix tileMatrix = this.tileMatrixSet.matrix(idx);
-            if (this.fetchTileBlock(gridSector, gridWidth, gridHeight, tileMatrix, tileBlock)) {
+            if (this.fetchTileBlock(gridSector, gridWidth, gridHeight, tileMatrix, priority, tileBlock)) {
                 this.readHeightGrid(gridSector, gridWidth, gridHeight, tileBlock, result);
                 return;
             }
@@ -124,6 +155,13 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
     @Override
     protected void doGetHeightLimits(Sector sector, float[] result) {
+        this.doGetHeightLimits(sector, 0, result);
+    }
+
+    @Override
+    protected void doGetHeightLimits(Sector sector, double priority, float[] result) {
+        this.processRetrievedTiles();
+
         if (!this.tileMatrixSet.sector.intersects(sector)) {
             return; // no coverage in the specified sector
         }
@@ -137,14 +175,15 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             this.setEnableRetrieval(idx == targetIdx || idx == 0); // enable retrieval of the target matrix and the first matrix
 
             TileMatrix tileMatrix = this.tileMatrixSet.matrix(idx);
-            if (this.fetchTileBlock(sector, tileMatrix, tileBlock)) {
+            if (this.fetchTileBlock(sector, tileMatrix, priority, tileBlock)) {
                 this.scanHeightLimits(sector, tileBlock, result);
                 return;
             }
         }
     }
 
-    protected boolean fetchTileBlock(Sector gridSector, int gridWidth, int gridHeight, TileMatrix tileMatrix, TileBlock result) {
+    protected boolean fetchTileBlock(Sector gridSector, int gridWidth, int gridHeight, TileMatrix tileMatrix,
+                                     double priority, TileBlock result) {
         int tileWidth = tileMatrix.tileWidth;
         int tileHeight = tileMatrix.tileHeight;
         int rasterWidth = tileMatrix.matrixWidth * tileWidth;
@@ -213,7 +252,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
             for (int cidx = 0, clen = result.cols.size(); cidx < clen; cidx++) {
                 int row = result.rows.keyAt(ridx);
                 int col = result.cols.keyAt(cidx);
-                short[] tileArray = this.fetchTileArray(tileMatrix, row, col);
+                short[] tileArray = this.fetchTileArray(tileMatrix, row, col, priority);
                 if (tileArray != null) {
                     result.putTileArray(row, col, tileArray);
                 } else {
@@ -225,7 +264,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         return true;
     }
 
-    protected boolean fetchTileBlock(Sector sector, TileMatrix tileMatrix, TileBlock result) {
+    protected boolean fetchTileBlock(Sector sector, TileMatrix tileMatrix, double priority, TileBlock result) {
         int tileWidth = tileMatrix.tileWidth;
         int tileHeight = tileMatrix.tileHeight;
         int rasterWidth = tileMatrix.matrixWidth * tileWidth;
@@ -261,7 +300,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
         for (int row = rowMin; row <= rowMax; row++) {
             for (int col = colMin; col <= colMax; col++) {
-                short[] tileArray = this.fetchTileArray(tileMatrix, row, col);
+                short[] tileArray = this.fetchTileArray(tileMatrix, row, col, priority);
                 if (tileArray != null) {
                     result.rows.put(row, 0);
                     result.cols.put(col, 0);
@@ -275,7 +314,7 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         return true;
     }
 
-    protected short[] fetchTileArray(TileMatrix tileMatrix, int row, int column) {
+    protected short[] fetchTileArray(TileMatrix tileMatrix, int row, int column, double priority) {
         long key = tileKey(tileMatrix, row, column);
         ImageSource tileSource = this.coverageSource.get(key);
 
@@ -286,12 +325,29 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
 
         short[] tileArray = this.coverageCache.get(tileSource);
         if (tileArray == null && this.isEnableRetrieval()) {
-            this.coverageRetriever.retrieve(tileSource, null, this);
+            if (this.retrievalSectors.get(tileSource) == null) {
+                this.retrievalSectors.put(tileSource, this.retrievalSector(tileMatrix, row, column), 1);
+            }
+            // Request the tile every frame it's needed, keeping the request current. Tiles needed by terrain nearest the
+            // camera are retrieved first, as are image tiles.
+            this.coverageRetriever.retrieve(tileSource, null, this, priority);
         }
 
         return tileArray;
     }
 
+    /**
+     * Returns the sector whose terrain heights depend on a coverage tile. Height interpolation near a tile's edges
+     * reads texels from its neighbors, so the tile's sector is expanded by one texel on each side.
+     */
+    protected Sector retrievalSector(TileMatrix tileMatrix, int row, int column) {
+        Sector sector = tileMatrix.tileSector(row, column);
+        double texelLat = tileMatrix.sector.deltaLatitude() / (tileMatrix.matrixHeight * tileMatrix.tileHeight);
+        double texelLon = tileMatrix.sector.deltaLongitude() / (tileMatrix.matrixWidth * tileMatrix.tileWidth);
+        return sector.set(sector.minLatitude() - texelLat, sector.minLongitude() - texelLon,
+            sector.deltaLatitude() + 2 * texelLat, sector.deltaLongitude() + 2 * texelLon);
+    }
+
     protected static long tileKey(TileMatrix tileMatrix, int row, int column) {
         long lord = (tileMatrix.ordinal & 0xFFL); // 8 bits
         long lrow = (row & 0xFFFFFFFL); // 28 bits
@@ -438,18 +494,12 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
     }
 
     public void retrievalSucceeded(Retriever retriever, ImageSource key, Void unused, ShortBuffer value) {
-        final ImageSource finalKey = key;
-        final short[] finalArray = new short[value.remaining()];
-        value.get(finalArray);
-
-        this.coverageHandler.post(new Runnable() {
-            @Override
-            public void run() {
-                coverageCache.put(finalKey, finalArray, finalArray.length * 2);
-                updateTimestamp();
-                WorldWind.requestRedraw();
-            }
-        });
+        short[] array = new short[value.remaining()];
+        value.get(array);
+
+        // Hand the tile to the thread that requests heights, which adds it to the coverage cache during the next frame.
+        this.retrievedTiles.offer(new RetrievedTile(key, array));
+        WorldWind.requestRedraw();
 
         if (Logger.isLoggable(Logger.DEBUG)) {
             Logger.log(Logger.DEBUG, "Coverage retrieval succeeded \'" + key + "\'");
@@ -474,6 +524,18 @@ public class TiledElevationCoverage extends AbstractElevationCoverage implements
         }
     }
 
+    protected static class RetrievedTile {
+
+        public final ImageSource source;
+
+        public final short[] array;
+
+        public RetrievedTile(ImageSource source, short[] array) {
+            this.source = source;
+            this.array = array;
+        }
+    }
+
     protected static class TileBlock {
 
         public TileMatrix tileMatrix;
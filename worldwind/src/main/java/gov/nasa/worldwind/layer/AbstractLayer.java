@@ -119,19 +119,29 @@ public abstract class AbstractLayer implements Layer {
 
     @Override
     public void render(RenderContext rc) {
-        if (!this.enabled) {
-            return;
+        if (this.mustRender(rc)) {
+            this.doRender(rc);
         }
+    }
 
-        if (!this.pickEnabled && rc.pickMode) {
-            return;
+    /**
+     * Indicates whether this layer renders in the current frame, according to its enabled state, pick enabled state
+     * and active altitudes.
+     *
+     * @param rc the current render context
+     *
+     * @return true if the layer renders in the current frame, otherwise false
+     */
+    protected boolean mustRender(RenderContext rc) {
+        if (!this.enabled) {
+            return false;
         }
 
-        if (!this.isWithinActiveAltitudes(rc)) {
-            return;
+        if (!this.pickEnabled && rc.pickMode) {
+            return false;
         }
 
-        this.doRender(rc);
+        return this.isWithinActiveAltitudes(rc);
     }
 
     @Override
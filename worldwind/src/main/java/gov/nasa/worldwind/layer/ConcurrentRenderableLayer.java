@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.Attributable;
+import gov.nasa.worldwind.shape.Label;
+import gov.nasa.worldwind.shape.Movable;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.shape.PlacemarkAttributes;
+import gov.nasa.worldwind.shape.ShapeAttributes;
+import gov.nasa.worldwind.shape.TextAttributes;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Renderable layer that accepts changes to its contents from any thread. Applications identify each renderable with
+ * an ID of their choosing, and add, remove, move and restyle renderables by ID. Changes are queued as they arrive and
+ * applied together on the rendering thread at the start of the next frame, so each frame displays a consistent
+ * snapshot of the layer and background threads never modify a renderable while it's being rendered.
+ * <p/>
+ * Renderables added by ID belong to the layer: applications must not modify them directly after adding them, and must
+ * not use the inherited list methods to add or remove them. The inherited list methods are not thread safe, and may be
+ * called only from the rendering thread, as with {@link RenderableLayer}.
+ */
+public class ConcurrentRenderableLayer extends RenderableLayer {
+
+    protected final Object pendingLock = new Object();
+
+    protected ArrayList<Update> pendingUpdates = new ArrayList<>();
+
+    protected ArrayList<Update> appliedUpdates = new ArrayList<>();
+
+    protected HashMap<Object, Renderable> renderablesById = new HashMap<>();
+
+    protected HashSet<Renderable> deletedRenderables = new HashSet<>();
+
+    private Position scratchPosition = new Position();
+
+    public ConcurrentRenderableLayer() {
+    }
+
+    public ConcurrentRenderableLayer(String displayName) {
+        super(displayName);
+    }
+
+    /**
+     * Indicates whether this layer has changes that have not yet been applied. May be called from any thread.
+     *
+     * @return true if changes are waiting for the next frame, otherwise false
+     */
+    public boolean hasPendingUpdates() {
+        synchronized (this.pendingLock) {
+            return !this.pendingUpdates.isEmpty();
+        }
+    }
+
+    /**
+     * Adds a renderable with a specified ID, replacing any renderable with that ID. The renderable appears in the next
+     * frame. May be called from any thread.
+     *
+     * @param id         the renderable's ID
+     * @param renderable the renderable to add
+     *
+     * @throws IllegalArgumentException If either argument is null
+     */
+    public void putRenderable(Object id, Renderable renderable) {
+        if (id == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "putRenderable", "missingId"));
+        }
+
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "putRenderable", "missingRenderable"));
+        }
+
+        this.submitUpdate(new Update(Update.PUT, id, renderable));
+    }
+
+    /**
+     * Removes the renderable with a specified ID. The renderable disappears in the next frame. Has no effect if there
+     * is no renderable with the ID. May be called from any thread.
+     *
+     * @param id the renderable's ID
+     *
+     * @throws IllegalArgumentException If the ID is null
+     */
+    public void deleteRenderable(Object id) {
+        if (id == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "deleteRenderable", "missingId"));
+        }
+
+        this.submitUpdate(new Update(Update.DELETE, id, null));
+    }
+
+    /**
+     * Moves the renderable with a specified ID to a new position in the next frame. Renderables that do not implement
+     * {@link Movable} are not moved. May be called from any thread.
+     *
+     * @param id        the renderable's ID
+     * @param latitude  the new latitude in degrees
+     * @param longitude the new longitude in degrees
+     * @param altitude  the new altitude in meters
+     *
+     * @throws IllegalArgumentException If the ID is null
+     */
+    public void updatePosition(Object id, double latitude, double longitude, double altitude) {
+        if (id == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "updatePosition", "missingId"));
+        }
+
+        Update update = new Update(Update.MOVE, null, null);
+        update.ids = new Object[]{id};
+        update.positions = new double[]{latitude, longitude, altitude};
+        this.submitUpdate(update);
+    }
+
+    /**
+     * Moves several renderables to new positions in the next frame. The arguments are parallel arrays; the renderable
+     * with the ID at ids[i] moves to the position at latitudes[i], longitudes[i] and altitudes[i]. The arrays are
+     * copied, and may be reused by the caller when this returns. Renderables that do not implement {@link Movable} are
+     * not moved. May be called from any thread.
+     *
+     * @param ids        the renderables' IDs
+     * @param latitudes  the new latitudes in degrees
+     * @param longitudes the new longitudes in degrees
+     * @param altitudes  the new altitudes in meters
+     *
+     * @throws IllegalArgumentException If any array is null or shorter than the ID array, or if any ID is null
+     */
+    public void updatePositions(Object[] ids, double[] latitudes, double[] longitudes, double[] altitudes) {
+        if (ids == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "updatePositions", "missingArray"));
+        }
+
+        int count = ids.length;
+        if (latitudes == null || latitudes.length < count
+            || longitudes == null || longitudes.length < count
+            || altitudes == null || altitudes.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "updatePositions", "missingArray"));
+        }
+
+        Update update = new Update(Update.MOVE, null, null);
+        update.ids = new Object[count];
+        update.positions = new double[count * 3];
+
+        for (int idx = 0, pidx = 0; idx < count; idx++) {
+            if (ids[idx] == null) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "updatePositions", "missingId"));
+            }
+
+            update.ids[idx] = ids[idx];
+            update.positions[pidx++] = latitudes[idx];
+            update.positions[pidx++] = longitudes[idx];
+            update.positions[pidx++] = altitudes[idx];
+        }
+
+        this.submitUpdate(update);
+    }
+
+    /**
+     * Specifies the attributes of the renderable with a specified ID in the next frame. The attributes must be {@link
+     * PlacemarkAttributes} for placemarks, {@link TextAttributes} for labels and {@link ShapeAttributes} for shapes
+     * implementing {@link Attributable}. Attributes are applied as specified, and must not be modified after this
+     * returns. May be called from any thread.
+     *
+     * @param id         the renderable's ID
+     * @param attributes the renderable's new attributes, or null to specify no attributes
+     *
+     * @throws IllegalArgumentException If the ID is null
+     */
+    public void updateAttributes(Object id, Object attributes) {
+        if (id == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentRenderableLayer", "updateAttributes", "missingId"));
+        }
+
+        this.submitUpdate(new Update(Update.ATTRIBUTES, id, attributes));
+    }
+
+    @Override
+    public void render(RenderContext rc) {
+        this.applyPendingUpdates(rc.globe);
+        super.render(rc);
+    }
+
+    @Override
+    public int beginPartitions(RenderContext rc) {
+        this.applyPendingUpdates(rc.globe);
+        return super.beginPartitions(rc);
+    }
+
+    protected void submitUpdate(Update update) {
+        boolean firstUpdate;
+        synchronized (this.pendingLock) {
+            firstUpdate = this.pendingUpdates.isEmpty();
+            this.pendingUpdates.add(update);
+        }
+
+        // Request a frame to display the changes. Later changes arriving before that frame are displayed with it.
+        if (firstUpdate) {
+            this.requestRedraw();
+        }
+    }
+
+    protected void requestRedraw() {
+        WorldWind.requestRedraw();
+    }
+
+    /**
+     * Applies the changes queued since the last frame, in the order they were submitted. Called on the rendering
+     * thread at the start of each frame, whether or not the layer renders in that frame.
+     *
+     * @param globe the globe used to move renderables
+     */
+    protected void applyPendingUpdates(Globe globe) {
+        // Exchange the pending list with the empty applied list, holding the lock only long enough to swap them.
+        ArrayList<Update> updates;
+        synchronized (this.pendingLock) {
+            if (this.pendingUpdates.isEmpty()) {
+                return;
+            }
+
+            updates = this.pendingUpdates;
+            this.pendingUpdates = this.appliedUpdates;
+            this.appliedUpdates = updates;
+        }
+
+        try {
+            for (int idx = 0, len = updates.size(); idx < len; idx++) {
+                Update update = updates.get(idx);
+                switch (update.type) {
+                    case Update.PUT:
+                        this.applyPut(update.id, (Renderable) update.value);
+                        break;
+                    case Update.DELETE:
+                        this.applyDelete(update.id);
+                        break;
+                    case Update.MOVE:
+                        this.applyMove(globe, update.ids, update.positions);
+                        break;
+                    case Update.ATTRIBUTES:
+                        this.applyAttributes(update.id, update.value);
+                        break;
+                }
+            }
+
+            this.removeDeletedRenderables();
+        } finally {
+            updates.clear();
+        }
+    }
+
+    protected void applyPut(Object id, Renderable renderable) {
+        Renderable oldRenderable = this.renderablesById.put(id, renderable);
+        if (oldRenderable == renderable) {
+            return; // the renderable is already in the layer
+        }
+
+        if (oldRenderable != null) {
+            this.deletedRenderables.add(oldRenderable);
+        }
+
+        // A renderable deleted and added again in the same frame remains in its current place in the layer.
+        if (!this.deletedRenderables.remove(renderable)) {
+            this.addRenderable(renderable);
+        }
+    }
+
+    protected void applyDelete(Object id) {
+        Renderable renderable = this.renderablesById.remove(id);
+        if (renderable != null) {
+            this.deletedRenderables.add(renderable);
+        }
+    }
+
+    protected void applyMove(Globe globe, Object[] ids, double[] positions) {
+        for (int idx = 0, pidx = 0, len = ids.length; idx < len; idx++, pidx += 3) {
+            Renderable renderable = this.renderablesById.get(ids[idx]);
+            if (renderable instanceof Movable) {
+                this.scratchPosition.set(positions[pidx], positions[pidx + 1], positions[pidx + 2]);
+                ((Movable) renderable).moveTo(globe, this.scratchPosition);
+                this.updateRenderable(renderable);
+            }
+        }
+    }
+
+    protected void applyAttributes(Object id, Object attributes) {
+        Renderable renderable = this.renderablesById.get(id);
+        if (renderable == null) {
+            return; // the renderable has been deleted
+        }
+
+        if (renderable instanceof Placemark && (attributes == null || attributes instanceof PlacemarkAttributes)) {
+            ((Placemark) renderable).setAttributes((PlacemarkAttributes) attributes);
+        } else if (renderable instanceof Label && (attributes == null || attributes instanceof TextAttributes)) {
+            ((Label) renderable).setAttributes((TextAttributes) attributes);
+        } else if (renderable instanceof Attributable && (attributes == null || attributes instanceof ShapeAttributes)) {
+            ((Attributable) renderable).setAttributes((ShapeAttributes) attributes);
+        } else {
+            Logger.logMessage(Logger.WARN, "ConcurrentRenderableLayer", "applyAttributes",
+                "Attributes not applicable to renderable \'" + renderable.getDisplayName() + "\'");
+        }
+    }
+
+    protected void removeDeletedRenderables() {
+        if (this.deletedRenderables.isEmpty()) {
+            return;
+        }
+
+        // Remove the deleted renderables in a single pass over the list, rather than searching the list for each.
+        ArrayList<Renderable> renderables = this.renderables;
+        int count = 0;
+        for (int idx = 0, len = renderables.size(); idx < len; idx++) {
+            Renderable renderable = renderables.get(idx);
+            if (!this.deletedRenderables.contains(renderable)) {
+                renderables.set(count++, renderable);
+            }
+        }
+
+        renderables.subList(count, renderables.size()).clear();
+
+        if (this.spatialIndex != null) {
+            for (Renderable renderable : this.deletedRenderables) {
+                this.spatialIndexCounts.remove(renderable); // every occurrence has been removed
+                this.spatialIndex.remove(renderable);
+            }
+        }
+
+        this.deletedRenderables.clear();
+    }
+
+    /**
+     * A change to the layer's contents, queued until the start of the next frame.
+     */
+    protected static class Update {
+
+        public static final int PUT = 0;
+
+        public static final int DELETE = 1;
+
+        public static final int MOVE = 2;
+
+        public static final int ATTRIBUTES = 3;
+
+        public final int type;
+
+        public final Object id;
+
+        public final Object value;
+
+        public Object[] ids;
+
+        public double[] positions;
+
+        public Update(int type, Object id, Object value) {
+            this.type = type;
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
@@ -49,6 +49,7 @@ import gov.nasa.worldwind.shape.TiledSurfaceImage;
 import gov.nasa.worldwind.util.LevelSet;
 import gov.nasa.worldwind.util.LevelSetConfig;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.TaskService;
 import gov.nasa.worldwind.util.TileFactory;
 import gov.nasa.worldwind.util.WWUtil;
 
@@ -92,7 +93,7 @@ public class LayerFactory {
         GeoPackageAsyncTask task = new GeoPackageAsyncTask(this, pathName, layer, callback);
 
         try {
-            WorldWind.taskService().execute(task);
+            WorldWind.taskService().execute(TaskService.DATABASE, task);
         } catch (RejectedExecutionException logged) { // singleton task service is full; this should never happen but we check anyway
             callback.creationFailed(this, layer, logged);
         }
@@ -134,7 +135,7 @@ public class LayerFactory {
         WmsAsyncTask task = new WmsAsyncTask(this, serviceAddress, layerNames, layer, callback);
 
         try {
-            WorldWind.taskService().execute(task);
+            WorldWind.taskService().execute(TaskService.NETWORK, task);
         } catch (RejectedExecutionException logged) { // singleton task service is full; this should never happen but we check anyway
             callback.creationFailed(this, layer, logged);
         }
@@ -203,7 +204,7 @@ public class LayerFactory {
         WmtsAsyncTask task = new WmtsAsyncTask(this, serviceAddress, layerIdentifier, layer, callback);
 
         try {
-            WorldWind.taskService().execute(task);
+            WorldWind.taskService().execute(TaskService.NETWORK, task);
         } catch (RejectedExecutionException logged) { // singleton task service is full; this should never happen but we check anyway
             callback.creationFailed(this, layer, logged);
         }
@@ -8,6 +8,7 @@ package gov.nasa.worldwind.layer;
 import java.util.ArrayList;
 import java.util.Iterator;
 
+import gov.nasa.worldwind.FrameMetrics;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.util.Logger;
 
@@ -201,10 +202,15 @@ public class LayerList implements Iterable<Layer> {
     }
 
     public void render(RenderContext rc) {
+        FrameMetrics metrics = rc.frameMetrics; // null unless profiling
         for (int idx = 0, len = this.layers.size(); idx < len; idx++) {
             rc.currentLayer = this.layers.get(idx);
+            long begin = (metrics != null) ? System.nanoTime() : 0;
             try {
                 rc.currentLayer.render(rc);
+                if (metrics != null) {
+                    metrics.recordLayer(rc.currentLayer, System.nanoTime() - begin);
+                }
             } catch (Exception e) {
                 Logger.logMessage(Logger.ERROR, "LayerList", "render",
                     "Exception while rendering layer \'" + rc.currentLayer.getDisplayName() + "\'", e);
@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gov.nasa.worldwind.FrameMetrics;
+import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Renders a layer list on several threads. Each layer is a separate task, and layers implementing {@link
+ * Partitionable} are split into several tasks covering ranges of their contents. Tasks are claimed in order by a fixed
+ * set of workers, one of which is the calling thread, and each worker renders with its own render context, scratch state
+ * and drawable pools. Each task offers drawables to its own drawable queue. When every task is complete, the task queues
+ * are transferred to the frame's drawable queue in layer order, so drawables sort exactly as they would had the layers
+ * rendered one after another.
+ * <p/>
+ * Frames rendered in pick mode render serially, since picked object IDs must be unique within a frame. Layers and
+ * renderables that share mutable state with other layers must not be rendered in parallel.
+ */
+public class ParallelLayerRenderer {
+
+    protected static final int DEFAULT_PARTITION_SIZE = 256;
+
+    protected static final long KEEP_ALIVE_SECONDS = 60;
+
+    protected int parallelism;
+
+    protected int partitionSize = DEFAULT_PARTITION_SIZE;
+
+    protected ThreadPoolExecutor executor;
+
+    protected ArrayList<RenderContext> workerContexts = new ArrayList<>();
+
+    protected ArrayList<Task> tasks = new ArrayList<>();
+
+    protected int taskCount;
+
+    protected ArrayList<Partitionable> partitionedLayers = new ArrayList<>();
+
+    protected final AtomicInteger nextTask = new AtomicInteger();
+
+    /**
+     * Constructs a parallel layer renderer that uses every available processor.
+     */
+    public ParallelLayerRenderer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a parallel layer renderer with a specified number of threads, including the thread calling {@link
+     * #render(RenderContext, LayerList)}.
+     *
+     * @param parallelism the number of threads rendering layers
+     *
+     * @throws IllegalArgumentException If the parallelism is less than 1
+     */
+    public ParallelLayerRenderer(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "constructor", "invalidParallelism"));
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the number of threads rendering layers, including the thread calling {@link #render(RenderContext,
+     * LayerList)}.
+     */
+    public synchronized int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Sets the number of threads rendering layers, including the thread calling {@link #render(RenderContext,
+     * LayerList)}. A parallelism of 1 renders layers serially.
+     *
+     * @param parallelism the number of threads rendering layers
+     *
+     * @throws IllegalArgumentException If the parallelism is less than 1
+     */
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "setParallelism", "invalidParallelism"));
+        }
+
+        this.parallelism = parallelism;
+
+        if (this.executor != null) { // order matters; the core size must never exceed the maximum size
+            int poolSize = Math.max(1, parallelism - 1);
+            if (poolSize > this.executor.getMaximumPoolSize()) {
+                this.executor.setMaximumPoolSize(poolSize);
+                this.executor.setCorePoolSize(poolSize);
+            } else {
+                this.executor.setCorePoolSize(poolSize);
+                this.executor.setMaximumPoolSize(poolSize);
+            }
+        }
+    }
+
+    /**
+     * Returns the minimum number of items in each partition of a {@link Partitionable} layer.
+     */
+    public synchronized int getPartitionSize() {
+        return this.partitionSize;
+    }
+
+    /**
+     * Sets the minimum number of items in each partition of a {@link Partitionable} layer. Layers with fewer items
+     * render in a single task.
+     *
+     * @param partitionSize the minimum number of items in each partition
+     *
+     * @throws IllegalArgumentException If the partition size is less than 1
+     */
+    public synchronized void setPartitionSize(int partitionSize) {
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "setPartitionSize", "invalidPartitionSize"));
+        }
+
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Renders a layer list into a render context's drawable queue, using several threads when the parallelism is
+     * greater than 1 and the frame is not in pick mode. This method returns when every layer has rendered.
+     *
+     * @param rc     the current render context
+     * @param layers the layers to render
+     */
+    public void render(RenderContext rc, LayerList layers) {
+        int parallelism = this.getParallelism();
+        if (parallelism < 2 || rc.pickMode) {
+            layers.render(rc);
+            return;
+        }
+
+        try {
+            this.assembleTasks(rc, layers, parallelism);
+            this.runTasks(rc, Math.min(parallelism, this.taskCount));
+        } finally {
+            this.mergeTasks(rc);
+        }
+    }
+
+    protected void assembleTasks(RenderContext rc, LayerList layers, int parallelism) {
+        int partitionSize = this.getPartitionSize();
+
+        for (int idx = 0, len = layers.count(); idx < len; idx++) {
+            Layer layer = layers.getLayer(idx);
+            if (!(layer instanceof Partitionable)) {
+                this.addTask(layer, false, 0, 0);
+                continue;
+            }
+
+            // Determine the layer's contents on this thread, then split them into ranges of at least the partition
+            // size, with no more ranges than there are threads.
+            Partitionable partitionable = (Partitionable) layer;
+            this.partitionedLayers.add(partitionable);
+            int count = 0;
+            rc.currentLayer = layer;
+            try {
+                count = partitionable.beginPartitions(rc);
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "assembleTasks",
+                    "Exception while rendering layer \'" + layer.getDisplayName() + "\'", e);
+            }
+
+            int partitions = Math.min(parallelism, (count + partitionSize - 1) / partitionSize);
+            for (int pidx = 0; pidx < partitions; pidx++) {
+                int fromIndex = (int) ((long) count * pidx / partitions);
+                int toIndex = (int) ((long) count * (pidx + 1) / partitions);
+                this.addTask(layer, true, fromIndex, toIndex);
+            }
+        }
+
+        rc.currentLayer = null;
+    }
+
+    protected void addTask(Layer layer, boolean partitioned, int fromIndex, int toIndex) {
+        if (this.taskCount == this.tasks.size()) {
+            this.tasks.add(new Task());
+        }
+
+        Task task = this.tasks.get(this.taskCount++);
+        task.layer = layer;
+        task.partitioned = partitioned;
+        task.fromIndex = fromIndex;
+        task.toIndex = toIndex;
+    }
+
+    protected void runTasks(RenderContext rc, int workers) {
+        if (workers == 0) {
+            return;
+        }
+
+        while (this.workerContexts.size() < workers) {
+            this.workerContexts.add(new RenderContext());
+        }
+
+        for (int idx = 0; idx < workers; idx++) {
+            this.workerContexts.get(idx).shareFrame(rc);
+        }
+
+        // Start the workers on separate threads, then work on this thread until every task has been claimed. Each
+        // worker claims the next task in order until none remain.
+        this.nextTask.set(0);
+        CountDownLatch latch = new CountDownLatch(workers - 1);
+        for (int idx = 1; idx < workers; idx++) {
+            this.executor().execute(new Worker(this, this.workerContexts.get(idx), latch));
+        }
+
+        this.runWorker(this.workerContexts.get(0));
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException ignored) {
+                interrupted = true; // the frame's drawables must not be used until every worker is done
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected void runWorker(RenderContext wc) {
+        int idx;
+        while ((idx = this.nextTask.getAndIncrement()) < this.taskCount) {
+            Task task = this.tasks.get(idx);
+            wc.drawableQueue = task.drawableQueue;
+            wc.currentLayer = task.layer;
+            FrameMetrics metrics = wc.frameMetrics; // null unless profiling
+            long begin = (metrics != null) ? System.nanoTime() : 0;
+            try {
+                if (task.partitioned) {
+                    ((Partitionable) task.layer).renderPartition(wc, task.fromIndex, task.toIndex);
+                } else {
+                    task.layer.render(wc);
+                }
+                if (metrics != null) {
+                    metrics.recordLayer(task.layer, System.nanoTime() - begin);
+                }
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "runWorker",
+                    "Exception while rendering layer \'" + task.layer.getDisplayName() + "\'", e);
+                // Keep going. Draw the remaining layers.
+            }
+        }
+
+        wc.drawableQueue = null;
+        wc.currentLayer = null;
+    }
+
+    protected void mergeTasks(RenderContext rc) {
+        // Transfer each task's drawables to the frame's queue in task order, which matches the order the layers would
+        // have offered drawables when rendered serially.
+        for (int idx = 0; idx < this.taskCount; idx++) {
+            Task task = this.tasks.get(idx);
+            if (rc.drawableQueue != null) {
+                rc.drawableQueue.transferDrawables(task.drawableQueue);
+            } else {
+                task.drawableQueue.clearDrawables();
+            }
+            task.layer = null;
+        }
+
+        this.taskCount = 0;
+
+        for (int idx = 0, len = this.partitionedLayers.size(); idx < len; idx++) {
+            try {
+                this.partitionedLayers.get(idx).endPartitions(rc);
+            } catch (Exception e) {
+                Logger.logMessage(Logger.ERROR, "ParallelLayerRenderer", "mergeTasks",
+                    "Exception while ending partitions", e);
+            }
+        }
+
+        this.partitionedLayers.clear();
+
+        // Propagate redraw requests from the worker contexts, then release their references to the frame.
+        for (int idx = 0, len = this.workerContexts.size(); idx < len; idx++) {
+            RenderContext wc = this.workerContexts.get(idx);
+            if (wc.isRedrawRequested()) {
+                rc.requestRedraw();
+            }
+            wc.reset();
+        }
+    }
+
+    protected synchronized ThreadPoolExecutor executor() {
+        if (this.executor == null) {
+            int poolSize = Math.max(1, this.parallelism - 1); // the calling thread is also a worker
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                this.threadFactory());
+            this.executor.allowCoreThreadTimeOut(true); // release the threads when parallel rendering stops
+        }
+
+        return this.executor;
+    }
+
+    protected ThreadFactory threadFactory() {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, "WorldWind Render Worker " + threadNumber.getAndIncrement());
+                thread.setDaemon(true); // worker threads do not prevent the process from terminating
+                return thread;
+            }
+        };
+    }
+
+    protected static class Task {
+
+        public final DrawableQueue drawableQueue = new DrawableQueue();
+
+        public Layer layer;
+
+        public boolean partitioned;
+
+        public int fromIndex;
+
+        public int toIndex;
+    }
+
+    protected static class Worker implements Runnable {
+
+        protected final ParallelLayerRenderer renderer;
+
+        protected final RenderContext context;
+
+        protected final CountDownLatch latch;
+
+        public Worker(ParallelLayerRenderer renderer, RenderContext context, CountDownLatch latch) {
+            this.renderer = renderer;
+            this.context = context;
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.renderer.runWorker(this.context);
+            } finally {
+                this.latch.countDown();
+            }
+        }
+    }
+}
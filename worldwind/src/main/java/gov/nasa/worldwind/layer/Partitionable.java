@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import gov.nasa.worldwind.render.RenderContext;
+
+/**
+ * Interface to a layer whose contents may be rendered in independent partitions. A parallel renderer splits a large
+ * layer's contents into index ranges and renders each range on a separate thread, with a separate render context.
+ * Rendering every range in index order produces the same drawables as rendering the layer itself.
+ */
+public interface Partitionable {
+
+    /**
+     * Determines the items this layer renders in the current frame, and indicates how many there are. The layer renders
+     * nothing when this returns zero. Called on the render thread before any partitions render.
+     *
+     * @param rc the current render context
+     *
+     * @return the number of items to render in the current frame
+     */
+    int beginPartitions(RenderContext rc);
+
+    /**
+     * Renders a range of the items determined by {@link #beginPartitions(RenderContext)}. May be called concurrently
+     * for disjoint ranges, each with its own render context.
+     *
+     * @param rc        the render context for the range
+     * @param fromIndex the index of the first item to render
+     * @param toIndex   the index after the last item to render
+     */
+    void renderPartition(RenderContext rc, int fromIndex, int toIndex);
+
+    /**
+     * Releases the state retained by {@link #beginPartitions(RenderContext)}. Called on the render thread after every
+     * partition has rendered.
+     *
+     * @param rc the current render context
+     */
+    void endPartitions(RenderContext rc);
+}
@@ -6,16 +6,59 @@
 package gov.nasa.worldwind.layer;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 
+import gov.nasa.worldwind.geom.Frustum;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.globe.Globe;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.Boundable;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.SectorTree;
+
+/**
+ * Layer displaying a list of renderables in list order.
+ * <p/>
+ * The layer optionally maintains a spatial index of its renderables. When the index is enabled, the layer renders only
+ * the renderables whose geographic extent may be visible, rather than asking every renderable to reject itself, and
+ * answers sector and radius queries without examining every renderable. Renderables that do not implement {@link
+ * Boundable} are always rendered. Before each query the layer compares every renderable's bounding sector with its
+ * index entry and re-indexes the renderables that have moved or changed shape. This check is far cheaper than
+ * rendering each renderable, and {@link #updateRenderable(Renderable)} applies a change immediately.
+ */
+public class RenderableLayer extends AbstractLayer implements Iterable<Renderable>, Partitionable {
 
-public class RenderableLayer extends AbstractLayer implements Iterable<Renderable> {
+    protected static final int DEFAULT_CULLING_MARGIN = 256;
 
     protected ArrayList<Renderable> renderables = new ArrayList<>();
 
+    protected SectorTree<Renderable> spatialIndex;
+
+    protected boolean spatialIndexOrderStale;
+
+    /**
+     * The number of times each indexed renderable appears in this layer's list. A renderable remains in the spatial
+     * index until its last occurrence is removed.
+     */
+    protected HashMap<Renderable, Integer> spatialIndexCounts = new HashMap<>();
+
+    protected int cullingMargin = DEFAULT_CULLING_MARGIN;
+
+    protected ArrayList<Renderable> visibleRenderables = new ArrayList<>();
+
+    protected List<Renderable> partitionRenderables;
+
+    protected Frustum cullingFrustum = new Frustum();
+
+    protected Viewport cullingViewport = new Viewport();
+
+    protected Sector scratchSector = new Sector();
+
     public RenderableLayer() {
     }
 
@@ -42,6 +85,57 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
         this.addAllRenderables(renderables);
     }
 
+    /**
+     * Indicates whether this layer maintains a spatial index of its renderables.
+     */
+    public boolean isSpatialIndexEnabled() {
+        return this.spatialIndex != null;
+    }
+
+    /**
+     * Specifies whether this layer maintains a spatial index of its renderables. Enabling the index builds it from the
+     * current renderables, which takes time proportional to the number of renderables.
+     *
+     * @param enabled true to index this layer's renderables, false to render every renderable each frame
+     */
+    public void setSpatialIndexEnabled(boolean enabled) {
+        if (enabled && this.spatialIndex == null) {
+            this.spatialIndex = new SectorTree<>();
+            this.spatialIndexOrderStale = false;
+            for (int idx = 0, len = this.renderables.size(); idx < len; idx++) {
+                this.indexRenderable(this.renderables.get(idx));
+            }
+        } else if (!enabled) {
+            this.spatialIndex = null;
+            this.spatialIndexCounts.clear();
+        }
+    }
+
+    /**
+     * Indicates the distance in pixels beyond the viewport within which an indexed layer renders its renderables.
+     */
+    public int getCullingMargin() {
+        return this.cullingMargin;
+    }
+
+    /**
+     * Sets the distance in pixels beyond the viewport within which an indexed layer renders its renderables. The margin
+     * keeps renderables drawn with a screen size, such as placemark images and labels, visible when their geographic
+     * position is just outside the viewport.
+     *
+     * @param margin the margin in pixels
+     *
+     * @throws IllegalArgumentException If the margin is negative
+     */
+    public void setCullingMargin(int margin) {
+        if (margin < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "setCullingMargin", "invalidMargin"));
+        }
+
+        this.cullingMargin = margin;
+    }
+
     public int count() {
         return this.renderables.size();
     }
@@ -66,7 +160,14 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                 Logger.logMessage(Logger.ERROR, "RenderableLayer", "setRenderable", "missingRenderable"));
         }
 
-        return this.renderables.set(index, renderable);
+        Renderable oldRenderable = this.renderables.set(index, renderable);
+        if (this.spatialIndex != null) {
+            this.unindexRenderable(oldRenderable);
+            this.indexRenderable(renderable);
+            this.spatialIndexOrderStale = true;
+        }
+
+        return oldRenderable;
     }
 
     public int indexOfRenderable(Renderable renderable) {
@@ -112,6 +213,9 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
         }
 
         this.renderables.add(renderable);
+        if (this.spatialIndex != null) {
+            this.indexRenderable(renderable);
+        }
     }
 
     public void addRenderable(int index, Renderable renderable) {
@@ -126,6 +230,10 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
         }
 
         this.renderables.add(index, renderable);
+        if (this.spatialIndex != null) {
+            this.indexRenderable(renderable);
+            this.spatialIndexOrderStale |= (index < this.renderables.size() - 1);
+        }
     }
 
     public void addAllRenderables(RenderableLayer layer) {
@@ -140,6 +248,9 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
 
         for (int idx = 0, len = thatList.size(); idx < len; idx++) {
             thisList.add(thatList.get(idx)); // we know the contents of layer.renderables is valid
+            if (this.spatialIndex != null) {
+                this.indexRenderable(thatList.get(idx));
+            }
         }
     }
 
@@ -156,6 +267,9 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
             }
 
             this.renderables.add(renderable);
+            if (this.spatialIndex != null) {
+                this.indexRenderable(renderable);
+            }
         }
     }
 
@@ -165,7 +279,12 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                 Logger.logMessage(Logger.ERROR, "RenderableLayer", "removeRenderable", "missingRenderable"));
         }
 
-        return this.renderables.remove(renderable);
+        if (this.renderables.remove(renderable)) {
+            this.unindexRenderable(renderable);
+            return true;
+        } else {
+            return false;
+        }
     }
 
     public Renderable removeRenderable(int index) {
@@ -174,7 +293,9 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                 Logger.logMessage(Logger.ERROR, "RenderableLayer", "removeRenderable", "invalidIndex"));
         }
 
-        return this.renderables.remove(index);
+        Renderable renderable = this.renderables.remove(index);
+        this.unindexRenderable(renderable);
+        return renderable;
     }
 
     public boolean removeAllRenderables(Iterable<? extends Renderable> renderables) {
@@ -191,7 +312,10 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
                     Logger.logMessage(Logger.ERROR, "RenderableLayer", "removeAllRenderables", "missingRenderable"));
             }
 
-            removed |= this.renderables.remove(renderable);
+            if (this.renderables.remove(renderable)) {
+                this.unindexRenderable(renderable);
+                removed = true;
+            }
         }
 
         return removed;
@@ -199,24 +323,311 @@ public class RenderableLayer extends AbstractLayer implements Iterable<Renderabl
 
     public void clearRenderables() {
         this.renderables.clear();
+        if (this.spatialIndex != null) {
+            this.spatialIndex.clear();
+            this.spatialIndexCounts.clear();
+            this.spatialIndexOrderStale = false;
+        }
+    }
+
+    /**
+     * Updates a renderable's entry in this layer's spatial index after the renderable has moved or changed shape. Has
+     * no effect when the spatial index is disabled. The layer detects such changes before its next query, so calling
+     * this method is necessary only to apply a change sooner.
+     *
+     * @param renderable the renderable that changed
+     *
+     * @return true if the renderable is in this layer's spatial index, otherwise false
+     *
+     * @throws IllegalArgumentException If the renderable is null
+     */
+    public boolean updateRenderable(Renderable renderable) {
+        if (renderable == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "updateRenderable", "missingRenderable"));
+        }
+
+        if (this.spatialIndex == null || !(renderable instanceof Boundable)) {
+            return this.spatialIndex != null && this.spatialIndex.contains(renderable);
+        }
+
+        Boundable boundable = (Boundable) renderable;
+        return this.spatialIndex.update(renderable, boundable.getBoundingSector(this.scratchSector),
+            boundable.getMaximumAltitude());
+    }
+
+    /**
+     * Finds the renderables whose geographic extent intersects a specified sector. Renderables that do not implement
+     * {@link Boundable} are not included. Queries use the spatial index when it is enabled, and otherwise examine every
+     * renderable.
+     *
+     * @param sector the sector to search
+     * @param result a list in which to return the renderables found
+     *
+     * @return the result list, with the renderables found appended in layer order
+     *
+     * @throws IllegalArgumentException If either argument is null
+     */
+    public List<Renderable> findRenderables(Sector sector, List<Renderable> result) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findRenderables", "missingSector"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findRenderables", "missingResult"));
+        }
+
+        return this.currentSpatialIndex().findItems(sector, result);
+    }
+
+    /**
+     * Finds the renderables whose geographic extent lies within a specified distance of a location. Renderables that
+     * do not implement {@link Boundable} are not included. Queries use the spatial index when it is enabled, and
+     * otherwise examine every renderable.
+     *
+     * @param center the location at the center of the search area
+     * @param radius the search radius, in meters
+     * @param globe  the globe used to convert the radius to an angular distance
+     * @param result a list in which to return the renderables found
+     *
+     * @return the result list, with the renderables found appended in layer order
+     *
+     * @throws IllegalArgumentException If any argument is null, or if the radius is negative
+     */
+    public List<Renderable> findRenderables(Location center, double radius, Globe globe, List<Renderable> result) {
+        if (center == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findRenderables", "missingLocation"));
+        }
+
+        if (radius < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findRenderables", "invalidRadius"));
+        }
+
+        if (globe == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findRenderables", "missingGlobe"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findRenderables", "missingResult"));
+        }
+
+        double radiusRadians = radius / globe.getRadiusAt(center.latitude, center.longitude);
+        return this.currentSpatialIndex().findItems(center, radiusRadians, result);
     }
 
     @Override
     public Iterator<Renderable> iterator() {
-        return this.renderables.iterator();
+        final Iterator<Renderable> iterator = this.renderables.iterator();
+        if (this.spatialIndex == null) {
+            return iterator;
+        }
+
+        return new Iterator<Renderable>() { // keep the spatial index consistent with removals via the iterator
+            protected Renderable current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Renderable next() {
+                return (this.current = iterator.next());
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                unindexRenderable(this.current);
+            }
+        };
     }
 
     @Override
     protected void doRender(RenderContext rc) {
-        for (int idx = 0, len = this.renderables.size(); idx < len; idx++) {
-            Renderable renderable = this.renderables.get(idx);
+        List<Renderable> renderables = this.activeRenderables(rc);
+        this.renderRenderables(rc, renderables, 0, renderables.size());
+        this.visibleRenderables.clear();
+    }
+
+    @Override
+    public int beginPartitions(RenderContext rc) {
+        if (this.mustRender(rc)) {
+            this.partitionRenderables = this.activeRenderables(rc);
+            return this.partitionRenderables.size();
+        } else {
+            return 0;
+        }
+    }
+
+    @Override
+    public void renderPartition(RenderContext rc, int fromIndex, int toIndex) {
+        if (this.partitionRenderables != null) {
+            this.renderRenderables(rc, this.partitionRenderables, fromIndex, toIndex);
+        }
+    }
+
+    @Override
+    public void endPartitions(RenderContext rc) {
+        this.partitionRenderables = null;
+        this.visibleRenderables.clear();
+    }
+
+    protected List<Renderable> activeRenderables(RenderContext rc) {
+        if (this.spatialIndex != null) {
+            return this.findVisibleRenderables(rc, this.visibleRenderables);
+        } else {
+            return this.renderables;
+        }
+    }
+
+    protected void renderRenderables(RenderContext rc, List<Renderable> renderables, int fromIndex, int toIndex) {
+        for (int idx = fromIndex; idx < toIndex; idx++) {
+            Renderable renderable = renderables.get(idx);
             try {
                 renderable.render(rc);
             } catch (Exception e) {
-                Logger.logMessage(Logger.ERROR, "RenderableLayer", "doRender",
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "renderRenderables",
                     "Exception while rendering shape \'" + renderable.getDisplayName() + "\'", e);
                 // Keep going. Draw the remaining renderables.
             }
         }
     }
+
+    /**
+     * Finds the renderables that may be displayed near the render context's pick viewport, as candidates for geometric
+     * picking. Queries use the spatial index when it is enabled, searching a frustum that extends beyond the pick
+     * viewport by the culling margin, and otherwise examine every renderable. The renderables found are candidates that
+     * each perform their own intersection test.
+     *
+     * @param rc     the current render context, whose pick viewport specifies the area to search
+     * @param result a list in which to return the renderables found
+     *
+     * @return the result list, with the renderables found appended in layer order
+     *
+     * @throws IllegalArgumentException If either argument is null, or if the render context has no pick viewport
+     */
+    public List<Renderable> findPickCandidates(RenderContext rc, List<Renderable> result) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findPickCandidates", "missingRenderContext"));
+        }
+
+        if (rc.pickViewport == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findPickCandidates", "missingViewport"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderableLayer", "findPickCandidates", "missingResult"));
+        }
+
+        if (this.spatialIndex == null) {
+            result.addAll(this.renderables);
+            return result;
+        }
+
+        return this.findRenderablesNear(rc, rc.pickViewport, result);
+    }
+
+    protected List<Renderable> findVisibleRenderables(RenderContext rc, List<Renderable> result) {
+        return this.findRenderablesNear(rc, rc.viewport, result);
+    }
+
+    protected List<Renderable> findRenderablesNear(RenderContext rc, Viewport viewport, List<Renderable> result) {
+        this.validateSpatialIndex();
+
+        // Search a frustum extending beyond the viewport by the culling margin. The renderables found are candidates
+        // that each perform their own visibility test.
+        int margin = this.cullingMargin;
+        this.cullingViewport.set(viewport.x - margin, viewport.y - margin,
+            viewport.width + 2 * margin, viewport.height + 2 * margin);
+        this.cullingFrustum.setToModelviewProjection(rc.projection, rc.modelview, rc.viewport, this.cullingViewport);
+
+        return this.spatialIndex.findItems(this.cullingFrustum, rc.globe, rc.verticalExaggeration, result);
+    }
+
+    protected SectorTree<Renderable> currentSpatialIndex() {
+        if (this.spatialIndex == null) {
+            return this.buildSpatialIndex();
+        }
+
+        this.validateSpatialIndex();
+        return this.spatialIndex;
+    }
+
+    /**
+     * Brings the spatial index up to date with this layer's renderables: re-indexes the renderables whose bounding
+     * sector or maximum altitude no longer matches their index entry, and restores list order when the list has been
+     * reordered.
+     */
+    protected void validateSpatialIndex() {
+        for (int idx = 0, len = this.renderables.size(); idx < len; idx++) {
+            Renderable renderable = this.renderables.get(idx);
+            if (renderable instanceof Boundable) {
+                Boundable boundable = (Boundable) renderable;
+                this.spatialIndex.update(renderable, boundable.getBoundingSector(this.scratchSector),
+                    boundable.getMaximumAltitude()); // no effect when the entry matches
+            }
+        }
+
+        if (this.spatialIndexOrderStale) {
+            this.spatialIndex.reorder(this.renderables);
+            this.spatialIndexOrderStale = false;
+        }
+    }
+
+    protected SectorTree<Renderable> buildSpatialIndex() {
+        SectorTree<Renderable> spatialIndex = new SectorTree<>();
+
+        for (int idx = 0, len = this.renderables.size(); idx < len; idx++) {
+            this.indexRenderable(spatialIndex, this.renderables.get(idx));
+        }
+
+        return spatialIndex;
+    }
+
+    protected void indexRenderable(Renderable renderable) {
+        Integer count = this.spatialIndexCounts.get(renderable);
+        if (count == null) {
+            this.spatialIndexCounts.put(renderable, 1);
+            this.indexRenderable(this.spatialIndex, renderable);
+        } else {
+            this.spatialIndexCounts.put(renderable, count + 1); // already indexed at an earlier occurrence
+        }
+    }
+
+    protected void indexRenderable(SectorTree<Renderable> spatialIndex, Renderable renderable) {
+        if (renderable instanceof Boundable) {
+            Boundable boundable = (Boundable) renderable;
+            spatialIndex.add(renderable, boundable.getBoundingSector(this.scratchSector),
+                boundable.getMaximumAltitude());
+        } else {
+            spatialIndex.add(renderable, this.scratchSector.setEmpty(), 0);
+        }
+    }
+
+    protected void unindexRenderable(Renderable renderable) {
+        if (this.spatialIndex == null) {
+            return;
+        }
+
+        // A renderable may appear in the list more than once; keep it indexed until its last occurrence is removed.
+        Integer count = this.spatialIndexCounts.get(renderable);
+        if (count == null) {
+            return;
+        } else if (count > 1) {
+            this.spatialIndexCounts.put(renderable, count - 1);
+        } else {
+            this.spatialIndexCounts.remove(renderable);
+            this.spatialIndex.remove(renderable);
+        }
+    }
 }
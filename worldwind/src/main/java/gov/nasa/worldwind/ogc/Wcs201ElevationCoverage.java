@@ -26,6 +26,7 @@ import gov.nasa.worldwind.ogc.wcs.Wcs201CoverageDescription;
 import gov.nasa.worldwind.ogc.wcs.Wcs201CoverageDescriptions;
 import gov.nasa.worldwind.ogc.wcs.WcsXmlParser;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.TaskService;
 import gov.nasa.worldwind.util.WWUtil;
 
 /**
@@ -114,7 +115,7 @@ public class Wcs201ElevationCoverage extends TiledElevationCoverage {
         // Fetch the DescribeCoverage document and determine the bounding box and number of levels
         final String finalServiceAddress = serviceAddress;
         final String finalCoverageId = coverage;
-        WorldWind.taskService().execute(new Runnable() {
+        WorldWind.taskService().execute(TaskService.NETWORK, new Runnable() {
             @Override
             public void run() {
                 try {
@@ -10,6 +10,7 @@ import android.graphics.BitmapFactory;
 
 import gov.nasa.worldwind.render.ImageSource;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.Tracer;
 
 public class GpkgBitmapFactory implements ImageSource.BitmapFactory {
 
@@ -37,7 +38,13 @@ public class GpkgBitmapFactory implements ImageSource.BitmapFactory {
     public Bitmap createBitmap() {
         // Attempt to read the GeoPackage tile user data, throwing an exception if it cannot be found.
         GeoPackage geoPackage = this.tiles.getContainer();
-        GpkgTileUserData tileUserData = geoPackage.readTileUserData(this.tiles, this.zoomLevel, this.tileColumn, this.tileRow);
+        GpkgTileUserData tileUserData;
+        Tracer.begin(Tracer.DATABASE_READ);
+        try {
+            tileUserData = geoPackage.readTileUserData(this.tiles, this.zoomLevel, this.tileColumn, this.tileRow);
+        } finally {
+            Tracer.end(Tracer.DATABASE_READ);
+        }
 
         // Log a message if the tile user data cannot be found, and return a null bitmap indicating this tile is empty.
         if (tileUserData == null) {
@@ -48,6 +55,11 @@ public class GpkgBitmapFactory implements ImageSource.BitmapFactory {
 
         // Decode the tile user data, either a PNG image or a JPEG image.
         byte[] data = tileUserData.getTileData();
-        return BitmapFactory.decodeByteArray(data, 0, data.length);
+        Tracer.begin(Tracer.DECODE);
+        try {
+            return BitmapFactory.decodeByteArray(data, 0, data.length);
+        } finally {
+            Tracer.end(Tracer.DECODE);
+        }
     }
 }
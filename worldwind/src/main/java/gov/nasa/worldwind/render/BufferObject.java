@@ -9,6 +9,7 @@ import android.opengl.GLES20;
 import android.util.SparseArray;
 
 import java.nio.Buffer;
+import java.util.ArrayList;
 
 import gov.nasa.worldwind.draw.DrawContext;
 import gov.nasa.worldwind.geom.Range;
@@ -28,6 +29,10 @@ public class BufferObject implements RenderResource {
 
     public SparseArray<Range> ranges = new SparseArray<>();
 
+    protected final ArrayList<SubData> pendingSubData = new ArrayList<>();
+
+    protected volatile int version;
+
     public BufferObject(int target, int size, Buffer buffer) {
         this.bufferTarget = target;
         this.bufferLength = (buffer != null) ? buffer.remaining() : 0;
@@ -47,10 +52,50 @@ public class BufferObject implements RenderResource {
         return this.bufferByteCount;
     }
 
+    /**
+     * Indicates the number of times this buffer object's data has been replaced by {@link #updateBuffer}. Together
+     * with the buffer object's identity, the version identifies the buffer's contents.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Replaces a range of this buffer object's data. The new data is loaded into the OpenGL buffer object the next time
+     * this buffer object is bound, after any data specified at construction. May be called from any thread. The buffer's
+     * position and the data in the range must not change until the data is loaded.
+     *
+     * @param offset the byte offset of the range to replace
+     * @param size   the number of bytes to replace
+     * @param buffer the new data, starting at the buffer's position
+     *
+     * @throws IllegalArgumentException If the range is outside this buffer object, or if the buffer is null
+     */
+    public void updateBuffer(int offset, int size, Buffer buffer) {
+        if (offset < 0 || size < 0 || offset + size > this.bufferByteCount) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BufferObject", "updateBuffer", "invalidRange"));
+        }
+
+        if (buffer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "BufferObject", "updateBuffer", "missingBuffer"));
+        }
+
+        synchronized (this.pendingSubData) {
+            this.pendingSubData.add(new SubData(offset, size, buffer));
+            this.version++;
+        }
+    }
+
     @Override
     public void release(DrawContext dc) {
         this.deleteBufferObject(dc);
         this.buffer = null; // buffer can be non-null if the object has not been bound
+
+        synchronized (this.pendingSubData) {
+            this.pendingSubData.clear();
+        }
     }
 
     public boolean bindBuffer(DrawContext dc) {
@@ -61,6 +106,7 @@ public class BufferObject implements RenderResource {
 
         if (this.bufferId[0] != 0) {
             dc.bindBuffer(this.bufferTarget, this.bufferId[0]);
+            this.loadSubData(dc);
         }
 
         return this.bufferId[0] != 0;
@@ -109,4 +155,31 @@ public class BufferObject implements RenderResource {
     protected void loadBufferObjectData(DrawContext dc) {
         GLES20.glBufferData(this.bufferTarget, this.bufferByteCount, this.buffer, GLES20.GL_STATIC_DRAW);
     }
+
+    protected void loadSubData(DrawContext dc) {
+        // Load the pending ranges into the bound OpenGL buffer object, in the order they were specified.
+        synchronized (this.pendingSubData) {
+            for (int idx = 0, len = this.pendingSubData.size(); idx < len; idx++) {
+                SubData subData = this.pendingSubData.get(idx);
+                GLES20.glBufferSubData(this.bufferTarget, subData.offset, subData.size, subData.buffer);
+            }
+
+            this.pendingSubData.clear();
+        }
+    }
+
+    protected static class SubData {
+
+        public final int offset;
+
+        public final int size;
+
+        public final Buffer buffer;
+
+        public SubData(int offset, int size, Buffer buffer) {
+            this.offset = offset;
+            this.size = size;
+            this.buffer = buffer;
+        }
+    }
 }
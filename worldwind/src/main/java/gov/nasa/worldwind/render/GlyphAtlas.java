@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.shape.TextAttributes;
+import gov.nasa.worldwind.util.Logger;
+
+/**
+ * Displays text as individually cached glyphs. Each glyph is rasterized once per combination of text attributes and
+ * stored in a texture atlas, and strings are laid out as screen rectangles referencing those glyphs. Text that changes
+ * every frame therefore costs a layout rather than a new bitmap and texture, and the glyphs of many strings may be
+ * drawn with a few draw calls.
+ * <p/>
+ * Outlined glyphs are stored as separate outline and fill images. Layouts place every outline rectangle before every
+ * fill rectangle, so that a glyph's outline never covers the fill of the glyph preceding it.
+ * <p/>
+ * New glyphs are rasterized on a background thread. Layouts that need a glyph that is not yet available are
+ * incomplete, and a redraw is requested when the glyph becomes available. Glyph layout supports characters from the
+ * Latin, Greek and Cyrillic scripts that need no shaping; callers must display other text by other means.
+ * <p/>
+ * GlyphAtlas is thread safe.
+ */
+public class GlyphAtlas {
+
+    /**
+     * The character after the last character supported by glyph layout. Scripts starting at this character, such as
+     * Hebrew and Arabic, require shaping.
+     */
+    protected static final int MAX_CHARACTER = 0x0590;
+
+    protected static final int GLYPH_PENDING = 0;
+
+    protected static final int GLYPH_READY = 1;
+
+    protected static final int GLYPH_FAILED = 2;
+
+    protected static final int GLYPH_DEFERRED = 3;
+
+    protected static final long KEEP_ALIVE_SECONDS = 60;
+
+    protected TextureAtlas atlas;
+
+    protected HashMap<Object, Font> fonts = new HashMap<>();
+
+    protected RenderContext.TextCacheKey scratchKey = new RenderContext.TextCacheKey();
+
+    protected ThreadPoolExecutor rasterizer;
+
+    /**
+     * Constructs a glyph atlas with up to two 1024 x 1024 pages of glyphs.
+     */
+    public GlyphAtlas() {
+        this(new TextureAtlas(1024, 1024, 2, 256));
+    }
+
+    /**
+     * Constructs a glyph atlas that stores glyphs in a specified texture atlas.
+     *
+     * @param atlas the texture atlas to store glyphs in, which must not be shared
+     *
+     * @throws IllegalArgumentException If the atlas is null
+     */
+    public GlyphAtlas(TextureAtlas atlas) {
+        if (atlas == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GlyphAtlas", "constructor", "missingAtlas"));
+        }
+
+        this.atlas = atlas;
+    }
+
+    /**
+     * Indicates whether glyph layout supports a character.
+     *
+     * @param c the character to test
+     *
+     * @return true if the character may be laid out, otherwise false
+     */
+    public static boolean isSupported(char c) {
+        return c >= 0x20 && c < MAX_CHARACTER && c != 0x7F // exclude control characters
+            && (c < 0x0300 || c > 0x036F); // exclude combining diacritical marks
+    }
+
+    /**
+     * Lays out a string's glyphs. This requests rasterization of glyphs that have not been used with the specified
+     * attributes, and the resultant layout is incomplete until they are available.
+     *
+     * @param text       the string to lay out
+     * @param attributes the text attributes to apply
+     * @param result     a pre-allocated TextLayout in which to store the layout
+     *
+     * @return true if the string can be displayed with glyphs, or false if the string or attributes are null, the
+     * string contains unsupported characters, or the atlas cannot currently hold its glyphs
+     *
+     * @throws IllegalArgumentException If the result is null
+     */
+    public synchronized boolean layoutText(String text, TextAttributes attributes, TextLayout result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "GlyphAtlas", "layoutText", "missingResult"));
+        }
+
+        result.clear();
+
+        if (text == null || attributes == null) {
+            return false;
+        }
+
+        for (int idx = 0, len = text.length(); idx < len; idx++) {
+            if (!isSupported(text.charAt(idx))) {
+                return false;
+            }
+        }
+
+        // Request the glyphs that are not available. Glyphs that did not fit in the full atlas are requested again once
+        // the atlas may have evicted enough unused images to hold them.
+        Font font = this.font(attributes);
+        boolean outline = font.attributes.isEnableOutline();
+        boolean complete = true;
+
+        for (int idx = 0, len = text.length(); idx < len; idx++) {
+            Glyph glyph = this.glyph(font, text.charAt(idx));
+            if (glyph.state == GLYPH_DEFERRED && glyph.retryTime <= this.currentTime()) {
+                this.requestGlyph(font, glyph);
+            }
+
+            if (glyph.state == GLYPH_FAILED || glyph.state == GLYPH_DEFERRED) {
+                result.clear();
+                return false;
+            } else if (glyph.state == GLYPH_PENDING) {
+                complete = false;
+            } else if (glyph.width > 0 && (this.atlas.getTexture(glyph) == null
+                || (outline && this.atlas.getTexture(glyph.outlineKey) == null))) {
+                this.requestGlyph(font, glyph); // evicted from the atlas; rasterize the glyph again
+                complete = false;
+            }
+        }
+
+        if (!complete) {
+            result.complete = false;
+            return true;
+        }
+
+        // Place each glyph's rectangles relative to the pen position on the baseline. Every outline rectangle precedes
+        // every fill rectangle.
+        if (outline) {
+            this.addGlyphRects(font, text, true, result);
+        }
+        this.addGlyphRects(font, text, false, result);
+
+        if (result.glyphCount == 0) {
+            result.complete = true;
+            return true; // the string is entirely whitespace
+        }
+
+        // Make glyph rectangles relative to the bottom-left corner of the layout's bounds.
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int idx = 0, len = result.glyphCount * 4; idx < len; idx += 4) {
+            minX = Math.min(minX, result.glyphRects[idx]);
+            minY = Math.min(minY, result.glyphRects[idx + 1]);
+            maxX = Math.max(maxX, result.glyphRects[idx] + result.glyphRects[idx + 2]);
+            maxY = Math.max(maxY, result.glyphRects[idx + 1] + result.glyphRects[idx + 3]);
+        }
+
+        for (int idx = 0, len = result.glyphCount * 4; idx < len; idx += 4) {
+            result.glyphRects[idx] -= minX;
+            result.glyphRects[idx + 1] -= minY;
+        }
+
+        result.width = maxX - minX;
+        result.height = maxY - minY;
+        result.complete = true;
+        return true;
+    }
+
+    protected void addGlyphRects(Font font, String text, boolean outline, TextLayout result) {
+        float pen = 0;
+        for (int idx = 0, len = text.length(); idx < len; idx++) {
+            Glyph glyph = font.glyphs[text.charAt(idx)];
+            if (glyph.width > 0) { // whitespace glyphs have an advance but no image
+                // Convert the glyph's image bounds to a rectangle with axes that extend up and to the right.
+                Texture texture = this.atlas.getTexture(outline ? glyph.outlineKey : glyph);
+                int x = Math.round(pen) + glyph.left;
+                int y = -(glyph.top + glyph.height);
+                result.addGlyph(texture, x, y, glyph.width, glyph.height);
+            }
+
+            pen += glyph.advance;
+        }
+    }
+
+    /**
+     * Removes every glyph from this atlas without releasing their OpenGL resources. Called when the OpenGL context is
+     * lost, and the atlas textures no longer exist.
+     */
+    public synchronized void clear() {
+        this.atlas.clear();
+        this.fonts.clear(); // pending glyphs are discarded when their rasterization completes
+    }
+
+    protected Font font(TextAttributes attributes) {
+        Font font = this.fonts.get(this.scratchKey.set(null, attributes));
+        if (font == null) {
+            RenderContext.TextCacheKey key = new RenderContext.TextCacheKey().set(null, attributes);
+            font = new Font(attributes);
+            this.fonts.put(key, font);
+        }
+
+        return font;
+    }
+
+    protected Glyph glyph(Font font, char c) {
+        Glyph glyph = font.glyphs[c];
+        if (glyph == null) {
+            glyph = new Glyph(c);
+            font.glyphs[c] = glyph;
+            this.requestGlyph(font, glyph);
+        }
+
+        return glyph;
+    }
+
+    protected void requestGlyph(final Font font, final Glyph glyph) {
+        glyph.state = GLYPH_PENDING;
+        this.rasterizer().execute(new Runnable() {
+            @Override
+            public void run() {
+                GlyphAtlas.this.loadGlyph(font, glyph);
+            }
+        });
+    }
+
+    protected void loadGlyph(Font font, Glyph glyph) {
+        Bitmap bitmap = null, outlineBitmap = null;
+        boolean rasterized = false;
+        try {
+            // Rasterize outside the lock.
+            if (this.measureGlyph(font, glyph)) {
+                bitmap = this.rasterizeGlyph(font, glyph, false);
+                if (font.attributes.isEnableOutline()) {
+                    outlineBitmap = this.rasterizeGlyph(font, glyph, true);
+                }
+            }
+            rasterized = true;
+        } catch (Exception e) {
+            Logger.logMessage(Logger.ERROR, "GlyphAtlas", "loadGlyph",
+                "Exception attempting to rasterize glyph \'" + glyph.character + "\'", e);
+        }
+
+        synchronized (this) {
+            if (font.glyphs[glyph.character] != glyph || this.fonts.get(this.scratchKey.set(null, font.attributes)) != font) {
+                return; // the atlas has been cleared
+            }
+
+            int maxImageSize = this.atlas.getMaxImageSize();
+            if (!rasterized || glyph.width > maxImageSize || glyph.height > maxImageSize) {
+                glyph.state = GLYPH_FAILED; // the glyph cannot be displayed with the atlas
+            } else if (glyph.width == 0 || this.putGlyphImages(font, glyph, bitmap, outlineBitmap)) {
+                glyph.state = GLYPH_READY;
+            } else {
+                glyph.state = GLYPH_DEFERRED; // the atlas is full; try again once unused images may be evicted
+                glyph.retryTime = this.currentTime() + this.atlas.getEvictionAge();
+            }
+        }
+
+        WorldWind.requestRedraw();
+    }
+
+    protected boolean putGlyphImages(Font font, Glyph glyph, Bitmap bitmap, Bitmap outlineBitmap) {
+        if (!this.putGlyphImage(glyph, bitmap)) {
+            return false;
+        }
+
+        if (font.attributes.isEnableOutline() && !this.putGlyphImage(glyph.outlineKey, outlineBitmap)) {
+            this.atlas.removeTexture(glyph); // keep the glyph's fill and outline images together
+            return false;
+        }
+
+        return true;
+    }
+
+    protected boolean putGlyphImage(Object key, Bitmap bitmap) {
+        return this.atlas.putImage(key, bitmap) != null;
+    }
+
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Computes a glyph's metrics. Called on the rasterizer thread.
+     *
+     * @param font  the glyph's font
+     * @param glyph the glyph to measure
+     *
+     * @return true if the glyph has an image, or false if the glyph is whitespace
+     */
+    protected boolean measureGlyph(Font font, Glyph glyph) {
+        TextAttributes attributes = font.attributes;
+        Paint paint = font.paint();
+        Rect bounds = font.scratchBounds;
+        String string = String.valueOf(glyph.character);
+
+        paint.setStyle(Paint.Style.FILL);
+        paint.getTextBounds(string, 0, 1, bounds);
+        glyph.advance = paint.measureText(string);
+        if (bounds.isEmpty()) {
+            glyph.width = 0;
+            glyph.height = 0;
+            return false;
+        }
+
+        // Pad the image by one pixel, and by half the outline width when outlines are enabled.
+        int pad = 1;
+        if (attributes.isEnableOutline()) {
+            pad += (int) Math.ceil(paint.getStrokeWidth() * 0.5f);
+        }
+
+        glyph.left = bounds.left - pad;
+        glyph.top = bounds.top - pad;
+        glyph.width = bounds.width() + pad * 2;
+        glyph.height = bounds.height() + pad * 2;
+        return true;
+    }
+
+    /**
+     * Rasterizes a glyph's fill image or outline image, using the metrics computed by {@link #measureGlyph}. The
+     * outline image contains the glyph's filled and stroked shape in the outline color. Called on the rasterizer
+     * thread.
+     *
+     * @param font    the glyph's font
+     * @param glyph   the glyph to rasterize
+     * @param outline true to rasterize the glyph's outline image, false to rasterize its fill image
+     *
+     * @return the glyph's image
+     */
+    protected Bitmap rasterizeGlyph(Font font, Glyph glyph, boolean outline) {
+        TextAttributes attributes = font.attributes;
+        Paint paint = font.paint();
+        String string = String.valueOf(glyph.character);
+
+        Bitmap bitmap = Bitmap.createBitmap(glyph.width, glyph.height, Bitmap.Config.ARGB_8888);
+        font.canvas.setBitmap(bitmap);
+
+        if (outline) {
+            paint.setStyle(Paint.Style.FILL_AND_STROKE);
+            paint.setColor(attributes.getOutlineColor().toColorInt());
+        } else {
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(attributes.getTextColor().toColorInt());
+        }
+        font.canvas.drawText(string, 0, 1, -glyph.left, -glyph.top, paint);
+
+        font.canvas.setBitmap(null);
+
+        return bitmap;
+    }
+
+    protected synchronized ThreadPoolExecutor rasterizer() {
+        if (this.rasterizer == null) {
+            this.rasterizer = new ThreadPoolExecutor(1, 1,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(@NonNull Runnable r) {
+                        Thread thread = new Thread(r, "WorldWind Glyph Rasterizer");
+                        thread.setDaemon(true); // the rasterizer thread does not prevent the process from terminating
+                        return thread;
+                    }
+                });
+            this.rasterizer.allowCoreThreadTimeOut(true); // release the thread when no glyphs are needed
+        }
+
+        return this.rasterizer;
+    }
+
+    /**
+     * The glyphs for a combination of text attributes. Glyphs are indexed by character.
+     */
+    protected static class Font {
+
+        public final TextAttributes attributes;
+
+        public final Glyph[] glyphs = new Glyph[MAX_CHARACTER];
+
+        protected Paint paint;
+
+        protected Canvas canvas;
+
+        protected Rect scratchBounds;
+
+        public Font(TextAttributes attributes) {
+            this.attributes = new TextAttributes(attributes);
+        }
+
+        protected Paint paint() { // called on the rasterizer thread
+            if (this.paint == null) {
+                this.paint = new Paint();
+                this.paint.setAntiAlias(true);
+                this.paint.setTextAlign(Paint.Align.LEFT);
+                this.paint.setTextSize(this.attributes.getTextSize());
+                this.paint.setTypeface(this.attributes.getTypeface());
+                this.paint.setStrokeWidth(this.attributes.getOutlineWidth());
+                this.canvas = new Canvas();
+                this.scratchBounds = new Rect();
+            }
+
+            return this.paint;
+        }
+    }
+
+    /**
+     * A character's metrics and atlas image in a particular font. Glyphs are the keys of their atlas textures.
+     */
+    protected static class Glyph {
+
+        public final char character;
+
+        /**
+         * The glyph's state; written under the atlas lock.
+         */
+        public int state;
+
+        /**
+         * The distance in pixels from this glyph's origin to the next glyph's origin.
+         */
+        public float advance;
+
+        /**
+         * The horizontal distance in pixels from the glyph's origin to its image's left edge.
+         */
+        public int left;
+
+        /**
+         * The vertical distance in pixels from the glyph's baseline to its image's top edge, increasing downward.
+         */
+        public int top;
+
+        public int width;
+
+        public int height;
+
+        /**
+         * The key of the glyph's outline image. The glyph itself is the key of its fill image.
+         */
+        public final Object outlineKey = new Object();
+
+        /**
+         * The time in milliseconds at which a glyph that did not fit in the full atlas may be rasterized again.
+         */
+        public long retryTime;
+
+        public Glyph(char character) {
+            this.character = character;
+        }
+    }
+}
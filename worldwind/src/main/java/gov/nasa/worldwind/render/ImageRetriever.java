@@ -10,14 +10,19 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
 
 import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.ogc.gpkg.GpkgBitmapFactory;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Retriever;
+import gov.nasa.worldwind.util.TaskService;
+import gov.nasa.worldwind.util.Tracer;
 import gov.nasa.worldwind.util.WWUtil;
 
 public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap> {
@@ -52,6 +57,18 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
         }
     }
 
+    @Override
+    protected int taskLane(ImageSource imageSource, ImageOptions imageOptions) {
+        if (imageSource.isUrl()) { // URL images found in the disk cache are decoded from local files
+            DiskCache diskCache = WorldWind.diskCache();
+            return (diskCache != null && diskCache.containsKey(imageSource.asUrl())) ? TaskService.DECODE : TaskService.NETWORK;
+        } else if (imageSource.isBitmapFactory() && imageSource.asBitmapFactory() instanceof GpkgBitmapFactory) {
+            return TaskService.DATABASE;
+        } else {
+            return TaskService.DECODE;
+        }
+    }
+
     // TODO can we explicitly recycle bitmaps from image sources other than direct Bitmap references?
     // TODO does explicit recycling help?
     protected Bitmap decodeImage(ImageSource imageSource, ImageOptions imageOptions) throws IOException {
@@ -80,19 +97,37 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
 
     protected Bitmap decodeResource(int id, ImageOptions imageOptions) {
         BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
-        return (this.resources != null) ? BitmapFactory.decodeResource(this.resources, id, factoryOptions) : null;
+        Tracer.begin(Tracer.DECODE);
+        try {
+            return (this.resources != null) ? BitmapFactory.decodeResource(this.resources, id, factoryOptions) : null;
+        } finally {
+            Tracer.end(Tracer.DECODE);
+        }
     }
 
     protected Bitmap decodeFilePath(String pathName, ImageOptions imageOptions) {
         BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
-        return BitmapFactory.decodeFile(pathName, factoryOptions);
+        Tracer.begin(Tracer.DECODE);
+        try {
+            return BitmapFactory.decodeFile(pathName, factoryOptions);
+        } finally {
+            Tracer.end(Tracer.DECODE);
+        }
     }
 
     protected Bitmap decodeUrl(String urlString, ImageOptions imageOptions) throws IOException {
-        // TODO establish a file caching service for remote resources
         // TODO retry absent resources, they are currently handled but suppressed entirely after the first failure
         // TODO configurable connect and read timeouts
 
+        // Look for the image in WorldWind's disk cache before requesting it from the network.
+        DiskCache diskCache = WorldWind.diskCache();
+        if (diskCache != null) {
+            Bitmap bitmap = this.decodeCachedUrl(diskCache, urlString, imageOptions);
+            if (bitmap != null) {
+                return bitmap;
+            }
+        }
+
         InputStream stream = null;
         try {
             URLConnection conn = new URL(urlString).openConnection();
@@ -101,13 +136,49 @@ public class ImageRetriever extends Retriever<ImageSource, ImageOptions, Bitmap>
 
             stream = new BufferedInputStream(conn.getInputStream());
 
+            // Copy the image into the disk cache and decode the cached file. Fall back to decoding the network stream
+            // when the disk cache is disabled or cannot accept the image.
+            File file = (diskCache != null) ? diskCache.put(urlString, stream) : null;
+            if (file != null) {
+                return this.decodeCachedFile(diskCache, urlString, file, imageOptions);
+            }
+
             BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
-            return BitmapFactory.decodeStream(stream, null, factoryOptions);
+            Tracer.begin(Tracer.DECODE);
+            try {
+                return BitmapFactory.decodeStream(stream, null, factoryOptions);
+            } finally {
+                Tracer.end(Tracer.DECODE);
+            }
         } finally {
             WWUtil.closeSilently(stream);
         }
     }
 
+    protected Bitmap decodeCachedUrl(DiskCache diskCache, String urlString, ImageOptions imageOptions) {
+        File file = diskCache.get(urlString);
+        return (file != null) ? this.decodeCachedFile(diskCache, urlString, file, imageOptions) : null;
+    }
+
+    protected Bitmap decodeCachedFile(DiskCache diskCache, String urlString, File file, ImageOptions imageOptions) {
+        // Decode the cached file, removing it from the cache when it cannot be decoded. This accounts for resources
+        // that have been evicted concurrently, as well as responses that are not images, such as OGC exceptions.
+        BitmapFactory.Options factoryOptions = this.bitmapFactoryOptions(imageOptions);
+        Bitmap bitmap;
+        Tracer.begin(Tracer.DECODE);
+        try {
+            bitmap = BitmapFactory.decodeFile(file.getPath(), factoryOptions);
+        } finally {
+            Tracer.end(Tracer.DECODE);
+        }
+
+        if (bitmap == null) {
+            diskCache.remove(urlString);
+        }
+
+        return bitmap;
+    }
+
     protected Bitmap decodeUnrecognized(ImageSource imageSource) {
         Logger.log(Logger.WARN, "Unrecognized image source \'" + imageSource + "\'");
         return null;
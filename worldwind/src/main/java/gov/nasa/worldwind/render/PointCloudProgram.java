@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.content.res.Resources;
+import android.opengl.GLES20;
+
+import gov.nasa.worldwind.R;
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.WWUtil;
+
+/**
+ * GLSL program that draws points as round point sprites, with a color and a diameter in pixels for each point.
+ */
+public class PointCloudProgram extends ShaderProgram {
+
+    public static final Object KEY = PointCloudProgram.class;
+
+    protected boolean enablePickMode;
+
+    protected Color pickColor = new Color();
+
+    protected int enablePickModeId;
+
+    protected int mvpMatrixId;
+
+    protected int pickColorId;
+
+    private float[] array = new float[16];
+
+    public PointCloudProgram(Resources resources) {
+        try {
+            String vs = WWUtil.readResourceAsText(resources, R.raw.gov_nasa_worldwind_pointcloudprogram_vert);
+            String fs = WWUtil.readResourceAsText(resources, R.raw.gov_nasa_worldwind_pointcloudprogram_frag);
+            this.setProgramSources(vs, fs);
+            this.setAttribBindings("vertexPoint", "vertexColor", "vertexSize");
+        } catch (Exception logged) {
+            Logger.logMessage(Logger.ERROR, "PointCloudProgram", "constructor", "errorReadingProgramSource", logged);
+        }
+    }
+
+    protected void initProgram(DrawContext dc) {
+        this.enablePickModeId = GLES20.glGetUniformLocation(this.programId, "enablePickMode");
+        GLES20.glUniform1i(this.enablePickModeId, this.enablePickMode ? 1 : 0);
+
+        this.mvpMatrixId = GLES20.glGetUniformLocation(this.programId, "mvpMatrix");
+        new Matrix4().transposeToArray(this.array, 0); // 4 x 4 identity matrix
+        GLES20.glUniformMatrix4fv(this.mvpMatrixId, 1, false, this.array, 0);
+
+        this.pickColorId = GLES20.glGetUniformLocation(this.programId, "pickColor");
+        GLES20.glUniform4f(this.pickColorId, this.pickColor.red, this.pickColor.green, this.pickColor.blue, this.pickColor.alpha);
+    }
+
+    public void enablePickMode(boolean enable) {
+        if (this.enablePickMode != enable) {
+            this.enablePickMode = enable;
+            GLES20.glUniform1i(this.enablePickModeId, enable ? 1 : 0);
+        }
+    }
+
+    public void loadModelviewProjection(Matrix4 matrix) {
+        matrix.transposeToArray(this.array, 0);
+        GLES20.glUniformMatrix4fv(this.mvpMatrixId, 1, false, this.array, 0);
+    }
+
+    public void loadPickColor(Color color) {
+        if (!this.pickColor.equals(color)) {
+            this.pickColor.set(color);
+            GLES20.glUniform4f(this.pickColorId, color.red, color.green, color.blue, color.alpha);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import android.graphics.Typeface;
 import java.util.HashMap;
 import java.util.Map;
 
+import gov.nasa.worldwind.FrameMetrics;
 import gov.nasa.worldwind.PickedObject;
 import gov.nasa.worldwind.PickedObjectList;
 import gov.nasa.worldwind.WorldWind;
@@ -74,6 +75,14 @@ public class RenderContext {
 
     public Resources resources;
 
+    /**
+     * Indicates whether the OpenGL context supports 32-bit element indices, as specified by the <a
+     * href="https://www.khronos.org/registry/OpenGL/extensions/OES/OES_element_index_uint.txt">OES_element_index_uint</a>
+     * extension. Shapes with more vertices than 16-bit element indices can address use 32-bit indices when supported,
+     * and are divided into chunks otherwise.
+     */
+    public boolean elementIndexUint;
+
     public DrawableQueue drawableQueue;
 
     public DrawableQueue drawableTerrain;
@@ -88,6 +97,13 @@ public class RenderContext {
 
     public boolean pickMode;
 
+    /**
+     * The profiler timing the frame being rendered, or null when profiling is disabled. Rendering code timing a section
+     * of the frame must check for null before reading the clock, which keeps the cost of profiling negligible when it
+     * is disabled.
+     */
+    public FrameMetrics frameMetrics;
+
     private int pickedObjectId;
 
     private boolean redrawRequested;
@@ -127,6 +143,7 @@ public class RenderContext {
         this.frustum.setToUnitFrustum();
         this.renderResourceCache = null;
         this.resources = null;
+        this.elementIndexUint = false;
         this.drawableQueue = null;
         this.drawableTerrain = null;
         this.pickedObjects = null;
@@ -134,12 +151,52 @@ public class RenderContext {
         this.pickPoint = null;
         this.pickRay = null;
         this.pickMode = false;
+        this.frameMetrics = null;
         this.pickedObjectId = 0;
         this.redrawRequested = false;
         this.pixelSizeFactor = 0;
         this.userProperties.clear();
     }
 
+    /**
+     * Configures this render context to render part of the frame being rendered by another render context, typically
+     * on a separate thread. This context shares the other context's viewing state, terrain and render resource cache,
+     * and keeps its own scratch state, tessellator, text renderer and drawable pools. Drawables are offered to this
+     * context's drawable queue, which the caller must specify, and drawable terrain may not be offered. Render resource
+     * cache access through either context is synchronized. Picked object IDs are not coordinated between contexts, so a
+     * frame rendered in pick mode must not be shared.
+     *
+     * @param rc the render context whose frame to render
+     *
+     * @throws IllegalArgumentException If the render context is null
+     */
+    public void shareFrame(RenderContext rc) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "RenderContext", "shareFrame", "missingRenderContext"));
+        }
+
+        this.reset();
+        this.globe = rc.globe;
+        this.terrainTessellator = rc.terrainTessellator;
+        this.terrain = rc.terrain;
+        this.layers = rc.layers;
+        this.verticalExaggeration = rc.verticalExaggeration;
+        this.fieldOfView = rc.fieldOfView;
+        this.horizonDistance = rc.horizonDistance;
+        this.camera.set(rc.camera);
+        this.cameraPoint.set(rc.cameraPoint);
+        this.viewport.set(rc.viewport);
+        this.projection.set(rc.projection);
+        this.modelview.set(rc.modelview);
+        this.modelviewProjection.set(rc.modelviewProjection);
+        this.frustum.set(rc.frustum);
+        this.renderResourceCache = rc.renderResourceCache;
+        this.resources = rc.resources;
+        this.elementIndexUint = rc.elementIndexUint;
+        this.frameMetrics = rc.frameMetrics;
+    }
+
     public boolean isRedrawRequested() {
         return this.redrawRequested;
     }
@@ -396,39 +453,82 @@ public class RenderContext {
     public ShaderProgram getShaderProgram(Object key) {
         // TODO redesign ShaderProgram to operate as a resource accessible from DrawContext
         // TODO created automatically on OpenGL thread, unless the caller wants to explicitly create a program
-        return (ShaderProgram) this.renderResourceCache.get(key);
+        synchronized (this.renderResourceCache) {
+            return (ShaderProgram) this.renderResourceCache.get(key);
+        }
     }
 
     public ShaderProgram putShaderProgram(Object key, ShaderProgram program) {
-        this.renderResourceCache.put(key, program, (program != null) ? program.getProgramLength() : 0);
-        return program;
+        synchronized (this.renderResourceCache) {
+            // Keep a program put by another thread rendering the same frame, so that every drawable uses the cached
+            // program and none are released while still in use.
+            if (program != null && this.renderResourceCache.containsKey(key)) {
+                ShaderProgram existing = (ShaderProgram) this.renderResourceCache.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+
+            this.renderResourceCache.put(key, program, (program != null) ? program.getProgramLength() : 0);
+            return program;
+        }
     }
 
     public Texture getTexture(ImageSource imageSource) {
-        return (Texture) this.renderResourceCache.get(imageSource);
+        synchronized (this.renderResourceCache) {
+            return (Texture) this.renderResourceCache.get(imageSource);
+        }
     }
 
     public Texture putTexture(ImageSource imageSource, Texture texture) {
-        this.renderResourceCache.put(imageSource, texture, (texture != null) ? texture.getByteCount() : 0);
-        return texture;
+        synchronized (this.renderResourceCache) {
+            this.renderResourceCache.put(imageSource, texture, (texture != null) ? texture.getByteCount() : 0);
+            return texture;
+        }
     }
 
     public Texture retrieveTexture(ImageSource imageSource, ImageOptions imageOptions) {
-        return this.renderResourceCache.retrieveTexture(imageSource, imageOptions);
+        synchronized (this.renderResourceCache) {
+            return this.renderResourceCache.retrieveTexture(imageSource, imageOptions);
+        }
+    }
+
+    public Texture retrieveTexture(ImageSource imageSource, ImageOptions imageOptions, double priority) {
+        synchronized (this.renderResourceCache) {
+            return this.renderResourceCache.retrieveTexture(imageSource, imageOptions, priority);
+        }
+    }
+
+    public Texture getAtlasTexture(ImageSource imageSource) {
+        synchronized (this.renderResourceCache) {
+            return this.renderResourceCache.getAtlasTexture(imageSource);
+        }
+    }
+
+    public Texture retrieveAtlasTexture(ImageSource imageSource, ImageOptions imageOptions, double priority) {
+        synchronized (this.renderResourceCache) {
+            return this.renderResourceCache.retrieveAtlasTexture(imageSource, imageOptions, priority);
+        }
     }
 
     public BufferObject getBufferObject(Object key) {
-        return (BufferObject) this.renderResourceCache.get(key);
+        synchronized (this.renderResourceCache) {
+            return (BufferObject) this.renderResourceCache.get(key);
+        }
     }
 
     public BufferObject putBufferObject(Object key, BufferObject buffer) {
-        this.renderResourceCache.put(key, buffer, (buffer != null) ? buffer.getBufferByteCount() : 0);
-        return buffer;
+        synchronized (this.renderResourceCache) {
+            this.renderResourceCache.put(key, buffer, (buffer != null) ? buffer.getBufferByteCount() : 0);
+            return buffer;
+        }
     }
 
     public Texture getText(String text, TextAttributes attributes) {
         TextCacheKey key = this.scratchTextCacheKey.set(text, attributes);
-        return (Texture) this.renderResourceCache.get(key);
+        synchronized (this.renderResourceCache) {
+            return (Texture) this.renderResourceCache.get(key);
+        }
     }
 
     public Texture renderText(String text, TextAttributes attributes) {
@@ -445,10 +545,28 @@ public class RenderContext {
             texture = this.textRenderer.renderText(text);
         }
 
-        this.renderResourceCache.put(key, texture, (texture != null) ? texture.getByteCount() : 0);
+        synchronized (this.renderResourceCache) {
+            this.renderResourceCache.put(key, texture, (texture != null) ? texture.getByteCount() : 0);
+        }
+
         return texture;
     }
 
+    /**
+     * Lays out text as individually cached glyphs. Layouts are incomplete while new glyphs are rasterized on a
+     * background thread. Text that cannot be displayed with glyphs must be displayed with {@link #renderText(String,
+     * TextAttributes)}.
+     *
+     * @param text       the text to lay out
+     * @param attributes the text attributes to apply
+     * @param result     a pre-allocated TextLayout in which to store the layout
+     *
+     * @return true if the text can be displayed with glyphs, otherwise false
+     */
+    public boolean layoutText(String text, TextAttributes attributes, TextLayout result) {
+        return this.renderResourceCache != null && this.renderResourceCache.getGlyphAtlas().layoutText(text, attributes, result);
+    }
+
     public void offerDrawable(Drawable drawable, int groupId, double order) {
         if (this.drawableQueue != null) {
             this.drawableQueue.offerDrawable(drawable, groupId, order);
@@ -20,10 +20,11 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.util.ConcurrentMemoryCache;
+import gov.nasa.worldwind.util.DiskCache;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.LruMemoryCache;
 import gov.nasa.worldwind.util.Retriever;
-import gov.nasa.worldwind.util.SynchronizedMemoryCache;
 
 public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
     implements Retriever.Callback<ImageSource, ImageOptions, Bitmap>, Handler.Callback {
@@ -40,6 +41,10 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
 
     protected LruMemoryCache<ImageSource, Bitmap> imageRetrieverCache;
 
+    protected TextureAtlas textureAtlas;
+
+    protected GlyphAtlas glyphAtlas;
+
     protected static final int STALE_RETRIEVAL_AGE = 3000;
 
     protected static final int TRIM_STALE_RETRIEVALS = 1;
@@ -57,11 +62,14 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
     }
 
     protected void init() {
+        this.setSegmented(true); // keep textures used every frame resident while the camera passes over new tiles
         this.handler = new Handler(this);
         this.evictionQueue = new ConcurrentLinkedQueue<>();
         this.imageRetriever = new ImageRetriever(2);
         this.urlImageRetriever = new ImageRetriever(8);
-        this.imageRetrieverCache = new SynchronizedMemoryCache<>(this.getCapacity() / 8);
+        this.imageRetrieverCache = new ConcurrentMemoryCache<>(this.getCapacity() / 8); // written by retrieval threads
+        this.textureAtlas = new TextureAtlas();
+        this.glyphAtlas = new GlyphAtlas();
 
         Logger.log(Logger.INFO, String.format(Locale.US, "RenderResourceCache initialized  %,.0f KB  (%,.0f KB retrieval cache)",
             this.getCapacity() / 1024.0, this.imageRetrieverCache.getCapacity() / 1024.0));
@@ -99,10 +107,19 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
 
     public void clear() { // TODO rename as contextLost to clarify this method's purpose for RenderResourceCache
         this.handler.removeMessages(TRIM_STALE_RETRIEVALS);
-        this.entries.clear(); // the cache entries are invalid; clear but don't call entryRemoved
+        this.resetEntries(); // the cache entries are invalid; clear but don't call entryRemoved
         this.evictionQueue.clear(); // the eviction queue no longer needs to be processed
         this.imageRetrieverCache.clear(); // the retrieval queue should be cleared to make room
-        this.usedCapacity = 0;
+        this.textureAtlas.clear(); // the atlas pages are invalid
+        this.glyphAtlas.clear();
+    }
+
+    public TextureAtlas getTextureAtlas() {
+        return this.textureAtlas;
+    }
+
+    public GlyphAtlas getGlyphAtlas() {
+        return this.glyphAtlas;
     }
 
     public void releaseEvictedResources(DrawContext dc) {
@@ -127,6 +144,22 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
     }
 
     public Texture retrieveTexture(ImageSource imageSource, ImageOptions options) {
+        return this.retrieveTexture(imageSource, options, 0);
+    }
+
+    /**
+     * Returns the texture for an image source, requesting the image asynchronously if necessary. Requests with lower
+     * priority values are retrieved first; callers typically specify the distance from the camera to the image's
+     * geographic extent. Callers must request the texture every frame it's needed, or the request may be discarded
+     * before the image is retrieved.
+     *
+     * @param imageSource the image source to retrieve
+     * @param options     the image options, or null to use the default options
+     * @param priority    the request's priority; lower values are retrieved first
+     *
+     * @return the texture, or null if the image is not yet available
+     */
+    public Texture retrieveTexture(ImageSource imageSource, ImageOptions options, double priority) {
         if (imageSource == null) {
             return null; // a null image source corresponds to a null texture
         }
@@ -153,12 +186,76 @@ public class RenderResourceCache extends LruMemoryCache<Object, RenderResource>
         // the texture is not in memory. The image is added to the image retrieval cache upon successful retrieval. It's
         // then expected that a subsequent render frame will result in another call to retrieveTexture, in which case
         // the image will be found in the image retrieval cache.
-        if (imageSource.isUrl()) {
-            this.urlImageRetriever.retrieve(imageSource, options, this);
+        this.requestImage(imageSource, options, priority);
+        return null;
+    }
+
+    /**
+     * Returns the texture for an image source from the texture atlas or from this cache, marking an atlas texture as
+     * recently used.
+     *
+     * @param imageSource the image source to find
+     *
+     * @return the texture, or null if the image source has no texture
+     */
+    public Texture getAtlasTexture(ImageSource imageSource) {
+        Texture texture = this.textureAtlas.getTexture(imageSource);
+        return (texture != null) ? texture : (Texture) this.get(imageSource);
+    }
+
+    /**
+     * Returns the texture for an image source, requesting the image asynchronously if necessary. Small images that
+     * use the default image options are packed into the texture atlas; all other images are put in this cache as
+     * separate textures. Atlas textures on the same atlas page share an OpenGL texture, so drawables may display many
+     * of them without rebinding textures. Callers must request the texture every frame it's needed, or the request
+     * may be discarded before the image is retrieved.
+     *
+     * @param imageSource the image source to retrieve
+     * @param options     the image options, or null to use the default options
+     * @param priority    the request's priority; lower values are retrieved first
+     *
+     * @return the texture, or null if the image is not yet available
+     */
+    public Texture retrieveAtlasTexture(ImageSource imageSource, ImageOptions options, double priority) {
+        if (imageSource == null) {
+            return null; // a null image source corresponds to a null texture
+        }
+
+        // Atlas pages are clamped and bilinear filtered. Images that specify other options need separate textures.
+        if (options != null && (options.resamplingMode != WorldWind.BILINEAR || options.wrapMode != WorldWind.CLAMP)) {
+            return this.retrieveTexture(imageSource, options, priority);
+        }
+
+        // Look for the image in memory, then request it on a separate thread if it's not found.
+        Bitmap bitmap = imageSource.isBitmap() ? imageSource.asBitmap() : this.imageRetrieverCache.remove(imageSource);
+        if (bitmap == null) {
+            this.requestImage(imageSource, options, priority);
+            return null;
+        }
+
+        // Pack the image into the atlas, or create a separate texture when the image is too large or the atlas is full.
+        Texture texture = this.textureAtlas.putImage(imageSource, bitmap);
+        if (texture == null) {
+            texture = this.createTexture(imageSource, options, bitmap);
+            this.put(imageSource, texture, texture.getByteCount());
+        }
+
+        return texture;
+    }
+
+    protected void requestImage(ImageSource imageSource, ImageOptions options, double priority) {
+        // URL images found in the disk cache are retrieved alongside other local images, leaving the URL retriever's
+        // connections available for images that must be requested from the network.
+        if (imageSource.isUrl() && !this.isDiskCached(imageSource)) {
+            this.urlImageRetriever.retrieve(imageSource, options, this, priority);
         } else {
-            this.imageRetriever.retrieve(imageSource, options, this);
+            this.imageRetriever.retrieve(imageSource, options, this, priority);
         }
-        return null;
+    }
+
+    protected boolean isDiskCached(ImageSource imageSource) {
+        DiskCache diskCache = WorldWind.diskCache();
+        return diskCache != null && diskCache.containsKey(imageSource.asUrl());
     }
 
     protected Texture createTexture(ImageSource imageSource, ImageOptions options, Bitmap bitmap) {
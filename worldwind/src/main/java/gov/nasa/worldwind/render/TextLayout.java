@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+/**
+ * The arrangement of a string's glyphs in screen coordinates, computed by {@link GlyphAtlas}. Each glyph is a screen
+ * rectangle displaying an atlas texture. Rectangles are in pixels, relative to the bottom-left corner of the layout's
+ * bounds, with axes that extend up and to the right. TextLayout is reusable; computing a new layout replaces its
+ * contents.
+ */
+public class TextLayout {
+
+    /**
+     * The width of the layout's bounds in pixels.
+     */
+    public int width;
+
+    /**
+     * The height of the layout's bounds in pixels.
+     */
+    public int height;
+
+    /**
+     * Indicates whether every glyph in the layout is available. Layouts are incomplete while new glyphs are rasterized.
+     */
+    public boolean complete;
+
+    /**
+     * The number of glyph rectangles in the layout.
+     */
+    public int glyphCount;
+
+    /**
+     * The texture for each glyph rectangle.
+     */
+    public Texture[] glyphTextures = new Texture[16];
+
+    /**
+     * The screen rectangle for each glyph, as consecutive x, y, width and height values.
+     */
+    public int[] glyphRects = new int[64];
+
+    public TextLayout() {
+    }
+
+    public TextLayout clear() {
+        this.width = 0;
+        this.height = 0;
+        this.complete = false;
+        this.glyphCount = 0;
+        return this;
+    }
+
+    public TextLayout addGlyph(Texture texture, int x, int y, int width, int height) {
+        int capacity = this.glyphTextures.length;
+        if (capacity == this.glyphCount) {
+            Texture[] newTextures = new Texture[capacity * 2];
+            int[] newRects = new int[capacity * 8];
+            System.arraycopy(this.glyphTextures, 0, newTextures, 0, capacity);
+            System.arraycopy(this.glyphRects, 0, newRects, 0, capacity * 4);
+            this.glyphTextures = newTextures;
+            this.glyphRects = newRects;
+        }
+
+        int offset = this.glyphCount * 4;
+        this.glyphTextures[this.glyphCount++] = texture;
+        this.glyphRects[offset] = x;
+        this.glyphRects[offset + 1] = y;
+        this.glyphRects[offset + 2] = width;
+        this.glyphRects[offset + 3] = height;
+        return this;
+    }
+}
@@ -10,9 +10,11 @@ import android.opengl.GLES20;
 import android.opengl.GLUtils;
 import android.util.SparseIntArray;
 
+import gov.nasa.worldwind.FrameMetrics;
 import gov.nasa.worldwind.draw.DrawContext;
 import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.Tracer;
 import gov.nasa.worldwind.util.WWMath;
 
 public class Texture implements RenderResource {
@@ -140,7 +142,10 @@ public class Texture implements RenderResource {
     }
 
     protected void createTexture(DrawContext dc) {
+        FrameMetrics metrics = dc.frameMetrics; // null unless profiling
+        long begin = (metrics != null) ? System.nanoTime() : 0;
         int currentTexture = dc.currentTexture();
+        Tracer.begin(Tracer.TEXTURE_UPLOAD);
         try {
             // Create the OpenGL texture 2D object.
             this.textureName = new int[1];
@@ -160,6 +165,11 @@ public class Texture implements RenderResource {
         } finally {
             // Restore the current OpenGL texture object binding.
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, currentTexture);
+            Tracer.end(Tracer.TEXTURE_UPLOAD);
+        }
+
+        if (metrics != null) {
+            metrics.recordDrawPhase(FrameMetrics.PHASE_TEXTURE_UPLOAD, System.nanoTime() - begin);
         }
     }
 
@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.graphics.Bitmap;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import gov.nasa.worldwind.FrameMetrics;
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.Tracer;
+
+/**
+ * Packs many small images into a few large textures. Each image occupies a region of an atlas page, and is represented
+ * by a {@link Texture} that binds the page's OpenGL texture and whose tex coord transform maps the unit square to the
+ * image's region. Components may use atlas textures anywhere a clamped, non-mipmapped texture is acceptable, and
+ * drawables that display several atlas textures on the same page may draw them together.
+ * <p/>
+ * Pages are divided into horizontal shelves, each holding images of similar height side by side. Images are added
+ * incrementally and copied to the page's OpenGL texture the next time the page is bound. When the atlas has no room
+ * for a new image it evicts the images that have not been used recently, freeing their regions for reuse.
+ * <p/>
+ * TextureAtlas is not thread safe. Callers must synchronize access to an atlas shared between threads. Atlas textures
+ * may be bound on the OpenGL thread while the atlas is modified on another thread.
+ */
+public class TextureAtlas {
+
+    protected static final int DEFAULT_PAGE_SIZE = 1024;
+
+    protected static final int DEFAULT_MAX_PAGES = 4;
+
+    protected static final int DEFAULT_MAX_IMAGE_SIZE = 256;
+
+    protected static final long DEFAULT_EVICTION_AGE = 1000;
+
+    protected int pageWidth;
+
+    protected int pageHeight;
+
+    protected int maxPages;
+
+    protected int maxImageSize;
+
+    protected long evictionAge = DEFAULT_EVICTION_AGE;
+
+    protected ArrayList<Page> pages = new ArrayList<>();
+
+    protected HashMap<Object, Region> regions = new HashMap<>();
+
+    /**
+     * Constructs a texture atlas with up to four 1024 x 1024 pages, accepting images up to 256 pixels in width and
+     * height.
+     */
+    public TextureAtlas() {
+        this(DEFAULT_PAGE_SIZE, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, DEFAULT_MAX_IMAGE_SIZE);
+    }
+
+    /**
+     * Constructs a texture atlas with a specified page size, page count and image size.
+     *
+     * @param pageWidth    the width of each page in pixels
+     * @param pageHeight   the height of each page in pixels
+     * @param maxPages     the maximum number of pages
+     * @param maxImageSize the maximum width and height of images in the atlas, in pixels
+     *
+     * @throws IllegalArgumentException If any argument is less than 1, or if the maximum image size exceeds the page
+     *                                  width or the page height
+     */
+    public TextureAtlas(int pageWidth, int pageHeight, int maxPages, int maxImageSize) {
+        if (pageWidth < 1 || pageHeight < 1 || maxImageSize < 1 || maxImageSize > pageWidth || maxImageSize > pageHeight) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TextureAtlas", "constructor", "invalidWidthOrHeight"));
+        }
+
+        if (maxPages < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TextureAtlas", "constructor", "invalidCapacity"));
+        }
+
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.maxPages = maxPages;
+        this.maxImageSize = maxImageSize;
+    }
+
+    public int getPageWidth() {
+        return this.pageWidth;
+    }
+
+    public int getPageHeight() {
+        return this.pageHeight;
+    }
+
+    public int getMaxPages() {
+        return this.maxPages;
+    }
+
+    public int getMaxImageSize() {
+        return this.maxImageSize;
+    }
+
+    /**
+     * Indicates the minimum time in milliseconds an image must go unused before the atlas may evict it.
+     */
+    public long getEvictionAge() {
+        return this.evictionAge;
+    }
+
+    /**
+     * Sets the minimum time in milliseconds an image must go unused before the atlas may evict it. This must exceed
+     * the time between frames, so that images displayed in the current frame are not replaced before they're drawn.
+     *
+     * @param evictionAge the eviction age in milliseconds
+     */
+    public void setEvictionAge(long evictionAge) {
+        this.evictionAge = evictionAge;
+    }
+
+    public int getPageCount() {
+        return this.pages.size();
+    }
+
+    public int getTextureCount() {
+        return this.regions.size();
+    }
+
+    /**
+     * Indicates whether an image may be added to this atlas. Atlas pages store 32-bit RGBA images no larger than the
+     * maximum image size.
+     *
+     * @param bitmap the image to test
+     *
+     * @return true if the image is compatible with this atlas, otherwise false
+     */
+    public boolean isCompatible(Bitmap bitmap) {
+        return bitmap != null && !bitmap.isRecycled() && bitmap.getConfig() == Bitmap.Config.ARGB_8888
+            && bitmap.getWidth() <= this.maxImageSize && bitmap.getHeight() <= this.maxImageSize;
+    }
+
+    /**
+     * Returns the texture for an image in this atlas, and marks the image as recently used.
+     *
+     * @param key the image's key
+     *
+     * @return the image's texture, or null if the atlas does not contain the image
+     */
+    public Texture getTexture(Object key) {
+        Region region = this.regions.get(key);
+        if (region != null) {
+            region.lastUsed = this.currentTime();
+        }
+
+        return region;
+    }
+
+    /**
+     * Adds an image to this atlas, replacing any image with the same key. The image is copied to the atlas the next
+     * time its page is bound, and must not be modified or recycled until then.
+     *
+     * @param key    the image's key
+     * @param bitmap the image to add
+     *
+     * @return the image's texture, or null if the image is not compatible with this atlas or the atlas is full
+     *
+     * @throws IllegalArgumentException If either argument is null
+     */
+    public Texture putImage(Object key, Bitmap bitmap) {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TextureAtlas", "putImage", "missingKey"));
+        }
+
+        if (bitmap == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TextureAtlas", "putImage", "missingBitmap"));
+        }
+
+        this.removeTexture(key);
+
+        if (!this.isCompatible(bitmap)) {
+            return null;
+        }
+
+        Region region = this.allocateRegion(key, bitmap.getWidth(), bitmap.getHeight());
+        if (region != null) {
+            region.page.addPendingImage(region, bitmap);
+        }
+
+        return region;
+    }
+
+    /**
+     * Removes an image from this atlas, freeing its region for reuse.
+     *
+     * @param key the image's key
+     *
+     * @return true if the atlas contained the image, otherwise false
+     */
+    public boolean removeTexture(Object key) {
+        Region region = this.regions.remove(key);
+        if (region != null) {
+            this.freeRegion(region);
+        }
+
+        return region != null;
+    }
+
+    /**
+     * Removes the images that have not been used since a specified time, freeing their regions for reuse.
+     *
+     * @param time the time in milliseconds, as returned by {@link System#currentTimeMillis()}
+     *
+     * @return the number of images removed
+     */
+    public int trimToAge(long time) {
+        int count = 0;
+
+        Iterator<Region> iterator = this.regions.values().iterator();
+        while (iterator.hasNext()) {
+            Region region = iterator.next();
+            if (region.lastUsed < time) {
+                iterator.remove();
+                this.freeRegion(region);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Removes every image and page from this atlas without releasing their OpenGL resources. Called when the OpenGL
+     * context is lost, and the page textures no longer exist.
+     */
+    public void clear() {
+        this.pages.clear();
+        this.regions.clear();
+    }
+
+    protected Region allocateRegion(Object key, int width, int height) {
+        long now = this.currentTime();
+        Region region = new Region(key, width, height);
+        region.lastUsed = now;
+
+        // Pack the image into an existing page, then into a new page, and finally into the space left by images that
+        // have not been used recently.
+        if (this.packRegion(region) || this.addPage(region) || (this.trimToAge(now - this.evictionAge) > 0 && this.packRegion(region))) {
+            this.regions.put(key, region);
+            return region;
+        }
+
+        return null; // the atlas is full
+    }
+
+    protected boolean packRegion(Region region) {
+        for (int idx = 0, len = this.pages.size(); idx < len; idx++) {
+            if (this.pages.get(idx).allocate(region)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected boolean addPage(Region region) {
+        if (this.pages.size() == this.maxPages) {
+            return false;
+        }
+
+        Page page = new Page(this.pageWidth, this.pageHeight);
+        this.pages.add(page);
+        return page.allocate(region);
+    }
+
+    protected void freeRegion(Region region) {
+        region.page.free(region);
+    }
+
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * The texture for an image in an atlas. Binding the texture binds its page's OpenGL texture.
+     */
+    public static class Region extends Texture {
+
+        protected Object key;
+
+        protected Page page;
+
+        protected Shelf shelf;
+
+        protected int x;
+
+        protected int y;
+
+        protected int allocatedWidth;
+
+        protected long lastUsed;
+
+        public Region(Object key, int width, int height) {
+            super(width, height, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+            this.key = key;
+        }
+
+        /**
+         * Returns the page holding this texture's image. Atlas textures on the same page may be drawn with the same
+         * texture binding.
+         */
+        public Page getPage() {
+            return this.page;
+        }
+
+        public int getX() {
+            return this.x;
+        }
+
+        public int getY() {
+            return this.y;
+        }
+
+        @Override
+        public int getTextureName(DrawContext dc) {
+            return this.page.getTextureName(dc);
+        }
+
+        @Override
+        public boolean bindTexture(DrawContext dc) {
+            return this.page.bindTexture(dc);
+        }
+
+        @Override
+        public void release(DrawContext dc) {
+            // The page owns the OpenGL texture.
+        }
+
+        protected void setLocation(Page page, Shelf shelf, int x, int y) {
+            this.page = page;
+            this.shelf = shelf;
+            this.x = x;
+            this.y = y;
+
+            // Map the unit square to the centers of the region's outermost texels, so that linear filtering never
+            // samples neighboring regions. Images are loaded top row first, so the transform also flips the image
+            // vertically.
+            double pw = page.getWidth();
+            double ph = page.getHeight();
+            double w = this.textureWidth;
+            double h = this.textureHeight;
+            this.texCoordTransform.set(
+                (w - 1) / pw, 0, (x + 0.5) / pw,
+                0, -(h - 1) / ph, (y + h - 0.5) / ph,
+                0, 0, 1);
+        }
+    }
+
+    /**
+     * A page of an atlas, and its OpenGL texture.
+     */
+    public static class Page extends Texture {
+
+        protected ArrayList<Shelf> shelves = new ArrayList<>();
+
+        protected int shelfHeight;
+
+        protected final ArrayList<Region> pendingRegions = new ArrayList<>();
+
+        public Page(int width, int height) {
+            super(width, height, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE); // allocated empty, without mipmaps
+        }
+
+        @Override
+        public boolean bindTexture(DrawContext dc) {
+            boolean bound = super.bindTexture(dc);
+            if (bound) {
+                this.loadPendingImages(dc);
+            }
+
+            return bound;
+        }
+
+        protected void addPendingImage(Region region, Bitmap bitmap) {
+            synchronized (this.pendingRegions) {
+                region.imageBitmap = bitmap;
+                this.pendingRegions.add(region);
+            }
+        }
+
+        protected void loadPendingImages(DrawContext dc) {
+            synchronized (this.pendingRegions) {
+                if (this.pendingRegions.isEmpty()) {
+                    return;
+                }
+
+                FrameMetrics metrics = dc.frameMetrics; // null unless profiling
+                long begin = (metrics != null) ? System.nanoTime() : 0;
+                Tracer.begin(Tracer.TEXTURE_UPLOAD);
+                try {
+                    for (int idx = 0, len = this.pendingRegions.size(); idx < len; idx++) {
+                        Region region = this.pendingRegions.get(idx);
+                        try {
+                            GLUtils.texSubImage2D(GLES20.GL_TEXTURE_2D, 0 /*level*/, region.x, region.y,
+                                region.imageBitmap);
+                        } catch (Exception e) {
+                            // The Android utility was unable to load the texture image data.
+                            Logger.logMessage(Logger.ERROR, "TextureAtlas", "loadPendingImages",
+                                "Exception attempting to load texture image \'" + region.imageBitmap + "\'", e);
+                        }
+                        region.imageBitmap = null;
+                    }
+
+                    this.pendingRegions.clear();
+                } finally {
+                    Tracer.end(Tracer.TEXTURE_UPLOAD);
+                }
+
+                if (metrics != null) {
+                    metrics.recordDrawPhase(FrameMetrics.PHASE_TEXTURE_UPLOAD, System.nanoTime() - begin);
+                }
+            }
+        }
+
+        protected boolean allocate(Region region) {
+            int width = region.getWidth();
+            int height = region.getHeight();
+
+            // Find the shelf that fits the image with the least wasted height.
+            Shelf bestShelf = null;
+            for (int idx = 0, len = this.shelves.size(); idx < len; idx++) {
+                Shelf shelf = this.shelves.get(idx);
+                if (shelf.height >= height && (bestShelf == null || bestShelf.height > shelf.height) && shelf.canAllocate(width)) {
+                    bestShelf = shelf;
+                }
+            }
+
+            // Start a new shelf when the best existing shelf is more than twice the image's height, or when there's no
+            // existing shelf that fits the image.
+            if ((bestShelf == null || bestShelf.height > height * 2) && this.shelfHeight + height <= this.textureHeight) {
+                bestShelf = new Shelf(this.shelfHeight, height, this.textureWidth);
+                this.shelves.add(bestShelf);
+                this.shelfHeight += height;
+            }
+
+            if (bestShelf == null) {
+                return false;
+            }
+
+            int x = bestShelf.allocate(width);
+            region.allocatedWidth = width;
+            region.setLocation(this, bestShelf, x, bestShelf.y);
+            return true;
+        }
+
+        protected void free(Region region) {
+            synchronized (this.pendingRegions) {
+                this.pendingRegions.remove(region);
+                region.imageBitmap = null;
+            }
+
+            region.shelf.free(region.x, region.allocatedWidth);
+
+            // Reclaim the empty shelves at the top of the page, so that their space may be used by images of any
+            // height.
+            for (int idx = this.shelves.size() - 1; idx >= 0 && this.shelves.get(idx).isEmpty(); idx--) {
+                Shelf shelf = this.shelves.remove(idx);
+                this.shelfHeight -= shelf.height;
+            }
+        }
+    }
+
+    /**
+     * A horizontal strip of a page, and the spans of the strip not occupied by images.
+     */
+    protected static class Shelf {
+
+        public int y;
+
+        public int height;
+
+        public int width;
+
+        protected ArrayList<Span> freeSpans = new ArrayList<>();
+
+        public Shelf(int y, int height, int width) {
+            this.y = y;
+            this.height = height;
+            this.width = width;
+            this.freeSpans.add(new Span(0, width));
+        }
+
+        public boolean isEmpty() {
+            return this.freeSpans.size() == 1 && this.freeSpans.get(0).width == this.width;
+        }
+
+        public boolean canAllocate(int width) {
+            for (int idx = 0, len = this.freeSpans.size(); idx < len; idx++) {
+                if (this.freeSpans.get(idx).width >= width) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        public int allocate(int width) {
+            for (int idx = 0, len = this.freeSpans.size(); idx < len; idx++) {
+                Span span = this.freeSpans.get(idx);
+                if (span.width >= width) {
+                    int x = span.x;
+                    span.x += width;
+                    span.width -= width;
+                    if (span.width == 0) {
+                        this.freeSpans.remove(idx);
+                    }
+                    return x;
+                }
+            }
+
+            return -1;
+        }
+
+        public void free(int x, int width) {
+            // Find the first free span after the freed span, keeping the free spans sorted by x.
+            int idx = 0, len = this.freeSpans.size();
+            while (idx < len && this.freeSpans.get(idx).x < x) {
+                idx++;
+            }
+
+            // Merge the freed span with its adjacent free spans.
+            Span prev = (idx > 0) ? this.freeSpans.get(idx - 1) : null;
+            Span next = (idx < len) ? this.freeSpans.get(idx) : null;
+            if (prev != null && prev.x + prev.width == x) {
+                prev.width += width;
+                if (next != null && prev.x + prev.width == next.x) {
+                    prev.width += next.width;
+                    this.freeSpans.remove(idx);
+                }
+            } else if (next != null && x + width == next.x) {
+                next.x = x;
+                next.width += width;
+            } else {
+                this.freeSpans.add(idx, new Span(x, width));
+            }
+        }
+    }
+
+    protected static class Span {
+
+        public int x;
+
+        public int width;
+
+        public Span(int x, int width) {
+            this.x = x;
+            this.width = width;
+        }
+    }
+}
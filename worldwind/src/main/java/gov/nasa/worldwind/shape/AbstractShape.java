@@ -5,16 +5,21 @@
 
 package gov.nasa.worldwind.shape;
 
+import java.util.List;
+
 import gov.nasa.worldwind.PickedObject;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.geom.BoundingBox;
+import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Matrix3;
+import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.AbstractRenderable;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.WWMath;
 
 public abstract class AbstractShape extends AbstractRenderable implements Attributable, Highlightable {
@@ -35,6 +40,10 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
 
     protected int maximumIntermediatePoints = 10;
 
+    protected boolean levelOfDetailEnabled = true;
+
+    protected double levelOfDetailTolerance = 1;
+
     protected int pickedObjectId;
 
     protected Color pickColor = new Color();
@@ -47,6 +56,8 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
 
     private Vec3 scratchPoint = new Vec3();
 
+    private Location scratchLocation = new Location();
+
     public AbstractShape() {
         this.attributes = new ShapeAttributes();
     }
@@ -113,6 +124,49 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
         this.maximumIntermediatePoints = maximumIntermediatePoints;
     }
 
+    /**
+     * Indicates whether this shape simplifies its geometry according to its size on screen.
+     */
+    public boolean isLevelOfDetailEnabled() {
+        return this.levelOfDetailEnabled;
+    }
+
+    /**
+     * Specifies whether this shape simplifies its geometry according to its size on screen. Shapes with many positions
+     * display simplified positions when they're small on screen, and display their original positions as they grow.
+     * Enabled by default.
+     *
+     * @param enabled true to simplify this shape's geometry, false to always display its original positions
+     */
+    public void setLevelOfDetailEnabled(boolean enabled) {
+        this.levelOfDetailEnabled = enabled;
+        this.reset();
+    }
+
+    /**
+     * Indicates the largest distance in pixels between this shape's simplified geometry and its original geometry.
+     */
+    public double getLevelOfDetailTolerance() {
+        return this.levelOfDetailTolerance;
+    }
+
+    /**
+     * Specifies the largest distance in pixels between this shape's simplified geometry and its original geometry.
+     * Larger tolerances display fewer positions.
+     *
+     * @param tolerance the tolerance in pixels
+     *
+     * @throws IllegalArgumentException If the tolerance is not positive
+     */
+    public void setLevelOfDetailTolerance(double tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "AbstractShape", "setLevelOfDetailTolerance", "invalidTolerance"));
+        }
+
+        this.levelOfDetailTolerance = tolerance;
+    }
+
     @Override
     protected void doRender(RenderContext rc) {
         // Don't render anything if the shape is not visible.
@@ -154,6 +208,25 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
         }
     }
 
+    /**
+     * Computes the simplification tolerance in radians corresponding to this shape's level of detail tolerance, at
+     * the distance between the camera and this shape's most recently assembled geometry.
+     *
+     * @return the tolerance in radians, or zero if this shape's geometry has not been assembled
+     */
+    protected double levelOfDetailTolerance(RenderContext rc) {
+        double distance;
+        if (!this.boundingSector.isEmpty()) {
+            distance = this.cameraDistanceGeographic(rc, this.boundingSector);
+        } else if (!this.boundingBox.isUnitBox()) {
+            distance = this.boundingBox.distanceTo(rc.cameraPoint);
+        } else {
+            return 0; // geometry not assembled
+        }
+
+        return rc.pixelSizeAtDistance(distance) * this.levelOfDetailTolerance / rc.globe.getEquatorialRadius();
+    }
+
     protected double cameraDistanceGeographic(RenderContext rc, Sector boundingSector) {
         double lat = WWMath.clamp(rc.camera.latitude, boundingSector.minLatitude(), boundingSector.maxLatitude());
         double lon = WWMath.clamp(rc.camera.longitude, boundingSector.minLongitude(), boundingSector.maxLongitude());
@@ -195,6 +268,67 @@ public abstract class AbstractShape extends AbstractRenderable implements Attrib
         return texCoordMatrix;
     }
 
+    /**
+     * Sets a sector to the union of itself and a list of positions connected by this shape's path type. Great circle
+     * segments are bounded by their endpoints and midpoint. The resultant sector may have zero width or height when the
+     * positions lie along a meridian or a parallel.
+     */
+    protected Sector unionBoundingSector(List<? extends Position> positions, boolean closed, Sector result) {
+        double minLat = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE;
+        double maxLon = -Double.MAX_VALUE;
+
+        // Start with the sector's current bounds, which are valid only when the sector has maximum coordinates.
+        if (!Double.isNaN(result.maxLatitude()) && !Double.isNaN(result.maxLongitude())) {
+            minLat = result.minLatitude();
+            maxLat = result.maxLatitude();
+            minLon = result.minLongitude();
+            maxLon = result.maxLongitude();
+        }
+
+        Position prev = closed && positions.size() > 1 ? positions.get(positions.size() - 1) : null;
+
+        for (int idx = 0, len = positions.size(); idx < len; idx++) {
+            Position pos = positions.get(idx);
+            if (prev != null && this.pathType == WorldWind.GREAT_CIRCLE) {
+                Location mid = prev.interpolateAlongPath(pos, WorldWind.GREAT_CIRCLE, 0.5, this.scratchLocation);
+                minLat = Math.min(minLat, mid.latitude);
+                maxLat = Math.max(maxLat, mid.latitude);
+                minLon = Math.min(minLon, mid.longitude);
+                maxLon = Math.max(maxLon, mid.longitude);
+            }
+
+            minLat = Math.min(minLat, pos.latitude);
+            maxLat = Math.max(maxLat, pos.latitude);
+            minLon = Math.min(minLon, pos.longitude);
+            maxLon = Math.max(maxLon, pos.longitude);
+            prev = pos;
+        }
+
+        if (minLat <= maxLat && minLon <= maxLon) {
+            // Sector.union sets the maximum coordinates of a sector with only minimum coordinates to the location.
+            result.setEmpty().union(minLat, minLon).union(maxLat, maxLon);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the highest altitude of a list of positions, interpreted according to this shape's altitude mode.
+     */
+    protected double maximumAltitude(List<? extends Position> positions, double result) {
+        if (this.altitudeMode == WorldWind.CLAMP_TO_GROUND) {
+            return result;
+        }
+
+        for (int idx = 0, len = positions.size(); idx < len; idx++) {
+            result = Math.max(result, positions.get(idx).altitude);
+        }
+
+        return result;
+    }
+
     protected abstract void reset();
 
     protected abstract void makeDrawable(RenderContext rc);
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import gov.nasa.worldwind.geom.Sector;
+
+/**
+ * Interface to an object's geographic extent. Layers use an object's extent to find the objects in a region without
+ * examining each object, and to skip objects far outside the view without rendering them.
+ */
+public interface Boundable {
+
+    /**
+     * Computes the geographic sector containing this object's locations. The sector has zero width and height for an
+     * object at a single location. Objects with no locations set the sector to empty, with NaN coordinates.
+     * <p/>
+     * The sector is recomputed on each call. Indexed layers compare it with the object's index entry to detect objects
+     * that have moved.
+     *
+     * @param result a pre-allocated Sector in which to return the computed sector
+     *
+     * @return the result argument set to this object's sector
+     */
+    Sector getBoundingSector(Sector result);
+
+    /**
+     * Indicates the highest altitude of this object's locations, in meters. The altitude is relative to the terrain
+     * for objects using the relative-to-ground altitude mode, and zero for objects clamped to the ground.
+     *
+     * @return the object's maximum altitude
+     */
+    double getMaximumAltitude();
+}
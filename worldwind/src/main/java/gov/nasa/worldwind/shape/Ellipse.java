@@ -11,6 +11,7 @@ import android.util.SparseArray;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
 import gov.nasa.worldwind.WorldWind;
@@ -23,15 +24,16 @@ import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.geom.Range;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.BufferObject;
 import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
-import gov.nasa.worldwind.util.ShortArray;
 
 /**
  * Ellipse shape defined by a geographic center position and radii for the semi-major and semi-minor axes.
@@ -61,7 +63,7 @@ import gov.nasa.worldwind.util.ShortArray;
  * approximation is chosen such that the display appears to be a continuous smooth ellipse. Applications can control the
  * maximum number of angular intervals used in this representation with {@link #setMaximumIntervals(int)}.
  */
-public class Ellipse extends AbstractShape {
+public class Ellipse extends AbstractShape implements Boundable {
 
     protected static final int VERTEX_STRIDE = 6;
 
@@ -70,6 +72,12 @@ public class Ellipse extends AbstractShape {
      */
     protected static final int MIN_INTERVALS = 32;
 
+    /**
+     * The maximum number of intervals whose elements fit in 16-bit element indices. Ellipses use at most this many
+     * intervals when the OpenGL context does not support 32-bit element indices.
+     */
+    protected static final int MAX_SHORT_INTERVALS = 26214;
+
     /**
      * Key for Range object in the element buffer describing the top of the Ellipse.
      */
@@ -165,9 +173,9 @@ public class Ellipse extends AbstractShape {
 
     protected Vec3 prevPoint = new Vec3();
 
-    private static Position scratchPosition = new Position();
+    private Position scratchPosition = new Position();
 
-    private static Vec3 scratchPoint = new Vec3();
+    private Vec3 scratchPoint = new Vec3();
 
     static {
         defaultInteriorImageOptions.wrapMode = WorldWind.REPEAT;
@@ -484,10 +492,13 @@ public class Ellipse extends AbstractShape {
         }
 
         // Get the attributes of the element buffer
-        Object elementBufferKey = elementBufferKeys.get(this.activeIntervals);
-        if (elementBufferKey == null) {
-            elementBufferKey = new Object();
-            elementBufferKeys.put(this.activeIntervals, elementBufferKey);
+        Object elementBufferKey;
+        synchronized (elementBufferKeys) { // ellipses in separate layers may render concurrently
+            elementBufferKey = elementBufferKeys.get(this.activeIntervals);
+            if (elementBufferKey == null) {
+                elementBufferKey = new Object();
+                elementBufferKeys.put(this.activeIntervals, elementBufferKey);
+            }
         }
 
         drawState.elementBuffer = rc.getBufferObject(elementBufferKey);
@@ -543,14 +554,16 @@ public class Ellipse extends AbstractShape {
         drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.interiorColor);
         drawState.texCoordAttrib(2 /*size*/, 12 /*offset in bytes*/);
         Range top = drawState.elementBuffer.ranges.get(TOP_RANGE);
+        int elementType = computeElementType(this.activeIntervals);
+        int elementSize = (elementType == GLES20.GL_UNSIGNED_INT) ? 4 : 2;
         drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, top.length(),
-            GLES20.GL_UNSIGNED_SHORT, top.lower * 2 /*offset*/);
+            elementType, top.lower * elementSize /*offset*/);
 
         if (this.extrude) {
             Range side = drawState.elementBuffer.ranges.get(SIDE_RANGE);
             drawState.texture(null);
             drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, side.length(),
-                GLES20.GL_UNSIGNED_SHORT, side.lower * 2);
+                elementType, side.lower * elementSize);
         }
     }
 
@@ -580,8 +593,10 @@ public class Ellipse extends AbstractShape {
         drawState.lineWidth(this.activeAttributes.outlineWidth);
         drawState.texCoordAttrib(1 /*size*/, 20 /*offset in bytes*/);
         Range outline = drawState.elementBuffer.ranges.get(OUTLINE_RANGE);
+        int elementType = computeElementType(this.activeIntervals);
+        int elementSize = (elementType == GLES20.GL_UNSIGNED_INT) ? 4 : 2;
         drawState.drawElements(GLES20.GL_LINE_LOOP, outline.length(),
-            GLES20.GL_UNSIGNED_SHORT, outline.lower * 2 /*offset*/);
+            elementType, outline.lower * elementSize /*offset*/);
 
         if (this.activeAttributes.drawVerticals && this.extrude) {
             Range side = drawState.elementBuffer.ranges.get(SIDE_RANGE);
@@ -589,13 +604,16 @@ public class Ellipse extends AbstractShape {
             drawState.lineWidth(this.activeAttributes.outlineWidth);
             drawState.texture(null);
             drawState.drawElements(GLES20.GL_LINES, side.length(),
-                GLES20.GL_UNSIGNED_SHORT, side.lower * 2);
+                elementType, side.lower * elementSize);
         }
     }
 
     protected boolean mustAssembleGeometry(RenderContext rc) {
         int calculatedIntervals = this.computeIntervals(rc);
         int sanitizedIntervals = this.sanitizeIntervals(calculatedIntervals);
+        if (!rc.elementIndexUint && sanitizedIntervals > MAX_SHORT_INTERVALS) {
+            sanitizedIntervals = MAX_SHORT_INTERVALS; // limit the elements to 16-bit indices
+        }
         if (this.vertexArray == null || sanitizedIntervals != this.activeIntervals) {
             this.activeIntervals = sanitizedIntervals;
             return true;
@@ -615,8 +633,8 @@ public class Ellipse extends AbstractShape {
         if (this.isSurfaceShape) {
             this.vertexOrigin.set(this.center.longitude, this.center.latitude, this.center.altitude);
         } else {
-            rc.geographicToCartesian(this.center.latitude, this.center.longitude, this.center.altitude, this.altitudeMode, scratchPoint);
-            this.vertexOrigin.set(scratchPoint.x, scratchPoint.y, scratchPoint.z);
+            rc.geographicToCartesian(this.center.latitude, this.center.longitude, this.center.altitude, this.altitudeMode, this.scratchPoint);
+            this.vertexOrigin.set(this.scratchPoint.x, this.scratchPoint.y, this.scratchPoint.z);
         }
 
         // Determine the number of spine points
@@ -663,7 +681,7 @@ public class Ellipse extends AbstractShape {
             // Calculate the great circle location given this activeIntervals step (azimuthDegrees) a correction value to
             // start from an east-west aligned major axis (90.0) and the user specified user heading value
             double azimuth = azimuthDegrees + headingAdjustment + this.heading;
-            Location loc = this.center.greatCircleLocation(azimuth, arcRadius, scratchPosition);
+            Location loc = this.center.greatCircleLocation(azimuth, arcRadius, this.scratchPosition);
             this.addVertex(rc, loc.latitude, loc.longitude, this.center.altitude, arrayOffset, this.isExtrude());
             // Add the major arc radius for the spine points. Spine points are vertically coincident with exterior
             // points. The first and middle most point do not have corresponding spine points.
@@ -674,8 +692,8 @@ public class Ellipse extends AbstractShape {
 
         // Add the interior spine point vertices
         for (int i = 0; i < spineCount; i++) {
-            this.center.greatCircleLocation(0 + headingAdjustment + this.heading, spineRadius[i], scratchPosition);
-            this.addVertex(rc, scratchPosition.latitude, scratchPosition.longitude, this.center.altitude, arrayOffset, false);
+            this.center.greatCircleLocation(0 + headingAdjustment + this.heading, spineRadius[i], this.scratchPosition);
+            this.addVertex(rc, this.scratchPosition.latitude, this.scratchPosition.longitude, this.center.altitude, arrayOffset, false);
         }
 
         // Compute the shape's bounding sector from its assembled coordinates.
@@ -693,59 +711,69 @@ public class Ellipse extends AbstractShape {
 
     protected static BufferObject assembleElements(int intervals) {
         // Create temporary storage for elements
-        ShortArray elements = new ShortArray();
+        IntArray elements = new IntArray();
 
         // Generate the top element buffer with spine
         int interiorIdx = intervals;
         int offset = computeIndexOffset(intervals);
 
         // Add the anchor leg
-        elements.add((short) 0);
-        elements.add((short) 1);
+        elements.add(0);
+        elements.add(1);
         // Tessellate the interior
         for (int i = 2; i < intervals; i++) {
             // Add the corresponding interior spine point if this isn't the vertex following the last vertex for the
             // negative major axis
             if (i != (intervals / 2 + 1)) {
                 if (i > intervals / 2) {
-                    elements.add((short) --interiorIdx);
+                    elements.add(--interiorIdx);
                 } else {
-                    elements.add((short) interiorIdx++);
+                    elements.add(interiorIdx++);
                 }
             }
             // Add the degenerate triangle at the negative major axis in order to flip the triangle strip back towards
             // the positive axis
             if (i == intervals / 2) {
-                elements.add((short) i);
+                elements.add(i);
             }
             // Add the exterior vertex
-            elements.add((short) i);
+            elements.add(i);
         }
         // Complete the strip
-        elements.add((short) --interiorIdx);
-        elements.add((short) 0);
+        elements.add(--interiorIdx);
+        elements.add(0);
         Range topRange = new Range(0, elements.size());
 
         // Generate the outline element buffer
         for (int i = 0; i < intervals; i++) {
-            elements.add((short) i);
+            elements.add(i);
         }
         Range outlineRange = new Range(topRange.upper, elements.size());
 
         // Generate the side element buffer
         for (int i = 0; i < intervals; i++) {
-            elements.add((short) i);
-            elements.add((short) (i + offset));
+            elements.add(i);
+            elements.add(i + offset);
         }
-        elements.add((short) 0);
-        elements.add((short) offset);
+        elements.add(0);
+        elements.add(offset);
         Range sideRange = new Range(outlineRange.upper, elements.size());
 
-        // Generate a buffer for the element
-        int size = elements.size() * 2;
-        ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
-        buffer.put(elements.array(), 0, elements.size());
-        BufferObject elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+        // Generate a buffer for the element, using 32-bit indices when the elements exceed the range of 16-bit indices
+        BufferObject elementBuffer;
+        if (computeElementType(intervals) == GLES20.GL_UNSIGNED_INT) {
+            int size = elements.size() * 4;
+            IntBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asIntBuffer();
+            buffer.put(elements.array(), 0, elements.size());
+            elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+        } else {
+            int size = elements.size() * 2;
+            ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
+            for (int idx = 0, len = elements.size(); idx < len; idx++) {
+                buffer.put((short) elements.get(idx));
+            }
+            elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+        }
         elementBuffer.ranges.put(TOP_RANGE, topRange);
         elementBuffer.ranges.put(OUTLINE_RANGE, outlineRange);
         elementBuffer.ranges.put(SIDE_RANGE, sideRange);
@@ -756,7 +784,7 @@ public class Ellipse extends AbstractShape {
     protected void addVertex(RenderContext rc, double latitude, double longitude, double altitude, int offset, boolean isExtrudedSkirt) {
         int offsetVertexIndex = this.vertexIndex + offset;
 
-        Vec3 point = rc.geographicToCartesian(latitude, longitude, altitude, this.altitudeMode, scratchPoint);
+        Vec3 point = rc.geographicToCartesian(latitude, longitude, altitude, this.altitudeMode, this.scratchPoint);
         Vec3 texCoord2d = this.texCoord2d.set(point).multiplyByMatrix(this.modelToTexCoord);
 
         if (this.vertexIndex == 0) {
@@ -784,7 +812,7 @@ public class Ellipse extends AbstractShape {
             this.vertexArray[this.vertexIndex++] = (float) this.texCoord1d;
 
             if (isExtrudedSkirt) {
-                point = rc.geographicToCartesian(latitude, longitude, 0, WorldWind.CLAMP_TO_GROUND, scratchPoint);
+                point = rc.geographicToCartesian(latitude, longitude, 0, WorldWind.CLAMP_TO_GROUND, this.scratchPoint);
                 this.vertexArray[offsetVertexIndex++] = (float) (point.x - this.vertexOrigin.x);
                 this.vertexArray[offsetVertexIndex++] = (float) (point.y - this.vertexOrigin.y);
                 this.vertexArray[offsetVertexIndex++] = (float) (point.z - this.vertexOrigin.z);
@@ -796,7 +824,7 @@ public class Ellipse extends AbstractShape {
     }
 
     protected void determineModelToTexCoord(RenderContext rc) {
-        Vec3 point = rc.geographicToCartesian(this.center.latitude, this.center.longitude, this.center.altitude, this.altitudeMode, scratchPoint);
+        Vec3 point = rc.geographicToCartesian(this.center.latitude, this.center.longitude, this.center.altitude, this.altitudeMode, this.scratchPoint);
         this.modelToTexCoord = rc.globe.cartesianToLocalTransform(point.x, point.y, point.z, this.modelToTexCoord);
         this.modelToTexCoord.invertOrthonormal();
     }
@@ -814,7 +842,7 @@ public class Ellipse extends AbstractShape {
             return intervals; // use at least the minimum number of intervals
         }
 
-        Vec3 centerPoint = rc.geographicToCartesian(this.center.latitude, this.center.longitude, this.center.altitude, this.altitudeMode, scratchPoint);
+        Vec3 centerPoint = rc.geographicToCartesian(this.center.latitude, this.center.longitude, this.center.altitude, this.altitudeMode, this.scratchPoint);
         double maxRadius = Math.max(this.majorRadius, this.minorRadius);
         double cameraDistance = centerPoint.distanceTo(rc.cameraPoint) - maxRadius;
         if (cameraDistance <= 0) {
@@ -850,6 +878,50 @@ public class Ellipse extends AbstractShape {
         return intervals + computeNumberSpinePoints(intervals);
     }
 
+    protected static int computeElementType(int intervals) {
+        // The extruded side elements have the largest indices, referring to vertices following the index offset.
+        int vertexCount = computeIndexOffset(intervals) + intervals;
+        return (vertexCount > ShapeChunker.MAX_CHUNK_VERTICES) ? GLES20.GL_UNSIGNED_INT : GLES20.GL_UNSIGNED_SHORT;
+    }
+
+    @Override
+    public Sector getBoundingSector(Sector result) {
+        if (this.center == null) {
+            return result.setEmpty();
+        }
+
+        // Bound the ellipse by a circle with the larger radius. Use the ellipsoid's smallest radius of curvature so the
+        // circle's angular extent is never underestimated.
+        double radius = Math.max(this.majorRadius, this.minorRadius);
+        double deltaLat = Math.toDegrees(radius / WorldWind.WGS84_ELLIPSOID.semiMinorAxis());
+        double minLat = Math.max(-90, this.center.latitude - deltaLat);
+        double maxLat = Math.min(90, this.center.latitude + deltaLat);
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double deltaLon = (cosLat > 0) ? deltaLat / cosLat : 360;
+
+        double minLon = this.center.longitude - deltaLon;
+        double maxLon = this.center.longitude + deltaLon;
+        if (minLat == -90 || maxLat == 90 || minLon < -180 || maxLon > 180) {
+            minLon = -180; // the ellipse contains a pole or crosses the antimeridian
+            maxLon = 180;
+        }
+
+        result.setEmpty();
+        result.union(minLat, minLon);
+        result.union(maxLat, maxLon);
+
+        return result;
+    }
+
+    @Override
+    public double getMaximumAltitude() {
+        if (this.center == null || this.altitudeMode == WorldWind.CLAMP_TO_GROUND) {
+            return 0;
+        }
+
+        return Math.max(0, this.center.altitude);
+    }
+
     @Override
     protected void reset() {
         this.vertexArray = null;
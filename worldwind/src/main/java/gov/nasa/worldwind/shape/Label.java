@@ -18,6 +18,7 @@ import gov.nasa.worldwind.render.AbstractRenderable;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.Color;
 import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.TextLayout;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
@@ -36,9 +37,15 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
     protected static final double DEFAULT_DEPTH_OFFSET = -0.1;
 
     /**
-     * The label's properties associated with the current render pass.
+     * The label's properties associated with the current render pass. Each thread rendering labels has its own
+     * instance, allowing layers to render concurrently.
      */
-    private static RenderData renderData = new RenderData();
+    private static final ThreadLocal<RenderData> threadRenderData = new ThreadLocal<RenderData>() {
+        @Override
+        protected RenderData initialValue() {
+            return new RenderData();
+        }
+    };
 
     /**
      * The label's geographic position.
@@ -378,6 +385,8 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
             return; // no text to render
         }
 
+        RenderData renderData = threadRenderData.get();
+
         // Compute the label's Cartesian model point.
         rc.geographicToCartesian(this.position.latitude, this.position.longitude, this.position.altitude,
             this.altitudeMode, renderData.placePoint);
@@ -429,13 +438,30 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
     }
 
     protected void makeDrawable(RenderContext rc) {
-        // Render the label's texture when the label's position is in the frustum. If the label's position is outside
-        // the frustum we don't do anything. This ensures that label textures are rendered only as necessary.
-        Texture texture = rc.getText(this.text, this.activeAttributes);
-        if (texture == null && rc.frustum.containsPoint(renderData.placePoint)) {
-            texture = rc.renderText(this.text, this.activeAttributes);
-        } else if (texture == null) {
-            return;
+        RenderData renderData = threadRenderData.get();
+
+        // Lay out the label's text as cached glyphs when possible. Otherwise render the label's texture when the label's
+        // position is in the frustum. If the label's position is outside the frustum we don't do anything. This ensures
+        // that label textures are rendered only as necessary.
+        TextLayout layout = renderData.textLayout;
+        Texture texture = null;
+        int w, h;
+        if (rc.layoutText(this.text, this.activeAttributes, layout)) {
+            if (!layout.complete || layout.glyphCount == 0) {
+                return; // the text's glyphs are not yet available, or the text is entirely whitespace
+            }
+            w = layout.width;
+            h = layout.height;
+        } else {
+            texture = rc.getText(this.text, this.activeAttributes);
+            if (texture == null && rc.frustum.containsPoint(renderData.placePoint)) {
+                texture = rc.renderText(this.text, this.activeAttributes);
+            }
+            if (texture == null) {
+                return;
+            }
+            w = texture.getWidth();
+            h = texture.getHeight();
         }
 
         // Initialize the unit square transform to the identity matrix.
@@ -443,8 +469,6 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
 
         // Apply the label's translation according to its text size and text offset. The text offset is defined with its
         // origin at the text's bottom-left corner and axes that extend up and to the right from the origin point.
-        int w = texture.getWidth();
-        int h = texture.getHeight();
         this.activeAttributes.textOffset.offsetForSize(w, h, renderData.offset);
         renderData.unitSquareTransform.setTranslation(
             renderData.screenPlacePoint.x - renderData.offset.x,
@@ -461,6 +485,9 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
             renderData.unitSquareTransform.multiplyByTranslation(-renderData.offset.x, -renderData.offset.y, 0);
         }
 
+        // Keep the transform from text coordinates to screen coordinates for positioning the text's glyphs.
+        renderData.textTransform.set(renderData.unitSquareTransform);
+
         // Apply the label's translation and scale according to its text size.
         renderData.unitSquareTransform.multiplyByScale(w, h, 1);
 
@@ -469,6 +496,26 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
             return; // the text is outside the viewport
         }
 
+        // Enqueue a drawable for the label's texture, or a drawable for each of its glyphs. Glyph drawables use the
+        // same texture atlas page, and are drawn together.
+        if (texture != null) {
+            this.makeTextureDrawable(rc, texture, renderData.unitSquareTransform);
+            return;
+        }
+
+        for (int idx = 0; idx < layout.glyphCount; idx++) {
+            int[] rect = layout.glyphRects;
+            int offset = idx * 4;
+            renderData.unitSquareTransform.set(renderData.textTransform);
+            renderData.unitSquareTransform.multiplyByTranslation(rect[offset], rect[offset + 1], 0);
+            renderData.unitSquareTransform.multiplyByScale(rect[offset + 2], rect[offset + 3], 1);
+            this.makeTextureDrawable(rc, layout.glyphTextures[idx], renderData.unitSquareTransform);
+        }
+    }
+
+    protected void makeTextureDrawable(RenderContext rc, Texture texture, Matrix4 unitSquareTransform) {
+        RenderData renderData = threadRenderData.get();
+
         // Obtain a pooled drawable and configure it to draw the label's text.
         Pool<DrawableScreenTexture> pool = rc.getDrawablePool(DrawableScreenTexture.class);
         DrawableScreenTexture drawable = DrawableScreenTexture.obtain(pool);
@@ -480,7 +527,7 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
         }
 
         // Use the text's unit square transform matrix.
-        drawable.unitSquareTransform.set(renderData.unitSquareTransform);
+        drawable.unitSquareTransform.set(unitSquareTransform);
 
         // Configure the drawable according to the active attributes. Use a color appropriate for the pick mode. When
         // picking use a unique color associated with the picked object ID. Use the texture associated with the active
@@ -524,6 +571,16 @@ public class Label extends AbstractRenderable implements Highlightable, Movable
          */
         public Matrix4 unitSquareTransform = new Matrix4();
 
+        /**
+         * The screen coordinate transform from the label's text coordinates, before scaling to the text size.
+         */
+        public Matrix4 textTransform = new Matrix4();
+
+        /**
+         * The layout of the label's text as glyphs.
+         */
+        public TextLayout textLayout = new TextLayout();
+
         /**
          * The screen viewport indicating the label's screen bounds.
          */
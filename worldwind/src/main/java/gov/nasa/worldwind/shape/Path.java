@@ -7,10 +7,13 @@ package gov.nasa.worldwind.shape;
 
 import android.opengl.GLES20;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -22,6 +25,7 @@ import gov.nasa.worldwind.draw.DrawableSurfaceShape;
 import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.BufferObject;
@@ -29,14 +33,35 @@ import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
-import gov.nasa.worldwind.util.ShortArray;
 
-public class Path extends AbstractShape {
+/**
+ * Displays a line connecting a list of positions, optionally extruded to the ground.
+ * <p/>
+ * Paths that grow over time, such as live tracks, should use {@link #addPosition(Position)} and {@link
+ * #trimPositions(int)} rather than {@link #setPositions(List)}. Appending and trimming positions updates the path's
+ * existing geometry in place: only the new positions' geometry is computed and loaded into the path's OpenGL buffers,
+ * whose capacity doubles as the path grows.
+ * <p/>
+ * Paths with many positions display simplified positions when they're small on screen. See {@link
+ * #setLevelOfDetailEnabled(boolean)}.
+ * <p/>
+ * Paths with more vertices than 16-bit element indices can address, including intermediate and extruded vertices, use
+ * 32-bit element indices when the OpenGL context supports them. Otherwise the path's geometry is divided into chunks,
+ * each drawn with 16-bit element indices relative to its own vertex origin.
+ */
+public class Path extends AbstractShape implements Boundable, RayPickable {
 
     protected static final int VERTEX_STRIDE = 4;
 
+    protected static final int INTERIOR_SECTION = 0;
+
+    protected static final int OUTLINE_SECTION = 1;
+
+    protected static final int VERTICAL_SECTION = 2;
+
     protected static final ImageOptions defaultOutlineImageOptions = new ImageOptions();
 
     protected List<Position> positions = Collections.emptyList();
@@ -47,11 +72,47 @@ public class Path extends AbstractShape {
 
     protected FloatArray vertexArray = new FloatArray();
 
-    protected ShortArray interiorElements = new ShortArray();
+    protected IntArray interiorElements = new IntArray();
+
+    protected IntArray outlineElements = new IntArray();
+
+    protected IntArray verticalElements = new IntArray();
+
+    /**
+     * The index of each assembled position's vertex point, in order. Positions trimmed from the path remain here until
+     * the path's geometry is assembled again.
+     */
+    protected IntArray positionPoints = new IntArray();
+
+    protected int trimmedPositionCount;
+
+    protected FloatBuffer vertexData;
+
+    protected Buffer elementData;
+
+    protected int elementType;
+
+    protected int interiorCapacity;
+
+    protected int outlineCapacity;
+
+    protected int verticalCapacity;
+
+    protected int vertexDataSize;
+
+    protected int interiorDataSize;
+
+    protected int outlineDataSize;
+
+    protected int verticalDataSize;
+
+    protected SimplifiedPositions simplifiedPositions = new SimplifiedPositions(false /*closed*/);
 
-    protected ShortArray outlineElements = new ShortArray();
+    protected int assembledLevel = SimplifiedPositions.FULL_RESOLUTION;
 
-    protected ShortArray verticalElements = new ShortArray();
+    protected int assembledLevelVersion;
+
+    protected List<ShapeChunker.Chunk> chunks;
 
     protected Object vertexBufferKey = nextCacheKey();
 
@@ -118,9 +179,84 @@ public class Path extends AbstractShape {
         }
 
         this.positions = positions;
+        this.simplifiedPositions.invalidate();
         this.reset();
     }
 
+    /**
+     * Adds a position to the end of this path. The path's existing geometry is retained, and only the geometry between
+     * the last position and the new position is assembled in the next frame.
+     * <p/>
+     * If this path's positions list is not an {@link ArrayList}, it's replaced with an ArrayList containing its
+     * positions. Otherwise the position is added to the list specified by the application.
+     *
+     * @param position the position to add
+     *
+     * @throws IllegalArgumentException If the position is null
+     */
+    public void addPosition(Position position) {
+        if (position == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Path", "addPosition", "missingPosition"));
+        }
+
+        // Added positions are retained at every level of detail, so the geometry is appended at simplified levels too.
+        this.mutablePositions().add(position);
+        this.simplifiedPositions.positionsAdded(Collections.singletonList(this.positions));
+    }
+
+    /**
+     * Removes positions from the beginning of this path. The path's geometry is retained and drawn starting at the
+     * first remaining position; it is assembled again once the trimmed geometry exceeds the geometry remaining.
+     * <p/>
+     * If this path's positions list is not an {@link ArrayList}, it's replaced with an ArrayList containing its
+     * positions. Otherwise the positions are removed from the list specified by the application.
+     *
+     * @param count the number of positions to remove
+     *
+     * @throws IllegalArgumentException If the count is negative or greater than the number of positions
+     */
+    public void trimPositions(int count) {
+        if (count < 0 || count > this.positions.size()) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Path", "trimPositions", "invalidCount"));
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        List<Position> levelPositions = this.levelPositions();
+        int levelCount = (levelPositions != null) ? levelPositions.size() : 0;
+
+        this.mutablePositions().subList(0, count).clear();
+        this.simplifiedPositions.positionsTrimmed(Collections.singletonList(this.positions), count);
+        this.chunks = null;
+
+        // Determine the number of positions trimmed from the assembled level of detail. Simplified levels are trimmed
+        // in place, unless the first remaining position was omitted from the level.
+        levelPositions = this.levelPositions();
+        if (levelPositions == null) {
+            this.reset();
+            return;
+        }
+
+        // Draw the existing geometry starting at the first remaining position. Assemble the geometry again when the
+        // trimmed positions have not been assembled, or when the trimmed geometry is larger than the remaining
+        // geometry.
+        int levelTrimmed = levelCount - levelPositions.size();
+        int assembledCount = this.positionPoints.size() - this.trimmedPositionCount;
+        if (levelTrimmed >= assembledCount) {
+            this.reset();
+        } else {
+            this.trimmedPositionCount += levelTrimmed;
+            int firstPoint = this.positionPoints.get(this.trimmedPositionCount);
+            if (firstPoint * 2 > this.outlineElements.size()) {
+                this.reset();
+            }
+        }
+    }
+
     public boolean isExtrude() {
         return this.extrude;
     }
@@ -139,11 +275,32 @@ public class Path extends AbstractShape {
         this.reset();
     }
 
+    @Override
+    public Sector getBoundingSector(Sector result) {
+        return this.unionBoundingSector(this.positions, false, result.setEmpty());
+    }
+
+    @Override
+    public double getMaximumAltitude() {
+        return this.maximumAltitude(this.positions, 0);
+    }
+
+    protected List<Position> mutablePositions() {
+        if (!(this.positions instanceof ArrayList)) {
+            this.positions = new ArrayList<>(this.positions);
+        }
+
+        return this.positions;
+    }
+
     protected void reset() {
         this.vertexArray.clear();
         this.interiorElements.clear();
         this.outlineElements.clear();
         this.verticalElements.clear();
+        this.positionPoints.clear();
+        this.trimmedPositionCount = 0;
+        this.chunks = null;
     }
 
     @Override
@@ -152,27 +309,62 @@ public class Path extends AbstractShape {
             return; // nothing to draw
         }
 
+        // Select the level of detail for the path's size on screen, and assemble the path's geometry again when the
+        // level changes.
+        int level = this.selectLevelOfDetail(rc);
+        int levelVersion = this.simplifiedPositions.getLevelVersion();
+        if (this.assembledLevel != level
+            || (level != SimplifiedPositions.FULL_RESOLUTION && this.assembledLevelVersion != levelVersion)) {
+            this.assembledLevel = level;
+            this.reset();
+        }
+        this.assembledLevelVersion = levelVersion;
+
         if (this.mustAssembleGeometry(rc)) {
             this.assembleGeometry(rc);
-            this.vertexBufferKey = nextCacheKey();
-            this.elementBufferKey = nextCacheKey();
+            this.vertexData = null; // allocate new buffer data sized to the assembled geometry
+            this.chunks = null;
+        } else if (this.mustAppendGeometry(rc)) {
+            this.appendGeometry(rc);
+            this.chunks = null;
         }
 
-        // Obtain a drawable form the render context pool, and compute distance to the render camera.
+        // Compute the distance to the render camera.
+        double cameraDistance;
+        if (this.isSurfaceShape) {
+            cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
+        } else {
+            cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
+        }
+
+        // Draw the path with a single drawable when its elements fit in 16-bit indices or when 32-bit indices are
+        // supported. Otherwise draw the path in chunks that each fit in 16-bit indices.
+        int vertexCount = this.vertexArray.size() / VERTEX_STRIDE;
+        if (vertexCount <= ShapeChunker.MAX_CHUNK_VERTICES || rc.elementIndexUint) {
+            this.offerDrawable(rc, null /*chunk*/, cameraDistance);
+        } else {
+            if (this.chunks == null) {
+                this.chunks = this.chunkGeometry();
+            }
+            for (int idx = 0, len = this.chunks.size(); idx < len; idx++) {
+                this.offerDrawable(rc, this.chunks.get(idx), cameraDistance);
+            }
+        }
+    }
+
+    protected void offerDrawable(RenderContext rc, ShapeChunker.Chunk chunk, double cameraDistance) {
+        // Obtain a drawable form the render context pool.
         Drawable drawable;
         DrawShapeState drawState;
-        double cameraDistance;
         if (this.isSurfaceShape) {
             Pool<DrawableSurfaceShape> pool = rc.getDrawablePool(DrawableSurfaceShape.class);
             drawable = DrawableSurfaceShape.obtain(pool);
             drawState = ((DrawableSurfaceShape) drawable).drawState;
-            cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
             ((DrawableSurfaceShape) drawable).sector.set(this.boundingSector);
         } else {
             Pool<DrawableShape> pool = rc.getDrawablePool(DrawableShape.class);
             drawable = DrawableShape.obtain(pool);
             drawState = ((DrawableShape) drawable).drawState;
-            cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
         }
 
         // Use the basic GLSL program to draw the shape.
@@ -181,26 +373,35 @@ public class Path extends AbstractShape {
             drawState.program = (BasicShaderProgram) rc.putShaderProgram(BasicShaderProgram.KEY, new BasicShaderProgram(rc.resources));
         }
 
-        // Assemble the drawable's OpenGL vertex buffer object.
-        drawState.vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
-        if (drawState.vertexBuffer == null) {
-            int size = this.vertexArray.size() * 4;
-            FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
-            buffer.put(this.vertexArray.array(), 0, this.vertexArray.size());
-            drawState.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.vertexBufferKey, drawState.vertexBuffer);
-        }
-
-        // Assemble the drawable's OpenGL element buffer object.
-        drawState.elementBuffer = rc.getBufferObject(this.elementBufferKey);
-        if (drawState.elementBuffer == null) {
-            int size = (this.interiorElements.size() * 2) + (this.outlineElements.size() * 2) + (this.verticalElements.size() * 2);
-            ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
-            buffer.put(this.interiorElements.array(), 0, this.interiorElements.size());
-            buffer.put(this.outlineElements.array(), 0, this.outlineElements.size());
-            buffer.put(this.verticalElements.array(), 0, this.verticalElements.size());
-            drawState.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.elementBufferKey, drawState.elementBuffer);
+        int elementType, elementSize;
+        int interiorOffset, interiorCount, outlineOffset, outlineCount, verticalOffset, verticalCount;
+        if (chunk == null) {
+            // Assemble the drawable's OpenGL vertex buffer object and element buffer object.
+            this.assembleBuffers(rc, drawState);
+            elementType = this.elementType;
+            elementSize = (elementType == GLES20.GL_UNSIGNED_INT) ? 4 : 2;
+
+            // Skip the geometry of positions trimmed from the beginning of the path. Each vertex point has one outline
+            // element and two interior elements, and each position has two vertical elements.
+            int firstPoint = (this.trimmedPositionCount > 0) ? this.positionPoints.get(this.trimmedPositionCount) : 0;
+            interiorOffset = firstPoint * 2;
+            interiorCount = this.interiorElements.size() - firstPoint * 2;
+            outlineOffset = this.interiorCapacity + firstPoint;
+            outlineCount = this.outlineElements.size() - firstPoint;
+            verticalOffset = this.interiorCapacity + this.outlineCapacity + this.trimmedPositionCount * 2;
+            verticalCount = this.verticalElements.size() - this.trimmedPositionCount * 2;
+        } else {
+            // Use the chunk's OpenGL vertex buffer object and element buffer object.
+            drawState.vertexBuffer = chunk.vertexBuffer(rc);
+            drawState.elementBuffer = chunk.elementBuffer(rc);
+            elementType = GLES20.GL_UNSIGNED_SHORT;
+            elementSize = 2;
+            interiorOffset = chunk.sectionOffsets[INTERIOR_SECTION];
+            interiorCount = chunk.sectionCounts[INTERIOR_SECTION];
+            outlineOffset = chunk.sectionOffsets[OUTLINE_SECTION];
+            outlineCount = chunk.sectionCounts[OUTLINE_SECTION];
+            verticalOffset = chunk.sectionOffsets[VERTICAL_SECTION];
+            verticalCount = chunk.sectionCounts[VERTICAL_SECTION];
         }
 
         // Configure the drawable's vertex texture coordinate attribute.
@@ -225,8 +426,7 @@ public class Path extends AbstractShape {
         if (this.activeAttributes.drawOutline) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
             drawState.lineWidth(this.isSurfaceShape ? this.activeAttributes.outlineWidth + 0.5f : this.activeAttributes.outlineWidth);
-            drawState.drawElements(GLES20.GL_LINE_STRIP, this.outlineElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, this.interiorElements.size() * 2);
+            drawState.drawElements(GLES20.GL_LINE_STRIP, outlineCount, elementType, outlineOffset * elementSize);
         }
 
         // Disable texturing for the remaining drawable primitives.
@@ -236,19 +436,17 @@ public class Path extends AbstractShape {
         if (this.activeAttributes.drawOutline && this.activeAttributes.drawVerticals && this.extrude) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
             drawState.lineWidth(this.activeAttributes.outlineWidth);
-            drawState.drawElements(GLES20.GL_LINES, this.verticalElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, (this.interiorElements.size() * 2) + (this.outlineElements.size() * 2));
+            drawState.drawElements(GLES20.GL_LINES, verticalCount, elementType, verticalOffset * elementSize);
         }
 
         // Configure the drawable to display the shape's extruded interior.
         if (this.activeAttributes.drawInterior && this.extrude) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.interiorColor);
-            drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, this.interiorElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, 0);
+            drawState.drawElements(GLES20.GL_TRIANGLE_STRIP, interiorCount, elementType, interiorOffset * elementSize);
         }
 
         // Configure the drawable according to the shape's attributes.
-        drawState.vertexOrigin.set(this.vertexOrigin);
+        drawState.vertexOrigin.set((chunk != null) ? chunk.vertexOrigin : this.vertexOrigin);
         drawState.vertexStride = VERTEX_STRIDE * 4; // stride in bytes
         drawState.enableCullFace = false;
         drawState.enableDepthTest = this.activeAttributes.depthTest;
@@ -261,8 +459,62 @@ public class Path extends AbstractShape {
         }
     }
 
+    @Override
+    public boolean intersectsPickRay(RenderContext rc, double tolerance, Vec3 result) {
+        this.determineActiveAttributes(rc);
+        if (this.activeAttributes == null || this.vertexArray.size() == 0) {
+            return false; // nothing displayed
+        }
+
+        // Intersect the geometry most recently displayed, skipping positions trimmed from the beginning of the path.
+        int firstPoint = (this.trimmedPositionCount > 0) ? this.positionPoints.get(this.trimmedPositionCount) : 0;
+        int firstVertical = this.trimmedPositionCount * 2;
+        ShapePicker picker = new ShapePicker(rc, this.vertexArray.array(), VERTEX_STRIDE, this.vertexOrigin, this.isSurfaceShape, tolerance);
+
+        if (this.activeAttributes.drawOutline) {
+            picker.pickSection(GLES20.GL_LINE_STRIP, this.outlineElements.array(), firstPoint,
+                this.outlineElements.size() - firstPoint, this.activeAttributes.outlineWidth);
+        }
+
+        if (this.activeAttributes.drawOutline && this.activeAttributes.drawVerticals && this.extrude) {
+            picker.pickSection(GLES20.GL_LINES, this.verticalElements.array(), firstVertical,
+                this.verticalElements.size() - firstVertical, this.activeAttributes.outlineWidth);
+        }
+
+        if (this.activeAttributes.drawInterior && this.extrude) {
+            picker.pickSection(GLES20.GL_TRIANGLE_STRIP, this.interiorElements.array(), firstPoint * 2,
+                this.interiorElements.size() - firstPoint * 2, 0);
+        }
+
+        return picker.nearestIntersection(result);
+    }
+
+    protected int selectLevelOfDetail(RenderContext rc) {
+        if (!this.levelOfDetailEnabled) {
+            return SimplifiedPositions.FULL_RESOLUTION;
+        }
+
+        double tolerance = this.levelOfDetailTolerance(rc);
+        return this.simplifiedPositions.selectLevel(Collections.singletonList(this.positions), tolerance);
+    }
+
+    /**
+     * Returns the positions displayed at the assembled level of detail.
+     */
+    protected List<Position> levelPositions() {
+        if (this.assembledLevel == SimplifiedPositions.FULL_RESOLUTION) {
+            return this.positions;
+        } else {
+            return this.simplifiedPositions.getPositions(this.assembledLevel, 0);
+        }
+    }
+
     protected boolean mustAssembleGeometry(RenderContext rc) {
-        return this.vertexArray.size() == 0;
+        return this.vertexArray.size() == 0 || this.levelPositions().size() < this.positionPoints.size() - this.trimmedPositionCount;
+    }
+
+    protected boolean mustAppendGeometry(RenderContext rc) {
+        return this.levelPositions().size() > this.positionPoints.size() - this.trimmedPositionCount;
     }
 
     protected void assembleGeometry(RenderContext rc) {
@@ -275,19 +527,46 @@ public class Path extends AbstractShape {
         this.interiorElements.clear();
         this.outlineElements.clear();
         this.verticalElements.clear();
+        this.positionPoints.clear();
+        this.trimmedPositionCount = 0;
 
         // Add the first vertex.
-        Position begin = this.positions.get(0);
+        List<Position> positions = this.levelPositions();
+        Position begin = positions.get(0);
+        this.positionPoints.add(0);
         this.addVertex(rc, begin.latitude, begin.longitude, begin.altitude, false /*intermediate*/);
 
         // Add the remaining vertices, inserting vertices along each edge as indicated by the path's properties.
-        for (int idx = 1, len = this.positions.size(); idx < len; idx++) {
-            Position end = this.positions.get(idx);
+        for (int idx = 1, len = positions.size(); idx < len; idx++) {
+            Position end = positions.get(idx);
+            this.addIntermediateVertices(rc, begin, end);
+            this.positionPoints.add(this.outlineElements.size());
+            this.addVertex(rc, end.latitude, end.longitude, end.altitude, false /*intermediate*/);
+            begin = end;
+        }
+
+        this.assembleBoundingVolume();
+    }
+
+    protected void appendGeometry(RenderContext rc) {
+        // Add vertices for the positions added since the geometry was assembled, continuing from the last assembled
+        // position. The vertex origin and texture coordinate continue from the existing geometry.
+        List<Position> positions = this.levelPositions();
+        int first = this.positionPoints.size() - this.trimmedPositionCount;
+        Position begin = positions.get(first - 1);
+
+        for (int idx = first, len = positions.size(); idx < len; idx++) {
+            Position end = positions.get(idx);
             this.addIntermediateVertices(rc, begin, end);
+            this.positionPoints.add(this.outlineElements.size());
             this.addVertex(rc, end.latitude, end.longitude, end.altitude, false /*intermediate*/);
             begin = end;
         }
 
+        this.assembleBoundingVolume();
+    }
+
+    protected void assembleBoundingVolume() {
         // Compute the shape's bounding box or bounding sector from its assembled coordinates.
         if (this.isSurfaceShape) {
             this.boundingSector.setEmpty();
@@ -301,6 +580,124 @@ public class Path extends AbstractShape {
         }
     }
 
+    protected List<ShapeChunker.Chunk> chunkGeometry() {
+        // Divide the geometry following any positions trimmed from the beginning of the path.
+        int firstPoint = (this.trimmedPositionCount > 0) ? this.positionPoints.get(this.trimmedPositionCount) : 0;
+        int firstVertical = this.trimmedPositionCount * 2;
+        ShapeChunker chunker = new ShapeChunker(this.vertexArray.array(), this.vertexArray.size() / VERTEX_STRIDE, VERTEX_STRIDE, this.vertexOrigin);
+        chunker.addSection(GLES20.GL_TRIANGLE_STRIP, this.interiorElements.array(), firstPoint * 2, this.interiorElements.size() - firstPoint * 2);
+        chunker.addSection(GLES20.GL_LINE_STRIP, this.outlineElements.array(), firstPoint, this.outlineElements.size() - firstPoint);
+        chunker.addSection(GLES20.GL_LINES, this.verticalElements.array(), firstVertical, this.verticalElements.size() - firstVertical);
+        return chunker.chunk();
+    }
+
+    protected void assembleBuffers(RenderContext rc, DrawShapeState drawState) {
+        int vertexCount = this.vertexArray.size();
+        int interiorCount = this.interiorElements.size();
+        int outlineCount = this.outlineElements.size();
+        int verticalCount = this.verticalElements.size();
+        int elementType = (vertexCount / VERTEX_STRIDE > ShapeChunker.MAX_CHUNK_VERTICES) ? GLES20.GL_UNSIGNED_INT : GLES20.GL_UNSIGNED_SHORT;
+
+        // Allocate buffer data sized to the geometry when the geometry is assembled, and with twice the capacity when
+        // appended geometry exceeds the current capacity or requires 32-bit element indices. Allocating new buffer data
+        // replaces the OpenGL buffer objects.
+        if (this.vertexData == null || vertexCount > this.vertexData.capacity() || interiorCount > this.interiorCapacity
+            || outlineCount > this.outlineCapacity || verticalCount > this.verticalCapacity || elementType != this.elementType) {
+            int scale = (this.vertexData == null) ? 1 : 2;
+            this.interiorCapacity = interiorCount * scale;
+            this.outlineCapacity = outlineCount * scale;
+            this.verticalCapacity = verticalCount * scale;
+            int elementCapacity = this.interiorCapacity + this.outlineCapacity + this.verticalCapacity;
+            this.vertexData = ByteBuffer.allocateDirect(vertexCount * scale * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            if (elementType == GLES20.GL_UNSIGNED_INT) {
+                this.elementData = ByteBuffer.allocateDirect(elementCapacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+            } else {
+                this.elementData = ByteBuffer.allocateDirect(elementCapacity * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+            }
+            this.elementType = elementType;
+            this.vertexDataSize = 0;
+            this.interiorDataSize = 0;
+            this.outlineDataSize = 0;
+            this.verticalDataSize = 0;
+            this.vertexBufferKey = nextCacheKey();
+            this.elementBufferKey = nextCacheKey();
+        }
+
+        // Copy the geometry added since the buffer data was last updated. Element arrays occupy fixed sections of the
+        // element data: interior elements, followed by outline elements, followed by vertical elements.
+        int vertexStart = this.vertexDataSize;
+        int interiorStart = this.interiorDataSize;
+        int outlineStart = this.interiorCapacity + this.outlineDataSize;
+        int verticalStart = this.interiorCapacity + this.outlineCapacity + this.verticalDataSize;
+        this.vertexData.position(vertexStart);
+        this.vertexData.put(this.vertexArray.array(), vertexStart, vertexCount - vertexStart).rewind();
+        this.putElements(interiorStart, this.interiorElements, this.interiorDataSize, interiorCount - this.interiorDataSize);
+        this.putElements(outlineStart, this.outlineElements, this.outlineDataSize, outlineCount - this.outlineDataSize);
+        this.putElements(verticalStart, this.verticalElements, this.verticalDataSize, verticalCount - this.verticalDataSize);
+        this.elementData.rewind();
+        int elementSize = (elementType == GLES20.GL_UNSIGNED_INT) ? 4 : 2;
+
+        // Use the existing OpenGL buffer objects, loading the new geometry into them, or create buffer objects
+        // containing all of the buffer data.
+        drawState.vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
+        if (drawState.vertexBuffer == null) {
+            int size = this.vertexData.capacity() * 4;
+            drawState.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, size, this.vertexData.duplicate());
+            rc.putBufferObject(this.vertexBufferKey, drawState.vertexBuffer);
+        } else if (vertexCount > vertexStart) {
+            this.updateBuffer(drawState.vertexBuffer, this.vertexData.duplicate(), vertexStart, vertexCount - vertexStart, 4);
+        }
+
+        drawState.elementBuffer = rc.getBufferObject(this.elementBufferKey);
+        if (drawState.elementBuffer == null) {
+            int size = this.elementData.capacity() * elementSize;
+            drawState.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, this.duplicateElementData());
+            rc.putBufferObject(this.elementBufferKey, drawState.elementBuffer);
+        } else {
+            if (interiorCount > this.interiorDataSize) {
+                this.updateBuffer(drawState.elementBuffer, this.duplicateElementData(), interiorStart, interiorCount - this.interiorDataSize, elementSize);
+            }
+            if (outlineCount > this.outlineDataSize) {
+                this.updateBuffer(drawState.elementBuffer, this.duplicateElementData(), outlineStart, outlineCount - this.outlineDataSize, elementSize);
+            }
+            if (verticalCount > this.verticalDataSize) {
+                this.updateBuffer(drawState.elementBuffer, this.duplicateElementData(), verticalStart, verticalCount - this.verticalDataSize, elementSize);
+            }
+        }
+
+        this.vertexDataSize = vertexCount;
+        this.interiorDataSize = interiorCount;
+        this.outlineDataSize = outlineCount;
+        this.verticalDataSize = verticalCount;
+    }
+
+    protected void putElements(int position, IntArray elements, int start, int count) {
+        if (this.elementData instanceof IntBuffer) {
+            IntBuffer buffer = (IntBuffer) this.elementData;
+            buffer.position(position);
+            buffer.put(elements.array(), start, count);
+        } else {
+            ShortBuffer buffer = (ShortBuffer) this.elementData;
+            buffer.position(position);
+            for (int idx = start, end = start + count; idx < end; idx++) {
+                buffer.put((short) elements.get(idx));
+            }
+        }
+    }
+
+    protected Buffer duplicateElementData() {
+        if (this.elementData instanceof IntBuffer) {
+            return ((IntBuffer) this.elementData).duplicate();
+        } else {
+            return ((ShortBuffer) this.elementData).duplicate();
+        }
+    }
+
+    protected void updateBuffer(BufferObject bufferObject, Buffer range, int start, int count, int elementSize) {
+        range.position(start);
+        bufferObject.updateBuffer(start * elementSize, count * elementSize, range);
+    }
+
     protected void addIntermediateVertices(RenderContext rc, Position begin, Position end) {
         if (this.pathType == WorldWind.LINEAR) {
             return; // suppress intermediate vertices when the path type is linear
@@ -367,13 +764,13 @@ public class Path extends AbstractShape {
             this.vertexArray.add((float) (latitude - this.vertexOrigin.y));
             this.vertexArray.add((float) (altitude - this.vertexOrigin.z));
             this.vertexArray.add((float) this.texCoord1d);
-            this.outlineElements.add((short) vertex);
+            this.outlineElements.add(vertex);
         } else {
             this.vertexArray.add((float) (point.x - this.vertexOrigin.x));
             this.vertexArray.add((float) (point.y - this.vertexOrigin.y));
             this.vertexArray.add((float) (point.z - this.vertexOrigin.z));
             this.vertexArray.add((float) this.texCoord1d);
-            this.outlineElements.add((short) vertex);
+            this.outlineElements.add(vertex);
 
             if (this.extrude) {
                 point = rc.geographicToCartesian(latitude, longitude, 0, this.altitudeMode, this.point);
@@ -381,13 +778,13 @@ public class Path extends AbstractShape {
                 this.vertexArray.add((float) (point.y - this.vertexOrigin.y));
                 this.vertexArray.add((float) (point.z - this.vertexOrigin.z));
                 this.vertexArray.add((float) 0 /*unused*/);
-                this.interiorElements.add((short) vertex);
-                this.interiorElements.add((short) (vertex + 1));
+                this.interiorElements.add(vertex);
+                this.interiorElements.add(vertex + 1);
             }
 
             if (this.extrude && !intermediate) {
-                this.verticalElements.add((short) vertex);
-                this.verticalElements.add((short) (vertex + 1));
+                this.verticalElements.add(vertex);
+                this.verticalElements.add(vertex + 1);
             }
         }
     }
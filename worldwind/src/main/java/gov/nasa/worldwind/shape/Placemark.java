@@ -11,6 +11,7 @@ import gov.nasa.worldwind.draw.DrawableLines;
 import gov.nasa.worldwind.draw.DrawableScreenTexture;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec2;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.geom.Viewport;
@@ -35,7 +36,7 @@ import gov.nasa.worldwind.util.WWMath;
  * scaled by the image scale attribute. Otherwise, the placemark is drawn as a square with width and height equal to the
  * value of the image scale attribute, in pixels, and color equal to the image color attribute.
  */
-public class Placemark extends AbstractRenderable implements Highlightable, Movable {
+public class Placemark extends AbstractRenderable implements Boundable, Highlightable, Movable, RayPickable {
 
     /**
      * Presents an interfaced for dynamically determining the PlacemarkAttributes based on the distance between the
@@ -62,17 +63,24 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
 
     protected static final double DEFAULT_DEPTH_OFFSET = -0.1;
 
-    private static Vec3 placePoint = new Vec3();
-
-    private static Vec3 screenPlacePoint = new Vec3();
-
-    private static Vec3 groundPoint = new Vec3();
-
-    private static Vec2 offset = new Vec2();
-
-    private static Matrix4 unitSquareTransform = new Matrix4();
+    /**
+     * The distance added to a leader's camera distance when ordering the leader drawable. Leaders are thereby ordered
+     * behind every placemark icon, so all leaders draw as one contiguous run before all icons, while remaining in
+     * back-to-front order among themselves. The offset exceeds any distance visible from a camera near the globe, and
+     * is small enough to preserve leader distances to within a fraction of a meter.
+     */
+    protected static final double LEADER_ORDER_OFFSET = 1e15;
 
-    private static Viewport screenBounds = new Viewport();
+    /**
+     * The placemark's properties associated with the current render pass. Each thread rendering placemarks has its own
+     * instance, allowing layers to render concurrently.
+     */
+    private static final ThreadLocal<RenderData> threadRenderData = new ThreadLocal<RenderData>() {
+        @Override
+        protected RenderData initialValue() {
+            return new RenderData();
+        }
+    };
 
     /**
      * The placemark's geographic position.
@@ -655,6 +663,18 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         return getPosition();
     }
 
+    @Override
+    public Sector getBoundingSector(Sector result) {
+        // Sector.union sets the maximum coordinates of a sector with only minimum coordinates to the location.
+        return result.setEmpty().union(this.position.latitude, this.position.longitude)
+            .union(this.position.latitude, this.position.longitude);
+    }
+
+    @Override
+    public double getMaximumAltitude() {
+        return (this.altitudeMode == WorldWind.CLAMP_TO_GROUND) ? 0 : Math.max(0, this.position.altitude);
+    }
+
     /**
      * Moves the shape over the globe's surface. For a Placemark, this simply calls {@link
      * Placemark#setPosition(Position)}.
@@ -667,6 +687,55 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         setPosition(position);
     }
 
+    /**
+     * Determines whether the pick point is within the tolerance of this placemark's icon on screen. The icon's screen
+     * rectangle is computed for the current viewing state, using the icon texture when it is available. Rotated or
+     * tilted icons are tested against their bounding rectangle. The intersection point is this placemark's model point.
+     *
+     * @param rc        the current render context
+     * @param tolerance the distance in screen pixels within which the icon intersects the pick ray
+     * @param result    a pre-allocated {@link Vec3} in which to return the placemark's model point
+     *
+     * @return true if the pick point is within the tolerance of the icon, otherwise false
+     */
+    @Override
+    public boolean intersectsPickRay(RenderContext rc, double tolerance, Vec3 result) {
+        RenderData renderData = threadRenderData.get();
+
+        // Compute the placemark's Cartesian model point and project it to screen coordinates.
+        rc.geographicToCartesian(this.position.latitude, this.position.longitude, this.position.altitude,
+            this.altitudeMode, renderData.placePoint);
+        this.cameraDistance = rc.cameraPoint.distanceTo(renderData.placePoint);
+        if (!rc.project(renderData.placePoint, renderData.screenPlacePoint)) {
+            return false; // clipped by the near plane or the far plane
+        }
+
+        if (this.levelOfDetailSelector != null) {
+            this.levelOfDetailSelector.selectLevelOfDetail(rc, this, this.cameraDistance);
+        }
+
+        this.determineActiveAttributes(rc);
+        if (this.activeAttributes == null) {
+            return false;
+        }
+
+        // Compute the icon's screen rectangle using the texture already in the cache, without retrieving it.
+        this.activeTexture = (this.activeAttributes.imageSource != null) ?
+            rc.getAtlasTexture(this.activeAttributes.imageSource) : null;
+        this.determineUnitSquareTransform(rc);
+        this.activeTexture = null;
+
+        Viewport bounds = WWMath.boundingRectForUnitSquare(renderData.unitSquareTransform, renderData.screenBounds);
+        double px = rc.pickPoint.x, py = rc.pickPoint.y;
+        if (px < bounds.x - tolerance || px > bounds.x + bounds.width + tolerance
+            || py < bounds.y - tolerance || py > bounds.y + bounds.height + tolerance) {
+            return false;
+        }
+
+        result.set(renderData.placePoint);
+        return true;
+    }
+
     /**
      * Performs the rendering; called by the public render method.
      *
@@ -674,13 +743,15 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      */
     @Override
     protected void doRender(RenderContext rc) {
+        RenderData renderData = threadRenderData.get();
+
         // Compute the placemark's Cartesian model point.
         rc.geographicToCartesian(this.position.latitude, this.position.longitude, this.position.altitude,
-            this.altitudeMode, placePoint);
+            this.altitudeMode, renderData.placePoint);
 
         // Compute the camera distance to the place point, the value which is used for ordering the placemark drawable
         // and determining the amount of depth offset to apply.
-        this.cameraDistance = rc.cameraPoint.distanceTo(placePoint);
+        this.cameraDistance = rc.cameraPoint.distanceTo(renderData.placePoint);
 
         // Compute a screen depth offset appropriate for the current viewing parameters.
         double depthOffset = 0;
@@ -690,7 +761,7 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
 
         // Project the placemark's model point to screen coordinates, using the screen depth offset to push the screen
         // point's z component closer to the eye point.
-        if (!rc.projectWithDepth(placePoint, depthOffset, screenPlacePoint)) {
+        if (!rc.projectWithDepth(renderData.placePoint, depthOffset, renderData.screenPlacePoint)) {
             return; // clipped by the near plane or the far plane
         }
 
@@ -712,19 +783,19 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             this.pickColor = PickedObject.identifierToUniqueColor(this.pickedObjectId, this.pickColor);
         }
 
-        // Prepare a drawable for the placemark's leader, if requested. Enqueue the leader drawable before the icon
-        // drawable in order to give the icon visual priority over the leader.
+        // Prepare a drawable for the placemark's leader, if requested. Order the leader drawable behind every icon
+        // drawable in order to give icons visual priority over leaders, and to let the leaders draw as one batch.
         if (this.mustDrawLeader(rc)) {
             // Compute the placemark's Cartesian ground point.
             rc.geographicToCartesian(this.position.latitude, this.position.longitude, 0, WorldWind.CLAMP_TO_GROUND,
-                groundPoint);
+                renderData.groundPoint);
 
             // If the leader is visible, enqueue a drawable leader for processing on the OpenGL thread.
-            if (rc.frustum.intersectsSegment(groundPoint, placePoint)) {
+            if (rc.frustum.intersectsSegment(renderData.groundPoint, renderData.placePoint)) {
                 Pool<DrawableLines> pool = rc.getDrawablePool(DrawableLines.class);
                 DrawableLines drawable = DrawableLines.obtain(pool);
                 this.prepareDrawableLeader(rc, drawable);
-                rc.offerShapeDrawable(drawable, this.cameraDistance);
+                rc.offerShapeDrawable(drawable, this.cameraDistance + LEADER_ORDER_OFFSET);
             }
         }
 
@@ -735,11 +806,11 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         // edge of the screen were loaded. In these cases the placemark will "pop" into view when
         // the placePoint enters the view frustum.
         if (this.activeAttributes.imageSource != null) {
-            this.activeTexture = rc.getTexture(this.activeAttributes.imageSource); // try to get the texture from the cache
+            this.activeTexture = rc.getAtlasTexture(this.activeAttributes.imageSource); // try to get the texture from the atlas or the cache
             // If we don't have a texture, then perform point-based culling here,
             // otherwise we'll perform a "frustum intersects screenBounds" test later on.
             if (this.activeTexture == null) {
-                if (!rc.frustum.containsPoint(placePoint)) {
+                if (!rc.frustum.containsPoint(renderData.placePoint)) {
                     return;
                 }
             }
@@ -749,8 +820,8 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         this.determineActiveTexture(rc);
 
         // If the placemark's icon is visible, enqueue a drawable icon for processing on the OpenGL thread.
-        WWMath.boundingRectForUnitSquare(unitSquareTransform, screenBounds);
-        if (rc.frustum.intersectsViewport(screenBounds)) {
+        WWMath.boundingRectForUnitSquare(renderData.unitSquareTransform, renderData.screenBounds);
+        if (rc.frustum.intersectsViewport(renderData.screenBounds)) {
             Pool<DrawableScreenTexture> pool = rc.getDrawablePool(DrawableScreenTexture.class);
             DrawableScreenTexture drawable = DrawableScreenTexture.obtain(pool);
             this.prepareDrawableIcon(rc, drawable);
@@ -785,24 +856,37 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      * @param rc the current render context
      */
     protected void determineActiveTexture(RenderContext rc) {
+        RenderData renderData = threadRenderData.get();
+
         // TODO: Refactor!
         if (this.activeAttributes.imageSource != null) {
             // Earlier in doRender(), an attempt was made to 'get' the activeTexture from the cache.
             // If was not found in the cache we need to retrieve a texture from the image source.
             if (this.activeTexture == null) {
-                this.activeTexture = rc.retrieveTexture(this.activeAttributes.imageSource, null); // puts retrieved textures in the cache
+                this.activeTexture = rc.retrieveAtlasTexture(this.activeAttributes.imageSource, null, this.cameraDistance); // puts retrieved textures in the atlas or the cache
             }
         } else {
             this.activeTexture = null; // there is no imageSource; draw a simple colored square
         }
 
+        this.determineUnitSquareTransform(rc);
+    }
+
+    /**
+     * Determines the unit square transform for the active texture and the current render pass.
+     *
+     * @param rc the current render context
+     */
+    protected void determineUnitSquareTransform(RenderContext rc) {
+        RenderData renderData = threadRenderData.get();
+
         // Compute an camera-position proximity scaling factor, so that distant placemarks can be scaled smaller than
         // nearer placemarks.
         double visibilityScale = this.isEyeDistanceScaling() ?
             Math.max(this.activeAttributes.minimumImageScale, Math.min(1, this.getEyeDistanceScalingThreshold() / this.cameraDistance)) : 1;
 
         // Initialize the unit square transform to the identity matrix.
-        unitSquareTransform.setToIdentity();
+        renderData.unitSquareTransform.setToIdentity();
 
         // Apply the icon's translation and scale according to the image size, image offset and image scale. The image
         // offset is defined with its origin at the image's bottom-left corner and axes that extend up and to the right
@@ -812,43 +896,43 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             int w = this.activeTexture.getWidth();
             int h = this.activeTexture.getHeight();
             double s = this.activeAttributes.imageScale * visibilityScale;
-            this.activeAttributes.imageOffset.offsetForSize(w, h, offset);
+            this.activeAttributes.imageOffset.offsetForSize(w, h, renderData.offset);
 
-            unitSquareTransform.multiplyByTranslation(
-                screenPlacePoint.x - offset.x * s,
-                screenPlacePoint.y - offset.y * s,
-                screenPlacePoint.z);
+            renderData.unitSquareTransform.multiplyByTranslation(
+                renderData.screenPlacePoint.x - renderData.offset.x * s,
+                renderData.screenPlacePoint.y - renderData.offset.y * s,
+                renderData.screenPlacePoint.z);
 
-            unitSquareTransform.multiplyByScale(w * s, h * s, 1);
+            renderData.unitSquareTransform.multiplyByScale(w * s, h * s, 1);
         } else {
             // This branch serves both non-textured attributes and also textures that haven't been loaded yet.
             // We set the size for non-loaded textures to the typical size of a contemporary "small" icon (24px)
             double size = this.activeAttributes.imageSource != null ? 24 : this.activeAttributes.imageScale;
             size *= visibilityScale;
-            this.activeAttributes.imageOffset.offsetForSize(size, size, offset);
+            this.activeAttributes.imageOffset.offsetForSize(size, size, renderData.offset);
 
-            unitSquareTransform.multiplyByTranslation(
-                screenPlacePoint.x - offset.x,
-                screenPlacePoint.y - offset.y,
-                screenPlacePoint.z);
+            renderData.unitSquareTransform.multiplyByTranslation(
+                renderData.screenPlacePoint.x - renderData.offset.x,
+                renderData.screenPlacePoint.y - renderData.offset.y,
+                renderData.screenPlacePoint.z);
 
-            unitSquareTransform.multiplyByScale(size, size, 1);
+            renderData.unitSquareTransform.multiplyByScale(size, size, 1);
         }
 
         // ... perform image rotation
         if (this.imageRotation != 0) {
             double rotation = this.imageRotationReference == WorldWind.RELATIVE_TO_GLOBE ?
                 rc.camera.heading - this.imageRotation : -this.imageRotation;
-            unitSquareTransform.multiplyByTranslation(0.5, 0.5, 0);
-            unitSquareTransform.multiplyByRotation(0, 0, 1, rotation);
-            unitSquareTransform.multiplyByTranslation(-0.5, -0.5, 0);
+            renderData.unitSquareTransform.multiplyByTranslation(0.5, 0.5, 0);
+            renderData.unitSquareTransform.multiplyByRotation(0, 0, 1, rotation);
+            renderData.unitSquareTransform.multiplyByTranslation(-0.5, -0.5, 0);
         }
 
         // ... and perform the tilt so that the image tilts back from its base into the view volume.
         if (this.imageTilt != 0) {
             double tilt = this.imageTiltReference == WorldWind.RELATIVE_TO_GLOBE ?
                 rc.camera.tilt + this.imageTilt : this.imageTilt;
-            unitSquareTransform.multiplyByRotation(-1, 0, 0, tilt);
+            renderData.unitSquareTransform.multiplyByRotation(-1, 0, 0, tilt);
         }
     }
 
@@ -860,6 +944,8 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      * @param drawable the Drawable to be prepared
      */
     protected void prepareDrawableIcon(RenderContext rc, DrawableScreenTexture drawable) {
+        RenderData renderData = threadRenderData.get();
+
         // Use the basic GLSL program to draw the placemark's icon.
         drawable.program = (BasicShaderProgram) rc.getShaderProgram(BasicShaderProgram.KEY);
         if (drawable.program == null) {
@@ -867,7 +953,7 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         }
 
         // Use the plaemark's unit square transform matrix.
-        drawable.unitSquareTransform.set(unitSquareTransform);
+        drawable.unitSquareTransform.set(renderData.unitSquareTransform);
 
         // Configure the drawable according to the placemark's active attributes. Use a color appropriate for the pick
         // mode. When picking use a unique color associated with the picked object ID. Use the texture associated with
@@ -886,6 +972,8 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
      * @param drawable the Drawable to be prepared
      */
     protected void prepareDrawableLeader(RenderContext rc, DrawableLines drawable) {
+        RenderData renderData = threadRenderData.get();
+
         // Use the basic GLSL program to draw the placemark's leader.
         drawable.program = (BasicShaderProgram) rc.getShaderProgram(BasicShaderProgram.KEY);
         if (drawable.program == null) {
@@ -896,13 +984,13 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
         drawable.vertexPoints[0] = 0; // groundPoint.x - groundPoint.x
         drawable.vertexPoints[1] = 0; // groundPoint.y - groundPoint.y
         drawable.vertexPoints[2] = 0; // groundPoint.z - groundPoint.z
-        drawable.vertexPoints[3] = (float) (placePoint.x - groundPoint.x);
-        drawable.vertexPoints[4] = (float) (placePoint.y - groundPoint.y);
-        drawable.vertexPoints[5] = (float) (placePoint.z - groundPoint.z);
+        drawable.vertexPoints[3] = (float) (renderData.placePoint.x - renderData.groundPoint.x);
+        drawable.vertexPoints[4] = (float) (renderData.placePoint.y - renderData.groundPoint.y);
+        drawable.vertexPoints[5] = (float) (renderData.placePoint.z - renderData.groundPoint.z);
 
         // Compute the drawable's modelview-projection matrix, relative to the placemark's ground point.
         drawable.mvpMatrix.set(rc.modelviewProjection);
-        drawable.mvpMatrix.multiplyByTranslation(groundPoint.x, groundPoint.y, groundPoint.z);
+        drawable.mvpMatrix.multiplyByTranslation(renderData.groundPoint.x, renderData.groundPoint.y, renderData.groundPoint.z);
 
         // Configure the drawable according to the placemark's active leader attributes. Use a color appropriate for the
         // pick mode. When picking use a unique color associated with the picked object ID.
@@ -935,4 +1023,40 @@ public class Placemark extends AbstractRenderable implements Highlightable, Mova
             && this.activeAttributes.leaderAttributes != null
             && (this.enableLeaderPicking || !rc.pickMode);
     }
+
+    /**
+     * Properties associated with the placemark during a render pass.
+     */
+    protected static class RenderData {
+
+        /**
+         * The model coordinate point corresponding to the placemark's position.
+         */
+        public Vec3 placePoint = new Vec3();
+
+        /**
+         * The screen coordinate point corresponding to the placemark's position.
+         */
+        public Vec3 screenPlacePoint = new Vec3();
+
+        /**
+         * The model coordinate point on the terrain beneath the placemark's position.
+         */
+        public Vec3 groundPoint = new Vec3();
+
+        /**
+         * The screen coordinate offset corresponding to the active attributes.
+         */
+        public Vec2 offset = new Vec2();
+
+        /**
+         * The screen coordinate transform to apply to the drawable unit square.
+         */
+        public Matrix4 unitSquareTransform = new Matrix4();
+
+        /**
+         * The screen viewport indicating the placemark's screen bounds.
+         */
+        public Viewport screenBounds = new Viewport();
+    }
 }
@@ -0,0 +1,615 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import gov.nasa.worldwind.PickedObject;
+import gov.nasa.worldwind.draw.DrawablePointCloud;
+import gov.nasa.worldwind.geom.BoundingBox;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.render.AbstractRenderable;
+import gov.nasa.worldwind.render.BufferObject;
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.PointCloudProgram;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.Pool;
+
+/**
+ * Displays a large, static set of points as colored point sprites. Point clouds store each point's position, color and
+ * size in compact arrays outside the Java heap, using about 17 bytes per point, and display millions of points with a
+ * few draw calls.
+ * <p/>
+ * Points are grouped into chunks by geographic tile as they're added. Chunks start small and grow as points are added,
+ * so sparsely populated tiles cost little more than their points. Each chunk is culled by a bounding box computed from
+ * its points' geographic extent, and is uploaded to a single OpenGL vertex buffer the first time it's in view, so the
+ * cost of each frame depends on the chunks in view rather than the total number of points. Point positions are absolute; their altitudes are scaled by
+ * the vertical exaggeration but do not follow the terrain.
+ * <p/>
+ * Each point is identified by its point ID, which is returned when the point is added and combines the index of the
+ * point's chunk with the point's index in that chunk. Picking a point cloud at a
+ * screen point reports a {@link PickedPoint} identifying the nearest point under the pick point. Picking a point
+ * cloud in a screen rectangle reports a PickedPoint for each chunk in the rectangle.
+ */
+public class PointCloud extends AbstractRenderable {
+
+    protected static final int DEFAULT_CHUNK_CAPACITY = 65536;
+
+    protected static final double DEFAULT_TILE_DELTA = 1;
+
+    protected static final int INITIAL_CHUNK_CAPACITY = 16;
+
+    protected static final double MIN_SECTOR_DELTA = 1.0e-9;
+
+    protected int chunkCapacity;
+
+    protected double tileDelta;
+
+    protected boolean enableDepthTest = true;
+
+    protected ArrayList<Chunk> chunks = new ArrayList<>();
+
+    protected HashMap<Long, Chunk> tileChunks = new HashMap<>();
+
+    protected long lastTileKey = -1;
+
+    protected Chunk lastTileChunk;
+
+    protected int pointCount;
+
+    protected Globe assembledGlobe;
+
+    protected double assembledVerticalExaggeration;
+
+    private Vec3 scratchPoint = new Vec3();
+
+    private Vec3 scratchScreenPoint = new Vec3();
+
+    private Color scratchColor = new Color();
+
+    /**
+     * Constructs an empty point cloud with chunks of up to 65536 points covering 1 degree tiles.
+     */
+    public PointCloud() {
+        this(DEFAULT_CHUNK_CAPACITY, DEFAULT_TILE_DELTA);
+    }
+
+    /**
+     * Constructs an empty point cloud with a specified chunk capacity and tile size.
+     *
+     * @param chunkCapacity the maximum number of points in each chunk
+     * @param tileDelta     the width and height in degrees of the geographic tiles used to group points into chunks
+     *
+     * @throws IllegalArgumentException If the chunk capacity is less than 1, or the tile delta is not positive
+     */
+    public PointCloud(int chunkCapacity, double tileDelta) {
+        if (chunkCapacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PointCloud", "constructor", "invalidCapacity"));
+        }
+
+        if (tileDelta <= 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PointCloud", "constructor", "invalidTileDelta"));
+        }
+
+        this.chunkCapacity = chunkCapacity;
+        this.tileDelta = tileDelta;
+    }
+
+    public int getChunkCapacity() {
+        return this.chunkCapacity;
+    }
+
+    public double getTileDelta() {
+        return this.tileDelta;
+    }
+
+    public int getPointCount() {
+        return this.pointCount;
+    }
+
+    public int getChunkCount() {
+        return this.chunks.size();
+    }
+
+    public boolean isEnableDepthTest() {
+        return this.enableDepthTest;
+    }
+
+    public PointCloud setEnableDepthTest(boolean enableDepthTest) {
+        this.enableDepthTest = enableDepthTest;
+        return this;
+    }
+
+    /**
+     * Adds a point to this point cloud. Points added after the point cloud is displayed appear in the next frame.
+     *
+     * @param latitude  the point's latitude in degrees
+     * @param longitude the point's longitude in degrees
+     * @param altitude  the point's altitude in meters
+     * @param color     the point's color
+     * @param size      the point's diameter in pixels, from 0 to 255
+     *
+     * @return the point's ID
+     *
+     * @throws IllegalArgumentException If the color is null
+     */
+    public long addPoint(double latitude, double longitude, double altitude, Color color, float size) {
+        if (color == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PointCloud", "addPoint", "missingColor"));
+        }
+
+        Chunk chunk = this.tileChunk(latitude, longitude);
+        int index = chunk.addPoint(latitude, longitude, altitude, color, size);
+        this.pointCount++;
+
+        return (long) chunk.chunkIndex * this.chunkCapacity + index;
+    }
+
+    /**
+     * Indicates the position of a point in this point cloud.
+     *
+     * @param pointId the point's ID
+     * @param result  a pre-allocated {@link Position} in which to store the point's position
+     *
+     * @return the result argument, set to the point's position
+     *
+     * @throws IllegalArgumentException If the point ID is invalid or the result is null
+     */
+    public Position getPosition(long pointId, Position result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PointCloud", "getPosition", "missingResult"));
+        }
+
+        Chunk chunk = this.pointChunk(pointId, "getPosition");
+        return chunk.getPosition((int) (pointId % this.chunkCapacity), result);
+    }
+
+    /**
+     * Indicates the color of a point in this point cloud.
+     *
+     * @param pointId the point's ID
+     * @param result  a pre-allocated {@link Color} in which to store the point's color
+     *
+     * @return the result argument, set to the point's color
+     *
+     * @throws IllegalArgumentException If the point ID is invalid or the result is null
+     */
+    public Color getColor(long pointId, Color result) {
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PointCloud", "getColor", "missingResult"));
+        }
+
+        Chunk chunk = this.pointChunk(pointId, "getColor");
+        return chunk.getColor((int) (pointId % this.chunkCapacity), result);
+    }
+
+    /**
+     * Indicates the diameter in pixels of a point in this point cloud.
+     *
+     * @param pointId the point's ID
+     *
+     * @return the point's size
+     *
+     * @throws IllegalArgumentException If the point ID is invalid
+     */
+    public int getSize(long pointId) {
+        Chunk chunk = this.pointChunk(pointId, "getSize");
+        return chunk.getSize((int) (pointId % this.chunkCapacity));
+    }
+
+    /**
+     * Removes every point from this point cloud.
+     */
+    public void clear() {
+        this.chunks.clear();
+        this.tileChunks.clear();
+        this.lastTileKey = -1;
+        this.lastTileChunk = null;
+        this.pointCount = 0;
+    }
+
+    protected Chunk tileChunk(double latitude, double longitude) {
+        // Find the open chunk for the point's tile, starting a new chunk when the tile has none or its chunk is full.
+        long row = (long) Math.floor((latitude + 90) / this.tileDelta);
+        long col = (long) Math.floor((longitude + 180) / this.tileDelta);
+        long tileKey = (row << 32) | (col & 0xFFFFFFFFL);
+
+        Chunk chunk = (tileKey == this.lastTileKey) ? this.lastTileChunk : this.tileChunks.get(tileKey);
+        if (chunk == null || chunk.count == this.chunkCapacity) {
+            chunk = new Chunk(this.chunks.size(), latitude, longitude, this.chunkCapacity);
+            this.chunks.add(chunk);
+            this.tileChunks.put(tileKey, chunk);
+        }
+
+        this.lastTileKey = tileKey;
+        this.lastTileChunk = chunk;
+        return chunk;
+    }
+
+    protected Chunk pointChunk(long pointId, String methodName) {
+        long chunkIndex = (pointId >= 0) ? pointId / this.chunkCapacity : -1;
+        Chunk chunk = (chunkIndex >= 0 && chunkIndex < this.chunks.size()) ? this.chunks.get((int) chunkIndex) : null;
+        if (chunk == null || pointId % this.chunkCapacity >= chunk.count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "PointCloud", methodName, "invalidIndex"));
+        }
+
+        return chunk;
+    }
+
+    @Override
+    protected void doRender(RenderContext rc) {
+        if (this.pointCount == 0) {
+            return; // nothing to draw
+        }
+
+        // Chunk geometry depends on the globe and the vertical exaggeration. Assemble every chunk's geometry again when
+        // either changes.
+        if (this.assembledGlobe != rc.globe || this.assembledVerticalExaggeration != rc.verticalExaggeration) {
+            this.assembledGlobe = rc.globe;
+            this.assembledVerticalExaggeration = rc.verticalExaggeration;
+            for (int idx = 0, len = this.chunks.size(); idx < len; idx++) {
+                this.chunks.get(idx).invalidateGeometry();
+            }
+        }
+
+        if (rc.pickMode && rc.pickPoint != null) {
+            this.renderPickedPoint(rc);
+            return;
+        }
+
+        // Cull chunks by their bounding box before fetching their vertex buffers, so that only chunks in view have
+        // vertex buffers in the render resource cache.
+        for (int idx = 0, len = this.chunks.size(); idx < len; idx++) {
+            Chunk chunk = this.chunks.get(idx);
+            if (!chunk.boundingBox(rc).intersectsFrustum(rc.frustum)) {
+                continue; // the chunk is outside the frustum
+            }
+
+            BufferObject vertexBuffer = this.chunkVertexBuffer(rc, chunk);
+
+            // When picking in a rectangle, identify each chunk in the rectangle.
+            DrawablePointCloud drawable = this.makeDrawable(rc, chunk, vertexBuffer, 0, chunk.vertexCount);
+            if (rc.pickMode) {
+                int pickedObjectId = rc.nextPickedObjectId();
+                PickedObject.identifierToUniqueColor(pickedObjectId, drawable.pickColor);
+                rc.offerPickedObject(PickedObject.fromUserObject(pickedObjectId, new PickedPoint(this, chunk.chunkIndex, -1), rc.currentLayer));
+            }
+        }
+    }
+
+    protected void renderPickedPoint(RenderContext rc) {
+        // Find the point nearest the camera whose sprite contains the pick point. Only chunks intersecting the pick
+        // frustum are considered.
+        Chunk pickedChunk = null;
+        int pickedIndex = -1;
+        double pickedDepth = Double.POSITIVE_INFINITY;
+
+        for (int idx = 0, len = this.chunks.size(); idx < len; idx++) {
+            Chunk chunk = this.chunks.get(idx);
+            if (!chunk.boundingBox(rc).intersectsFrustum(rc.frustum)) {
+                continue; // the chunk is outside the pick frustum
+            }
+
+            for (int pidx = 0; pidx < chunk.vertexCount; pidx++) {
+                chunk.getCartesianPoint(rc, pidx, this.scratchPoint);
+                if (!rc.project(this.scratchPoint, this.scratchScreenPoint)) {
+                    continue; // clipped by the near plane or the far plane
+                }
+
+                double dx = this.scratchScreenPoint.x - rc.pickPoint.x;
+                double dy = this.scratchScreenPoint.y - rc.pickPoint.y;
+                double radius = Math.max(chunk.getSize(pidx) * 0.5, 1);
+                if (dx * dx + dy * dy <= radius * radius && this.scratchScreenPoint.z < pickedDepth) {
+                    pickedChunk = chunk;
+                    pickedIndex = pidx;
+                    pickedDepth = this.scratchScreenPoint.z;
+                }
+            }
+        }
+
+        if (pickedChunk == null) {
+            return; // no point under the pick point
+        }
+
+        // Draw the picked point alone with a unique pick color, so that the picked point's visibility is determined
+        // against the other objects in the scene.
+        BufferObject vertexBuffer = this.chunkVertexBuffer(rc, pickedChunk);
+        DrawablePointCloud drawable = this.makeDrawable(rc, pickedChunk, vertexBuffer, pickedIndex, 1);
+        int pickedObjectId = rc.nextPickedObjectId();
+        PickedObject.identifierToUniqueColor(pickedObjectId, drawable.pickColor);
+        rc.offerPickedObject(PickedObject.fromUserObject(pickedObjectId, new PickedPoint(this, pickedChunk.chunkIndex, pickedIndex), rc.currentLayer));
+    }
+
+    protected BufferObject chunkVertexBuffer(RenderContext rc, Chunk chunk) {
+        // Assemble the chunk's vertex buffer when the buffer has not been assembled or has been evicted from the render
+        // resource cache, or when points have been added since the buffer was assembled.
+        BufferObject vertexBuffer = rc.getBufferObject(chunk.vertexBufferKey);
+        if (vertexBuffer == null || chunk.vertexCount != chunk.count) {
+            vertexBuffer = chunk.assembleVertexBuffer(rc);
+            rc.putBufferObject(chunk.vertexBufferKey, vertexBuffer);
+        }
+
+        return vertexBuffer;
+    }
+
+    protected DrawablePointCloud makeDrawable(RenderContext rc, Chunk chunk, BufferObject vertexBuffer, int first, int count) {
+        // Obtain a drawable from the render context pool.
+        Pool<DrawablePointCloud> pool = rc.getDrawablePool(DrawablePointCloud.class);
+        DrawablePointCloud drawable = DrawablePointCloud.obtain(pool);
+
+        // Use the point cloud GLSL program to draw the points.
+        drawable.program = (PointCloudProgram) rc.getShaderProgram(PointCloudProgram.KEY);
+        if (drawable.program == null) {
+            drawable.program = (PointCloudProgram) rc.putShaderProgram(PointCloudProgram.KEY, new PointCloudProgram(rc.resources));
+        }
+
+        // Configure the drawable to display the chunk's points.
+        drawable.vertexBuffer = vertexBuffer;
+        drawable.vertexOrigin.set(chunk.vertexOrigin);
+        drawable.colorOffset = chunk.vertexCount * 12;
+        drawable.sizeOffset = chunk.vertexCount * 16;
+        drawable.first = first;
+        drawable.count = count;
+        drawable.enableDepthTest = this.enableDepthTest;
+
+        // Enqueue the drawable for processing on the OpenGL thread.
+        double cameraDistance = chunk.boundingBox.distanceTo(rc.cameraPoint);
+        rc.offerShapeDrawable(drawable, cameraDistance);
+
+        return drawable;
+    }
+
+    /**
+     * Identifies a picked point, or a picked chunk of points when picking in a screen rectangle.
+     */
+    public static class PickedPoint {
+
+        protected PointCloud pointCloud;
+
+        protected int chunkIndex;
+
+        protected int index;
+
+        public PickedPoint(PointCloud pointCloud, int chunkIndex, int index) {
+            this.pointCloud = pointCloud;
+            this.chunkIndex = chunkIndex;
+            this.index = index;
+        }
+
+        public PointCloud getPointCloud() {
+            return this.pointCloud;
+        }
+
+        /**
+         * Indicates the index of the chunk containing the picked point.
+         */
+        public int getChunkIndex() {
+            return this.chunkIndex;
+        }
+
+        /**
+         * Indicates the index of the picked point within its chunk, or -1 if the entire chunk is picked.
+         */
+        public int getIndex() {
+            return this.index;
+        }
+
+        /**
+         * Indicates the ID of the picked point, or -1 if the entire chunk is picked.
+         */
+        public long getPointId() {
+            return (this.index >= 0) ? (long) this.chunkIndex * this.pointCloud.chunkCapacity + this.index : -1;
+        }
+
+        @Override
+        public String toString() {
+            return "PickedPoint{" +
+                "chunkIndex=" + this.chunkIndex +
+                ", index=" + this.index +
+                '}';
+        }
+    }
+
+    /**
+     * A group of points in the same geographic tile, stored as arrays of locations, colors and sizes. Locations are
+     * stored relative to the chunk's reference location, preserving their precision as floats. The chunk tracks its
+     * points' geographic extent as they're added, from which its bounding box is computed without visiting the points.
+     */
+    protected static class Chunk {
+
+        public final int chunkIndex;
+
+        public final double refLatitude;
+
+        public final double refLongitude;
+
+        public final int maxCount;
+
+        public int count;
+
+        /**
+         * The points' latitude and longitude relative to the reference location, and altitude.
+         */
+        public FloatBuffer locations;
+
+        /**
+         * The points' colors as RGBA bytes.
+         */
+        public ByteBuffer colors;
+
+        /**
+         * The points' diameters in pixels as unsigned bytes.
+         */
+        public ByteBuffer sizes;
+
+        public Object vertexBufferKey = new Object();
+
+        public int vertexCount;
+
+        public Vec3 vertexOrigin = new Vec3();
+
+        public double minLatitude = Double.POSITIVE_INFINITY;
+
+        public double maxLatitude = Double.NEGATIVE_INFINITY;
+
+        public double minLongitude = Double.POSITIVE_INFINITY;
+
+        public double maxLongitude = Double.NEGATIVE_INFINITY;
+
+        public double minAltitude = Double.POSITIVE_INFINITY;
+
+        public double maxAltitude = Double.NEGATIVE_INFINITY;
+
+        public BoundingBox boundingBox = new BoundingBox();
+
+        public int boundingBoxCount = -1;
+
+        public Chunk(int chunkIndex, double refLatitude, double refLongitude, int maxCount) {
+            this.chunkIndex = chunkIndex;
+            this.refLatitude = refLatitude;
+            this.refLongitude = refLongitude;
+            this.maxCount = maxCount;
+            this.allocate(Math.min(INITIAL_CHUNK_CAPACITY, maxCount));
+        }
+
+        public int addPoint(double latitude, double longitude, double altitude, Color color, float size) {
+            if (this.count == this.colors.capacity() / 4) {
+                this.allocate(Math.min(this.count * 2, this.maxCount));
+            }
+
+            this.minLatitude = Math.min(this.minLatitude, latitude);
+            this.maxLatitude = Math.max(this.maxLatitude, latitude);
+            this.minLongitude = Math.min(this.minLongitude, longitude);
+            this.maxLongitude = Math.max(this.maxLongitude, longitude);
+            this.minAltitude = Math.min(this.minAltitude, altitude);
+            this.maxAltitude = Math.max(this.maxAltitude, altitude);
+
+            int index = this.count++;
+            this.locations.put(index * 3, (float) (latitude - this.refLatitude));
+            this.locations.put(index * 3 + 1, (float) (longitude - this.refLongitude));
+            this.locations.put(index * 3 + 2, (float) altitude);
+            this.colors.put(index * 4, (byte) Math.round(color.red * 0xFF));
+            this.colors.put(index * 4 + 1, (byte) Math.round(color.green * 0xFF));
+            this.colors.put(index * 4 + 2, (byte) Math.round(color.blue * 0xFF));
+            this.colors.put(index * 4 + 3, (byte) Math.round(color.alpha * 0xFF));
+            this.sizes.put(index, (byte) Math.round(Math.max(0, Math.min(size, 0xFF))));
+
+            return index;
+        }
+
+        public Position getPosition(int index, Position result) {
+            return result.set(
+                this.refLatitude + this.locations.get(index * 3),
+                this.refLongitude + this.locations.get(index * 3 + 1),
+                this.locations.get(index * 3 + 2));
+        }
+
+        public Color getColor(int index, Color result) {
+            return result.set(
+                (this.colors.get(index * 4) & 0xFF) / (float) 0xFF,
+                (this.colors.get(index * 4 + 1) & 0xFF) / (float) 0xFF,
+                (this.colors.get(index * 4 + 2) & 0xFF) / (float) 0xFF,
+                (this.colors.get(index * 4 + 3) & 0xFF) / (float) 0xFF);
+        }
+
+        public int getSize(int index) {
+            return this.sizes.get(index) & 0xFF;
+        }
+
+        public Vec3 getCartesianPoint(RenderContext rc, int index, Vec3 result) {
+            return rc.globe.geographicToCartesian(
+                this.refLatitude + this.locations.get(index * 3),
+                this.refLongitude + this.locations.get(index * 3 + 1),
+                this.locations.get(index * 3 + 2) * rc.verticalExaggeration, result);
+        }
+
+        public void invalidateGeometry() {
+            this.vertexBufferKey = new Object();
+            this.vertexCount = 0;
+            this.boundingBoxCount = -1;
+        }
+
+        /**
+         * Returns the chunk's bounding box, computing it from the chunk's geographic extent when points have been added
+         * or the geometry has been invalidated since the box was computed.
+         */
+        public BoundingBox boundingBox(RenderContext rc) {
+            if (this.boundingBoxCount != this.count) {
+                // Sectors must have a non-zero extent. Pad the extent of chunks whose points share a latitude or a
+                // longitude by a negligible amount.
+                double deltaLat = Math.max(this.maxLatitude - this.minLatitude, MIN_SECTOR_DELTA);
+                double deltaLon = Math.max(this.maxLongitude - this.minLongitude, MIN_SECTOR_DELTA);
+                Sector sector = new Sector(this.minLatitude, this.minLongitude, deltaLat, deltaLon);
+                this.boundingBox.setToSector(sector, rc.globe,
+                    (float) (this.minAltitude * rc.verticalExaggeration),
+                    (float) (this.maxAltitude * rc.verticalExaggeration));
+                this.boundingBoxCount = this.count;
+            }
+
+            return this.boundingBox;
+        }
+
+        public BufferObject assembleVertexBuffer(RenderContext rc) {
+            int count = this.count;
+            float[] points = new float[count * 3]; // retained only while the buffer is assembled
+            Vec3 point = new Vec3();
+
+            // Use the chunk's first point as the local origin for vertex positions.
+            this.getCartesianPoint(rc, 0, this.vertexOrigin);
+
+            for (int idx = 0, offset = 0; idx < count; idx++) {
+                this.getCartesianPoint(rc, idx, point);
+                points[offset++] = (float) (point.x - this.vertexOrigin.x);
+                points[offset++] = (float) (point.y - this.vertexOrigin.y);
+                points[offset++] = (float) (point.z - this.vertexOrigin.z);
+            }
+
+            // Store the points, colors and sizes as consecutive arrays in a single buffer.
+            int size = count * 17;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+            buffer.asFloatBuffer().put(points);
+            buffer.position(count * 12);
+            buffer.put((ByteBuffer) this.colors.duplicate().position(0).limit(count * 4));
+            buffer.put((ByteBuffer) this.sizes.duplicate().position(0).limit(count));
+            buffer.rewind();
+
+            this.vertexCount = count;
+            return new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer);
+        }
+
+        protected void allocate(int capacity) {
+            FloatBuffer newLocations = ByteBuffer.allocateDirect(capacity * 12).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            ByteBuffer newColors = ByteBuffer.allocateDirect(capacity * 4);
+            ByteBuffer newSizes = ByteBuffer.allocateDirect(capacity);
+
+            if (this.count > 0) {
+                newLocations.put((FloatBuffer) this.locations.duplicate().position(0).limit(this.count * 3)).rewind();
+                newColors.put((ByteBuffer) this.colors.duplicate().position(0).limit(this.count * 4)).rewind();
+                newSizes.put((ByteBuffer) this.sizes.duplicate().position(0).limit(this.count)).rewind();
+            }
+
+            this.locations = newLocations;
+            this.colors = newColors;
+            this.sizes = newSizes;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import android.opengl.GLES20;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +24,7 @@ import gov.nasa.worldwind.geom.Location;
 import gov.nasa.worldwind.geom.Matrix3;
 import gov.nasa.worldwind.geom.Matrix4;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.render.BasicShaderProgram;
 import gov.nasa.worldwind.render.BufferObject;
@@ -30,17 +32,25 @@ import gov.nasa.worldwind.render.ImageOptions;
 import gov.nasa.worldwind.render.RenderContext;
 import gov.nasa.worldwind.render.Texture;
 import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.IntArray;
 import gov.nasa.worldwind.util.Logger;
 import gov.nasa.worldwind.util.Pool;
-import gov.nasa.worldwind.util.ShortArray;
 import gov.nasa.worldwind.util.glu.GLU;
 import gov.nasa.worldwind.util.glu.GLUtessellator;
 import gov.nasa.worldwind.util.glu.GLUtessellatorCallbackAdapter;
 
-public class Polygon extends AbstractShape {
+public class Polygon extends AbstractShape implements Boundable, RayPickable {
 
     protected static final int VERTEX_STRIDE = 6;
 
+    protected static final int TOP_SECTION = 0;
+
+    protected static final int SIDE_SECTION = 1;
+
+    protected static final int OUTLINE_SECTION = 2;
+
+    protected static final int VERTICAL_SECTION = 3;
+
     protected static final ImageOptions defaultInteriorImageOptions = new ImageOptions();
 
     protected static final ImageOptions defaultOutlineImageOptions = new ImageOptions();
@@ -53,13 +63,25 @@ public class Polygon extends AbstractShape {
 
     protected FloatArray vertexArray = new FloatArray();
 
-    protected ShortArray topElements = new ShortArray();
+    protected IntArray topElements = new IntArray();
+
+    protected IntArray sideElements = new IntArray();
+
+    protected IntArray outlineElements = new IntArray();
+
+    protected IntArray verticalElements = new IntArray();
 
-    protected ShortArray sideElements = new ShortArray();
+    protected SimplifiedPositions simplifiedPositions = new SimplifiedPositions(true /*closed*/);
 
-    protected ShortArray outlineElements = new ShortArray();
+    protected int assembledLevel = SimplifiedPositions.FULL_RESOLUTION;
 
-    protected ShortArray verticalElements = new ShortArray();
+    protected List<ShapeChunker.Chunk> chunks;
+
+    protected int elementType;
+
+    protected int[] sectionOffsets = new int[4];
+
+    protected int[] sectionCounts = new int[4];
 
     protected Object vertexBufferKey = nextCacheKey();
 
@@ -184,6 +206,7 @@ public class Polygon extends AbstractShape {
                 Logger.logMessage(Logger.ERROR, "Polygon", "setBoundary", "missingList"));
         }
 
+        this.simplifiedPositions.invalidate();
         this.reset();
 
         return this.boundaries.set(index, positions);
@@ -196,6 +219,7 @@ public class Polygon extends AbstractShape {
         }
 
         this.boundaries.add(positions);
+        this.simplifiedPositions.invalidate();
         this.reset();
     }
 
@@ -211,6 +235,7 @@ public class Polygon extends AbstractShape {
         }
 
         this.boundaries.add(index, positions);
+        this.simplifiedPositions.invalidate();
         this.reset();
     }
 
@@ -220,6 +245,7 @@ public class Polygon extends AbstractShape {
                 Logger.logMessage(Logger.ERROR, "Polygon", "removeBoundary", "invalidIndex"));
         }
 
+        this.simplifiedPositions.invalidate();
         this.reset();
 
         return this.boundaries.remove(index);
@@ -227,6 +253,7 @@ public class Polygon extends AbstractShape {
 
     public void clearBoundaries() {
         this.boundaries.clear();
+        this.simplifiedPositions.invalidate();
         this.reset();
     }
 
@@ -248,12 +275,35 @@ public class Polygon extends AbstractShape {
         this.reset();
     }
 
+    @Override
+    public Sector getBoundingSector(Sector result) {
+        result.setEmpty();
+
+        for (int idx = 0, len = this.boundaries.size(); idx < len; idx++) {
+            this.unionBoundingSector(this.boundaries.get(idx), true, result);
+        }
+
+        return result;
+    }
+
+    @Override
+    public double getMaximumAltitude() {
+        double maxAltitude = 0;
+
+        for (int idx = 0, len = this.boundaries.size(); idx < len; idx++) {
+            maxAltitude = this.maximumAltitude(this.boundaries.get(idx), maxAltitude);
+        }
+
+        return maxAltitude;
+    }
+
     protected void reset() {
         this.vertexArray.clear();
         this.topElements.clear();
         this.sideElements.clear();
         this.outlineElements.clear();
         this.verticalElements.clear();
+        this.chunks = null;
     }
 
     @Override
@@ -262,12 +312,44 @@ public class Polygon extends AbstractShape {
             return; // nothing to draw
         }
 
+        // Select the level of detail for the polygon's size on screen, and assemble the polygon's geometry again when
+        // the level changes.
+        int level = this.selectLevelOfDetail(rc);
+        if (this.assembledLevel != level) {
+            this.assembledLevel = level;
+            this.reset();
+        }
+
         if (this.mustAssembleGeometry(rc)) {
             this.assembleGeometry(rc);
             this.vertexBufferKey = nextCacheKey();
             this.elementBufferKey = nextCacheKey();
+            this.chunks = null;
         }
 
+        // Compute the distance to the render camera.
+        if (this.isSurfaceShape) {
+            this.cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
+        } else {
+            this.cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
+        }
+
+        // Draw the polygon with a single drawable when its elements fit in 16-bit indices or when 32-bit indices are
+        // supported. Otherwise draw the polygon in chunks that each fit in 16-bit indices.
+        int vertexCount = this.vertexArray.size() / VERTEX_STRIDE;
+        if (vertexCount <= ShapeChunker.MAX_CHUNK_VERTICES || rc.elementIndexUint) {
+            this.offerDrawable(rc, null /*chunk*/);
+        } else {
+            if (this.chunks == null) {
+                this.chunks = this.chunkGeometry();
+            }
+            for (int idx = 0, len = this.chunks.size(); idx < len; idx++) {
+                this.offerDrawable(rc, this.chunks.get(idx));
+            }
+        }
+    }
+
+    protected void offerDrawable(RenderContext rc, ShapeChunker.Chunk chunk) {
         // Obtain a drawable form the render context pool.
         Drawable drawable;
         DrawShapeState drawState;
@@ -275,13 +357,11 @@ public class Polygon extends AbstractShape {
             Pool<DrawableSurfaceShape> pool = rc.getDrawablePool(DrawableSurfaceShape.class);
             drawable = DrawableSurfaceShape.obtain(pool);
             drawState = ((DrawableSurfaceShape) drawable).drawState;
-            this.cameraDistance = this.cameraDistanceGeographic(rc, this.boundingSector);
             ((DrawableSurfaceShape) drawable).sector.set(this.boundingSector);
         } else {
             Pool<DrawableShape> pool = rc.getDrawablePool(DrawableShape.class);
             drawable = DrawableShape.obtain(pool);
             drawState = ((DrawableShape) drawable).drawState;
-            this.cameraDistance = this.cameraDistanceCartesian(rc, this.vertexArray.array(), this.vertexArray.size(), VERTEX_STRIDE, this.vertexOrigin);
         }
 
         // Use the basic GLSL program to draw the shape.
@@ -290,27 +370,16 @@ public class Polygon extends AbstractShape {
             drawState.program = (BasicShaderProgram) rc.putShaderProgram(BasicShaderProgram.KEY, new BasicShaderProgram(rc.resources));
         }
 
-        // Assemble the drawable's OpenGL vertex buffer object.
-        drawState.vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
-        if (drawState.vertexBuffer == null) {
-            int size = this.vertexArray.size() * 4;
-            FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
-            buffer.put(this.vertexArray.array(), 0, this.vertexArray.size());
-            drawState.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.vertexBufferKey, drawState.vertexBuffer);
-        }
-
-        // Assemble the drawable's OpenGL element buffer object.
-        drawState.elementBuffer = rc.getBufferObject(this.elementBufferKey);
-        if (drawState.elementBuffer == null) {
-            int size = (this.topElements.size() * 2) + (this.sideElements.size() * 2) + (this.outlineElements.size() * 2) + (this.verticalElements.size() * 2);
-            ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
-            buffer.put(this.topElements.array(), 0, this.topElements.size());
-            buffer.put(this.sideElements.array(), 0, this.sideElements.size());
-            buffer.put(this.outlineElements.array(), 0, this.outlineElements.size());
-            buffer.put(this.verticalElements.array(), 0, this.verticalElements.size());
-            drawState.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
-            rc.putBufferObject(this.elementBufferKey, drawState.elementBuffer);
+        if (chunk == null) {
+            // Assemble the drawable's OpenGL vertex buffer object and element buffer object.
+            this.assembleBuffers(rc, drawState);
+        } else {
+            // Use the chunk's OpenGL vertex buffer object and element buffer object.
+            drawState.vertexBuffer = chunk.vertexBuffer(rc);
+            drawState.elementBuffer = chunk.elementBuffer(rc);
+            this.elementType = GLES20.GL_UNSIGNED_SHORT;
+            System.arraycopy(chunk.sectionOffsets, 0, this.sectionOffsets, 0, 4);
+            System.arraycopy(chunk.sectionCounts, 0, this.sectionCounts, 0, 4);
         }
 
         if (this.isSurfaceShape || this.activeAttributes.interiorColor.alpha >= 1.0) {
@@ -323,7 +392,7 @@ public class Polygon extends AbstractShape {
 
         // Configure the drawable according to the shape's attributes. Disable triangle backface culling when we're
         // displaying a polygon without extruded sides, so we want to draw the top and the bottom.
-        drawState.vertexOrigin.set(this.vertexOrigin);
+        drawState.vertexOrigin.set((chunk != null) ? chunk.vertexOrigin : this.vertexOrigin);
         drawState.vertexStride = VERTEX_STRIDE * 4; // stride in bytes
         drawState.enableCullFace = this.extrude;
         drawState.enableDepthTest = this.activeAttributes.depthTest;
@@ -336,6 +405,70 @@ public class Polygon extends AbstractShape {
         }
     }
 
+    protected void assembleBuffers(RenderContext rc, DrawShapeState drawState) {
+        // Use 32-bit element indices when the vertices exceed the range of 16-bit indices.
+        int vertexCount = this.vertexArray.size() / VERTEX_STRIDE;
+        this.elementType = (vertexCount > ShapeChunker.MAX_CHUNK_VERTICES) ? GLES20.GL_UNSIGNED_INT : GLES20.GL_UNSIGNED_SHORT;
+        this.sectionOffsets[TOP_SECTION] = 0;
+        this.sectionCounts[TOP_SECTION] = this.topElements.size();
+        this.sectionOffsets[SIDE_SECTION] = this.topElements.size();
+        this.sectionCounts[SIDE_SECTION] = this.sideElements.size();
+        this.sectionOffsets[OUTLINE_SECTION] = this.topElements.size() + this.sideElements.size();
+        this.sectionCounts[OUTLINE_SECTION] = this.outlineElements.size();
+        this.sectionOffsets[VERTICAL_SECTION] = this.topElements.size() + this.sideElements.size() + this.outlineElements.size();
+        this.sectionCounts[VERTICAL_SECTION] = this.verticalElements.size();
+
+        // Assemble the drawable's OpenGL vertex buffer object.
+        drawState.vertexBuffer = rc.getBufferObject(this.vertexBufferKey);
+        if (drawState.vertexBuffer == null) {
+            int size = this.vertexArray.size() * 4;
+            FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            buffer.put(this.vertexArray.array(), 0, this.vertexArray.size());
+            drawState.vertexBuffer = new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer.rewind());
+            rc.putBufferObject(this.vertexBufferKey, drawState.vertexBuffer);
+        }
+
+        // Assemble the drawable's OpenGL element buffer object.
+        drawState.elementBuffer = rc.getBufferObject(this.elementBufferKey);
+        if (drawState.elementBuffer == null) {
+            int count = this.topElements.size() + this.sideElements.size() + this.outlineElements.size() + this.verticalElements.size();
+            if (this.elementType == GLES20.GL_UNSIGNED_INT) {
+                int size = count * 4;
+                IntBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asIntBuffer();
+                buffer.put(this.topElements.array(), 0, this.topElements.size());
+                buffer.put(this.sideElements.array(), 0, this.sideElements.size());
+                buffer.put(this.outlineElements.array(), 0, this.outlineElements.size());
+                buffer.put(this.verticalElements.array(), 0, this.verticalElements.size());
+                drawState.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+            } else {
+                int size = count * 2;
+                ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
+                putShorts(buffer, this.topElements);
+                putShorts(buffer, this.sideElements);
+                putShorts(buffer, this.outlineElements);
+                putShorts(buffer, this.verticalElements);
+                drawState.elementBuffer = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+            }
+            rc.putBufferObject(this.elementBufferKey, drawState.elementBuffer);
+        }
+    }
+
+    protected static void putShorts(ShortBuffer buffer, IntArray elements) {
+        int[] array = elements.array();
+        for (int idx = 0, len = elements.size(); idx < len; idx++) {
+            buffer.put((short) array[idx]);
+        }
+    }
+
+    protected List<ShapeChunker.Chunk> chunkGeometry() {
+        ShapeChunker chunker = new ShapeChunker(this.vertexArray.array(), this.vertexArray.size() / VERTEX_STRIDE, VERTEX_STRIDE, this.vertexOrigin);
+        chunker.addSection(GLES20.GL_TRIANGLES, this.topElements.array(), 0, this.topElements.size());
+        chunker.addSection(GLES20.GL_TRIANGLES, this.sideElements.array(), 0, this.sideElements.size());
+        chunker.addSection(GLES20.GL_LINES, this.outlineElements.array(), 0, this.outlineElements.size());
+        chunker.addSection(GLES20.GL_LINES, this.verticalElements.array(), 0, this.verticalElements.size());
+        return chunker.chunk();
+    }
+
     protected void drawInterior(RenderContext rc, DrawShapeState drawState) {
         if (!this.activeAttributes.drawInterior) {
             return;
@@ -360,14 +493,14 @@ public class Polygon extends AbstractShape {
         // Configure the drawable to display the shape's interior top.
         drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.interiorColor);
         drawState.texCoordAttrib(2 /*size*/, 12 /*offset in bytes*/);
-        drawState.drawElements(GLES20.GL_TRIANGLES, this.topElements.size(),
-            GLES20.GL_UNSIGNED_SHORT, 0 /*offset*/);
+        drawState.drawElements(GLES20.GL_TRIANGLES, this.sectionCounts[TOP_SECTION],
+            this.elementType, this.sectionOffsets[TOP_SECTION] * this.elementSize() /*offset*/);
 
         // Configure the drawable to display the shape's interior sides.
         if (this.extrude) {
             drawState.texture(null);
-            drawState.drawElements(GLES20.GL_TRIANGLES, this.sideElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, this.topElements.size() * 2 /*offset*/);
+            drawState.drawElements(GLES20.GL_TRIANGLES, this.sectionCounts[SIDE_SECTION],
+                this.elementType, this.sectionOffsets[SIDE_SECTION] * this.elementSize() /*offset*/);
         }
     }
 
@@ -396,16 +529,71 @@ public class Polygon extends AbstractShape {
         drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
         drawState.lineWidth(this.activeAttributes.outlineWidth);
         drawState.texCoordAttrib(1 /*size*/, 20 /*offset in bytes*/);
-        drawState.drawElements(GLES20.GL_LINES, this.outlineElements.size(),
-            GLES20.GL_UNSIGNED_SHORT, (this.topElements.size() * 2) + (this.sideElements.size() * 2) /*offset*/);
+        drawState.drawElements(GLES20.GL_LINES, this.sectionCounts[OUTLINE_SECTION],
+            this.elementType, this.sectionOffsets[OUTLINE_SECTION] * this.elementSize() /*offset*/);
 
         // Configure the drawable to display the shape's extruded verticals.
         if (this.activeAttributes.drawVerticals && this.extrude) {
             drawState.color(rc.pickMode ? this.pickColor : this.activeAttributes.outlineColor);
             drawState.lineWidth(this.activeAttributes.outlineWidth);
             drawState.texture(null);
-            drawState.drawElements(GLES20.GL_LINES, this.verticalElements.size(),
-                GLES20.GL_UNSIGNED_SHORT, (this.topElements.size() * 2) + (this.sideElements.size() * 2) + (this.outlineElements.size() * 2) /*offset*/);
+            drawState.drawElements(GLES20.GL_LINES, this.sectionCounts[VERTICAL_SECTION],
+                this.elementType, this.sectionOffsets[VERTICAL_SECTION] * this.elementSize() /*offset*/);
+        }
+    }
+
+    protected int elementSize() {
+        return (this.elementType == GLES20.GL_UNSIGNED_INT) ? 4 : 2;
+    }
+
+    @Override
+    public boolean intersectsPickRay(RenderContext rc, double tolerance, Vec3 result) {
+        this.determineActiveAttributes(rc);
+        if (this.activeAttributes == null || this.vertexArray.size() == 0) {
+            return false; // nothing displayed
+        }
+
+        // Intersect the geometry most recently displayed.
+        ShapePicker picker = new ShapePicker(rc, this.vertexArray.array(), VERTEX_STRIDE, this.vertexOrigin, this.isSurfaceShape, tolerance);
+
+        if (this.activeAttributes.drawInterior) {
+            picker.pickSection(GLES20.GL_TRIANGLES, this.topElements.array(), 0, this.topElements.size(), 0);
+        }
+
+        if (this.activeAttributes.drawInterior && this.extrude) {
+            picker.pickSection(GLES20.GL_TRIANGLES, this.sideElements.array(), 0, this.sideElements.size(), 0);
+        }
+
+        if (this.activeAttributes.drawOutline) {
+            picker.pickSection(GLES20.GL_LINES, this.outlineElements.array(), 0, this.outlineElements.size(),
+                this.activeAttributes.outlineWidth);
+        }
+
+        if (this.activeAttributes.drawOutline && this.activeAttributes.drawVerticals && this.extrude) {
+            picker.pickSection(GLES20.GL_LINES, this.verticalElements.array(), 0, this.verticalElements.size(),
+                this.activeAttributes.outlineWidth);
+        }
+
+        return picker.nearestIntersection(result);
+    }
+
+    protected int selectLevelOfDetail(RenderContext rc) {
+        if (!this.levelOfDetailEnabled) {
+            return SimplifiedPositions.FULL_RESOLUTION;
+        }
+
+        double tolerance = this.levelOfDetailTolerance(rc);
+        return this.simplifiedPositions.selectLevel(this.boundaries, tolerance);
+    }
+
+    /**
+     * Returns the positions of a boundary displayed at the assembled level of detail.
+     */
+    protected List<Position> levelBoundary(int index) {
+        if (this.assembledLevel == SimplifiedPositions.FULL_RESOLUTION) {
+            return this.boundaries.get(index);
+        } else {
+            return this.simplifiedPositions.getPositions(this.assembledLevel, index);
         }
     }
 
@@ -438,7 +626,7 @@ public class Polygon extends AbstractShape {
 
         for (int boundaryIdx = 0, boundaryCount = this.boundaries.size(); boundaryIdx < boundaryCount; boundaryIdx++) {
 
-            List<Position> positions = this.boundaries.get(boundaryIdx);
+            List<Position> positions = this.levelBoundary(boundaryIdx);
             if (positions.isEmpty()) {
                 continue; // no boundary positions to assemble
             }
@@ -579,8 +767,8 @@ public class Polygon extends AbstractShape {
             }
 
             if (this.extrude && type == VERTEX_ORIGINAL) {
-                this.verticalElements.add((short) vertex);
-                this.verticalElements.add((short) (vertex + 1));
+                this.verticalElements.add(vertex);
+                this.verticalElements.add(vertex + 1);
             }
         }
 
@@ -593,7 +781,7 @@ public class Polygon extends AbstractShape {
 
         for (int boundaryIdx = 0, boundaryCount = this.boundaries.size(); boundaryIdx < boundaryCount; boundaryIdx++) {
 
-            List<Position> positions = this.boundaries.get(boundaryIdx);
+            List<Position> positions = this.levelBoundary(boundaryIdx);
             if (positions.isEmpty()) {
                 continue; // no boundary positions
             }
@@ -636,32 +824,32 @@ public class Polygon extends AbstractShape {
         int v1 = this.tessVertices[1];
         int v2 = this.tessVertices[2];
 
-        this.topElements.add((short) v0).add((short) v1).add((short) v2);
+        this.topElements.add(v0).add(v1).add(v2);
 
         if (this.tessEdgeFlags[0] && this.extrude && !this.isSurfaceShape) {
-            this.sideElements.add((short) v0).add((short) (v0 + 1)).add((short) v1);
-            this.sideElements.add((short) v1).add((short) (v0 + 1)).add((short) (v1 + 1));
+            this.sideElements.add(v0).add(v0 + 1).add(v1);
+            this.sideElements.add(v1).add(v0 + 1).add(v1 + 1);
         }
         if (this.tessEdgeFlags[1] && this.extrude && !this.isSurfaceShape) {
-            this.sideElements.add((short) v1).add((short) (v1 + 1)).add((short) v2);
-            this.sideElements.add((short) v2).add((short) (v1 + 1)).add((short) (v2 + 1));
+            this.sideElements.add(v1).add(v1 + 1).add(v2);
+            this.sideElements.add(v2).add(v1 + 1).add(v2 + 1);
         }
         if (this.tessEdgeFlags[2] && this.extrude && !this.isSurfaceShape) {
-            this.sideElements.add((short) v2).add((short) (v2 + 1)).add((short) v0);
-            this.sideElements.add((short) v0).add((short) (v2 + 1)).add((short) (v0 + 1));
+            this.sideElements.add(v2).add(v2 + 1).add(v0);
+            this.sideElements.add(v0).add(v2 + 1).add(v0 + 1);
         }
 
         if (this.tessEdgeFlags[0]) {
-            this.outlineElements.add((short) v0);
-            this.outlineElements.add((short) v1);
+            this.outlineElements.add(v0);
+            this.outlineElements.add(v1);
         }
         if (this.tessEdgeFlags[1]) {
-            this.outlineElements.add((short) v1);
-            this.outlineElements.add((short) v2);
+            this.outlineElements.add(v1);
+            this.outlineElements.add(v2);
         }
         if (this.tessEdgeFlags[2]) {
-            this.outlineElements.add((short) v2);
-            this.outlineElements.add((short) v0);
+            this.outlineElements.add(v2);
+            this.outlineElements.add(v0);
         }
     }
 
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.render.RenderContext;
+
+/**
+ * Renderable that can be picked geometrically, by intersecting a pick ray with the geometry it most recently
+ * displayed, rather than by drawing the renderable in a unique color and reading back the color buffer.
+ */
+public interface RayPickable {
+
+    /**
+     * Computes the nearest intersection of the render context's pick ray with this renderable. The render context
+     * specifies the current viewing state, the pick ray in {@code rc.pickRay} and the pick point in OpenGL screen
+     * coordinates in {@code rc.pickPoint}. Renderables that have not yet been displayed have no geometry to intersect.
+     * <p/>
+     * Lines and screen-space shapes are considered to intersect the pick ray when they're within the specified
+     * tolerance of the pick point on screen. Renderables draped on the terrain return the terrain point beneath the pick
+     * point.
+     *
+     * @param rc        the current render context
+     * @param tolerance the distance in screen pixels within which lines and screen-space shapes intersect the pick ray
+     * @param result    a pre-allocated {@link Vec3} in which to return the intersection point in Cartesian coordinates
+     *
+     * @return true if the pick ray intersects this renderable, otherwise false
+     */
+    boolean intersectsPickRay(RenderContext rc, double tolerance, Vec3 result);
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.render.BufferObject;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.FloatArray;
+import gov.nasa.worldwind.util.IntArray;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.ShortArray;
+
+/**
+ * Divides shape geometry with more vertices than 16-bit element indices can address into chunks drawn with 16-bit
+ * indices. Shapes use ShapeChunker when their geometry exceeds {@link #MAX_CHUNK_VERTICES} and the OpenGL context does
+ * not support 32-bit element indices.
+ * <p/>
+ * ShapeChunker accepts a shape's vertex array, whose first three values per vertex are coordinates relative to the
+ * shape's vertex origin, and one or more sections of elements, each drawn with a single OpenGL primitive mode. Each
+ * chunk contains a copy of the vertices its elements refer to, with coordinates relative to the chunk's own vertex
+ * origin, and the elements of each section that fit in the chunk. Vertices referenced by more than one chunk are
+ * duplicated, and line strips and triangle strips continue in the next chunk from their last segment or triangle.
+ */
+public class ShapeChunker {
+
+    /**
+     * The maximum number of vertices addressed by 16-bit element indices.
+     */
+    public static final int MAX_CHUNK_VERTICES = 65536;
+
+    protected float[] vertexArray;
+
+    protected int vertexStride;
+
+    protected Vec3 vertexOrigin = new Vec3();
+
+    protected int maxChunkVertices = MAX_CHUNK_VERTICES;
+
+    protected ArrayList<Section> sections = new ArrayList<>();
+
+    protected ArrayList<Chunk> chunks = new ArrayList<>();
+
+    protected Chunk chunk;
+
+    protected IntArray chunkVertices = new IntArray();
+
+    protected int[] vertexMap = new int[0];
+
+    /**
+     * Constructs a chunker for a shape's vertex array.
+     *
+     * @param vertexArray  the shape's vertex values
+     * @param vertexCount  the number of vertices in the vertex array
+     * @param vertexStride the number of values per vertex, at least three
+     * @param vertexOrigin the origin of the vertex coordinates
+     *
+     * @throws IllegalArgumentException If the vertex array is null or has insufficient length, if the stride is less
+     *                                  than three, or if the origin is null
+     */
+    public ShapeChunker(float[] vertexArray, int vertexCount, int vertexStride, Vec3 vertexOrigin) {
+        if (vertexStride < 3) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeChunker", "constructor", "invalidStride"));
+        }
+
+        if (vertexArray == null || vertexCount < 0 || vertexArray.length < vertexCount * vertexStride) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeChunker", "constructor", "missingArray"));
+        }
+
+        if (vertexOrigin == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeChunker", "constructor", "missingVector"));
+        }
+
+        this.vertexArray = vertexArray;
+        this.vertexStride = vertexStride;
+        this.vertexOrigin.set(vertexOrigin);
+        this.vertexMap = new int[vertexCount];
+    }
+
+    public int getMaxChunkVertices() {
+        return this.maxChunkVertices;
+    }
+
+    /**
+     * Sets the maximum number of vertices in each chunk. The default is {@link #MAX_CHUNK_VERTICES}.
+     *
+     * @param maxChunkVertices the maximum number of vertices, at least three and at most MAX_CHUNK_VERTICES
+     *
+     * @return this chunker
+     *
+     * @throws IllegalArgumentException If the maximum is less than three or greater than MAX_CHUNK_VERTICES
+     */
+    public ShapeChunker setMaxChunkVertices(int maxChunkVertices) {
+        if (maxChunkVertices < 3 || maxChunkVertices > MAX_CHUNK_VERTICES) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeChunker", "setMaxChunkVertices", "invalidCount"));
+        }
+
+        this.maxChunkVertices = maxChunkVertices;
+        return this;
+    }
+
+    /**
+     * Adds a section of elements drawn with a single primitive mode. Chunks contain the sections in the order they're
+     * added, and identify each section by its index.
+     *
+     * @param mode     the primitive mode: GL_POINTS, GL_LINES, GL_LINE_STRIP, GL_TRIANGLES or GL_TRIANGLE_STRIP
+     * @param elements the element array
+     * @param start    the index of the section's first element
+     * @param count    the number of elements in the section
+     *
+     * @return this chunker
+     *
+     * @throws IllegalArgumentException If the mode is not supported, or if the elements are null or the range is
+     *                                  outside the element array
+     */
+    public ShapeChunker addSection(int mode, int[] elements, int start, int count) {
+        if (mode != GLES20.GL_POINTS && mode != GLES20.GL_LINES && mode != GLES20.GL_LINE_STRIP
+            && mode != GLES20.GL_TRIANGLES && mode != GLES20.GL_TRIANGLE_STRIP) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeChunker", "addSection", "invalidMode"));
+        }
+
+        if (elements == null || start < 0 || count < 0 || elements.length < start + count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapeChunker", "addSection", "missingArray"));
+        }
+
+        this.sections.add(new Section(mode, elements, start, count));
+        return this;
+    }
+
+    /**
+     * Divides the sections added to this chunker into chunks.
+     *
+     * @return the chunks, in order
+     */
+    public List<Chunk> chunk() {
+        this.chunks.clear();
+        this.chunk = null;
+        Arrays.fill(this.vertexMap, -1);
+
+        for (int idx = 0, len = this.sections.size(); idx < len; idx++) {
+            Section section = this.sections.get(idx);
+            switch (section.mode) {
+                case GLES20.GL_POINTS:
+                    this.chunkList(idx, section, 1);
+                    break;
+                case GLES20.GL_LINES:
+                    this.chunkList(idx, section, 2);
+                    break;
+                case GLES20.GL_TRIANGLES:
+                    this.chunkList(idx, section, 3);
+                    break;
+                case GLES20.GL_LINE_STRIP:
+                    this.chunkLineStrip(idx, section);
+                    break;
+                case GLES20.GL_TRIANGLE_STRIP:
+                    this.chunkTriangleStrip(idx, section);
+                    break;
+            }
+        }
+
+        if (this.chunk != null) {
+            this.finishChunk();
+        }
+
+        return new ArrayList<>(this.chunks);
+    }
+
+    protected void chunkList(int sectionIdx, Section section, int primSize) {
+        int[] elements = section.elements;
+
+        for (int idx = section.start, end = section.start + section.count - primSize; idx <= end; idx += primSize) {
+            this.ensureCapacity(elements, idx, primSize);
+            ShortArray chunkElements = this.chunk.sectionElements[sectionIdx];
+            for (int vidx = idx; vidx < idx + primSize; vidx++) {
+                chunkElements.add((short) this.mapVertex(elements[vidx]));
+            }
+        }
+    }
+
+    protected void chunkLineStrip(int sectionIdx, Section section) {
+        int[] elements = section.elements;
+        int start = section.start;
+        int end = start + section.count;
+
+        for (int idx = start; idx < end; idx++) {
+            if (this.chunk == null || this.vertexCapacity(elements, idx, 1) < 0) {
+                // Start a new chunk, continuing the strip from the previous element.
+                int first = Math.max(start, idx - 1);
+                if (this.chunk != null) {
+                    this.finishChunk();
+                }
+                this.beginChunk();
+                for (int vidx = first; vidx < idx; vidx++) {
+                    this.chunk.sectionElements[sectionIdx].add((short) this.mapVertex(elements[vidx]));
+                }
+            }
+
+            this.chunk.sectionElements[sectionIdx].add((short) this.mapVertex(elements[idx]));
+        }
+    }
+
+    protected void chunkTriangleStrip(int sectionIdx, Section section) {
+        int[] elements = section.elements;
+        int start = section.start;
+        int end = start + section.count;
+
+        for (int idx = start; idx < end; idx++) {
+            if (this.chunk == null || this.vertexCapacity(elements, idx, 1) < 0) {
+                // Start a new chunk, continuing the strip from the previous triangle. Triangles alternate winding
+                // order, so strips continuing from an odd triangle begin with a degenerate triangle to preserve it.
+                int first = Math.max(start, idx - 2);
+                if (this.chunk != null) {
+                    this.finishChunk();
+                }
+                this.beginChunk();
+                ShortArray chunkElements = this.chunk.sectionElements[sectionIdx];
+                if (first > start && ((first - start) % 2) != 0) {
+                    chunkElements.add((short) this.mapVertex(elements[first]));
+                }
+                for (int vidx = first; vidx < idx; vidx++) {
+                    chunkElements.add((short) this.mapVertex(elements[vidx]));
+                }
+            }
+
+            this.chunk.sectionElements[sectionIdx].add((short) this.mapVertex(elements[idx]));
+        }
+    }
+
+    protected void ensureCapacity(int[] elements, int start, int count) {
+        if (this.chunk == null) {
+            this.beginChunk();
+        } else if (this.vertexCapacity(elements, start, count) < 0) {
+            this.finishChunk();
+            this.beginChunk();
+        }
+    }
+
+    /**
+     * Returns the number of vertices remaining in the current chunk after adding the vertices referenced by a range of
+     * elements, or a negative number if the vertices don't fit.
+     */
+    protected int vertexCapacity(int[] elements, int start, int count) {
+        int newVertices = 0;
+        for (int idx = start; idx < start + count; idx++) {
+            if (this.vertexMap[elements[idx]] < 0) {
+                newVertices++;
+            }
+        }
+
+        return this.maxChunkVertices - this.chunkVertices.size() - newVertices;
+    }
+
+    protected int mapVertex(int vertex) {
+        int local = this.vertexMap[vertex];
+        if (local < 0) {
+            local = this.chunkVertices.size();
+            this.vertexMap[vertex] = local;
+            this.chunkVertices.add(vertex);
+        }
+
+        return local;
+    }
+
+    protected void beginChunk() {
+        this.chunk = new Chunk(this.sections.size());
+        this.chunkVertices.clear();
+    }
+
+    protected void finishChunk() {
+        Chunk chunk = this.chunk;
+        int[] vertices = this.chunkVertices.array();
+        int vertexCount = this.chunkVertices.size();
+        int stride = this.vertexStride;
+
+        // Use the chunk's first vertex as its origin, keeping the chunk's coordinates small. Compute the chunk's
+        // coordinates relative to its origin in double precision.
+        double ox = 0, oy = 0, oz = 0;
+        if (vertexCount > 0) {
+            int first = vertices[0] * stride;
+            ox = this.vertexArray[first];
+            oy = this.vertexArray[first + 1];
+            oz = this.vertexArray[first + 2];
+        }
+        chunk.vertexOrigin.set(this.vertexOrigin.x + ox, this.vertexOrigin.y + oy, this.vertexOrigin.z + oz);
+
+        for (int idx = 0; idx < vertexCount; idx++) {
+            int vertex = vertices[idx] * stride;
+            chunk.vertexArray.add((float) (this.vertexArray[vertex] - ox));
+            chunk.vertexArray.add((float) (this.vertexArray[vertex + 1] - oy));
+            chunk.vertexArray.add((float) (this.vertexArray[vertex + 2] - oz));
+            for (int vidx = vertex + 3, end = vertex + stride; vidx < end; vidx++) {
+                chunk.vertexArray.add(this.vertexArray[vidx]);
+            }
+            this.vertexMap[vertices[idx]] = -1; // clear the vertex map for the next chunk
+        }
+
+        // Concatenate the chunk's sections in a single element array.
+        for (int idx = 0, len = this.sections.size(); idx < len; idx++) {
+            ShortArray sectionElements = chunk.sectionElements[idx];
+            chunk.sectionOffsets[idx] = chunk.elementArray.size();
+            chunk.sectionCounts[idx] = sectionElements.size();
+            for (int eidx = 0, elen = sectionElements.size(); eidx < elen; eidx++) {
+                chunk.elementArray.add(sectionElements.get(eidx));
+            }
+            chunk.sectionElements[idx] = null;
+        }
+
+        this.chunks.add(chunk);
+        this.chunk = null;
+        this.chunkVertices.clear();
+    }
+
+    protected static class Section {
+
+        public final int mode;
+
+        public final int[] elements;
+
+        public final int start;
+
+        public final int count;
+
+        public Section(int mode, int[] elements, int start, int count) {
+            this.mode = mode;
+            this.elements = elements;
+            this.start = start;
+            this.count = count;
+        }
+    }
+
+    /**
+     * A portion of a shape's geometry drawn with 16-bit element indices.
+     */
+    public static class Chunk {
+
+        /**
+         * The origin of the chunk's vertex coordinates.
+         */
+        public final Vec3 vertexOrigin = new Vec3();
+
+        /**
+         * The chunk's vertices, with the same stride as the shape's vertices.
+         */
+        public final FloatArray vertexArray = new FloatArray();
+
+        /**
+         * The chunk's elements for every section, in order.
+         */
+        public final ShortArray elementArray = new ShortArray();
+
+        /**
+         * The index in the element array of each section's first element.
+         */
+        public final int[] sectionOffsets;
+
+        /**
+         * The number of elements in each section. Sections without elements in this chunk have a count of zero.
+         */
+        public final int[] sectionCounts;
+
+        protected ShortArray[] sectionElements;
+
+        protected final Object vertexBufferKey = new Object();
+
+        protected final Object elementBufferKey = new Object();
+
+        public Chunk(int sectionCount) {
+            this.sectionOffsets = new int[sectionCount];
+            this.sectionCounts = new int[sectionCount];
+            this.sectionElements = new ShortArray[sectionCount];
+            for (int idx = 0; idx < sectionCount; idx++) {
+                this.sectionElements[idx] = new ShortArray();
+            }
+        }
+
+        /**
+         * Returns this chunk's OpenGL vertex buffer object, creating it in the render context's resource cache when
+         * necessary.
+         */
+        public BufferObject vertexBuffer(RenderContext rc) {
+            BufferObject bufferObject = rc.getBufferObject(this.vertexBufferKey);
+            if (bufferObject == null) {
+                int size = this.vertexArray.size() * 4;
+                FloatBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asFloatBuffer();
+                buffer.put(this.vertexArray.array(), 0, this.vertexArray.size());
+                bufferObject = new BufferObject(GLES20.GL_ARRAY_BUFFER, size, buffer.rewind());
+                rc.putBufferObject(this.vertexBufferKey, bufferObject);
+            }
+
+            return bufferObject;
+        }
+
+        /**
+         * Returns this chunk's OpenGL element buffer object, creating it in the render context's resource cache when
+         * necessary.
+         */
+        public BufferObject elementBuffer(RenderContext rc) {
+            BufferObject bufferObject = rc.getBufferObject(this.elementBufferKey);
+            if (bufferObject == null) {
+                int size = this.elementArray.size() * 2;
+                ShortBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder()).asShortBuffer();
+                buffer.put(this.elementArray.array(), 0, this.elementArray.size());
+                bufferObject = new BufferObject(GLES20.GL_ELEMENT_ARRAY_BUFFER, size, buffer.rewind());
+                rc.putBufferObject(this.elementBufferKey, bufferObject);
+            }
+
+            return bufferObject;
+        }
+    }
+}
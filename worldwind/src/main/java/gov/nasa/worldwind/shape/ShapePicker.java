@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.WWMath;
+
+/**
+ * Intersects a pick ray with shape geometry, in order to pick shapes without drawing them. ShapePicker accepts a
+ * shape's vertex array, whose first three values per vertex are coordinates relative to the shape's vertex origin, and
+ * tests the pick ray against sections of triangles and lines referencing those vertices. It keeps the intersection
+ * nearest the ray's origin.
+ * <p/>
+ * Cartesian vertices are intersected with the pick ray in three dimensions. Lines intersect the pick ray when the ray
+ * passes within their half width plus the pick tolerance, in screen pixels at the distance of the nearest approach.
+ * Geographic vertices, whose coordinates are longitude, latitude and altitude as used by surface shapes, are tested
+ * against the terrain point beneath the pick point, and every intersection is that terrain point.
+ */
+public class ShapePicker {
+
+    protected float[] vertexArray;
+
+    protected int vertexStride;
+
+    protected boolean geographic;
+
+    protected double tolerance;
+
+    /**
+     * The ray's origin relative to the vertex origin, and its direction. Used for Cartesian vertices.
+     */
+    protected double ox, oy, oz, dx, dy, dz;
+
+    /**
+     * The pixel size in meters at a distance of one meter. Used for Cartesian vertices.
+     */
+    protected double pixelSizeFactor;
+
+    /**
+     * The terrain point's longitude and latitude relative to the vertex origin, the cosine of its latitude, and the
+     * pixel size in degrees at its distance. Used for geographic vertices.
+     */
+    protected double pickLon, pickLat, lonScale, pixelSizeDegrees;
+
+    protected double terrainDistance;
+
+    protected boolean pickable;
+
+    protected double nearestDistance = Double.POSITIVE_INFINITY;
+
+    protected Line ray = new Line();
+
+    protected Vec3 terrainPoint = new Vec3();
+
+    /**
+     * Constructs a picker that intersects the render context's pick ray with a shape's vertices.
+     *
+     * @param rc           the current render context, whose pick ray is intersected
+     * @param vertexArray  the shape's vertex values
+     * @param vertexStride the number of values per vertex, at least three
+     * @param vertexOrigin the origin of the vertex coordinates
+     * @param geographic   true if the vertex coordinates are longitude, latitude and altitude, otherwise false
+     * @param tolerance    the distance in screen pixels within which lines intersect the pick ray
+     *
+     * @throws IllegalArgumentException If the render context has no pick ray, if the vertex array or origin is null, or
+     *                                  if the stride is less than three
+     */
+    public ShapePicker(RenderContext rc, float[] vertexArray, int vertexStride, Vec3 vertexOrigin, boolean geographic, double tolerance) {
+        if (rc == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePicker", "constructor", "missingRenderContext"));
+        }
+
+        if (rc.pickRay == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePicker", "constructor", "missingLine"));
+        }
+
+        if (vertexArray == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePicker", "constructor", "missingArray"));
+        }
+
+        if (vertexStride < 3) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePicker", "constructor", "invalidStride"));
+        }
+
+        if (vertexOrigin == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePicker", "constructor", "missingVector"));
+        }
+
+        this.vertexArray = vertexArray;
+        this.vertexStride = vertexStride;
+        this.geographic = geographic;
+        this.tolerance = tolerance;
+        this.ray.set(rc.pickRay.origin, rc.pickRay.direction);
+        this.ray.direction.normalize();
+
+        if (geographic) {
+            this.pickable = this.prepareGeographic(rc, vertexOrigin);
+        } else {
+            this.ox = this.ray.origin.x - vertexOrigin.x;
+            this.oy = this.ray.origin.y - vertexOrigin.y;
+            this.oz = this.ray.origin.z - vertexOrigin.z;
+            this.dx = this.ray.direction.x;
+            this.dy = this.ray.direction.y;
+            this.dz = this.ray.direction.z;
+            this.pixelSizeFactor = rc.pixelSizeAtDistance(1);
+            this.pickable = true;
+        }
+    }
+
+    protected boolean prepareGeographic(RenderContext rc, Vec3 vertexOrigin) {
+        // Geographic vertices are draped on the terrain. Find the terrain point beneath the pick point, or the globe's
+        // surface point when terrain is unavailable.
+        boolean intersects = rc.terrain != null && rc.terrain.intersect(this.ray, this.terrainPoint);
+        if (!intersects && !rc.globe.intersect(this.ray, this.terrainPoint)) {
+            return false;
+        }
+
+        Position pos = rc.globe.cartesianToGeographic(this.terrainPoint.x, this.terrainPoint.y, this.terrainPoint.z, new Position());
+        double distance = this.terrainPoint.distanceTo(this.ray.origin);
+        this.pickLon = WWMath.normalizeAngle180(pos.longitude - vertexOrigin.x);
+        this.pickLat = pos.latitude - vertexOrigin.y;
+        this.lonScale = Math.cos(Math.toRadians(pos.latitude));
+        this.pixelSizeDegrees = Math.toDegrees(rc.pixelSizeAtDistance(distance) / rc.globe.getEquatorialRadius());
+        this.terrainDistance = distance;
+
+        return true;
+    }
+
+    /**
+     * Intersects the pick ray with a section of elements, drawn as a single OpenGL primitive.
+     *
+     * @param mode      the OpenGL primitive mode: GL_TRIANGLES, GL_TRIANGLE_STRIP, GL_LINES or GL_LINE_STRIP
+     * @param elements  the section's element array
+     * @param start     the index of the section's first element
+     * @param count     the number of elements in the section
+     * @param lineWidth the width in screen pixels of lines, ignored for triangles
+     *
+     * @return this picker
+     *
+     * @throws IllegalArgumentException If the mode is not supported, or if the elements are null or insufficient
+     */
+    public ShapePicker pickSection(int mode, int[] elements, int start, int count, double lineWidth) {
+        if (elements == null || start < 0 || count < 0 || elements.length < start + count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ShapePicker", "pickSection", "missingArray"));
+        }
+
+        switch (mode) {
+            case GLES20.GL_TRIANGLES:
+                for (int idx = start, end = start + count - 2; idx < end; idx += 3) {
+                    this.pickTriangle(elements[idx], elements[idx + 1], elements[idx + 2]);
+                }
+                break;
+            case GLES20.GL_TRIANGLE_STRIP:
+                for (int idx = start, end = start + count - 2; idx < end; idx++) {
+                    this.pickTriangle(elements[idx], elements[idx + 1], elements[idx + 2]);
+                }
+                break;
+            case GLES20.GL_LINES:
+                for (int idx = start, end = start + count - 1; idx < end; idx += 2) {
+                    this.pickSegment(elements[idx], elements[idx + 1], lineWidth);
+                }
+                break;
+            case GLES20.GL_LINE_STRIP:
+                for (int idx = start, end = start + count - 1; idx < end; idx++) {
+                    this.pickSegment(elements[idx], elements[idx + 1], lineWidth);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "ShapePicker", "pickSection", "invalidMode"));
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the intersection nearest the pick ray's origin.
+     *
+     * @param result a pre-allocated {@link Vec3} in which to return the intersection point in Cartesian coordinates
+     *
+     * @return true if the pick ray intersects any section, otherwise false
+     */
+    public boolean nearestIntersection(Vec3 result) {
+        if (this.nearestDistance == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+
+        if (this.geographic) {
+            result.set(this.terrainPoint);
+        } else {
+            this.ray.pointAt(this.nearestDistance, result);
+        }
+
+        return true;
+    }
+
+    protected void pickTriangle(int a, int b, int c) {
+        if (!this.pickable || a == b || b == c || a == c) {
+            return; // degenerate triangle
+        }
+
+        float[] array = this.vertexArray;
+        int va = a * this.vertexStride, vb = b * this.vertexStride, vc = c * this.vertexStride;
+
+        if (this.geographic) {
+            // Test whether the terrain point's longitude and latitude are inside the triangle, using the sign of each
+            // edge's cross product with the point.
+            double d1 = cross2(array[va], array[va + 1], array[vb], array[vb + 1], this.pickLon, this.pickLat);
+            double d2 = cross2(array[vb], array[vb + 1], array[vc], array[vc + 1], this.pickLon, this.pickLat);
+            double d3 = cross2(array[vc], array[vc + 1], array[va], array[va + 1], this.pickLon, this.pickLat);
+            boolean negative = (d1 < 0) || (d2 < 0) || (d3 < 0);
+            boolean positive = (d1 > 0) || (d2 > 0) || (d3 > 0);
+            if (!(negative && positive)) {
+                this.nearestDistance = this.terrainDistance;
+            }
+            return;
+        }
+
+        // Moller and Trumbore ray-triangle intersection, as in Line.triStripIntersection.
+        double v0x = array[va], v0y = array[va + 1], v0z = array[va + 2];
+        double e1x = array[vb] - v0x, e1y = array[vb + 1] - v0y, e1z = array[vb + 2] - v0z;
+        double e2x = array[vc] - v0x, e2y = array[vc + 1] - v0y, e2z = array[vc + 2] - v0z;
+        double px = (this.dy * e2z) - (this.dz * e2y);
+        double py = (this.dz * e2x) - (this.dx * e2z);
+        double pz = (this.dx * e2y) - (this.dy * e2x);
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (det > -1e-10 && det < 1e-10) {
+            return; // the ray lies in the plane of the triangle
+        }
+
+        double invDet = 1.0 / det;
+        double tx = this.ox - v0x, ty = this.oy - v0y, tz = this.oz - v0z;
+        double u = invDet * (tx * px + ty * py + tz * pz);
+        if (u < 0 || u > 1) {
+            return;
+        }
+
+        double qx = (ty * e1z) - (tz * e1y);
+        double qy = (tz * e1x) - (tx * e1z);
+        double qz = (tx * e1y) - (ty * e1x);
+        double v = invDet * (this.dx * qx + this.dy * qy + this.dz * qz);
+        if (v < 0 || u + v > 1) {
+            return;
+        }
+
+        double t = invDet * (e2x * qx + e2y * qy + e2z * qz);
+        if (t >= 0 && this.nearestDistance > t) {
+            this.nearestDistance = t;
+        }
+    }
+
+    protected void pickSegment(int a, int b, double lineWidth) {
+        if (!this.pickable) {
+            return;
+        }
+
+        float[] array = this.vertexArray;
+        int va = a * this.vertexStride, vb = b * this.vertexStride;
+        double halfWidth = this.tolerance + lineWidth * 0.5;
+
+        if (this.geographic) {
+            // Compute the distance in degrees between the terrain point and the segment, scaling longitudes by the
+            // cosine of the terrain point's latitude.
+            double ax = array[va] * this.lonScale, ay = array[va + 1];
+            double vx = array[vb] * this.lonScale - ax, vy = array[vb + 1] - ay;
+            double wx = this.pickLon * this.lonScale - ax, wy = this.pickLat - ay;
+            double c = vx * vx + vy * vy;
+            double s = (c > 0) ? WWMath.clamp((wx * vx + wy * vy) / c, 0, 1) : 0;
+            double ex = wx - s * vx, ey = wy - s * vy;
+            double maxDistance = this.pixelSizeDegrees * halfWidth;
+            if (ex * ex + ey * ey <= maxDistance * maxDistance) {
+                this.nearestDistance = this.terrainDistance;
+            }
+            return;
+        }
+
+        // Find the points of nearest approach between the ray and the segment. The ray's direction is normalized.
+        double ax = array[va], ay = array[va + 1], az = array[va + 2];
+        double vx = array[vb] - ax, vy = array[vb + 1] - ay, vz = array[vb + 2] - az;
+        double wx = this.ox - ax, wy = this.oy - ay, wz = this.oz - az;
+        double dv = this.dx * vx + this.dy * vy + this.dz * vz;
+        double vv = vx * vx + vy * vy + vz * vz;
+        double dw = this.dx * wx + this.dy * wy + this.dz * wz;
+        double vw = vx * wx + vy * wy + vz * wz;
+        double denom = vv - dv * dv;
+        double s = (denom > 1e-10 && vv > 0) ? WWMath.clamp((vw - dv * dw) / denom, 0, 1) : 0;
+        double t = s * dv - dw;
+        if (t < 0) {
+            t = 0;
+            s = (vv > 0) ? WWMath.clamp(vw / vv, 0, 1) : 0;
+        }
+
+        // The segment intersects the ray when the ray passes within the segment's half width plus the tolerance, in
+        // pixels at the distance of the nearest approach.
+        double ex = wx + t * this.dx - s * vx;
+        double ey = wy + t * this.dy - s * vy;
+        double ez = wz + t * this.dz - s * vz;
+        double maxDistance = this.pixelSizeFactor * t * halfWidth;
+        if (t > 0 && ex * ex + ey * ey + ez * ez <= maxDistance * maxDistance && this.nearestDistance > t) {
+            this.nearestDistance = t;
+        }
+    }
+
+    protected static double cross2(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.util.LineSimplifier;
+import gov.nasa.worldwind.util.TaskService;
+
+/**
+ * Levels of detail for a shape's lists of positions. SimplifiedPositions computes the Douglas-Peucker significance of
+ * each position on a background thread, then provides simplified position lists for levels of detail selected by a
+ * tolerance in radians. Level tolerances are powers of four, so that a shape's level changes only when its screen size
+ * changes by a factor of four. Simplified lists are cached until the positions change.
+ * <p/>
+ * SimplifiedPositions is not thread safe, apart from its background computation, and is used on the rendering thread.
+ * Lists with fewer than a minimum number of positions in total are not simplified.
+ */
+public class SimplifiedPositions {
+
+    /**
+     * Level of detail indicating the shape's original positions.
+     */
+    public static final int FULL_RESOLUTION = Integer.MIN_VALUE;
+
+    protected static final int DEFAULT_MINIMUM_POSITIONS = 256;
+
+    protected static final double LOG_LEVEL_BASE = Math.log(4);
+
+    protected final boolean closed;
+
+    protected int minimumPositions = DEFAULT_MINIMUM_POSITIONS;
+
+    protected double[][] significance;
+
+    protected int[] significanceCounts;
+
+    /**
+     * The number of positions trimmed from the beginning of the first list since its significance was computed.
+     */
+    protected int trimmedCount;
+
+    /**
+     * The number of positions trimmed from the beginning of the first list since the positions were last invalidated.
+     */
+    protected int totalTrimmedCount;
+
+    protected int version;
+
+    /**
+     * Incremented when the levels of detail are assembled again from new significance, rather than updated in place as
+     * positions are added or trimmed.
+     */
+    protected int levelVersion;
+
+    protected boolean computing;
+
+    protected volatile Result result;
+
+    protected HashMap<Integer, Level> levels = new HashMap<>();
+
+    /**
+     * Constructs levels of detail for lines or for rings of positions.
+     *
+     * @param closed true if the position lists are rings, as for polygon boundaries, false if they're lines
+     */
+    public SimplifiedPositions(boolean closed) {
+        this.closed = closed;
+    }
+
+    public int getMinimumPositions() {
+        return this.minimumPositions;
+    }
+
+    public void setMinimumPositions(int minimumPositions) {
+        this.minimumPositions = minimumPositions;
+    }
+
+    /**
+     * Indicates the version of the levels of detail. The version changes when the positions are invalidated and when
+     * new significance is applied, either of which may change the simplified positions at every level. It does not
+     * change when positions are added or trimmed, which update the levels in place.
+     *
+     * @return the levels' version
+     */
+    public int getLevelVersion() {
+        return this.levelVersion;
+    }
+
+    /**
+     * Discards the significance of the current positions, after the position lists are replaced or modified.
+     */
+    public void invalidate() {
+        this.version++;
+        this.levelVersion++;
+        this.significance = null;
+        this.significanceCounts = null;
+        this.trimmedCount = 0;
+        this.totalTrimmedCount = 0;
+        this.levels.clear();
+    }
+
+    /**
+     * Indicates that positions have been added to the end of the last list. Added positions are retained at every
+     * level of detail until the significance is computed again, so the simplified lines at each level are extended
+     * with the added positions. Rings are assembled again, since adding a position changes their closing segment.
+     *
+     * @param lists the position lists, including the added positions
+     */
+    public void positionsAdded(List<? extends List<Position>> lists) {
+        if (this.closed) {
+            this.levels.clear();
+            return;
+        }
+
+        int last = lists.size() - 1;
+        for (Iterator<Level> iter = this.levels.values().iterator(); iter.hasNext(); ) {
+            Level level = iter.next();
+            if (level.lists.size() == lists.size()) {
+                level.append(lists.get(last), last, this.totalTrimmedCount);
+            } else {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Indicates that positions have been removed from the beginning of the first list. The simplified lines at each
+     * level are trimmed in place. A level is assembled again when the first remaining position, which every level
+     * retains, was omitted from the level.
+     *
+     * @param lists the position lists, excluding the removed positions
+     * @param count the number of positions removed
+     */
+    public void positionsTrimmed(List<? extends List<Position>> lists, int count) {
+        this.trimmedCount += count;
+        this.totalTrimmedCount += count;
+
+        if (this.closed) {
+            this.levels.clear();
+            return;
+        }
+
+        for (Iterator<Level> iter = this.levels.values().iterator(); iter.hasNext(); ) {
+            Level level = iter.next();
+            if (level.lists.size() != lists.size() || !level.trim(lists.get(0), count, this.totalTrimmedCount)) {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Selects the level of detail for a tolerance. Returns {@link #FULL_RESOLUTION} when the lists are too small to
+     * simplify, when their significance has not yet been computed, or when the level retains every position. Starts
+     * computing the lists' significance in the background when necessary.
+     *
+     * @param lists     the position lists
+     * @param tolerance the largest acceptable distance in radians between the simplified lists and the original lists
+     *
+     * @return the level of detail
+     */
+    public int selectLevel(List<? extends List<Position>> lists, double tolerance) {
+        this.applyResult();
+
+        int positionCount = 0;
+        for (int idx = 0, len = lists.size(); idx < len; idx++) {
+            positionCount += lists.get(idx).size();
+        }
+
+        if (positionCount < this.minimumPositions) {
+            return FULL_RESOLUTION; // too few positions to simplify
+        }
+
+        if (this.mustComputeSignificance(lists) && !this.computing) {
+            this.computeSignificance(lists);
+        }
+
+        if (this.significance == null || this.significance.length != lists.size() || !(tolerance > 0)) {
+            return FULL_RESOLUTION; // significance unavailable, or no tolerance
+        }
+
+        int level = (int) Math.floor(Math.log(tolerance) / LOG_LEVEL_BASE);
+        Level simplified = this.levels.get(level);
+        if (simplified == null) {
+            simplified = this.assembleLevel(lists, Math.pow(4, level));
+            this.levels.put(level, simplified);
+        }
+
+        return (simplified.count == positionCount) ? FULL_RESOLUTION : level;
+    }
+
+    /**
+     * Returns a simplified list of positions for a level of detail returned by {@link #selectLevel}.
+     *
+     * @param level the level of detail
+     * @param index the index of the position list
+     *
+     * @return the simplified positions, or null if the level is unavailable
+     */
+    public List<Position> getPositions(int level, int index) {
+        Level simplified = this.levels.get(level);
+        return (simplified != null) ? simplified.lists.get(index) : null;
+    }
+
+    protected boolean mustComputeSignificance(List<? extends List<Position>> lists) {
+        if (this.significance == null || this.significance.length != lists.size()) {
+            return true;
+        }
+
+        // Compute the significance again once a quarter of the positions have been added or trimmed since it was
+        // computed. Positions added since then are retained at every level, and reduce the benefit of simplifying.
+        int computedCount = 0;
+        int currentCount = 0;
+        for (int idx = 0, len = lists.size(); idx < len; idx++) {
+            computedCount += this.significanceCounts[idx];
+            currentCount += lists.get(idx).size();
+        }
+
+        int changedCount = Math.abs(currentCount + this.trimmedCount - computedCount) + this.trimmedCount;
+        return changedCount * 4 > computedCount;
+    }
+
+    protected void computeSignificance(List<? extends List<Position>> lists) {
+        // Copy the positions' coordinates on this thread, then compute their significance in the background.
+        final int listCount = lists.size();
+        final double[][] latitudes = new double[listCount][];
+        final double[][] longitudes = new double[listCount][];
+        for (int idx = 0; idx < listCount; idx++) {
+            List<Position> positions = lists.get(idx);
+            int count = positions.size();
+            latitudes[idx] = new double[count];
+            longitudes[idx] = new double[count];
+            for (int pidx = 0; pidx < count; pidx++) {
+                Position pos = positions.get(pidx);
+                latitudes[idx][pidx] = pos.latitude;
+                longitudes[idx][pidx] = pos.longitude;
+            }
+        }
+
+        final int version = this.version;
+        final int totalTrimmedCount = this.totalTrimmedCount;
+        this.computing = true;
+
+        try {
+            this.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Result result = new Result(version, totalTrimmedCount, new double[listCount][], new int[listCount]);
+                    for (int idx = 0; idx < listCount; idx++) {
+                        int count = latitudes[idx].length;
+                        result.significance[idx] = LineSimplifier.computeSignificance(
+                            latitudes[idx], longitudes[idx], count, closed, new double[count]);
+                        result.counts[idx] = count;
+                    }
+
+                    SimplifiedPositions.this.result = result;
+                    SimplifiedPositions.this.requestRedraw();
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            this.computing = false; // try again in the next frame
+        }
+    }
+
+    protected void execute(Runnable task) {
+        WorldWind.taskService().execute(TaskService.DECODE, task);
+    }
+
+    protected void requestRedraw() {
+        WorldWind.requestRedraw();
+    }
+
+    protected void applyResult() {
+        Result result = this.result;
+        if (result == null) {
+            return;
+        }
+
+        this.result = null;
+        this.computing = false;
+
+        if (result.version == this.version) {
+            this.significance = result.significance;
+            this.significanceCounts = result.counts;
+            this.trimmedCount = this.totalTrimmedCount - result.totalTrimmedCount;
+            this.levels.clear();
+            this.levelVersion++;
+        }
+    }
+
+    protected Level assembleLevel(List<? extends List<Position>> lists, double tolerance) {
+        Level result = new Level(lists.size());
+
+        for (int idx = 0, len = lists.size(); idx < len; idx++) {
+            List<Position> positions = lists.get(idx);
+            double[] significance = this.significance[idx];
+            int significanceCount = this.significanceCounts[idx];
+            int offset = (idx == 0) ? this.trimmedCount : 0;
+            List<Position> simplified = result.lists.get(idx);
+
+            // Retain the first position, the positions whose significance is at least the tolerance, and positions
+            // added since the significance was computed. Lines retain their last position.
+            for (int pidx = 0, count = positions.size(); pidx < count; pidx++) {
+                int sidx = pidx + offset;
+                if (pidx == 0 || (!this.closed && pidx == count - 1) || sidx >= significanceCount
+                    || significance[sidx] >= tolerance) {
+                    result.add(idx, positions.get(pidx), pidx + this.totalTrimmedCount);
+                }
+            }
+
+            // Omit rings simplified to fewer than three positions. Such rings are smaller than the tolerance.
+            if (this.closed && simplified.size() < 3) {
+                result.count -= simplified.size();
+                simplified.clear();
+                if (idx == 0) {
+                    result.firstEnd = result.firstStart;
+                }
+            }
+        }
+
+        result.lastSourceCount = lists.get(lists.size() - 1).size();
+
+        return result;
+    }
+
+    /**
+     * Simplified position lists for one level of detail.
+     */
+    protected static class Level {
+
+        public final List<List<Position>> lists;
+
+        /**
+         * The total number of positions in the simplified lists.
+         */
+        public int count;
+
+        /**
+         * The number of positions in the last original list that the level has considered.
+         */
+        public int lastSourceCount;
+
+        /**
+         * The indices of the first simplified list's positions in the first original list, counting positions trimmed
+         * since the positions were last invalidated. Valid from firstStart to firstEnd.
+         */
+        public int[] firstIndices = new int[16];
+
+        public int firstStart;
+
+        public int firstEnd;
+
+        public Level(int listCount) {
+            this.lists = new ArrayList<>(listCount);
+            for (int idx = 0; idx < listCount; idx++) {
+                this.lists.add(new ArrayList<Position>());
+            }
+        }
+
+        public void add(int listIndex, Position position, int sourceIndex) {
+            this.lists.get(listIndex).add(position);
+            this.count++;
+
+            if (listIndex == 0) {
+                if (this.firstEnd == this.firstIndices.length) {
+                    this.compactFirstIndices();
+                }
+                this.firstIndices[this.firstEnd++] = sourceIndex;
+            }
+        }
+
+        protected void compactFirstIndices() {
+            int size = this.firstEnd - this.firstStart;
+            if (size * 2 > this.firstIndices.length) {
+                int[] newArray = new int[this.firstIndices.length * 2];
+                System.arraycopy(this.firstIndices, this.firstStart, newArray, 0, size);
+                this.firstIndices = newArray;
+            } else { // reclaim the indices of trimmed positions
+                System.arraycopy(this.firstIndices, this.firstStart, this.firstIndices, 0, size);
+            }
+
+            this.firstStart = 0;
+            this.firstEnd = size;
+        }
+
+        /**
+         * Appends the positions added to the end of the last original list.
+         */
+        public void append(List<Position> positions, int listIndex, int totalTrimmedCount) {
+            for (int pidx = this.lastSourceCount, len = positions.size(); pidx < len; pidx++) {
+                this.add(listIndex, positions.get(pidx), pidx + totalTrimmedCount);
+            }
+
+            this.lastSourceCount = positions.size();
+        }
+
+        /**
+         * Removes the positions trimmed from the beginning of the first original list. Returns false when the first
+         * remaining position is not in the level, in which case the level must be assembled again.
+         */
+        public boolean trim(List<Position> positions, int count, int totalTrimmedCount) {
+            int start = this.firstStart;
+            while (start < this.firstEnd && this.firstIndices[start] < totalTrimmedCount) {
+                start++;
+            }
+
+            this.lists.get(0).subList(0, start - this.firstStart).clear();
+            this.count -= start - this.firstStart;
+            this.firstStart = start;
+
+            if (this.lists.size() == 1) {
+                this.lastSourceCount -= count;
+            }
+
+            if (positions.isEmpty()) {
+                return true;
+            } else {
+                return this.firstStart < this.firstEnd && this.firstIndices[this.firstStart] == totalTrimmedCount;
+            }
+        }
+    }
+
+    protected static class Result {
+
+        public final int version;
+
+        public final int totalTrimmedCount;
+
+        public final double[][] significance;
+
+        public final int[] counts;
+
+        public Result(int version, int totalTrimmedCount, double[][] significance, int[] counts) {
+            this.version = version;
+            this.totalTrimmedCount = totalTrimmedCount;
+            this.significance = significance;
+            this.counts = counts;
+        }
+    }
+}
@@ -180,7 +180,8 @@ public class TiledSurfaceImage extends AbstractRenderable {
 
         Texture texture = rc.getTexture(imageSource); // try to get the texture from the cache
         if (texture == null) {
-            texture = rc.retrieveTexture(imageSource, this.imageOptions); // puts retrieved textures in the cache
+            // puts retrieved textures in the cache, retrieving textures nearest the camera first
+            texture = rc.retrieveTexture(imageSource, this.imageOptions, tile.getDistanceToCamera());
         }
 
         if (texture != null) { // use the tile's own texture
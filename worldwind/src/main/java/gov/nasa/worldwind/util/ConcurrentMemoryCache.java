@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+/**
+ * Memory cache that may be accessed by multiple threads with little contention. The cache is not lock-free: entries
+ * are distributed across a fixed number of stripes according to their key's hash code, and each stripe is an {@link
+ * LruMemoryCache} guarded by its own synchronized block. Threads accessing keys in different stripes never wait on each
+ * other, and each stripe evicts a batch of entries down to its low-water value when it fills, so eviction is rare and
+ * bounded by the size of one stripe.
+ * <p/>
+ * When the cache has more than one stripe, half of its capacity and low-water value is reserved for a shared segment,
+ * and the stripes divide the remainder equally. Entries too large to fit in a stripe are placed in the shared segment,
+ * which is locked independently of the stripes and is only consulted while it holds entries. As with LruMemoryCache,
+ * an entry larger than the shared segment's capacity evicts every other entry in that segment but is still cached.
+ * <p/>
+ * Eviction order is least recently used within each stripe and within the shared segment, rather than across the whole
+ * cache.
+ */
+public class ConcurrentMemoryCache<K, V> extends LruMemoryCache<K, V> {
+
+    protected static final int DEFAULT_STRIPE_COUNT = 4;
+
+    protected Stripe<K, V>[] stripes;
+
+    protected Stripe<K, V> shared; // null when the cache has one stripe
+
+    protected Stripe<K, V>[] segments; // the stripes followed by the shared segment
+
+    protected int stripeMask;
+
+    protected int stripeCapacity;
+
+    protected volatile int sharedEntryCount; // read without the shared segment's lock
+
+    public ConcurrentMemoryCache(int capacity) {
+        this(capacity, (int) (capacity * 0.75), DEFAULT_STRIPE_COUNT);
+    }
+
+    public ConcurrentMemoryCache(int capacity, int lowWater) {
+        this(capacity, lowWater, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Constructs a concurrent memory cache with a specified number of stripes. The stripe count is rounded down to a
+     * power of two, and is reduced if necessary so that each stripe has a capacity of at least one. Caches with more
+     * than one stripe reserve half of their capacity for entries too large to fit in a stripe.
+     *
+     * @param capacity    the cache's capacity
+     * @param lowWater    the used capacity the cache is reduced to when it fills
+     * @param stripeCount the number of independently locked stripes
+     *
+     * @throws IllegalArgumentException If the capacity is less than 1, if the low-water value is invalid, or if the
+     *                                  stripe count is less than 1
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentMemoryCache(int capacity, int lowWater, int stripeCount) {
+        super(capacity, lowWater);
+
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "ConcurrentMemoryCache", "constructor", "invalidCount"));
+        }
+
+        stripeCount = Integer.highestOneBit(Math.min(stripeCount, Math.max(1, capacity / 2)));
+        this.stripes = new Stripe[stripeCount];
+        this.segments = new Stripe[(stripeCount > 1) ? stripeCount + 1 : 1];
+        this.stripeMask = stripeCount - 1;
+
+        int stripedCapacity = capacity;
+        int stripedLowWater = lowWater;
+        if (stripeCount > 1) {
+            this.shared = new Stripe<>(this, capacity / 2, lowWater / 2);
+            this.segments[stripeCount] = this.shared;
+            stripedCapacity -= capacity / 2;
+            stripedLowWater -= lowWater / 2;
+        }
+
+        this.stripeCapacity = stripedCapacity / stripeCount;
+        for (int idx = 0; idx < stripeCount; idx++) {
+            this.stripes[idx] = new Stripe<>(this, this.stripeCapacity, stripedLowWater / stripeCount);
+            this.segments[idx] = this.stripes[idx];
+        }
+    }
+
+    @Override
+    public int getUsedCapacity() {
+        int usedCapacity = 0;
+
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                usedCapacity += stripe.getUsedCapacity();
+            }
+        }
+
+        return usedCapacity;
+    }
+
+    @Override
+    public int getEntryCount() {
+        int entryCount = 0;
+
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                entryCount += stripe.getEntryCount();
+            }
+        }
+
+        return entryCount;
+    }
+
+    @Override
+    public boolean isSegmented() {
+        Stripe<K, V> stripe = this.stripes[0];
+        synchronized (stripe) {
+            return stripe.isSegmented();
+        }
+    }
+
+    @Override
+    public void setSegmented(boolean segmented) {
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                stripe.setSegmented(segmented);
+            }
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        long hitCount = 0;
+
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                hitCount += stripe.getHitCount();
+            }
+        }
+
+        return hitCount;
+    }
+
+    @Override
+    public long getMissCount() {
+        long missCount = 0;
+
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                missCount += stripe.getMissCount();
+            }
+        }
+
+        return missCount;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        long evictionCount = 0;
+
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                evictionCount += stripe.getEvictionCount();
+            }
+        }
+
+        return evictionCount;
+    }
+
+    @Override
+    public void resetStatistics() {
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                stripe.resetStatistics();
+            }
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        Stripe<K, V> stripe = this.stripeFor(key);
+        synchronized (stripe) {
+            if (this.sharedEntryCount == 0 || stripe.containsKey(key)) {
+                return stripe.get(key);
+            }
+        }
+
+        synchronized (this.shared) {
+            return this.shared.get(key);
+        }
+    }
+
+    @Override
+    public V put(K key, V value, int size) {
+        Stripe<K, V> stripe = this.stripeFor(key);
+        V oldValue;
+
+        if (this.shared != null && size > this.stripeCapacity) { // the entry can never fit in its stripe
+            synchronized (stripe) {
+                oldValue = stripe.remove(key);
+            }
+
+            synchronized (this.shared) {
+                V sharedValue = this.shared.put(key, value, size);
+                this.sharedEntryCount = this.shared.getEntryCount();
+                return (sharedValue != null) ? sharedValue : oldValue;
+            }
+        }
+
+        synchronized (stripe) {
+            oldValue = stripe.put(key, value, size);
+        }
+
+        return (this.sharedEntryCount > 0) ? this.removeShared(key, oldValue) : oldValue;
+    }
+
+    @Override
+    public V remove(K key) {
+        Stripe<K, V> stripe = this.stripeFor(key);
+        V oldValue;
+        synchronized (stripe) {
+            oldValue = stripe.remove(key);
+        }
+
+        return (this.sharedEntryCount > 0) ? this.removeShared(key, oldValue) : oldValue;
+    }
+
+    @Override
+    public int trimToAge(long maxAgeMillis) {
+        int trimmedCapacity = 0;
+
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                trimmedCapacity += stripe.trimToAge(maxAgeMillis);
+            }
+        }
+
+        this.updateSharedEntryCount();
+
+        return trimmedCapacity;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Stripe<K, V> stripe = this.stripeFor(key);
+        synchronized (stripe) {
+            if (stripe.containsKey(key)) {
+                return true;
+            }
+        }
+
+        if (this.sharedEntryCount > 0) {
+            synchronized (this.shared) {
+                return this.shared.containsKey(key);
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe<K, V> stripe : this.segments) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+
+        this.updateSharedEntryCount();
+    }
+
+    @Override
+    protected void resetEntries() {
+        super.resetEntries();
+
+        if (this.segments != null) { // called by the superclass constructor before the stripes exist
+            for (Stripe<K, V> stripe : this.segments) {
+                synchronized (stripe) {
+                    stripe.resetEntries();
+                }
+            }
+
+            this.updateSharedEntryCount();
+        }
+    }
+
+    protected V removeShared(K key, V stripeValue) {
+        synchronized (this.shared) {
+            V sharedValue = this.shared.remove(key);
+            this.sharedEntryCount = this.shared.getEntryCount();
+            return (sharedValue != null) ? sharedValue : stripeValue;
+        }
+    }
+
+    protected void updateSharedEntryCount() {
+        if (this.shared != null) {
+            synchronized (this.shared) {
+                this.sharedEntryCount = this.shared.getEntryCount();
+            }
+        }
+    }
+
+    protected Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16); // spread the high bits of the hash code into the bits used to select a stripe
+        return this.stripes[hash & this.stripeMask];
+    }
+
+    protected static class Stripe<K, V> extends LruMemoryCache<K, V> {
+
+        protected final ConcurrentMemoryCache<K, V> owner;
+
+        public Stripe(ConcurrentMemoryCache<K, V> owner, int capacity, int lowWater) {
+            super(capacity, Math.min(lowWater, capacity - 1));
+            this.owner = owner;
+        }
+
+        @Override
+        protected void entryRemoved(K key, V oldValue, V newValue, boolean evicted) {
+            this.owner.entryRemoved(key, oldValue, newValue, evicted);
+        }
+    }
+}
@@ -0,0 +1,586 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Size-bounded file cache that persists remote resources in a local directory. Entries are identified by a string key,
+ * typically the resource's URL, and are evicted in least recently used order when the cache exceeds its capacity.
+ * Entries also expire once they are older than the cache's maximum age, after which the cache reports them as absent
+ * so that callers retrieve a fresh copy of the resource.
+ * <p/>
+ * DiskCache records its entries in an index file that survives application restarts. Entries are written to a
+ * temporary file and then atomically moved into place, so readers never observe a partially written entry. Files
+ * returned by {@link #get(String)} may be read concurrently on any thread, but may be evicted at any time; readers must
+ * treat a missing or unreadable file as a cache miss.
+ */
+public class DiskCache {
+
+    protected static final String INDEX_FILE_NAME = "index";
+
+    protected static final String INDEX_HEADER = "gov.nasa.worldwind.DiskCache 2";
+
+    protected static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    protected static final int INDEX_WRITE_INTERVAL = 64;
+
+    protected static final long DEFAULT_MAX_AGE = 1000 * 60 * 60 * 24 * 7L; // one week
+
+    protected final Object lock = new Object();
+
+    protected final Object indexLock = new Object();
+
+    protected final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order
+
+    // The entries' keys and write times, read by containsKey without the cache lock.
+    protected final ConcurrentHashMap<String, Long> keys = new ConcurrentHashMap<>();
+
+    protected final AtomicInteger tempFileNumber = new AtomicInteger();
+
+    protected File directory;
+
+    protected long capacity;
+
+    protected long lowWater;
+
+    protected volatile long maxAge; // read by containsKey without the cache lock
+
+    protected long usedCapacity;
+
+    protected int indexChanges;
+
+    public DiskCache(File directory, long capacity) {
+        this(directory, capacity, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Constructs a disk cache whose entries expire after a specified age. Entries recorded in the directory's index
+     * that are older than the maximum age are deleted when the cache is opened.
+     *
+     * @param directory the cache directory
+     * @param capacity  the cache capacity in bytes
+     * @param maxAge    the maximum entry age in milliseconds
+     *
+     * @throws IllegalArgumentException If the directory is null, or if the capacity or the age is less than 1
+     */
+    public DiskCache(File directory, long capacity, long maxAge) {
+        if (directory == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "constructor", "missingPathName"));
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "constructor", "invalidCapacity"));
+        }
+
+        if (maxAge < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "constructor", "invalidMaxAge"));
+        }
+
+        this.directory = directory;
+        this.capacity = capacity;
+        this.maxAge = maxAge;
+        this.lowWater = (long) (capacity * 0.75);
+        this.readIndex();
+
+        Logger.log(Logger.INFO, String.format(Locale.US, "DiskCache initialized  %,.0f KB  (%,.0f KB used) \'%s\'",
+            this.capacity / 1024.0, this.usedCapacity / 1024.0, this.directory));
+    }
+
+    /**
+     * Returns a capacity appropriate for a disk cache in the specified directory. The capacity is a fraction of the
+     * space available on the directory's file system, limited to the range 32 MB to 512 MB.
+     *
+     * @param directory the cache directory
+     *
+     * @return the recommended capacity in bytes
+     */
+    public static long recommendedCapacity(File directory) {
+        long minCapacity = 1024 * 1024 * 32L;
+        long maxCapacity = 1024 * 1024 * 512L;
+        long usableSpace = (directory != null) ? directory.getUsableSpace() : 0; // 0 if the directory does not exist
+        return Math.max(minCapacity, Math.min(maxCapacity, usableSpace / 10));
+    }
+
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    public long getUsedCapacity() {
+        synchronized (this.lock) {
+            return this.usedCapacity;
+        }
+    }
+
+    public int getEntryCount() {
+        synchronized (this.lock) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Returns the age in milliseconds after which entries expire. Expired entries are reported as absent and are
+     * removed from the cache when next accessed.
+     *
+     * @return the maximum entry age in milliseconds
+     */
+    public long getMaxAge() {
+        return this.maxAge;
+    }
+
+    /**
+     * Specifies the age in milliseconds after which entries expire. The age of an entry is measured from the time it
+     * was last written to the cache.
+     *
+     * @param maxAge the maximum entry age in milliseconds
+     *
+     * @throws IllegalArgumentException If the age is less than 1
+     */
+    public void setMaxAge(long maxAge) {
+        if (maxAge < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "setMaxAge", "invalidMaxAge"));
+        }
+
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Indicates whether the cache contains an entry for a specified key. Unlike the cache's other methods, this method
+     * does not wait for operations that hold the cache lock, such as evictions deleting files, so it may be called on
+     * the render thread.
+     *
+     * @param key the entry's key
+     *
+     * @return true if the cache contains an unexpired entry for the key, otherwise false
+     */
+    public boolean containsKey(String key) {
+        Long time = (key != null) ? this.keys.get(key) : null;
+        return time != null && !this.isExpired(time);
+    }
+
+    /**
+     * Returns the file associated with a specified key, marking the entry as most recently used. Expired entries are
+     * removed from the cache and reported as absent.
+     *
+     * @param key the entry's key
+     *
+     * @return the entry's file, or null if the cache does not contain an unexpired entry for the key
+     */
+    public File get(String key) {
+        boolean writeIndex;
+        File file;
+        synchronized (this.lock) {
+            Entry entry = this.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            file = new File(this.directory, entry.fileName);
+            if (this.isExpired(entry.time)) {
+                this.removeEntry(entry);
+                this.deleteEntryFile(entry);
+                file = null;
+            } else if (!file.exists()) { // the file was deleted outside of the cache
+                this.removeEntry(entry);
+                file = null;
+            }
+
+            writeIndex = this.indexChanged();
+        }
+
+        if (writeIndex) {
+            this.writeIndex();
+        }
+
+        return file;
+    }
+
+    /**
+     * Copies the contents of an input stream into the cache. The stream is read until its end, but is not closed.
+     *
+     * @param key    the entry's key
+     * @param stream the entry's contents
+     *
+     * @return the entry's file, or null if the contents exceed the cache capacity
+     *
+     * @throws IOException If an error occurs while reading the stream or writing the cache file
+     */
+    public File put(String key, InputStream stream) throws IOException {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "missingKey"));
+        }
+
+        if (key.indexOf('\n') != -1) { // keys are recorded one per line in the cache index
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "invalidKey"));
+        }
+
+        if (stream == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "missingSource"));
+        }
+
+        File tempFile = this.createTempFile(key);
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            byte[] page = new byte[1024 * 16];
+            int readCount;
+            while ((readCount = stream.read(page, 0, page.length)) != -1) {
+                out.write(page, 0, readCount);
+            }
+        } catch (IOException rethrown) {
+            WWUtil.closeSilently(out);
+            tempFile.delete();
+            throw rethrown;
+        } finally {
+            WWUtil.closeSilently(out);
+        }
+
+        return this.commit(key, tempFile);
+    }
+
+    /**
+     * Copies the remaining contents of a byte buffer into the cache. The buffer's position is advanced to its limit.
+     *
+     * @param key    the entry's key
+     * @param buffer the entry's contents
+     *
+     * @return the entry's file, or null if the contents exceed the cache capacity
+     *
+     * @throws IOException If an error occurs while writing the cache file
+     */
+    public File put(String key, ByteBuffer buffer) throws IOException {
+        if (key == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "missingKey"));
+        }
+
+        if (key.indexOf('\n') != -1) { // keys are recorded one per line in the cache index
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "invalidKey"));
+        }
+
+        if (buffer == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "DiskCache", "put", "missingBuffer"));
+        }
+
+        File tempFile = this.createTempFile(key);
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException rethrown) {
+            WWUtil.closeSilently(out);
+            tempFile.delete();
+            throw rethrown;
+        } finally {
+            WWUtil.closeSilently(out);
+        }
+
+        return this.commit(key, tempFile);
+    }
+
+    public boolean remove(String key) {
+        boolean writeIndex;
+        synchronized (this.lock) {
+            Entry entry = this.entries.get(key);
+            if (entry == null) {
+                return false;
+            }
+
+            this.removeEntry(entry);
+            this.deleteEntryFile(entry);
+            writeIndex = this.indexChanged();
+        }
+
+        if (writeIndex) {
+            this.writeIndex();
+        }
+
+        return true;
+    }
+
+    public void clear() {
+        synchronized (this.lock) {
+            for (Entry entry : this.entries.values()) {
+                this.deleteEntryFile(entry);
+            }
+
+            this.entries.clear();
+            this.keys.clear();
+            this.usedCapacity = 0;
+            this.indexChanges = 0;
+        }
+
+        this.writeIndex();
+    }
+
+    /**
+     * Writes the cache's index to its directory, making the current set of entries and their usage order available
+     * when the cache is next opened. The index is written periodically as the cache changes; this method need only be
+     * called when the application is about to be paused or terminated.
+     */
+    public void flush() {
+        synchronized (this.lock) {
+            this.indexChanges = 0;
+        }
+
+        this.writeIndex();
+    }
+
+    protected File createTempFile(String key) {
+        if (!this.directory.exists() && !this.directory.mkdirs()) {
+            Logger.log(Logger.WARN, "Unable to create disk cache directory \'" + this.directory + "\'");
+        }
+
+        String tempName = fileNameForKey(key) + "." + this.tempFileNumber.incrementAndGet() + TEMP_FILE_SUFFIX;
+        return new File(this.directory, tempName);
+    }
+
+    protected File commit(String key, File tempFile) throws IOException {
+        long size = tempFile.length();
+        if (size > this.capacity) {
+            tempFile.delete();
+            return null;
+        }
+
+        boolean writeIndex;
+        File file;
+        synchronized (this.lock) {
+            Entry newEntry = new Entry(key, fileNameForKey(key), size, this.currentTime());
+            file = new File(this.directory, newEntry.fileName);
+            if (!tempFile.renameTo(file)) { // atomically replaces any existing file
+                tempFile.delete();
+                throw new IOException("Unable to move cache file into place \'" + file + "\'");
+            }
+
+            Entry oldEntry = this.entries.put(key, newEntry);
+            this.keys.put(key, newEntry.time);
+            if (oldEntry != null) {
+                this.usedCapacity -= oldEntry.size;
+            }
+
+            this.usedCapacity += newEntry.size;
+            if (this.usedCapacity > this.capacity) {
+                this.makeSpace(newEntry);
+            }
+
+            writeIndex = this.indexChanged();
+        }
+
+        if (writeIndex) {
+            this.writeIndex();
+        }
+
+        return file;
+    }
+
+    protected void makeSpace(Entry newEntry) {
+        // Remove the least recently used entries until the cache capacity reaches the low water. The entries are
+        // iterated in access order, so each eviction is a constant time operation.
+        Iterator<Entry> iterator = this.entries.values().iterator();
+        while (iterator.hasNext() && this.usedCapacity > this.lowWater) {
+            Entry entry = iterator.next();
+            if (entry != newEntry) {
+                iterator.remove();
+                this.keys.remove(entry.key);
+                this.usedCapacity -= entry.size;
+                this.deleteEntryFile(entry);
+            }
+        }
+    }
+
+    protected void removeEntry(Entry entry) {
+        this.entries.remove(entry.key);
+        this.keys.remove(entry.key);
+        this.usedCapacity -= entry.size;
+    }
+
+    protected void deleteEntryFile(Entry entry) {
+        File file = new File(this.directory, entry.fileName);
+        if (file.exists() && !file.delete()) {
+            Logger.log(Logger.WARN, "Unable to delete disk cache file \'" + file + "\'");
+        }
+    }
+
+    protected boolean indexChanged() {
+        if (++this.indexChanges >= INDEX_WRITE_INTERVAL) {
+            this.indexChanges = 0;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    protected boolean isExpired(long time) {
+        return this.currentTime() - time >= this.maxAge;
+    }
+
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    protected void readIndex() {
+        File indexFile = new File(this.directory, INDEX_FILE_NAME);
+        BufferedReader reader = null;
+        try {
+            if (indexFile.exists()) {
+                reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), "UTF-8"));
+                if (!INDEX_HEADER.equals(reader.readLine())) {
+                    throw new IOException("Unrecognized disk cache index header \'" + indexFile + "\'");
+                }
+
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] tokens = line.split(" ", 4); // file name, size, time, key
+                    Entry entry = new Entry(tokens[3], tokens[0], Long.parseLong(tokens[1]), Long.parseLong(tokens[2]));
+                    File file = new File(this.directory, entry.fileName);
+                    if (file.length() == entry.size && !this.isExpired(entry.time)) { // expired files are deleted below
+                        this.entries.put(entry.key, entry); // index lines are in least recently used order
+                        this.keys.put(entry.key, entry.time);
+                        this.usedCapacity += entry.size;
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            Logger.log(Logger.WARN, "Unable to read disk cache index \'" + indexFile + "\'", ex);
+            this.entries.clear();
+            this.keys.clear();
+            this.usedCapacity = 0;
+        } finally {
+            WWUtil.closeSilently(reader);
+        }
+
+        // Delete files unknown to the index, such as temporary files or files added after the index was last written.
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            HashSet<String> fileNames = new HashSet<>();
+            for (Entry entry : this.entries.values()) {
+                fileNames.add(entry.fileName);
+            }
+
+            for (File file : files) {
+                String name = file.getName();
+                if (!name.equals(INDEX_FILE_NAME) && !fileNames.contains(name)) {
+                    file.delete();
+                }
+            }
+        }
+
+        if (this.usedCapacity > this.capacity) {
+            this.makeSpace(null);
+        }
+    }
+
+    protected void writeIndex() {
+        // Capture the index entries in least recently used order while holding the cache lock, then write the index
+        // without the cache lock to avoid blocking readers on file I/O.
+        Entry[] snapshot;
+        synchronized (this.lock) {
+            snapshot = this.entries.values().toArray(new Entry[this.entries.size()]);
+        }
+
+        synchronized (this.indexLock) {
+            File indexFile = new File(this.directory, INDEX_FILE_NAME);
+            File tempFile = new File(this.directory, INDEX_FILE_NAME + TEMP_FILE_SUFFIX);
+            BufferedWriter writer = null;
+            try {
+                if (!this.directory.exists() && !this.directory.mkdirs()) {
+                    return;
+                }
+
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8"));
+                writer.write(INDEX_HEADER);
+                writer.write('\n');
+                for (Entry entry : snapshot) {
+                    writer.write(entry.fileName);
+                    writer.write(' ');
+                    writer.write(Long.toString(entry.size));
+                    writer.write(' ');
+                    writer.write(Long.toString(entry.time));
+                    writer.write(' ');
+                    writer.write(entry.key);
+                    writer.write('\n');
+                }
+                writer.close();
+                writer = null;
+
+                if (!tempFile.renameTo(indexFile)) {
+                    throw new IOException("Unable to move disk cache index into place");
+                }
+            } catch (IOException ex) {
+                Logger.log(Logger.WARN, "Unable to write disk cache index \'" + indexFile + "\'", ex);
+            } finally {
+                WWUtil.closeSilently(writer);
+            }
+        }
+    }
+
+    protected static String fileNameForKey(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(key.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+                sb.append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | IOException ex) {
+            return Integer.toHexString(key.hashCode()); // every Java platform supports SHA-1 and UTF-8
+        }
+    }
+
+    protected static class Entry {
+
+        public final String key;
+
+        public final String fileName;
+
+        public final long size;
+
+        public final long time;
+
+        public Entry(String key, String fileName, long size, long time) {
+            this.key = key;
+            this.fileName = fileName;
+            this.size = size;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+public class IntArray {
+
+    protected static final int MIN_CAPACITY_INCREMENT = 12;
+
+    protected static final int[] EMPTY_ARRAY = new int[0];
+
+    protected int[] array;
+
+    protected int size;
+
+    public IntArray() {
+        this.array = EMPTY_ARRAY;
+    }
+
+    public IntArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "IntArray", "constructor", "invalidCapacity"));
+        }
+
+        this.array = new int[initialCapacity];
+    }
+
+    public int[] array() {
+        return this.array;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int get(int index) {
+        return this.array[index];
+    }
+
+    public IntArray set(int index, int value) {
+        this.array[index] = value;
+        return this;
+    }
+
+    public IntArray add(int value) {
+        int capacity = this.array.length;
+        if (capacity == this.size) {
+            int increment = Math.max(capacity >> 1, MIN_CAPACITY_INCREMENT);
+            int[] newArray = new int[capacity + increment];
+            System.arraycopy(this.array, 0, newArray, 0, capacity);
+            this.array = newArray;
+        }
+
+        this.array[this.size++] = value;
+        return this;
+    }
+
+    public IntArray trimToSize() {
+        int size = this.size;
+        if (size == this.array.length) {
+            return this; // array is already trimmed to size
+        }
+
+        if (size == 0) {
+            this.array = EMPTY_ARRAY;
+        } else {
+            int[] newArray = new int[size];
+            System.arraycopy(this.array, 0, newArray, 0, size);
+            this.array = newArray;
+        }
+
+        return this;
+    }
+
+    public IntArray clear() {
+        this.array = new int[0];
+        this.size = 0;
+        return this;
+    }
+}
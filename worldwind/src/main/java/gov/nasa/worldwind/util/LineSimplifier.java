@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+/**
+ * Computes multi-resolution simplifications of lines and rings of geographic locations using the Douglas-Peucker
+ * algorithm.
+ * <p/>
+ * Rather than simplifying a line for a single tolerance, LineSimplifier computes the significance of each location:
+ * the largest tolerance at which the Douglas-Peucker algorithm retains the location. Simplifying the line for any
+ * tolerance then selects the locations whose significance is at least the tolerance. Significance is nested, so each
+ * simplification contains every coarser simplification.
+ */
+public class LineSimplifier {
+
+    protected LineSimplifier() {
+    }
+
+    /**
+     * Computes the significance of each location in a line or a ring. Distances are computed in a sinusoidal projection
+     * centered on the locations, and are expressed in radians. A line's first and last locations, and a ring's first
+     * location and the location farthest from it, have infinite significance.
+     *
+     * @param latitudes  the locations' latitudes in degrees
+     * @param longitudes the locations' longitudes in degrees
+     * @param count      the number of locations
+     * @param closed     true if the locations form a ring, false if they form a line
+     * @param result     a pre-allocated array of at least count elements in which to return the significance of each
+     *                   location
+     *
+     * @return the result argument, set to the locations' significance
+     *
+     * @throws IllegalArgumentException If any array is null or has fewer than count elements
+     */
+    public static double[] computeSignificance(double[] latitudes, double[] longitudes, int count, boolean closed,
+                                               double[] result) {
+        if (latitudes == null || latitudes.length < count || longitudes == null || longitudes.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LineSimplifier", "computeSignificance", "missingArray"));
+        }
+
+        if (result == null || result.length < count) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "LineSimplifier", "computeSignificance", "missingResult"));
+        }
+
+        if (count <= 2) {
+            for (int idx = 0; idx < count; idx++) {
+                result[idx] = Double.POSITIVE_INFINITY;
+            }
+            return result;
+        }
+
+        // Project the locations to a sinusoidal projection centered on their mean longitude.
+        double meanLongitude = 0;
+        for (int idx = 0; idx < count; idx++) {
+            meanLongitude += longitudes[idx];
+        }
+        meanLongitude /= count;
+
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int idx = 0; idx < count; idx++) {
+            double lat = Math.toRadians(latitudes[idx]);
+            x[idx] = Math.toRadians(longitudes[idx] - meanLongitude) * Math.cos(lat);
+            y[idx] = lat;
+        }
+
+        // Stack of segments to subdivide, each entry holding the segment's first index, its last index and the
+        // significance of the location that split its parent segment. A ring's closing segment ends at index count,
+        // which refers to the first location.
+        int[] segments = new int[64];
+        double[] bounds = new double[32];
+        int top = 0;
+
+        result[0] = Double.POSITIVE_INFINITY;
+        if (closed) {
+            // Split the ring at its first location and the location farthest from it.
+            int farthest = 1;
+            double farthestDistance = -1;
+            for (int idx = 1; idx < count; idx++) {
+                double dx = x[idx] - x[0];
+                double dy = y[idx] - y[0];
+                double distance = dx * dx + dy * dy;
+                if (farthestDistance < distance) {
+                    farthestDistance = distance;
+                    farthest = idx;
+                }
+            }
+
+            result[farthest] = Double.POSITIVE_INFINITY;
+            segments[0] = 0;
+            segments[1] = farthest;
+            segments[2] = farthest;
+            segments[3] = count;
+            bounds[0] = Double.POSITIVE_INFINITY;
+            bounds[1] = Double.POSITIVE_INFINITY;
+            top = 2;
+        } else {
+            result[count - 1] = Double.POSITIVE_INFINITY;
+            segments[0] = 0;
+            segments[1] = count - 1;
+            bounds[0] = Double.POSITIVE_INFINITY;
+            top = 1;
+        }
+
+        while (top > 0) {
+            top--;
+            int first = segments[top * 2];
+            int last = segments[top * 2 + 1];
+            double bound = bounds[top];
+            if (last - first < 2) {
+                continue; // no locations between the segment's endpoints
+            }
+
+            // Find the location farthest from the segment.
+            int end = (last == count) ? 0 : last;
+            int farthest = first + 1;
+            double farthestDistance = -1;
+            for (int idx = first + 1; idx < last; idx++) {
+                double distance = segmentDistance(x[idx], y[idx], x[first], y[first], x[end], y[end]);
+                if (farthestDistance < distance) {
+                    farthestDistance = distance;
+                    farthest = idx;
+                }
+            }
+
+            // Limit the location's significance to that of the location that split its parent, keeping significance
+            // nested, then subdivide the segment at the location.
+            double significance = Math.min(farthestDistance, bound);
+            result[farthest] = significance;
+
+            if (segments.length < (top + 2) * 2) {
+                int[] newSegments = new int[segments.length * 2];
+                System.arraycopy(segments, 0, newSegments, 0, segments.length);
+                segments = newSegments;
+                double[] newBounds = new double[bounds.length * 2];
+                System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+                bounds = newBounds;
+            }
+
+            segments[top * 2] = first;
+            segments[top * 2 + 1] = farthest;
+            bounds[top++] = significance;
+            segments[top * 2] = farthest;
+            segments[top * 2 + 1] = last;
+            bounds[top++] = significance;
+        }
+
+        return result;
+    }
+
+    /**
+     * Counts the locations retained when simplifying a line or a ring for a specified tolerance.
+     *
+     * @param significance the locations' significance, as computed by {@link #computeSignificance}
+     * @param count        the number of locations
+     * @param tolerance    the simplification tolerance in radians
+     *
+     * @return the number of locations whose significance is at least the tolerance
+     */
+    public static int countSignificant(double[] significance, int count, double tolerance) {
+        int result = 0;
+
+        for (int idx = 0; idx < count; idx++) {
+            if (significance[idx] >= tolerance) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    protected static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double length2 = dx * dx + dy * dy;
+        double t = (length2 > 0) ? ((px - ax) * dx + (py - ay) * dy) / length2 : 0;
+        t = (t < 0) ? 0 : (t > 1) ? 1 : t;
+
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return Math.sqrt(ex * ex + ey * ey);
+    }
+}
@@ -34,19 +34,30 @@ public class Logger {
         messageTable.put("invalidCount", "The count is invalid");
         messageTable.put("invalidClipDistance", "The clip distance is invalid");
         messageTable.put("invalidFieldOfView", "The field of view is invalid");
+        messageTable.put("invalidFraction", "The fraction is invalid");
         messageTable.put("invalidHeight", "The height is invalid");
         messageTable.put("invalidIndex", "The index is invalid");
+        messageTable.put("invalidKey", "The key is invalid");
+        messageTable.put("invalidLane", "The lane is invalid");
+        messageTable.put("invalidMargin", "The margin is invalid");
+        messageTable.put("invalidMaxAge", "The maximum age is less than 1");
+        messageTable.put("invalidMode", "The mode is invalid");
         messageTable.put("invalidNumIntervals", "The number of intervals is invalid");
         messageTable.put("invalidNumLevels", "The number of levels is invalid");
+        messageTable.put("invalidParallelism", "The parallelism is less than 1");
+        messageTable.put("invalidPartitionSize", "The partition size is less than 1");
+        messageTable.put("invalidQueueDepth", "The queue depth is less than 0");
         messageTable.put("invalidRadius", "The radius is invalid");
         messageTable.put("invalidRange", "The range is invalid");
         messageTable.put("invalidResolution", "The resolution is invalid");
         messageTable.put("invalidResource", "The resource is invalid");
         messageTable.put("invalidStride", "The stride is invalid");
         messageTable.put("invalidTileDelta", "The tile delta is invalid");
+        messageTable.put("invalidTolerance", "The tolerance is invalid");
         messageTable.put("invalidWidth", "The width is invalid");
         messageTable.put("invalidWidthOrHeight", "The width or the height is invalid");
         messageTable.put("missingArray", "The array is null or insufficient length");
+        messageTable.put("missingAtlas", "The atlas is null");
         messageTable.put("missingBitmap", "The bitmap is null");
         messageTable.put("missingBuffer", "The buffer is null");
         messageTable.put("missingCache", "The cache is null");
@@ -56,13 +67,18 @@ public class Logger {
         messageTable.put("missingConfig", "The configuration is null");
         messageTable.put("missingCoordinateSystem", "The coordinate system is null");
         messageTable.put("missingCoverage", "The coverage is null");
+        messageTable.put("missingDrawable", "The drawable is null");
         messageTable.put("missingEllipsoid", "The ellipsoid is null");
         messageTable.put("missingFactory", "The factory is null");
         messageTable.put("missingFormat", "The format is null");
         messageTable.put("missingFrameMetrics", "The frame metrics argument is null");
+        messageTable.put("missingFrustum", "The frustum is null");
         messageTable.put("missingGlobe", "The globe is null");
+        messageTable.put("missingHistogram", "The histogram is null");
+        messageTable.put("missingId", "The ID is null");
         messageTable.put("missingImageFormat", "The image format is null");
         messageTable.put("missingIterable", "The iterable is null");
+        messageTable.put("missingItem", "The item is null");
         messageTable.put("missingKey", "The key is null");
         messageTable.put("missingLayer", "The layer is null");
         messageTable.put("missingLayerNames", "The layer names are null");
@@ -79,24 +95,28 @@ public class Logger {
         messageTable.put("missingOffset", "The offset name is null");
         messageTable.put("missingPathName", "The path name is null");
         messageTable.put("missingPoint", "The point is null");
+        messageTable.put("missingPicker", "The picker is null");
         messageTable.put("missingPlane", "The plane is null");
         messageTable.put("missingPosition", "The position is null");
         messageTable.put("missingProjection", "The projection is null");
         messageTable.put("missingRange", "The range is null");
         messageTable.put("missingRecognizer", "The recognizer is null");
         messageTable.put("missingRenderable", "The renderable is null");
+        messageTable.put("missingRenderContext", "The render context is null");
         messageTable.put("missingResources", "The resources argument is null");
         messageTable.put("missingResult", "The result argument is null");
         messageTable.put("missingRunnable", "The runnable is null");
         messageTable.put("missingSector", "The sector is null");
         messageTable.put("missingServiceAddress", "The service address is null");
         messageTable.put("missingSource", "The source is null");
+        messageTable.put("missingTerrain", "The terrain is null");
         messageTable.put("missingTile", "The tile is null");
         messageTable.put("missingTileFactory", "The tile factory is null");
         messageTable.put("missingTileMatrixSet", "The tile matrix set is null");
         messageTable.put("missingTileUrlFactory", "The tile url factory is null");
         messageTable.put("missingTypeface", "The typeface is null");
         messageTable.put("missingUrl", "The url is null");
+        messageTable.put("missingUserObject", "The user object is null");
         messageTable.put("missingViewport", "The viewport is null");
         messageTable.put("missingVector", "The vector is null");
         messageTable.put("missingVersion", "The version is null");
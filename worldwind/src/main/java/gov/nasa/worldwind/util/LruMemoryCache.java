@@ -5,21 +5,36 @@
 
 package gov.nasa.worldwind.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 
+/**
+ * Memory cache that limits the total size of its entries and evicts the least recently used entries first. Each entry
+ * is weighted by the size specified when the entry is added, typically its size in bytes. When adding an entry would
+ * exceed the cache's capacity, entries are evicted until the used capacity reaches the cache's low-water value.
+ * <p/>
+ * Entries are kept in access order on a doubly linked list, so lookups, insertions and evictions take constant time
+ * regardless of the number of entries.
+ * <p/>
+ * The cache optionally uses a segmented LRU policy. In segmented mode new entries are added to a probationary segment
+ * and are promoted to a protected segment when accessed again. Eviction prefers probationary entries, so entries used
+ * only once, such as tiles passed over during a fast camera move, do not displace entries in regular use. The
+ * protected segment is limited to a fraction of the capacity; its least recently used entries return to the
+ * probationary segment when that limit is exceeded.
+ */
 public class LruMemoryCache<K, V> {
 
     protected final HashMap<K, Entry<K, V>> entries = new HashMap<>();
 
-    protected final Comparator<Entry<K, V>> lruComparator = new Comparator<Entry<K, V>>() {
-        @Override
-        public int compare(Entry<K, V> lhs, Entry<K, V> rhs) {
-            return (int) (lhs.lastUsed - rhs.lastUsed); // sorts entries from least recently used to most recently used
-        }
-    };
+    /**
+     * Sentinel of the circular list holding probationary entries, or all entries when the cache is not segmented. The
+     * entry following the sentinel is the least recently used.
+     */
+    protected final Entry<K, V> probation = new Entry<>(null, null, 0);
+
+    /**
+     * Sentinel of the circular list holding protected entries in segmented mode.
+     */
+    protected final Entry<K, V> protection = new Entry<>(null, null, 0);
 
     protected int capacity;
 
@@ -27,6 +42,20 @@ public class LruMemoryCache<K, V> {
 
     protected int usedCapacity;
 
+    protected boolean segmented;
+
+    protected double protectedRatio = 0.8;
+
+    protected int protectedCapacity;
+
+    protected int protectedUsedCapacity;
+
+    protected long hitCount;
+
+    protected long missCount;
+
+    protected long evictionCount;
+
     public LruMemoryCache(int capacity) {
         if (capacity < 1) {
             throw new IllegalArgumentException(
@@ -35,6 +64,7 @@ public class LruMemoryCache<K, V> {
 
         this.capacity = capacity;
         this.lowWater = (int) (capacity * 0.75);
+        this.resetEntries();
     }
 
     public LruMemoryCache(int capacity, int lowWater) {
@@ -50,6 +80,7 @@ public class LruMemoryCache<K, V> {
 
         this.capacity = capacity;
         this.lowWater = lowWater;
+        this.resetEntries();
     }
 
     public int getCapacity() {
@@ -64,41 +95,115 @@ public class LruMemoryCache<K, V> {
         return this.entries.size();
     }
 
+    /**
+     * Indicates whether this cache uses the segmented LRU policy.
+     */
+    public boolean isSegmented() {
+        return this.segmented;
+    }
+
+    /**
+     * Specifies whether this cache uses the segmented LRU policy. Disabling the policy keeps all existing entries,
+     * placing the protected entries after the probationary entries in access order.
+     *
+     * @param segmented true to protect entries accessed more than once from eviction by entries accessed only once
+     */
+    public void setSegmented(boolean segmented) {
+        if (this.segmented == segmented) {
+            return;
+        }
+
+        this.segmented = segmented;
+        this.protectedCapacity = (int) (this.capacity * this.protectedRatio);
+
+        if (!segmented) { // move the protected entries to the most recently used end of the single list
+            while (this.protection.next != this.protection) {
+                this.demote(this.protection.next);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of successful lookups since the cache was created or its statistics were reset.
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of unsuccessful lookups since the cache was created or its statistics were reset.
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to make space for new entries since the cache was created or its
+     * statistics were reset. Entries removed explicitly, replaced, trimmed or cleared are not counted.
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    public void resetStatistics() {
+        this.hitCount = 0;
+        this.missCount = 0;
+        this.evictionCount = 0;
+    }
+
     public V get(K key) {
         Entry<K, V> entry = this.entries.get(key);
         if (entry != null) {
             entry.lastUsed = System.currentTimeMillis();
+            this.entryAccessed(entry);
+            this.hitCount++;
             return entry.value;
         } else {
+            this.missCount++;
             return null;
         }
     }
 
     public V put(K key, V value, int size) {
-        if (this.usedCapacity + size > this.capacity) {
-            this.makeSpace(size);
-        }
+        Tracer.begin(Tracer.CACHE_PUT);
+        try {
+            if (this.usedCapacity + size > this.capacity) {
+                this.makeSpace(size);
+            }
 
-        Entry<K, V> newEntry = new Entry<>(key, value, size);
-        newEntry.lastUsed = System.currentTimeMillis();
-        this.usedCapacity += newEntry.size;
+            Entry<K, V> newEntry = new Entry<>(key, value, size);
+            newEntry.lastUsed = System.currentTimeMillis();
+            this.usedCapacity += newEntry.size;
+
+            Entry<K, V> oldEntry = this.entries.put(key, newEntry);
+            boolean protect = false;
+            if (oldEntry != null) {
+                protect = oldEntry.protect; // a replaced entry keeps its place in the protected segment
+                this.unlink(oldEntry);
+                this.usedCapacity -= oldEntry.size;
+            }
 
-        Entry<K, V> oldEntry = this.entries.put(key, newEntry);
-        if (oldEntry != null) {
-            this.usedCapacity -= oldEntry.size;
+            if (protect) {
+                this.promote(newEntry);
+            } else {
+                this.linkLast(this.probation, newEntry);
+            }
 
-            if (newEntry.value != oldEntry.value) {
+            if (oldEntry != null && newEntry.value != oldEntry.value) {
                 this.entryRemoved(oldEntry.key, oldEntry.value, newEntry.value, false);
                 return oldEntry.value;
             }
-        }
 
-        return null;
+            return null;
+        } finally {
+            Tracer.end(Tracer.CACHE_PUT);
+        }
     }
 
     public V remove(K key) {
         Entry<K, V> entry = this.entries.remove(key);
         if (entry != null) {
+            this.unlink(entry);
             this.usedCapacity -= entry.size;
             this.entryRemoved(entry.key, entry.value, null, false);
             return entry.value;
@@ -110,21 +215,10 @@ public class LruMemoryCache<K, V> {
     public int trimToAge(long maxAgeMillis) {
         int trimmedCapacity = 0;
 
-        // Sort the entries from least recently used to most recently used.
-        ArrayList<Entry<K, V>> sortedEntries = this.assembleSortedEntries();
-
-        // Remove the least recently used entries until the entry's age is within the specified maximum age.
-        for (int idx = 0, len = sortedEntries.size(); idx < len; idx++) {
-            Entry<K, V> entry = sortedEntries.get(idx);
-            if (entry.lastUsed < maxAgeMillis) {
-                this.entries.remove(entry.key);
-                this.usedCapacity -= entry.size;
-                trimmedCapacity += entry.size;
-                this.entryRemoved(entry.key, entry.value, null, false);
-            } else {
-                break;
-            }
-        }
+        // Protected entries are always in access order. Probationary entries are in access order unless the cache is
+        // segmented, in which case entries returning from the protected segment may be older than their neighbors.
+        trimmedCapacity += this.trimToAge(this.protection, maxAgeMillis, true);
+        trimmedCapacity += this.trimToAge(this.probation, maxAgeMillis, !this.segmented);
 
         return trimmedCapacity;
     }
@@ -138,39 +232,101 @@ public class LruMemoryCache<K, V> {
             this.entryRemoved(entry.key, entry.value, null, false);
         }
 
+        this.resetEntries();
+    }
+
+    /**
+     * Removes all entries without notifying {@link #entryRemoved}.
+     */
+    protected void resetEntries() {
         this.entries.clear();
+        this.probation.prev = this.probation.next = this.probation;
+        this.protection.prev = this.protection.next = this.protection;
         this.usedCapacity = 0;
+        this.protectedUsedCapacity = 0;
+        this.protectedCapacity = (int) (this.capacity * this.protectedRatio);
     }
 
     protected void makeSpace(int spaceRequired) {
-        // Sort the entries from least recently used to most recently used.
-        ArrayList<Entry<K, V>> sortedEntries = this.assembleSortedEntries();
-
         // Remove the least recently used entries until the cache capacity reaches the low water and the cache has
-        // enough free capacity for the required space.
-        for (int idx = 0, len = sortedEntries.size(); idx < len; idx++) {
-            Entry<K, V> entry = sortedEntries.get(idx);
-            if (this.usedCapacity > this.lowWater || (this.capacity - this.usedCapacity) < spaceRequired) {
+        // enough free capacity for the required space. Probationary entries are evicted before protected entries.
+        while (this.usedCapacity > this.lowWater || (this.capacity - this.usedCapacity) < spaceRequired) {
+            Entry<K, V> entry = (this.probation.next != this.probation) ? this.probation.next : this.protection.next;
+            if (entry == this.protection) {
+                break; // the cache is empty
+            }
+
+            this.entries.remove(entry.key);
+            this.unlink(entry);
+            this.usedCapacity -= entry.size;
+            this.evictionCount++;
+            this.entryRemoved(entry.key, entry.value, null, true);
+        }
+    }
+
+    protected int trimToAge(Entry<K, V> list, long maxAgeMillis, boolean ordered) {
+        int trimmedCapacity = 0;
+
+        // Remove the least recently used entries until the entry's age is within the specified maximum age.
+        for (Entry<K, V> entry = list.next, next; entry != list; entry = next) {
+            next = entry.next;
+            if (entry.lastUsed < maxAgeMillis) {
                 this.entries.remove(entry.key);
+                this.unlink(entry);
                 this.usedCapacity -= entry.size;
-                this.entryRemoved(entry.key, entry.value, null, true);
-            } else {
+                trimmedCapacity += entry.size;
+                this.entryRemoved(entry.key, entry.value, null, false);
+            } else if (ordered) {
                 break;
             }
         }
+
+        return trimmedCapacity;
     }
 
-    protected ArrayList<Entry<K, V>> assembleSortedEntries() {
-        // Gather the cache entries into a data structure that's efficiently sortable.
-        ArrayList<Entry<K, V>> sortedEntries = new ArrayList<>(this.entries.size());
-        for (Entry<K, V> entry : this.entries.values()) {
-            sortedEntries.add(entry);
+    protected void entryAccessed(Entry<K, V> entry) {
+        this.unlink(entry);
+
+        if (this.segmented) { // promote probationary entries accessed a second time
+            this.promote(entry);
+        } else {
+            this.linkLast(this.probation, entry);
+        }
+    }
+
+    protected void promote(Entry<K, V> entry) {
+        entry.protect = true;
+        this.protectedUsedCapacity += entry.size;
+        this.linkLast(this.protection, entry);
+
+        // Return the least recently used protected entries to the probationary segment until the protected segment is
+        // within its limit. The most recently used protected entry always remains protected.
+        while (this.protectedUsedCapacity > this.protectedCapacity && this.protection.next != entry) {
+            this.demote(this.protection.next);
+        }
+    }
+
+    protected void demote(Entry<K, V> entry) {
+        this.unlink(entry);
+        this.linkLast(this.probation, entry);
+    }
+
+    protected void unlink(Entry<K, V> entry) {
+        if (entry.protect) {
+            entry.protect = false;
+            this.protectedUsedCapacity -= entry.size;
         }
 
-        // Sort the entries from least recently used to most recently used.
-        Collections.sort(sortedEntries, this.lruComparator);
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = entry.next = null;
+    }
 
-        return sortedEntries;
+    protected void linkLast(Entry<K, V> list, Entry<K, V> entry) {
+        entry.prev = list.prev;
+        entry.next = list;
+        list.prev.next = entry;
+        list.prev = entry;
     }
 
     protected void entryRemoved(K key, V oldValue, V newValue, boolean evicted) {
@@ -186,6 +342,12 @@ public class LruMemoryCache<K, V> {
 
         public long lastUsed;
 
+        protected Entry<K, V> prev;
+
+        protected Entry<K, V> next;
+
+        protected boolean protect;
+
         public Entry(K key, V value, int size) {
             this.key = key;
             this.value = value;
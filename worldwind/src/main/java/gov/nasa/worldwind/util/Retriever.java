@@ -5,12 +5,28 @@
 
 package gov.nasa.worldwind.util;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import gov.nasa.worldwind.WorldWind;
 
+/**
+ * Retrieves values asynchronously on the WorldWind task service. Requests are queued in a bounded queue and dispatched
+ * in priority order as retrieval slots become available. Callers that render continuously are expected to request the
+ * values they still need every frame, which refreshes each request's priority. Queued requests that are not renewed
+ * within {@link #getMaxStaleFrames()} frames are discarded, so that values no longer in view do not consume retrieval
+ * slots.
+ */
 public abstract class Retriever<K, O, V> {
 
     public interface Callback<K, O, V> {
@@ -19,24 +35,98 @@ public abstract class Retriever<K, O, V> {
 
         void retrievalFailed(Retriever<K, O, V> retriever, K key, Throwable ex);
 
+        /**
+         * Called when a retrieval is rejected, either immediately because the queue is full, or later when a queued
+         * retrieval is discarded. Immediate rejections are reported on the requesting thread, and discarded retrievals
+         * are reported on the main thread. Requests for a retrieval already in progress are ignored and not reported.
+         */
         void retrievalRejected(Retriever<K, O, V> retriever, K key);
     }
 
+    protected static final int DEFAULT_MAX_QUEUED_RETRIEVALS = 128;
+
+    protected static final int DEFAULT_MAX_STALE_FRAMES = 2;
+
+    /**
+     * The number of frames rendered by all WorldWindows, used to determine whether queued requests are stale.
+     */
+    protected static final AtomicLong frameNumber = new AtomicLong();
+
     protected final Object lock = new Object();
 
     protected int maxAsyncTasks;
 
+    protected int maxQueuedTasks;
+
+    protected int maxStaleFrames = DEFAULT_MAX_STALE_FRAMES;
+
     protected Set<K> asyncTaskSet;
 
+    protected Map<K, AsyncTask<K, O, V>> queuedTaskMap;
+
     protected Pool<AsyncTask<K, O, V>> asyncTaskPool;
 
+    protected Handler dispatchHandler;
+
+    protected boolean dispatchPending;
+
+    protected Runnable dispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchQueuedTasks();
+        }
+    };
+
     public Retriever(int maxSimultaneousRetrievals) {
+        this(maxSimultaneousRetrievals, DEFAULT_MAX_QUEUED_RETRIEVALS);
+    }
+
+    public Retriever(int maxSimultaneousRetrievals, int maxQueuedRetrievals) {
         this.maxAsyncTasks = maxSimultaneousRetrievals;
+        this.maxQueuedTasks = maxQueuedRetrievals;
         this.asyncTaskSet = new HashSet<>();
+        this.queuedTaskMap = new HashMap<>();
         this.asyncTaskPool = new BasicPool<>();
+        this.dispatchHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Indicates that a new frame is being rendered. Queued requests that have not been renewed within the last {@link
+     * #getMaxStaleFrames()} frames are discarded the next time requests are dispatched.
+     */
+    public static void advanceFrame() {
+        frameNumber.incrementAndGet();
+    }
+
+    public int getMaxStaleFrames() {
+        return this.maxStaleFrames;
+    }
+
+    public void setMaxStaleFrames(int maxStaleFrames) {
+        synchronized (this.lock) {
+            this.maxStaleFrames = maxStaleFrames;
+        }
     }
 
     public void retrieve(K key, O options, Callback<K, O, V> callback) {
+        this.retrieve(key, options, callback, 0);
+    }
+
+    /**
+     * Requests asynchronous retrieval of a value with a specified priority. Requests with lower priority values are
+     * dispatched first; callers typically specify the distance from the camera to the value's geographic extent.
+     * Requesting a key that is already queued updates its priority, options and callback and marks it as current.
+     * Requesting a key that is already being retrieved has no effect, so callers may request values every frame until
+     * they arrive.
+     *
+     * @param key      the key identifying the value to retrieve
+     * @param options  the retrieval options, passed to the callback on success
+     * @param callback the callback to notify upon completion
+     * @param priority the request's priority; lower values are retrieved first
+     *
+     * @throws IllegalArgumentException If either the key or the callback is null
+     */
+    public void retrieve(K key, O options, Callback<K, O, V> callback, double priority) {
         if (key == null) {
             throw new IllegalArgumentException(
                 Logger.logMessage(Logger.ERROR, "Retriever", "retrieve", "missingKey"));
@@ -47,35 +137,185 @@ public abstract class Retriever<K, O, V> {
                 Logger.logMessage(Logger.ERROR, "Retriever", "retrieve", "missingCallback"));
         }
 
-        AsyncTask<K, O, V> task = this.obtainAsyncTask(key, options, callback);
-        if (task == null) { // too many async tasks running, or a task for 'key' is already running
-            callback.retrievalRejected(this, key);
-            return;
+        AsyncTask<K, O, V> evicted = null;
+        boolean rejected = false;
+        boolean mustDispatch = false;
+
+        synchronized (this.lock) {
+            AsyncTask<K, O, V> task = this.queuedTaskMap.get(key);
+            long frame = frameNumber.get();
+            if (this.asyncTaskSet.contains(key)) {
+                return; // a task for 'key' is already running; its callback reports the result
+            } else if (task != null) {
+                task.set(this, key, options, callback).prioritize(priority, frame);
+            } else {
+                if (this.queuedTaskMap.size() >= this.maxQueuedTasks) {
+                    // The queue is full. Make room by discarding the least important queued task, unless the new
+                    // request is less important than every queued task.
+                    AsyncTask<K, O, V> worst = this.leastImportantQueuedTask();
+                    if (worst != null && (this.isStale(worst) || worst.priority > priority)) {
+                        evicted = this.queuedTaskMap.remove(worst.key);
+                    } else {
+                        rejected = true;
+                    }
+                }
+
+                if (!rejected) {
+                    task = this.asyncTaskPool.acquire();
+                    task = (task != null ? task : new AsyncTask<K, O, V>()).set(this, key, options, callback);
+                    this.queuedTaskMap.put(key, task.prioritize(priority, frame));
+
+                    // Dispatch after the caller has had the opportunity to request everything it needs this frame.
+                    mustDispatch = !this.dispatchPending;
+                    this.dispatchPending = true;
+                }
+            }
+        }
+
+        if (evicted != null) {
+            this.rejectAsyncTask(evicted);
         }
 
-        try {
-            WorldWind.taskService().execute(task);
-        } catch (RejectedExecutionException ignored) { // singleton task service is full
-            this.recycleAsyncTask(task);
+        if (rejected) {
             callback.retrievalRejected(this, key);
         }
+
+        if (mustDispatch && !this.postToDispatchThread(this.dispatchRunnable)) {
+            this.dispatchQueuedTasks(); // the main thread is not accepting messages; dispatch immediately
+        }
     }
 
     protected abstract void retrieveAsync(K key, O options, Callback<K, O, V> callback);
 
-    protected AsyncTask<K, O, V> obtainAsyncTask(K key, O options, Callback<K, O, V> callback) {
-        synchronized (this.lock) {
-            if (this.asyncTaskSet.size() >= this.maxAsyncTasks || this.asyncTaskSet.contains(key)) {
-                return null;
+    /**
+     * Starts the most important queued tasks until either the queue is empty or the maximum number of simultaneous
+     * retrievals are running. Stale queued tasks are discarded and reported as rejected.
+     */
+    protected void dispatchQueuedTasks() {
+        List<AsyncTask<K, O, V>> staleTasks = null;
+
+        while (true) {
+            AsyncTask<K, O, V> task;
+
+            synchronized (this.lock) {
+                this.dispatchPending = false;
+
+                for (Iterator<AsyncTask<K, O, V>> it = this.queuedTaskMap.values().iterator(); it.hasNext(); ) {
+                    AsyncTask<K, O, V> queued = it.next();
+                    if (this.isStale(queued)) {
+                        if (staleTasks == null) {
+                            staleTasks = new ArrayList<>();
+                        }
+                        staleTasks.add(queued);
+                        it.remove();
+                    }
+                }
+
+                if (this.asyncTaskSet.size() >= this.maxAsyncTasks || this.queuedTaskMap.isEmpty()) {
+                    break;
+                }
+
+                task = this.mostImportantQueuedTask();
+                this.queuedTaskMap.remove(task.key);
+                this.asyncTaskSet.add(task.key);
+            }
+
+            try {
+                WorldWind.taskService().execute(this.taskLane(task.key, task.options), task);
+            } catch (RejectedExecutionException ignored) { // singleton task service is full
+                synchronized (this.lock) {
+                    this.asyncTaskSet.remove(task.key);
+                }
+                this.rejectAsyncTask(task);
+                break;
+            }
+        }
+
+        if (staleTasks != null) {
+            for (int idx = 0, len = staleTasks.size(); idx < len; idx++) {
+                this.rejectAsyncTask(staleTasks.get(idx));
+            }
+        }
+    }
+
+    /**
+     * Returns the task service lane for retrieving a specified key. The default implementation returns {@link
+     * TaskService#DECODE}. Subclasses that retrieve values from the network or from a database should override this
+     * method to return the corresponding lane.
+     */
+    protected int taskLane(K key, O options) {
+        return TaskService.DECODE;
+    }
+
+    protected boolean isStale(AsyncTask<K, O, V> task) {
+        return frameNumber.get() - task.frameNumber > this.maxStaleFrames;
+    }
+
+    protected AsyncTask<K, O, V> mostImportantQueuedTask() {
+        AsyncTask<K, O, V> result = null;
+
+        // The queue is bounded and priorities change every frame; a linear scan is simpler than maintaining a heap.
+        for (AsyncTask<K, O, V> task : this.queuedTaskMap.values()) {
+            if (result == null || result.priority > task.priority) {
+                result = task;
+            }
+        }
+
+        return result;
+    }
+
+    protected AsyncTask<K, O, V> leastImportantQueuedTask() {
+        AsyncTask<K, O, V> result = null;
+
+        for (AsyncTask<K, O, V> task : this.queuedTaskMap.values()) {
+            if (this.isStale(task)) {
+                return task;
+            } else if (result == null || result.priority < task.priority) {
+                result = task;
             }
+        }
+
+        return result;
+    }
 
-            this.asyncTaskSet.add(key);
+    protected void rejectAsyncTask(AsyncTask<K, O, V> task) {
+        final Callback<K, O, V> callback = task.callback;
+        final K key = task.key;
 
-            AsyncTask<K, O, V> instance = this.asyncTaskPool.acquire();
-            return (instance != null ? instance : new AsyncTask<K, O, V>()).set(this, key, options, callback);
+        synchronized (this.lock) {
+            this.asyncTaskPool.release(task.reset());
+        }
+
+        // Queued tasks are discarded on the main thread, or on a retrieval thread when a retrieval completes. Report
+        // the latter on the main thread, so that callbacks need not expect rejections from retrieval threads.
+        if (this.isDispatchThread()) {
+            callback.retrievalRejected(this, key);
+        } else if (!this.postToDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                callback.retrievalRejected(Retriever.this, key);
+            }
+        })) {
+            callback.retrievalRejected(this, key); // the main thread is not accepting messages; report immediately
         }
     }
 
+    /**
+     * Indicates whether the current thread is the main thread, on which queued tasks are dispatched.
+     */
+    protected boolean isDispatchThread() {
+        return Looper.myLooper() == this.dispatchHandler.getLooper();
+    }
+
+    /**
+     * Runs a task on the main thread, on which queued tasks are dispatched.
+     *
+     * @return true if the task was posted, or false if the main thread is not accepting messages
+     */
+    protected boolean postToDispatchThread(Runnable runnable) {
+        return this.dispatchHandler.post(runnable);
+    }
+
     protected void recycleAsyncTask(AsyncTask<K, O, V> instance) {
         synchronized (this.lock) {
             this.asyncTaskSet.remove(instance.key);
@@ -93,6 +333,10 @@ public abstract class Retriever<K, O, V> {
 
         protected Callback<K, O, V> callback;
 
+        protected double priority;
+
+        protected long frameNumber;
+
         public AsyncTask<K, O, V> set(Retriever<K, O, V> retriever, K key, O options, Callback<K, O, V> callback) {
             this.retriever = retriever;
             this.key = key;
@@ -101,22 +345,35 @@ public abstract class Retriever<K, O, V> {
             return this;
         }
 
+        public AsyncTask<K, O, V> prioritize(double priority, long frameNumber) {
+            this.priority = priority;
+            this.frameNumber = frameNumber;
+            return this;
+        }
+
         public AsyncTask<K, O, V> reset() {
             this.retriever = null;
             this.key = null;
             this.options = null;
             this.callback = null;
+            this.priority = 0;
+            this.frameNumber = 0;
             return this;
         }
 
         @Override
         public void run() {
+            Retriever<K, O, V> retriever = this.retriever;
+
+            Tracer.begin(Tracer.RETRIEVE);
             try {
-                this.retriever.retrieveAsync(this.key, this.options, this.callback);
+                retriever.retrieveAsync(this.key, this.options, this.callback);
             } catch (Throwable ex) {
-                this.callback.retrievalFailed(this.retriever, this.key, ex);
+                this.callback.retrievalFailed(retriever, this.key, ex);
             } finally {
-                this.retriever.recycleAsyncTask(this);
+                Tracer.end(Tracer.RETRIEVE);
+                retriever.recycleAsyncTask(this);
+                retriever.dispatchQueuedTasks(); // start the next most important queued task, if any
             }
         }
     }
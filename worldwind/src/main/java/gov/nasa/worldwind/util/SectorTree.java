@@ -0,0 +1,610 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import gov.nasa.worldwind.geom.BoundingBox;
+import gov.nasa.worldwind.geom.Frustum;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.Globe;
+
+/**
+ * Quadtree indexing items by their geographic bounding sector. Each item is stored in the deepest node whose sector
+ * fully contains the item's sector, and nodes split into four children when they exceed a fixed number of items. Adding,
+ * removing and updating an item takes time proportional to the depth of the tree.
+ * <p/>
+ * Item sectors may have zero width or height, as for items at a single location. Items whose sector is unknown,
+ * indicated by a sector with NaN coordinates, are stored separately. Unbounded items never match sector and radius
+ * queries, but always match frustum queries.
+ * <p/>
+ * Query results are returned in order of each item's sequence number, which is assigned when the item is added and may
+ * be reassigned by {@link #reorder(Iterable)}. The tree does not track changes to its items; callers must call {@link
+ * #update} when an item's sector or altitude changes.
+ */
+public class SectorTree<T> {
+
+    protected static final int MAX_NODE_ITEMS = 32;
+
+    protected static final int MAX_DEPTH = 16;
+
+    /**
+     * The shallowest depth at which frustum queries test node bounding boxes. Shallower nodes span more than 45 degrees
+     * and are too large to bound with a box derived from a 3x3 grid.
+     */
+    protected static final int MIN_BOUNDING_BOX_DEPTH = 3;
+
+    /**
+     * The lowest terrain elevation on Earth, in meters, used to bound items clamped to or relative to the terrain.
+     */
+    protected static final double MIN_TERRAIN_HEIGHT = -11000;
+
+    /**
+     * The highest terrain elevation on Earth, in meters, used to bound items clamped to or relative to the terrain.
+     */
+    protected static final double MAX_TERRAIN_HEIGHT = 8850;
+
+    protected static final Comparator<Entry<?>> sequenceComparator = new Comparator<Entry<?>>() {
+        @Override
+        public int compare(Entry<?> lhs, Entry<?> rhs) {
+            return (lhs.sequence < rhs.sequence) ? -1 : ((lhs.sequence == rhs.sequence) ? 0 : 1);
+        }
+    };
+
+    protected Node<T> root = new Node<>(-90, -180, 90, 180, 0);
+
+    protected HashMap<T, Entry<T>> entries = new HashMap<>();
+
+    protected ArrayList<Entry<T>> unboundedEntries = new ArrayList<>();
+
+    protected ArrayList<Entry<T>> scratchEntries = new ArrayList<>();
+
+    protected long nextSequence;
+
+    public SectorTree() {
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public boolean contains(T item) {
+        return this.entries.containsKey(item);
+    }
+
+    /**
+     * Adds an item to this tree, or updates the item's sector and altitude if it is already in the tree. New items
+     * follow all existing items in sequence order.
+     *
+     * @param item        the item to add
+     * @param sector      the item's geographic bounding sector; may have zero width or height, or NaN coordinates if
+     *                    the item's bounds are unknown
+     * @param maxAltitude the item's maximum altitude above the ellipsoid or the terrain, in meters
+     *
+     * @throws IllegalArgumentException If either the item or the sector is null
+     */
+    public void add(T item, Sector sector, double maxAltitude) {
+        if (item == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "add", "missingItem"));
+        }
+
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "add", "missingSector"));
+        }
+
+        Entry<T> entry = this.entries.get(item);
+        if (entry != null) {
+            this.unlink(entry);
+        } else {
+            entry = new Entry<>(item, this.nextSequence++);
+            this.entries.put(item, entry);
+        }
+
+        entry.set(sector, maxAltitude);
+        this.link(entry);
+    }
+
+    /**
+     * Updates the sector and altitude of an item in this tree. The item keeps its position in sequence order.
+     *
+     * @param item        the item to update
+     * @param sector      the item's new geographic bounding sector
+     * @param maxAltitude the item's new maximum altitude, in meters
+     *
+     * @return true if the item is in this tree, otherwise false
+     *
+     * @throws IllegalArgumentException If either the item or the sector is null
+     */
+    public boolean update(T item, Sector sector, double maxAltitude) {
+        if (item == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "update", "missingItem"));
+        }
+
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "update", "missingSector"));
+        }
+
+        Entry<T> entry = this.entries.get(item);
+        if (entry == null) {
+            return false;
+        }
+
+        if (!entry.equals(sector, maxAltitude)) {
+            this.unlink(entry);
+            entry.set(sector, maxAltitude);
+            this.link(entry);
+        }
+
+        return true;
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = this.entries.remove(item);
+        if (entry != null) {
+            this.unlink(entry);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public void clear() {
+        this.root = new Node<>(-90, -180, 90, 180, 0);
+        this.entries.clear();
+        this.unboundedEntries.clear();
+        this.nextSequence = 0;
+    }
+
+    /**
+     * Reassigns the sequence numbers of the items in this tree to match a specified order. Items not in the tree are
+     * ignored, and tree items not in the specified list follow those in the list.
+     *
+     * @param items the items in their new order
+     *
+     * @throws IllegalArgumentException If the list is null
+     */
+    public void reorder(Iterable<? extends T> items) {
+        if (items == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "reorder", "missingList"));
+        }
+
+        for (Entry<T> entry : this.entries.values()) {
+            entry.sequence = -1;
+        }
+
+        long sequence = 0;
+        for (T item : items) {
+            Entry<T> entry = this.entries.get(item);
+            if (entry != null && entry.sequence < 0) {
+                entry.sequence = sequence++;
+            }
+        }
+
+        for (Entry<T> entry : this.entries.values()) {
+            if (entry.sequence < 0) {
+                entry.sequence = sequence++;
+            }
+        }
+
+        this.nextSequence = sequence;
+    }
+
+    /**
+     * Finds the items whose sector intersects a specified sector. Items touching the sector's boundary are included.
+     * Unbounded items are not included.
+     *
+     * @param sector the sector to search
+     * @param result a collection in which to return the items found
+     *
+     * @return the result collection, with the items found appended in sequence order
+     *
+     * @throws IllegalArgumentException If either argument is null
+     */
+    public <C extends Collection<? super T>> C findItems(Sector sector, C result) {
+        if (sector == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "missingSector"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "missingResult"));
+        }
+
+        this.findEntries(this.root, sector.minLatitude(), sector.minLongitude(), sector.maxLatitude(),
+            sector.maxLongitude(), this.scratchEntries);
+
+        return this.collectEntries(result);
+    }
+
+    /**
+     * Finds the items whose sector lies within a specified great circle distance of a location. An item matches when
+     * the nearest point of its sector is within the radius. Unbounded items are not included.
+     *
+     * @param center        the location at the center of the search area
+     * @param radiusRadians the search radius, in radians
+     * @param result        a collection in which to return the items found
+     *
+     * @return the result collection, with the items found appended in sequence order
+     *
+     * @throws IllegalArgumentException If either the location or the result is null, or if the radius is negative
+     */
+    public <C extends Collection<? super T>> C findItems(Location center, double radiusRadians, C result) {
+        if (center == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "missingLocation"));
+        }
+
+        if (radiusRadians < 0) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "invalidRadius"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "missingResult"));
+        }
+
+        // Search the sector bounding the circle, then discard the items outside the circle. The bounding sector is
+        // split in two when it crosses the antimeridian.
+        double deltaLat = Math.toDegrees(radiusRadians);
+        double minLat = Math.max(-90, center.latitude - deltaLat);
+        double maxLat = Math.min(90, center.latitude + deltaLat);
+        if (minLat == -90 || maxLat == 90 || radiusRadians >= Math.PI / 2) {
+            this.findEntries(this.root, minLat, -180, maxLat, 180, this.scratchEntries);
+        } else {
+            double sinRadius = Math.sin(radiusRadians);
+            double cosLat = Math.cos(Math.toRadians(center.latitude));
+            double deltaLon = (sinRadius < cosLat) ? Math.toDegrees(Math.asin(sinRadius / cosLat)) : 180;
+            double minLon = center.longitude - deltaLon;
+            double maxLon = center.longitude + deltaLon;
+            if (deltaLon >= 180) {
+                this.findEntries(this.root, minLat, -180, maxLat, 180, this.scratchEntries);
+            } else if (minLon < -180) {
+                this.findEntries(this.root, minLat, -180, maxLat, maxLon, this.scratchEntries);
+                this.findEntries(this.root, minLat, minLon + 360, maxLat, 180, this.scratchEntries);
+            } else if (maxLon > 180) {
+                this.findEntries(this.root, minLat, minLon, maxLat, 180, this.scratchEntries);
+                this.findEntries(this.root, minLat, -180, maxLat, maxLon - 360, this.scratchEntries);
+            } else {
+                this.findEntries(this.root, minLat, minLon, maxLat, maxLon, this.scratchEntries);
+            }
+        }
+
+        // Discard the items outside the circle, as well as duplicates found in both halves of a split sector.
+        ArrayList<Entry<T>> candidates = this.scratchEntries;
+        Collections.sort(candidates, sequenceComparator);
+        Location nearest = new Location();
+        int count = 0;
+        for (int idx = 0, len = candidates.size(); idx < len; idx++) {
+            Entry<T> entry = candidates.get(idx);
+            if (count > 0 && candidates.get(count - 1) == entry) {
+                continue;
+            }
+
+            nearest.latitude = WWMath.clamp(center.latitude, entry.minLatitude, entry.maxLatitude);
+            nearest.longitude = WWMath.clamp(center.longitude, entry.minLongitude, entry.maxLongitude);
+            if (center.greatCircleDistance(nearest) <= radiusRadians) {
+                candidates.set(count++, entry);
+            }
+        }
+        candidates.subList(count, candidates.size()).clear();
+
+        return this.collectEntries(result);
+    }
+
+    /**
+     * Finds the items that may intersect a specified frustum. Items are matched at the granularity of the tree's
+     * nodes: every item in a node whose bounding volume intersects the frustum is included, so the results may include
+     * items outside the frustum but never exclude items within it. Node bounding volumes extend from the lowest terrain
+     * on Earth to the highest terrain plus the maximum altitude of the node's items. Unbounded items are always
+     * included.
+     *
+     * @param frustum              the frustum to search, in Cartesian coordinates
+     * @param globe                the globe the items' sectors are relative to
+     * @param verticalExaggeration the vertical exaggeration applied to the terrain
+     * @param result               a collection in which to return the items found
+     *
+     * @return the result collection, with the items found appended in sequence order
+     *
+     * @throws IllegalArgumentException If any argument is null
+     */
+    public <C extends Collection<? super T>> C findItems(Frustum frustum, Globe globe, double verticalExaggeration,
+                                                        C result) {
+        if (frustum == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "missingFrustum"));
+        }
+
+        if (globe == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "missingGlobe"));
+        }
+
+        if (result == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "SectorTree", "findItems", "missingResult"));
+        }
+
+        this.findEntries(this.root, frustum, globe, Math.max(1, verticalExaggeration), this.scratchEntries);
+        this.scratchEntries.addAll(this.unboundedEntries);
+
+        return this.collectEntries(result);
+    }
+
+    protected <C extends Collection<? super T>> C collectEntries(C result) {
+        ArrayList<Entry<T>> entries = this.scratchEntries;
+        Collections.sort(entries, sequenceComparator);
+
+        for (int idx = 0, len = entries.size(); idx < len; idx++) {
+            result.add(entries.get(idx).item);
+        }
+
+        entries.clear();
+        return result;
+    }
+
+    protected void findEntries(Node<T> node, double minLat, double minLon, double maxLat, double maxLon,
+                               ArrayList<Entry<T>> result) {
+        if (!node.intersects(minLat, minLon, maxLat, maxLon)) {
+            return;
+        }
+
+        for (int idx = 0, len = node.entries.size(); idx < len; idx++) {
+            Entry<T> entry = node.entries.get(idx);
+            if (entry.intersects(minLat, minLon, maxLat, maxLon)) {
+                result.add(entry);
+            }
+        }
+
+        if (node.children != null) {
+            for (Node<T> child : node.children) {
+                this.findEntries(child, minLat, minLon, maxLat, maxLon, result);
+            }
+        }
+    }
+
+    protected void findEntries(Node<T> node, Frustum frustum, Globe globe, double verticalExaggeration,
+                               ArrayList<Entry<T>> result) {
+        if (node.depth >= MIN_BOUNDING_BOX_DEPTH && !node.intersectsFrustum(frustum, globe, verticalExaggeration)) {
+            return; // the node and its descendants are not visible
+        }
+
+        result.addAll(node.entries);
+
+        if (node.children != null) {
+            for (Node<T> child : node.children) {
+                this.findEntries(child, frustum, globe, verticalExaggeration, result);
+            }
+        }
+    }
+
+    protected void link(Entry<T> entry) {
+        if (entry.isUnbounded()) {
+            entry.node = null;
+            entry.index = this.unboundedEntries.size();
+            this.unboundedEntries.add(entry);
+            return;
+        }
+
+        Node<T> node = this.root;
+        while (true) {
+            node.includeAltitude(entry.maxAltitude);
+
+            Node<T> child = (node.children != null) ? node.childContaining(entry) : null;
+            if (child == null) {
+                node.add(entry);
+                if (node.children == null && node.entries.size() > MAX_NODE_ITEMS && node.depth < MAX_DEPTH) {
+                    node.split();
+                }
+                break;
+            }
+
+            node = child;
+        }
+    }
+
+    protected void unlink(Entry<T> entry) {
+        if (entry.node != null) {
+            entry.node.remove(entry);
+        } else {
+            ArrayList<Entry<T>> list = this.unboundedEntries;
+            Entry<T> last = list.remove(list.size() - 1);
+            if (last != entry) { // move the last entry into the removed entry's slot
+                list.set(entry.index, last);
+                last.index = entry.index;
+            }
+        }
+    }
+
+    protected static class Entry<T> {
+
+        public final T item;
+
+        public long sequence;
+
+        public double minLatitude;
+
+        public double minLongitude;
+
+        public double maxLatitude;
+
+        public double maxLongitude;
+
+        public double maxAltitude;
+
+        public Node<T> node;
+
+        public int index;
+
+        public Entry(T item, long sequence) {
+            this.item = item;
+            this.sequence = sequence;
+        }
+
+        public void set(Sector sector, double maxAltitude) {
+            this.minLatitude = sector.minLatitude();
+            this.minLongitude = sector.minLongitude();
+            this.maxLatitude = sector.maxLatitude();
+            this.maxLongitude = sector.maxLongitude();
+            this.maxAltitude = maxAltitude;
+        }
+
+        public boolean equals(Sector sector, double maxAltitude) {
+            return Double.compare(this.minLatitude, sector.minLatitude()) == 0
+                && Double.compare(this.minLongitude, sector.minLongitude()) == 0
+                && Double.compare(this.maxLatitude, sector.maxLatitude()) == 0
+                && Double.compare(this.maxLongitude, sector.maxLongitude()) == 0
+                && Double.compare(this.maxAltitude, maxAltitude) == 0;
+        }
+
+        public boolean isUnbounded() {
+            // Note: comparisons with NaN are always false.
+            return !(this.minLatitude <= this.maxLatitude && this.minLongitude <= this.maxLongitude);
+        }
+
+        public boolean intersects(double minLat, double minLon, double maxLat, double maxLon) {
+            return this.minLatitude <= maxLat && this.maxLatitude >= minLat
+                && this.minLongitude <= maxLon && this.maxLongitude >= minLon;
+        }
+    }
+
+    protected static class Node<T> {
+
+        public final double minLatitude;
+
+        public final double minLongitude;
+
+        public final double maxLatitude;
+
+        public final double maxLongitude;
+
+        public final int depth;
+
+        public ArrayList<Entry<T>> entries = new ArrayList<>();
+
+        public Node<T>[] children;
+
+        /**
+         * The maximum altitude of the items in this node and its descendants. The altitude only increases as items are
+         * added, and is reset when the tree is cleared.
+         */
+        public double maxAltitude;
+
+        protected BoundingBox boundingBox;
+
+        protected Globe boundingBoxGlobe;
+
+        protected double boundingBoxMaxHeight;
+
+        public Node(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, int depth) {
+            this.minLatitude = minLatitude;
+            this.minLongitude = minLongitude;
+            this.maxLatitude = maxLatitude;
+            this.maxLongitude = maxLongitude;
+            this.depth = depth;
+        }
+
+        public boolean intersects(double minLat, double minLon, double maxLat, double maxLon) {
+            return this.minLatitude <= maxLat && this.maxLatitude >= minLat
+                && this.minLongitude <= maxLon && this.maxLongitude >= minLon;
+        }
+
+        public boolean contains(Entry<T> entry) {
+            return this.minLatitude <= entry.minLatitude && this.maxLatitude >= entry.maxLatitude
+                && this.minLongitude <= entry.minLongitude && this.maxLongitude >= entry.maxLongitude;
+        }
+
+        public void includeAltitude(double altitude) {
+            if (this.maxAltitude < altitude) {
+                this.maxAltitude = altitude;
+            }
+        }
+
+        public Node<T> childContaining(Entry<T> entry) {
+            for (Node<T> child : this.children) {
+                if (child.contains(entry)) {
+                    return child;
+                }
+            }
+
+            return null;
+        }
+
+        public void add(Entry<T> entry) {
+            entry.node = this;
+            entry.index = this.entries.size();
+            this.entries.add(entry);
+        }
+
+        public void remove(Entry<T> entry) {
+            Entry<T> last = this.entries.remove(this.entries.size() - 1);
+            if (last != entry) { // move the last entry into the removed entry's slot
+                this.entries.set(entry.index, last);
+                last.index = entry.index;
+            }
+
+            entry.node = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void split() {
+            double midLat = 0.5 * (this.minLatitude + this.maxLatitude);
+            double midLon = 0.5 * (this.minLongitude + this.maxLongitude);
+            int depth = this.depth + 1;
+
+            this.children = new Node[4];
+            this.children[0] = new Node<>(this.minLatitude, this.minLongitude, midLat, midLon, depth);
+            this.children[1] = new Node<>(this.minLatitude, midLon, midLat, this.maxLongitude, depth);
+            this.children[2] = new Node<>(midLat, this.minLongitude, this.maxLatitude, midLon, depth);
+            this.children[3] = new Node<>(midLat, midLon, this.maxLatitude, this.maxLongitude, depth);
+
+            // Move the entries that fit entirely within a child to that child. Entries straddling the children's
+            // boundaries remain in this node.
+            ArrayList<Entry<T>> entries = this.entries;
+            this.entries = new ArrayList<>();
+            for (int idx = 0, len = entries.size(); idx < len; idx++) {
+                Entry<T> entry = entries.get(idx);
+                Node<T> child = this.childContaining(entry);
+                if (child != null) {
+                    child.includeAltitude(entry.maxAltitude);
+                    child.add(entry);
+                } else {
+                    this.add(entry);
+                }
+            }
+        }
+
+        public boolean intersectsFrustum(Frustum frustum, Globe globe, double verticalExaggeration) {
+            double maxHeight = (this.maxAltitude + MAX_TERRAIN_HEIGHT) * verticalExaggeration;
+
+            if (this.boundingBox == null) {
+                this.boundingBox = new BoundingBox();
+            }
+
+            if (this.boundingBoxGlobe != globe || this.boundingBoxMaxHeight != maxHeight) {
+                Sector sector = Sector.fromDegrees(this.minLatitude, this.minLongitude,
+                    this.maxLatitude - this.minLatitude, this.maxLongitude - this.minLongitude);
+                this.boundingBox.setToSector(sector, globe, (float) (MIN_TERRAIN_HEIGHT * verticalExaggeration),
+                    (float) maxHeight);
+                this.boundingBoxGlobe = globe;
+                this.boundingBoxMaxHeight = maxHeight;
+            }
+
+            return this.boundingBox.intersectsFrustum(frustum);
+        }
+    }
+}
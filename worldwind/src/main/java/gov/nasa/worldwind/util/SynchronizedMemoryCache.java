@@ -38,6 +38,48 @@ public class SynchronizedMemoryCache<K, V> extends LruMemoryCache<K, V> {
         }
     }
 
+    @Override
+    public boolean isSegmented() {
+        synchronized (this.lock) {
+            return super.isSegmented();
+        }
+    }
+
+    @Override
+    public void setSegmented(boolean segmented) {
+        synchronized (this.lock) {
+            super.setSegmented(segmented);
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        synchronized (this.lock) {
+            return super.getHitCount();
+        }
+    }
+
+    @Override
+    public long getMissCount() {
+        synchronized (this.lock) {
+            return super.getMissCount();
+        }
+    }
+
+    @Override
+    public long getEvictionCount() {
+        synchronized (this.lock) {
+            return super.getEvictionCount();
+        }
+    }
+
+    @Override
+    public void resetStatistics() {
+        synchronized (this.lock) {
+            super.resetStatistics();
+        }
+    }
+
     @Override
     public V get(K key) {
         synchronized (this.lock) {
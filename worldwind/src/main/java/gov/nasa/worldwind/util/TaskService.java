@@ -5,9 +5,12 @@
 
 package gov.nasa.worldwind.util;
 
+import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
 
-import java.util.concurrent.ExecutorService;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.SynchronousQueue;
@@ -15,50 +18,341 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Executes WorldWind's background tasks on a fixed set of lanes, each with a bounded number of threads and a bounded
+ * queue. Separating tasks by the resource they wait on keeps slow network requests from starving local decoding, and
+ * keeps the total number of task threads competing with the render thread under control. Tasks submitted to a lane
+ * whose threads are busy and whose queue is full are rejected with a {@link RejectedExecutionException}.
+ * <p/>
+ * Tasks submitted without a lane run on the {@link #GENERAL} lane, whose queue is unbounded. Callers written before
+ * lanes existed therefore never see a rejection.
+ */
 public class TaskService {
 
-    protected ExecutorService executorService;
+    /**
+     * {@link LaneType} constant indicating tasks bound by network I/O, such as HTTP requests.
+     */
+    public static final int NETWORK = 0;
+
+    /**
+     * {@link LaneType} constant indicating CPU bound tasks, such as image and elevation decoding, and tasks reading
+     * local files.
+     */
+    public static final int DECODE = 1;
+
+    /**
+     * {@link LaneType} constant indicating tasks that access SQLite databases, such as GeoPackage reads.
+     */
+    public static final int DATABASE = 2;
 
+    /**
+     * {@link LaneType} constant indicating tasks submitted without a lane. The general lane queues tasks without bound
+     * and never rejects them.
+     */
+    public static final int GENERAL = 3;
+
+    /**
+     * Lane type indicates the resource a task spends most of its time waiting on. Accepted values are {@link
+     * #NETWORK}, {@link #DECODE}, {@link #DATABASE} and {@link #GENERAL}.
+     */
+    @IntDef({NETWORK, DECODE, DATABASE, GENERAL})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface LaneType {
+
+    }
+
+    protected Lane[] lanes;
+
+    public TaskService() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[4];
+        this.lanes[NETWORK] = new Lane("WorldWind Network ", 8, 64);
+        this.lanes[DECODE] = new Lane("WorldWind Decode ", Math.max(1, Math.min(4, processors - 1)), 64);
+        this.lanes[DATABASE] = new Lane("WorldWind Database ", 1, 64);
+        this.lanes[GENERAL] = new Lane("WorldWind Task Service ", 4, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Executes a task on the {@link #GENERAL} lane. The task waits for a thread when the lane is busy, and is never
+     * rejected.
+     *
+     * @param command the task to execute
+     */
     public void execute(Runnable command) {
+        this.execute(GENERAL, command);
+    }
+
+    /**
+     * Executes a task on a specified lane.
+     *
+     * @param lane    the lane to execute the task on
+     * @param command the task to execute
+     *
+     * @throws RejectedExecutionException If the lane's threads are busy and its queue is full
+     */
+    public void execute(@LaneType int lane, Runnable command) {
         if (command == null) {
             return;
         }
 
-        this.executorService().execute(command);
+        this.getLane(lane).execute(command);
     }
 
-    protected ExecutorService executorService() {
-        if (this.executorService == null) {
-            this.executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
-                new SynchronousQueue<Runnable>(),
-                this.threadFactory(),
-                this.rejectedExecutionHandler());
+    /**
+     * Returns the lane for a specified lane type, which provides the lane's configuration and metrics.
+     *
+     * @param lane the lane type
+     *
+     * @return the lane
+     *
+     * @throws IllegalArgumentException If the lane type is not one of the accepted values
+     */
+    public Lane getLane(@LaneType int lane) {
+        if (lane < 0 || lane >= this.lanes.length) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TaskService", "getLane", "invalidLane"));
         }
 
-        return this.executorService;
+        return this.lanes[lane];
     }
 
-    protected ThreadFactory threadFactory() {
-        final String threadName = "WorldWind Task Service ";
-        final AtomicInteger threadNumber = new AtomicInteger(1);
+    /**
+     * A bounded executor for one lane of the task service. The lane's threads are created on demand and terminate
+     * after a period of inactivity, so idle lanes hold no threads.
+     */
+    public static class Lane {
+
+        protected final String threadName;
+
+        protected int parallelism;
+
+        protected int queueDepth;
+
+        protected ThreadPoolExecutor executor;
+
+        protected final AtomicInteger activeCount = new AtomicInteger();
+
+        protected final AtomicLong completedCount = new AtomicLong();
+
+        protected final AtomicLong rejectedCount = new AtomicLong();
+
+        protected final AtomicLong totalWaitNanos = new AtomicLong();
+
+        protected final AtomicLong totalRunNanos = new AtomicLong();
+
+        protected final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        protected static final long KEEP_ALIVE_SECONDS = 60;
+
+        public Lane(String threadName, int parallelism, int queueDepth) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "Lane", "constructor", "invalidParallelism"));
+            }
+
+            if (queueDepth < 0) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "Lane", "constructor", "invalidQueueDepth"));
+            }
+
+            this.threadName = threadName;
+            this.parallelism = parallelism;
+            this.queueDepth = queueDepth;
+        }
+
+        /**
+         * Returns the maximum number of tasks this lane executes simultaneously.
+         */
+        public synchronized int getParallelism() {
+            return this.parallelism;
+        }
+
+        public synchronized void setParallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "Lane", "setParallelism", "invalidParallelism"));
+            }
+
+            this.parallelism = parallelism;
+
+            if (this.executor != null) { // order matters; the core size must never exceed the maximum size
+                if (parallelism > this.executor.getMaximumPoolSize()) {
+                    this.executor.setMaximumPoolSize(parallelism);
+                    this.executor.setCorePoolSize(parallelism);
+                } else {
+                    this.executor.setCorePoolSize(parallelism);
+                    this.executor.setMaximumPoolSize(parallelism);
+                }
+            }
+        }
+
+        /**
+         * Returns the maximum number of tasks waiting for a thread in this lane.
+         */
+        public synchronized int getQueueDepth() {
+            return this.queueDepth;
+        }
+
+        /**
+         * Sets the maximum number of tasks waiting for a thread in this lane. Tasks already queued complete on the
+         * lane's current threads; tasks submitted afterwards use a new queue with the specified depth.
+         */
+        public synchronized void setQueueDepth(int queueDepth) {
+            if (queueDepth < 0) {
+                throw new IllegalArgumentException(
+                    Logger.logMessage(Logger.ERROR, "Lane", "setQueueDepth", "invalidQueueDepth"));
+            }
+
+            this.queueDepth = queueDepth;
 
-        return new ThreadFactory() {
-            @Override
-            public Thread newThread(@NonNull Runnable r) {
-                Thread thread = new Thread(r, threadName + threadNumber.getAndIncrement());
-                thread.setDaemon(true); // task threads do not prevent the process from terminating
-                return thread;
+            if (this.executor != null) {
+                this.executor.shutdown(); // let queued tasks finish, then release the threads
+                this.executor = null;
             }
-        };
+        }
+
+        /**
+         * Returns the number of tasks currently executing in this lane.
+         */
+        public int getActiveCount() {
+            return this.activeCount.get();
+        }
+
+        /**
+         * Returns the number of tasks waiting for a thread in this lane.
+         */
+        public synchronized int getQueuedCount() {
+            return (this.executor != null) ? this.executor.getQueue().size() : 0;
+        }
+
+        /**
+         * Returns the number of tasks this lane has completed, including tasks that completed with an exception.
+         */
+        public long getCompletedCount() {
+            return this.completedCount.get();
+        }
+
+        /**
+         * Returns the number of tasks this lane has rejected because its threads were busy and its queue was full.
+         */
+        public long getRejectedCount() {
+            return this.rejectedCount.get();
+        }
+
+        /**
+         * Returns the mean time completed tasks spent waiting in this lane's queue, in nanoseconds.
+         */
+        public long getAverageWaitNanos() {
+            long count = this.completedCount.get();
+            return (count > 0) ? this.totalWaitNanos.get() / count : 0;
+        }
+
+        /**
+         * Returns the mean time completed tasks spent executing in this lane, in nanoseconds.
+         */
+        public long getAverageRunNanos() {
+            long count = this.completedCount.get();
+            return (count > 0) ? this.totalRunNanos.get() / count : 0;
+        }
+
+        /**
+         * Returns the longest time from submission to completion of any task in this lane, in nanoseconds.
+         */
+        public long getMaxLatencyNanos() {
+            return this.maxLatencyNanos.get();
+        }
+
+        public void resetMetrics() {
+            this.completedCount.set(0);
+            this.rejectedCount.set(0);
+            this.totalWaitNanos.set(0);
+            this.totalRunNanos.set(0);
+            this.maxLatencyNanos.set(0);
+        }
+
+        public void execute(Runnable command) {
+            this.executor().execute(new LaneTask(this, command));
+        }
+
+        protected synchronized ThreadPoolExecutor executor() {
+            if (this.executor == null) {
+                this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    (this.queueDepth > 0) ? new LinkedBlockingQueue<Runnable>(this.queueDepth) : new SynchronousQueue<Runnable>(),
+                    this.threadFactory(),
+                    this.rejectedExecutionHandler());
+                this.executor.allowCoreThreadTimeOut(true); // idle lanes release their threads
+            }
+
+            return this.executor;
+        }
+
+        protected ThreadFactory threadFactory() {
+            final String threadName = this.threadName;
+            final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            return new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable r) {
+                    Thread thread = new Thread(r, threadName + threadNumber.getAndIncrement());
+                    // Run task threads below the render thread's priority. Android maps this to the background
+                    // scheduling priority.
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    thread.setDaemon(true); // task threads do not prevent the process from terminating
+                    return thread;
+                }
+            };
+        }
+
+        protected RejectedExecutionHandler rejectedExecutionHandler() {
+            return new RejectedExecutionHandler() {
+                @Override
+                public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                    rejectedCount.incrementAndGet();
+                    throw new RejectedExecutionException(); // throw an exception but suppress the message to avoid string allocation
+                }
+            };
+        }
+
+        protected void taskCompleted(long waitNanos, long runNanos) {
+            this.completedCount.incrementAndGet();
+            this.totalWaitNanos.addAndGet(waitNanos);
+            this.totalRunNanos.addAndGet(runNanos);
+
+            long latency = waitNanos + runNanos;
+            long max;
+            while (latency > (max = this.maxLatencyNanos.get()) && !this.maxLatencyNanos.compareAndSet(max, latency)) {
+                // retry until the maximum is updated or exceeded by another thread
+            }
+        }
     }
 
-    protected RejectedExecutionHandler rejectedExecutionHandler() {
-        return new RejectedExecutionHandler() {
-            @Override
-            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-                throw new RejectedExecutionException(); // throw an exception but suppress the message to avoid string allocation
+    protected static class LaneTask implements Runnable {
+
+        protected final Lane lane;
+
+        protected final Runnable command;
+
+        protected final long submitNanos = System.nanoTime();
+
+        public LaneTask(Lane lane, Runnable command) {
+            this.lane = lane;
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            this.lane.activeCount.incrementAndGet();
+
+            try {
+                this.command.run();
+            } finally {
+                this.lane.activeCount.decrementAndGet();
+                this.lane.taskCompleted(startNanos - this.submitNanos, System.nanoTime() - startNanos);
             }
-        };
+        }
     }
 }
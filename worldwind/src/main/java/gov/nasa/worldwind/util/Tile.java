@@ -15,6 +15,7 @@ import gov.nasa.worldwind.geom.BoundingBox;
 import gov.nasa.worldwind.geom.Frustum;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.globe.ElevationModel;
 import gov.nasa.worldwind.render.RenderContext;
 
 /**
@@ -80,6 +81,8 @@ public class Tile {
 
     protected long heightLimitsTimestamp;
 
+    protected long heightLimitsGeneration;
+
     protected double extentExaggeration;
 
     protected double distanceToCamera;
@@ -276,6 +279,16 @@ public class Tile {
         return this.sector.intersects(sector);
     }
 
+    /**
+     * Returns the distance from this tile to the camera, as computed by the most recent call to {@link
+     * #mustSubdivide(RenderContext, double)}.
+     *
+     * @return the distance to the camera in meters
+     */
+    public double getDistanceToCamera() {
+        return this.distanceToCamera;
+    }
+
     /**
      * Indicates whether this tile should be subdivided based on the current navigation state and a specified detail
      * factor.
@@ -398,12 +411,18 @@ public class Tile {
             this.extent = new BoundingBox();
         }
 
-        long elevationTimestamp = rc.globe.getElevationModel().getTimestamp();
-        if (elevationTimestamp != this.heightLimitsTimestamp) {
+        ElevationModel elevationModel = rc.globe.getElevationModel();
+        long elevationTimestamp = elevationModel.getTimestamp();
+        long elevationGeneration = elevationModel.getGeneration();
+        boolean heightsChanged = elevationTimestamp != this.heightLimitsTimestamp ||
+            elevationModel.hasChangedSince(this.sector, this.heightLimitsGeneration);
+        if (heightsChanged) {
+            // retrieve the elevations nearest the camera first, using the tile's current height limits
+            double priority = this.distanceToCamera(rc);
             // initialize the heights for elevation model scan
             this.heightLimits[0] = Float.MAX_VALUE;
             this.heightLimits[1] = -Float.MAX_VALUE;
-            rc.globe.getElevationModel().getHeightLimits(this.sector, this.heightLimits);
+            elevationModel.getHeightLimits(this.sector, priority, this.heightLimits);
             // check for valid height limits
             if (this.heightLimits[0] > this.heightLimits[1]) {
                 Arrays.fill(this.heightLimits, 0f);
@@ -411,14 +430,14 @@ public class Tile {
         }
 
         double verticalExaggeration = rc.verticalExaggeration;
-        if (verticalExaggeration != this.extentExaggeration ||
-            elevationTimestamp != this.heightLimitsTimestamp) {
+        if (verticalExaggeration != this.extentExaggeration || heightsChanged) {
             float minHeight = (float) (this.heightLimits[0] * verticalExaggeration);
             float maxHeight = (float) (this.heightLimits[1] * verticalExaggeration);
             this.extent.setToSector(this.sector, rc.globe, minHeight, maxHeight);
         }
 
         this.heightLimitsTimestamp = elevationTimestamp;
+        this.heightLimitsGeneration = elevationGeneration;
         this.extentExaggeration = verticalExaggeration;
 
         return this.extent;
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of nanosecond durations. Durations are counted in logarithmic buckets, eight per power of two,
+ * so percentiles are reported with a relative error of at most 12.5% while recording a duration is a constant-time
+ * array update that never allocates. The minimum, maximum and sum of recorded durations are exact.
+ * <p/>
+ * TimeHistogram is not thread safe. Callers recording durations from multiple threads must synchronize access.
+ */
+public class TimeHistogram {
+
+    protected static final int SUB_BUCKET_BITS = 3;
+
+    protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    protected static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    protected long[] counts = new long[BUCKET_COUNT];
+
+    protected long count;
+
+    protected long sum;
+
+    protected long min;
+
+    protected long max;
+
+    public TimeHistogram() {
+    }
+
+    /**
+     * Constructs a histogram with the same recorded durations as another histogram.
+     *
+     * @param histogram the histogram to copy
+     *
+     * @throws IllegalArgumentException If the histogram is null
+     */
+    public TimeHistogram(TimeHistogram histogram) {
+        if (histogram == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TimeHistogram", "constructor", "missingHistogram"));
+        }
+
+        this.set(histogram);
+    }
+
+    /**
+     * Sets this histogram's recorded durations to those of another histogram.
+     *
+     * @param histogram the histogram to copy
+     *
+     * @return this histogram with its recorded durations set to those of the specified histogram
+     *
+     * @throws IllegalArgumentException If the histogram is null
+     */
+    public TimeHistogram set(TimeHistogram histogram) {
+        if (histogram == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TimeHistogram", "set", "missingHistogram"));
+        }
+
+        System.arraycopy(histogram.counts, 0, this.counts, 0, BUCKET_COUNT);
+        this.count = histogram.count;
+        this.sum = histogram.sum;
+        this.min = histogram.min;
+        this.max = histogram.max;
+
+        return this;
+    }
+
+    /**
+     * Records a duration. Negative durations are recorded as zero.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        this.counts[bucketIndex(nanos)]++;
+        this.sum += nanos;
+        this.min = (this.count == 0 || this.min > nanos) ? nanos : this.min;
+        this.max = (this.count == 0 || this.max < nanos) ? nanos : this.max;
+        this.count++;
+    }
+
+    /**
+     * Removes all recorded durations.
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.sum = 0;
+        this.min = 0;
+        this.max = 0;
+    }
+
+    /**
+     * Indicates the number of recorded durations.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Indicates the sum of the recorded durations in nanoseconds.
+     */
+    public long getSum() {
+        return this.sum;
+    }
+
+    /**
+     * Indicates the shortest recorded duration in nanoseconds, or zero if no durations have been recorded.
+     */
+    public long getMin() {
+        return this.min;
+    }
+
+    /**
+     * Indicates the longest recorded duration in nanoseconds, or zero if no durations have been recorded.
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Indicates the mean recorded duration in nanoseconds, or zero if no durations have been recorded.
+     */
+    public double getMean() {
+        return (this.count > 0) ? (this.sum / (double) this.count) : 0;
+    }
+
+    /**
+     * Computes the duration at or below which a fraction of the recorded durations lie. The result is the upper bound
+     * of the bucket containing the percentile, limited to the range of recorded durations.
+     *
+     * @param fraction the percentile as a fraction in the range [0, 1], for example 0.95 for the 95th percentile
+     *
+     * @return the duration in nanoseconds, or zero if no durations have been recorded
+     *
+     * @throws IllegalArgumentException If the fraction is not in the range [0, 1]
+     */
+    public long getPercentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "TimeHistogram", "getPercentile", "invalidFraction"));
+        }
+
+        if (this.count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+        long cumulative = 0;
+        for (int idx = 0; idx < BUCKET_COUNT; idx++) {
+            cumulative += this.counts[idx];
+            if (cumulative >= rank) {
+                return Math.max(this.min, Math.min(this.max, bucketUpperBound(idx)));
+            }
+        }
+
+        return this.max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + this.count + ", mean=" + Math.round(this.getMean()) + ", p50=" + this.getPercentile(0.5)
+            + ", p95=" + this.getPercentile(0.95) + ", p99=" + this.getPercentile(0.99) + ", max=" + this.max;
+    }
+
+    protected static int bucketIndex(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos; // durations shorter than the sub bucket count have one bucket per nanosecond
+        }
+
+        int msb = 63 - Long.numberOfLeadingZeros(nanos);
+        int shift = msb - SUB_BUCKET_BITS;
+        int subBucket = (int) (nanos >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    protected static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
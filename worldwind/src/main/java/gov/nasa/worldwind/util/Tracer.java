@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Records spans of work on each thread, and exports them in the Chrome trace event format for viewing in
+ * chrome://tracing or Perfetto. Tracing correlates work spread across WorldWind's threads: frames rendered on the main or
+ * render thread, frames drawn on the OpenGL thread, and retrievals, decoding and database reads on {@link TaskService}
+ * threads.
+ * <p/>
+ * Spans are delimited by calls to {@link #begin(String)} and {@link #end(String)} on the same thread, with names that
+ * are typically one of the constants defined here. Each thread records its spans in its own fixed-size ring buffer, so
+ * recording a span neither locks nor allocates, and the oldest spans are overwritten when a thread's buffer is full.
+ * The buffers of threads that have ended are discarded once exported or cleared, so short-lived and replaced pool
+ * threads don't accumulate buffers. Tracing is disabled by default, in which case begin and end return after checking
+ * a flag.
+ */
+public class Tracer {
+
+    /**
+     * Span of a frame rendered on the main thread or the render thread.
+     */
+    public static final String RENDER = "render";
+
+    /**
+     * Span of a frame drawn on the OpenGL thread.
+     */
+    public static final String DRAW = "draw";
+
+    /**
+     * Span of terrain tessellation.
+     */
+    public static final String TESSELLATE = "tessellate";
+
+    /**
+     * Span of an asynchronous retrieval, from the start of the retrieval task to its completion callback.
+     */
+    public static final String RETRIEVE = "retrieve";
+
+    /**
+     * Span of decoding a retrieved image or elevation coverage.
+     */
+    public static final String DECODE = "decode";
+
+    /**
+     * Span of a GeoPackage database read.
+     */
+    public static final String DATABASE_READ = "databaseRead";
+
+    /**
+     * Span of adding an entry to a memory cache, including any evictions it causes.
+     */
+    public static final String CACHE_PUT = "cachePut";
+
+    /**
+     * Span of uploading a texture to OpenGL.
+     */
+    public static final String TEXTURE_UPLOAD = "textureUpload";
+
+    protected static final int DEFAULT_CAPACITY = 8192;
+
+    protected static final long EPOCH_NANOS = System.nanoTime();
+
+    protected static volatile boolean enabled;
+
+    protected static volatile int capacity = DEFAULT_CAPACITY;
+
+    protected static final ArrayList<TraceBuffer> buffers = new ArrayList<>();
+
+    protected static final ThreadLocal<TraceBuffer> threadBuffer = new ThreadLocal<TraceBuffer>() {
+        @Override
+        protected TraceBuffer initialValue() {
+            TraceBuffer buffer = new TraceBuffer(Thread.currentThread(), capacity);
+            synchronized (buffers) {
+                buffers.add(buffer);
+            }
+            return buffer;
+        }
+    };
+
+    protected Tracer() {
+    }
+
+    /**
+     * Indicates whether spans are recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Specifies whether to record spans. Spans already recorded are kept when tracing is disabled.
+     *
+     * @param enable true to record spans, otherwise false
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Indicates the number of span events each thread keeps. Each span has a begin event and an end event.
+     */
+    public static int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Specifies the number of span events each thread keeps, rounded up to a power of two. The capacity applies to
+     * threads that have not yet recorded a span, and is typically specified before tracing is first enabled.
+     *
+     * @param eventCapacity the number of events to keep per thread
+     *
+     * @throws IllegalArgumentException If the capacity is less than 1
+     */
+    public static void setCapacity(int eventCapacity) {
+        if (eventCapacity < 1) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Tracer", "setCapacity", "invalidCapacity"));
+        }
+
+        int powerOfTwo = Integer.highestOneBit(eventCapacity);
+        capacity = (powerOfTwo == eventCapacity) ? powerOfTwo : (powerOfTwo << 1);
+    }
+
+    /**
+     * Marks the beginning of a span on the current thread. Does nothing when tracing is disabled.
+     *
+     * @param name the span's name, typically one of the constants defined by Tracer
+     */
+    public static void begin(String name) {
+        if (enabled) {
+            threadBuffer.get().add(name, true);
+        }
+    }
+
+    /**
+     * Marks the end of the current thread's most recent span. Does nothing when tracing is disabled.
+     *
+     * @param name the span's name, matching the name specified to {@link #begin(String)}
+     */
+    public static void end(String name) {
+        if (enabled) {
+            threadBuffer.get().add(name, false);
+        }
+    }
+
+    /**
+     * Discards the spans recorded by all threads, and the buffers of threads that have ended. Spans in progress on
+     * other threads may be exported with an end event but no begin event.
+     */
+    public static void clear() {
+        synchronized (buffers) {
+            for (int idx = 0, len = buffers.size(); idx < len; idx++) {
+                TraceBuffer buffer = buffers.get(idx);
+                buffer.start = buffer.count;
+            }
+
+            pruneBuffers();
+        }
+    }
+
+    /**
+     * Writes the spans recorded by all threads in the Chrome trace event JSON format. Span times are in microseconds
+     * relative to when the Tracer class was loaded. Threads continue to record spans while the trace is exported. The
+     * spans of threads that have ended are exported once, and then discarded along with the threads' buffers.
+     *
+     * @param out the destination of the trace
+     *
+     * @throws IllegalArgumentException If the destination is null
+     * @throws IOException              If the destination cannot be written
+     */
+    public static void exportChromeTrace(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException(
+                Logger.logMessage(Logger.ERROR, "Tracer", "exportChromeTrace", "missingBuffer"));
+        }
+
+        ArrayList<TraceBuffer> list;
+        synchronized (buffers) {
+            list = new ArrayList<>(buffers);
+            pruneBuffers();
+        }
+
+        out.append("{\"traceEvents\":[");
+        boolean first = true;
+        for (int idx = 0, len = list.size(); idx < len; idx++) {
+            first = list.get(idx).export(out, first);
+        }
+        out.append("],\"displayTimeUnit\":\"ms\"}");
+    }
+
+    /**
+     * Removes the buffers of threads that have ended. Must be called while synchronized on the buffer list.
+     */
+    protected static void pruneBuffers() {
+        for (int idx = buffers.size() - 1; idx >= 0; idx--) {
+            if (!buffers.get(idx).isThreadAlive()) {
+                buffers.remove(idx);
+            }
+        }
+    }
+
+    protected static void appendJsonString(String value, Appendable out) throws IOException {
+        out.append('"');
+        for (int idx = 0, len = value.length(); idx < len; idx++) {
+            char c = value.charAt(idx);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    protected static void appendMicros(long nanos, Appendable out) throws IOException {
+        long micros = nanos / 1000;
+        long fraction = Math.abs(nanos % 1000);
+        if (nanos < 0 && micros == 0) {
+            out.append('-');
+        }
+        out.append(Long.toString(micros)).append('.');
+        if (fraction < 100) {
+            out.append('0');
+        }
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(Long.toString(fraction));
+    }
+
+    /**
+     * A thread's ring buffer of span events. Only the owning thread adds events, and publishes them by incrementing
+     * the volatile event count. Exporting threads copy events without locking, and discard any events the owning thread
+     * overwrote while they were being copied. The buffer refers to its thread weakly, so that it does not keep an ended
+     * thread reachable.
+     */
+    protected static class TraceBuffer {
+
+        protected final WeakReference<Thread> thread;
+
+        protected final long threadId;
+
+        protected final String threadName;
+
+        protected final String[] names;
+
+        protected final long[] times;
+
+        protected final boolean[] begins;
+
+        protected final int mask;
+
+        protected volatile long count;
+
+        protected volatile long start;
+
+        public TraceBuffer(Thread thread, int capacity) {
+            this.thread = new WeakReference<>(thread);
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+            this.names = new String[capacity];
+            this.times = new long[capacity];
+            this.begins = new boolean[capacity];
+            this.mask = capacity - 1;
+        }
+
+        public boolean isThreadAlive() {
+            Thread thread = this.thread.get();
+            return thread != null && thread.isAlive();
+        }
+
+        public void add(String name, boolean begin) {
+            long n = this.count;
+            int idx = (int) (n & this.mask);
+            this.names[idx] = name;
+            this.times[idx] = System.nanoTime();
+            this.begins[idx] = begin;
+            this.count = n + 1; // publish the event to exporting threads
+        }
+
+        public boolean export(Appendable out, boolean first) throws IOException {
+            int capacity = this.mask + 1;
+            long end = this.count;
+            long from = Math.max(this.start, end - capacity);
+            if (from >= end) {
+                return first; // no events to export
+            }
+
+            // Copy the events, then discard those the owning thread overwrote while copying, including the slot it may
+            // be writing now.
+            int length = (int) (end - from);
+            String[] names = new String[length];
+            long[] times = new long[length];
+            boolean[] begins = new boolean[length];
+            for (int idx = 0; idx < length; idx++) {
+                int slot = (int) ((from + idx) & this.mask);
+                names[idx] = this.names[slot];
+                times[idx] = this.times[slot];
+                begins[idx] = this.begins[slot];
+            }
+            int skip = (int) Math.min(length, Math.max(0, this.count + 1 - capacity - from));
+
+            if (!first) {
+                out.append(',');
+            }
+            out.append("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":0,\"tid\":").append(Long.toString(this.threadId));
+            out.append(",\"args\":{\"name\":");
+            appendJsonString(this.threadName, out);
+            out.append("}}");
+
+            for (int idx = skip; idx < length; idx++) {
+                out.append(",\n{\"name\":");
+                appendJsonString(String.valueOf(names[idx]), out);
+                out.append(",\"ph\":\"").append(begins[idx] ? 'B' : 'E');
+                out.append("\",\"ts\":");
+                appendMicros(times[idx] - EPOCH_NANOS, out);
+                out.append(",\"pid\":0,\"tid\":").append(Long.toString(this.threadId)).append('}');
+            }
+
+            return false;
+        }
+    }
+}
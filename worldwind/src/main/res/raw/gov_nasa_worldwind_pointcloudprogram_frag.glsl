@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+precision mediump float;
+
+varying vec4 pointColor;
+
+void main() {
+    /* Discard fragments outside the circle inscribed in the point sprite. */
+    vec2 offset = gl_PointCoord - vec2(0.5);
+    if (dot(offset, offset) > 0.25) {
+        discard;
+    }
+
+    gl_FragColor = pointColor;
+}
\ No newline at end of file
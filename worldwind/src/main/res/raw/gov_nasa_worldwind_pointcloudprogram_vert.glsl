@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+uniform bool enablePickMode;
+uniform mat4 mvpMatrix;
+uniform vec4 pickColor;
+
+attribute vec4 vertexPoint;
+attribute vec4 vertexColor;
+attribute float vertexSize;
+
+varying vec4 pointColor;
+
+void main() {
+    /* Transform the vertex position by the modelview-projection matrix. */
+    gl_Position = mvpMatrix * vertexPoint;
+
+    /* Use the vertex size as the point sprite's diameter in pixels. */
+    gl_PointSize = vertexSize;
+
+    /* Use the pick color in pick mode, otherwise use the vertex color with premultiplied alpha. */
+    if (enablePickMode) {
+        pointColor = pickColor;
+    } else {
+        pointColor = vec4(vertexColor.rgb * vertexColor.a, vertexColor.a);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.draw.Drawable;
+import gov.nasa.worldwind.layer.RenderableLayer;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class FrameMetricsTest {
+
+    private DrawContext dc;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.dc = new DrawContext();
+    }
+
+    private static class TestDrawable implements Drawable {
+
+        @Override
+        public void recycle() {
+        }
+
+        @Override
+        public void draw(DrawContext dc) {
+        }
+    }
+
+    @Test
+    public void testProfilingDisabled() throws Exception {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.beginDrawing(this.dc);
+
+        assertNull("draw context profiler", this.dc.frameMetrics);
+        metrics.recordDrawable(new TestDrawable(), 1000); // ignored when profiling is disabled
+        metrics.endDrawing(this.dc);
+
+        FrameProfile profile = metrics.getProfile();
+        assertEquals("draw count", 1, metrics.getDrawCount());
+        assertTrue("draw entries", profile.getDrawEntries().isEmpty());
+        assertTrue("draw history", profile.getDrawHistory().isEmpty());
+    }
+
+    @Test
+    public void testProfileDrawables() throws Exception {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.setProfilingEnabled(true);
+
+        for (int frame = 0; frame < 3; frame++) {
+            metrics.beginDrawing(this.dc);
+            assertNotNull("draw context profiler", this.dc.frameMetrics);
+            this.dc.frameMetrics.recordDrawable(new TestDrawable(), 1000);
+            this.dc.frameMetrics.recordDrawable(new TestDrawable(), 2000); // same class in the same frame
+            if (frame == 1) {
+                this.dc.frameMetrics.recordDrawPhase(FrameMetrics.PHASE_TEXTURE_UPLOAD, 500);
+            }
+            metrics.endDrawing(this.dc);
+            assertNull("reset profiler", this.dc.frameMetrics);
+        }
+
+        FrameProfile profile = metrics.getProfile();
+        FrameProfile.Entry drawable = profile.getEntry(FrameProfile.CATEGORY_DRAWABLE, "TestDrawable");
+        FrameProfile.Entry upload = profile.getEntry(FrameProfile.CATEGORY_PHASE, FrameMetrics.PHASE_TEXTURE_UPLOAD);
+        FrameProfile.Entry draw = profile.getEntry(FrameProfile.CATEGORY_PHASE, FrameMetrics.PHASE_DRAW);
+        assertEquals("drawable frames", 3, drawable.getHistogram().getCount());
+        assertEquals("drawable time per frame", 3000, drawable.getHistogram().getMax());
+        assertEquals("upload frames", 1, upload.getHistogram().getCount());
+        assertEquals("draw frames", 3, draw.getHistogram().getCount());
+
+        List<FrameProfile.FrameTimes> history = profile.getDrawHistory();
+        int uploadIndex = profile.getDrawEntries().indexOf(upload);
+        assertEquals("history size", 3, history.size());
+        assertEquals("first frame", 0, history.get(0).getFrameNumber());
+        assertEquals("no upload", 0, history.get(0).getTime(uploadIndex));
+        assertEquals("upload", 500, history.get(1).getTime(uploadIndex));
+    }
+
+    @Test
+    public void testHistoryCapacity() throws Exception {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.setProfilingEnabled(true);
+        metrics.setHistoryCapacity(2);
+
+        for (int frame = 0; frame < 5; frame++) {
+            metrics.beginDrawing(this.dc);
+            metrics.endDrawing(this.dc);
+        }
+
+        List<FrameProfile.FrameTimes> history = metrics.getProfile().getDrawHistory();
+        assertEquals("history size", 2, history.size());
+        assertEquals("oldest frame", 3, history.get(0).getFrameNumber());
+        assertEquals("newest frame", 4, history.get(1).getFrameNumber());
+
+        metrics.reset();
+        assertTrue("reset", metrics.getProfile().getDrawHistory().isEmpty());
+    }
+
+    @Test
+    public void testExportSummary() throws Exception {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.setProfilingEnabled(true);
+        metrics.beginDrawing(this.dc);
+        metrics.recordDrawable(new TestDrawable(), 1000);
+        metrics.endDrawing(this.dc);
+
+        StringBuilder sb = new StringBuilder();
+        metrics.getProfile().exportSummary(sb);
+        String[] lines = sb.toString().split("\n");
+
+        assertEquals("header", "thread,category,name,count,mean,p50,p95,p99,max", lines[0]);
+        assertEquals("drawable", "draw,drawable,TestDrawable,1,1000,1000,1000,1000,1000", lines[1]);
+    }
+
+    @Test
+    public void testProfileLayers_IdentifiedByReference() throws Exception {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.setProfilingEnabled(true);
+        RenderContext rc = new RenderContext();
+        rc.renderResourceCache = new RenderResourceCache(1024);
+        RenderableLayer a = new RenderableLayer("Shapes");
+        RenderableLayer b = new RenderableLayer("Shapes");
+
+        metrics.beginRendering(rc);
+        rc.frameMetrics.recordLayer(a, 1000);
+        rc.frameMetrics.recordLayer(b, 2000);
+        a.setDisplayName("Renamed"); // keeps the label of the layer's first record
+        rc.frameMetrics.recordLayer(a, 500);
+        metrics.endRendering(rc);
+
+        FrameProfile profile = metrics.getProfile();
+        List<FrameProfile.Entry> layers = new ArrayList<>();
+        for (FrameProfile.Entry entry : profile.getRenderEntries()) {
+            if (entry.getCategory().equals(FrameProfile.CATEGORY_LAYER)) {
+                layers.add(entry);
+            }
+        }
+
+        assertEquals("layer entries", 2, layers.size());
+        assertEquals("first name", "Shapes", layers.get(0).getName());
+        assertEquals("second name", "Shapes", layers.get(1).getName());
+        assertEquals("first time", 1500, layers.get(0).getHistogram().getMax());
+        assertEquals("second time", 2000, layers.get(1).getHistogram().getMax());
+        assertSame("lookup by name", layers.get(0), profile.getEntry(FrameProfile.CATEGORY_LAYER, "Shapes"));
+    }
+}
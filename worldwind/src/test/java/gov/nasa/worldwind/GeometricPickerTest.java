@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.globe.BasicTerrain;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.layer.LayerList;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class GeometricPickerTest {
+
+    /**
+     * Collects the picked objects in a list, as the list's SparseArray is not available in unit tests.
+     */
+    private static class TestPickedObjectList extends PickedObjectList {
+
+        public List<PickedObject> offered = new ArrayList<>();
+
+        @Override
+        public void offerPickedObject(PickedObject pickedObject) {
+            this.offered.add(pickedObject);
+        }
+
+        @Override
+        public PickedObject terrainPickedObject() {
+            for (PickedObject po : this.offered) {
+                if (po.isTerrain()) {
+                    return po;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private RenderContext rc;
+
+    private GeometricPicker picker;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.terrain = new BasicTerrain(); // terrain without tiles
+        this.rc.layers = new LayerList();
+        this.rc.fieldOfView = 45;
+        this.rc.viewport.set(0, 0, 100, 100);
+        this.picker = new GeometricPicker();
+    }
+
+    @Test
+    public void testPick_EllipsoidWithoutTerrain() throws Exception {
+        Vec3 target = this.rc.globe.geographicToCartesian(10, 20, 0, new Vec3());
+        Vec3 origin = this.rc.globe.geographicToCartesian(10, 20, 1e5, new Vec3());
+        this.rc.pickRay = new Line(origin, new Vec3(target).subtract(origin));
+        TestPickedObjectList result = new TestPickedObjectList();
+
+        this.picker.pick(this.rc, result);
+
+        PickedObject terrainObject = result.terrainPickedObject();
+        assertNotNull("terrain", terrainObject);
+        assertTrue("on top", terrainObject.isOnTop());
+        Position position = terrainObject.getTerrainPosition();
+        assertEquals("latitude", 10, position.latitude, 1e-6);
+        assertEquals("longitude", 20, position.longitude, 1e-6);
+    }
+
+    @Test
+    public void testPick_Miss() throws Exception {
+        Vec3 origin = this.rc.globe.geographicToCartesian(10, 20, 1e5, new Vec3());
+        Vec3 away = this.rc.globe.geographicToCartesian(10, 20, 2e5, new Vec3());
+        this.rc.pickRay = new Line(origin, new Vec3(away).subtract(origin)); // points away from the globe
+        TestPickedObjectList result = new TestPickedObjectList();
+
+        this.picker.pick(this.rc, result);
+
+        assertNull("terrain", result.terrainPickedObject());
+    }
+}
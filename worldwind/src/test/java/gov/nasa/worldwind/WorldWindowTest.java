@@ -5,24 +5,200 @@
 
 package gov.nasa.worldwind;
 
-import android.content.Context;
+import android.os.Handler;
+import android.view.Choreographer;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.Logger;
+import gov.nasa.worldwind.util.SynchronizedPool;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
 
 @RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest({Logger.class, Choreographer.class}) // We mock the Logger class and the final Choreographer class
 public class WorldWindowTest {
 
+    /**
+     * WorldWindow that renders frames and posts pick callbacks immediately, recording each, without an OpenGL surface.
+     */
+    private static class TestWorldWindow extends WorldWindow {
+
+        public List<Frame> renderedFrames = new ArrayList<>();
+
+        public List<PickCallback> notifiedCallbacks = new ArrayList<>();
+
+        public List<PickedObjectList> notifiedLists = new ArrayList<>();
+
+        public boolean renderFails;
+
+        public TestWorldWindow() {
+            super(null);
+        }
+
+        @Override
+        public void requestRedraw() {
+        }
+
+        @Override
+        protected void prepareFrame(Frame frame) {
+            frame.viewport.set(this.viewport);
+        }
+
+        @Override
+        protected void renderFrame(Frame frame) {
+            if (this.renderFails) {
+                throw new RuntimeException("render failed");
+            }
+
+            this.renderedFrames.add(frame);
+        }
+
+        @Override
+        protected void postPickCallback(PickCallback callback, PickedObjectList pickedObjects) {
+            this.notifiedCallbacks.add(callback);
+            this.notifiedLists.add(pickedObjects);
+        }
+    }
+
+    private static class TestPickCallback implements PickCallback {
+
+        @Override
+        public void onPickCompleted(PickedObjectList pickedObjects) {
+        }
+    }
+
+    private TestWorldWindow wwd;
 
     @Before
     public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        PowerMockito.mockStatic(Choreographer.class);
+        PowerMockito.when(Choreographer.getInstance()).thenReturn(PowerMockito.mock(Choreographer.class));
+
+        // Construct the WorldWindow without its View constructor, which requires an Android context.
+        this.wwd = Whitebox.newInstance(TestWorldWindow.class);
+        this.wwd.renderedFrames = new ArrayList<>();
+        this.wwd.notifiedCallbacks = new ArrayList<>();
+        this.wwd.notifiedLists = new ArrayList<>();
+        this.wwd.viewport = new Viewport(0, 0, 100, 100);
+        this.wwd.renderedModelview = new Matrix4();
+        this.wwd.framePool = new SynchronizedPool<>();
+        this.wwd.frameQueue = new ConcurrentLinkedQueue<>();
+        this.wwd.pickQueue = new ConcurrentLinkedQueue<>();
+        this.wwd.pickRequests = new ArrayList<>();
+        this.wwd.navigatorEvents = mock(NavigatorEventSupport.class);
+        this.wwd.renderResourceCache = mock(RenderResourceCache.class);
+        this.wwd.mainThreadHandler = mock(Handler.class);
+    }
+
+    @Test
+    public void testPickAsync_CoalescesRequestsByCallback() throws Exception {
+        PickCallback callback = new TestPickCallback();
+        PickCallback otherCallback = new TestPickCallback();
+
+        this.wwd.pickAsync(10, -10, callback);
+        this.wwd.pickAsync(20, -20, otherCallback);
+        this.wwd.pickAsync(30, -30, callback); // replaces the first request
+
+        assertEquals("requests", 2, this.wwd.pickRequests.size());
+        assertSame("first callback", otherCallback, this.wwd.pickRequests.get(0).callback);
+        assertSame("second callback", callback, this.wwd.pickRequests.get(1).callback);
+        assertEquals("second x", 30, this.wwd.pickRequests.get(1).x, 0);
+        assertEquals("second y", 30, this.wwd.pickRequests.get(1).y, 0); // OpenGL screen coordinates
+
+        this.wwd.doFrame(0);
+
+        assertEquals("rendered frames", 1, this.wwd.renderedFrames.size());
+        assertEquals("frame requests", 2, this.wwd.renderedFrames.get(0).pickRequests.size());
+        assertTrue("requests submitted", this.wwd.pickRequests.isEmpty());
+        assertTrue("notified callbacks", this.wwd.notifiedCallbacks.isEmpty()); // resolved while the frame renders
+    }
+
+    @Test
+    public void testReset_CancelsPickRequests() throws Exception {
+        PickCallback callback = new TestPickCallback();
+        PickCallback otherCallback = new TestPickCallback();
+        this.wwd.pickAsync(10, -10, callback);
+        this.wwd.pickShapesInRectAsync(10, -30, 20, 20, otherCallback);
+
+        this.wwd.reset();
+
+        assertTrue("requests cancelled", this.wwd.pickRequests.isEmpty());
+        assertEquals("notified callbacks", 2, this.wwd.notifiedCallbacks.size());
+        assertSame("first callback", callback, this.wwd.notifiedCallbacks.get(0));
+        assertSame("second callback", otherCallback, this.wwd.notifiedCallbacks.get(1));
+        assertEquals("first picked objects", 0, this.wwd.notifiedLists.get(0).count());
+        assertEquals("second picked objects", 0, this.wwd.notifiedLists.get(1).count());
+    }
+
+    @Test
+    public void testSubmitPickRequests_RectSubmitsPickFrame() throws Exception {
+        PickCallback pointCallback = new TestPickCallback();
+        PickCallback rectCallback = new TestPickCallback();
+        this.wwd.pickAsync(10, -10, pointCallback);
+        this.wwd.pickShapesInRectAsync(10, -30, 20, 20, rectCallback); // OpenGL rectangle (10, 10, 20, 20)
+        Frame frame = Frame.obtain(this.wwd.framePool);
+
+        this.wwd.submitPickRequests(frame);
+
+        assertTrue("requests submitted", this.wwd.pickRequests.isEmpty());
+        assertEquals("frame requests", 1, frame.pickRequests.size());
+        assertSame("frame request", pointCallback, frame.pickRequests.get(0).callback);
+        assertEquals("rendered frames", 1, this.wwd.renderedFrames.size());
+        Frame pickFrame = this.wwd.renderedFrames.get(0);
+        assertTrue("pick mode", pickFrame.pickMode);
+        assertSame("pick callback", rectCallback, pickFrame.pickCallback);
+        assertEquals("pick viewport", new Viewport(10, 10, 20, 20), pickFrame.pickViewport);
+        assertTrue("notified callbacks", this.wwd.notifiedCallbacks.isEmpty()); // notified by the OpenGL thread
+    }
+
+    @Test
+    public void testSubmitPickRequests_RectOutsideViewport() throws Exception {
+        PickCallback callback = new TestPickCallback();
+        this.wwd.pickShapesInRectAsync(200, -220, 20, 20, callback);
 
+        this.wwd.submitPickRequests(Frame.obtain(this.wwd.framePool));
+
+        assertTrue("rendered frames", this.wwd.renderedFrames.isEmpty());
+        assertEquals("notified callbacks", 1, this.wwd.notifiedCallbacks.size());
+        assertSame("callback", callback, this.wwd.notifiedCallbacks.get(0));
+        assertEquals("picked objects", 0, this.wwd.notifiedLists.get(0).count());
+    }
+
+    @Test
+    public void testDoFrame_RenderFailureNotifiesPickRequests() throws Exception {
+        PickCallback pointCallback = new TestPickCallback();
+        PickCallback rectCallback = new TestPickCallback();
+        this.wwd.pickAsync(10, -10, pointCallback);
+        this.wwd.pickShapesInRectAsync(10, -30, 20, 20, rectCallback);
+        this.wwd.renderFails = true;
+
+        this.wwd.doFrame(0);
+
+        assertTrue("requests submitted", this.wwd.pickRequests.isEmpty());
+        assertEquals("notified callbacks", 2, this.wwd.notifiedCallbacks.size());
+        assertSame("rect callback", rectCallback, this.wwd.notifiedCallbacks.get(0)); // pick frame rendered first
+        assertSame("point callback", pointCallback, this.wwd.notifiedCallbacks.get(1));
+        assertEquals("rect picked objects", 0, this.wwd.notifiedLists.get(0).count());
+        assertEquals("point picked objects", 0, this.wwd.notifiedLists.get(1).count());
+        assertNotNull("frames recycled", this.wwd.framePool.acquire());
     }
 
     @After
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class DrawContextTest {
+
+    private DrawContext dc;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.dc = new DrawContext();
+    }
+
+    @Test
+    public void testScratchFloatArray_RetainedAtSteadyDemand() throws Exception {
+        float[] array = this.dc.scratchFloatArray(1000);
+        this.dc.reset();
+
+        assertSame("next frame", array, this.dc.scratchFloatArray(600));
+        this.dc.reset();
+        assertSame("following frame", array, this.dc.scratchFloatArray(1000));
+    }
+
+    @Test
+    public void testScratchFloatArray_TrimmedWhenDemandFalls() throws Exception {
+        this.dc.scratchFloatArray(1000);
+        this.dc.reset();
+        this.dc.scratchFloatArray(100);
+        this.dc.reset();
+
+        assertEquals("trimmed", 100, this.dc.scratchFloatArray(10).length);
+        this.dc.reset();
+        this.dc.reset(); // a frame without vertex data
+
+        assertEquals("released", 0, this.dc.scratchFloatArray(0).length);
+    }
+}
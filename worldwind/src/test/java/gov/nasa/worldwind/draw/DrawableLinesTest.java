@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gov.nasa.worldwind.render.BasicShaderProgram;
+import gov.nasa.worldwind.render.Color;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class DrawableLinesTest {
+
+    private static DrawableLines lines(Color color, float lineWidth) {
+        DrawableLines drawable = new DrawableLines();
+        drawable.color.set(color);
+        drawable.lineWidth = lineWidth;
+        return drawable;
+    }
+
+    @Test
+    public void testAssembleVertices() throws Exception {
+        DrawableLines drawable = new DrawableLines();
+        drawable.vertexPoints = new float[]{1, 2, 3, 4, 5, 6, 7, 8, 9}; // an unpaired last point is ignored
+        drawable.mvpMatrix.setTranslation(10, 20, 30);
+        float[] result = new float[10];
+
+        int offset = drawable.assembleVertices(result, 2);
+
+        assertEquals("offset", 10, offset);
+        assertArrayEquals("vertices", new float[]{0, 0, 11, 22, 33, 1, 14, 25, 36, 1}, result, 0);
+    }
+
+    @Test
+    public void testBatchEnd() throws Exception {
+        Color red = new Color(1, 0, 0, 1);
+        Color blue = new Color(0, 0, 1, 1);
+        List<Object> drawables = new ArrayList<Object>(Arrays.asList(
+            lines(red, 1), lines(red, 1), lines(red, 2), lines(blue, 2), lines(blue, 2)));
+
+        assertEquals("same color and width", 2, DrawableLines.batchEnd(drawables, 0));
+        assertEquals("different color", 3, DrawableLines.batchEnd(drawables, 2));
+        assertEquals("last run", 5, DrawableLines.batchEnd(drawables, 3));
+    }
+
+    @Test
+    public void testCanBatchWith_OnlyAdjacentLines() throws Exception {
+        BasicShaderProgram program = mock(BasicShaderProgram.class);
+        DrawableLines drawable = new DrawableLines();
+        drawable.program = program;
+        DrawableLines other = new DrawableLines();
+        other.program = program;
+        DrawableScreenTexture texture = new DrawableScreenTexture();
+        texture.program = program;
+
+        assertTrue("lines", drawable.canBatchWith(other));
+        assertFalse("screen texture", drawable.canBatchWith(texture)); // would draw out of back-to-front order
+    }
+}
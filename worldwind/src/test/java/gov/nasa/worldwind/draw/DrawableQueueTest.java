@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class DrawableQueueTest {
+
+    private static class TestDrawable implements Drawable {
+
+        public boolean recycled;
+
+        @Override
+        public void recycle() {
+            this.recycled = true;
+        }
+
+        @Override
+        public void draw(DrawContext dc) {
+        }
+    }
+
+    private static List<Drawable> pollAll(DrawableQueue queue) {
+        List<Drawable> result = new ArrayList<>();
+        Drawable next;
+        while ((next = queue.pollDrawable()) != null) {
+            result.add(next);
+        }
+        return result;
+    }
+
+    @Test
+    public void testTransferDrawables() throws Exception {
+        DrawableQueue queue = new DrawableQueue();
+        DrawableQueue other = new DrawableQueue();
+        TestDrawable a = new TestDrawable();
+        TestDrawable b = new TestDrawable();
+        TestDrawable c = new TestDrawable();
+        queue.offerDrawable(a, 1, 0);
+        other.offerDrawable(b, 1, 0);
+        other.offerDrawable(c, 0, 0);
+
+        queue.transferDrawables(other);
+
+        assertEquals("count", 3, queue.count());
+        assertEquals("other count", 0, other.count());
+        assertNull("other empty", other.pollDrawable());
+        assertSame("first", a, queue.getDrawable(0));
+        assertSame("second", b, queue.getDrawable(1));
+        assertSame("third", c, queue.getDrawable(2));
+
+        other.clearDrawables();
+        assertFalse("transferred drawables not recycled", b.recycled || c.recycled);
+    }
+
+    @Test
+    public void testTransferDrawables_SortMatchesSingleQueue() throws Exception {
+        Random random = new Random(3);
+        DrawableQueue single = new DrawableQueue();
+        DrawableQueue merged = new DrawableQueue();
+        DrawableQueue[] parts = {new DrawableQueue(), new DrawableQueue(), new DrawableQueue()};
+
+        for (int idx = 0; idx < 300; idx++) {
+            Drawable drawable = new TestDrawable();
+            int groupId = random.nextInt(2);
+            double order = random.nextInt(4); // many equal keys, ordered by ordinal
+            single.offerDrawable(drawable, groupId, order);
+            parts[idx / 100].offerDrawable(drawable, groupId, order);
+        }
+
+        for (DrawableQueue part : parts) {
+            merged.transferDrawables(part);
+        }
+
+        single.sortDrawables();
+        merged.sortDrawables();
+
+        assertEquals("sorted drawables", pollAll(single), pollAll(merged));
+    }
+}
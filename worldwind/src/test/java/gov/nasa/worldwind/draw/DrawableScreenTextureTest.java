@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import android.opengl.GLES20;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.Texture;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DrawableScreenTextureTest {
+
+    private static DrawableScreenTexture screenTexture(Texture texture, Color color) {
+        DrawableScreenTexture drawable = new DrawableScreenTexture();
+        drawable.texture = texture;
+        drawable.color.set(color);
+        return drawable;
+    }
+
+    @Test
+    public void testAssembleVertices() throws Exception {
+        DrawableScreenTexture drawable = new DrawableScreenTexture();
+        drawable.unitSquareTransform.set(
+            10, 0, 0, 100,
+            0, 20, 0, 200,
+            0, 0, 1, 0.5,
+            0, 0, 0, 1);
+        float[] result = new float[DrawableScreenTexture.RECT_VERTICES * DrawableScreenTexture.VERTEX_STRIDE];
+
+        int offset = drawable.assembleVertices(DrawableScreenTexture.IDENTITY_MATRIX, result, 0);
+
+        assertEquals("offset", result.length, offset);
+        assertArrayEquals("vertices", new float[]{
+            100, 200, 0.5f, 0, 0,
+            110, 200, 0.5f, 1, 0,
+            100, 220, 0.5f, 0, 1,
+            100, 220, 0.5f, 0, 1,
+            110, 200, 0.5f, 1, 0,
+            110, 220, 0.5f, 1, 1}, result, 0);
+    }
+
+    @Test
+    public void testBatchEnd() throws Exception {
+        Texture first = new Texture(16, 16, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+        Texture second = new Texture(16, 16, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE);
+        Color white = new Color(1, 1, 1, 1);
+        Color red = new Color(1, 0, 0, 1);
+        List<Object> drawables = new ArrayList<Object>(Arrays.asList(
+            screenTexture(first, white), screenTexture(first, white), screenTexture(second, white),
+            screenTexture(second, red), screenTexture(first, white)));
+
+        assertEquals("same texture and color", 2, DrawableScreenTexture.batchEnd(drawables, 0));
+        assertEquals("different color", 3, DrawableScreenTexture.batchEnd(drawables, 2));
+        assertEquals("texture drawn later in the queue", 4, DrawableScreenTexture.batchEnd(drawables, 3));
+        assertEquals("last run", 5, DrawableScreenTexture.batchEnd(drawables, 4));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.draw;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.Texture;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class SurfaceShapeTextureCacheTest {
+
+    private DrawContext dc;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.dc = new DrawContext();
+    }
+
+    @Test
+    public void testKeyEquality() throws Exception {
+        Sector sector = new Sector(0, 0, 10, 10);
+        Object buffer = new Object();
+
+        SurfaceShapeTextureCache.Key key = new SurfaceShapeTextureCache.Key().set(sector).addContent(buffer).addContent(1.5);
+        SurfaceShapeTextureCache.Key copy = key.copy();
+
+        assertEquals("copy", key, copy);
+        assertEquals("copy hash code", key.hashCode(), copy.hashCode());
+        assertNotEquals("different sector", key, new SurfaceShapeTextureCache.Key().set(new Sector(10, 0, 10, 10)).addContent(buffer).addContent(1.5));
+        assertNotEquals("different object", key, new SurfaceShapeTextureCache.Key().set(sector).addContent(new Object()).addContent(1.5));
+        assertNotEquals("different value", key, new SurfaceShapeTextureCache.Key().set(sector).addContent(buffer).addContent(2.5));
+    }
+
+    @Test
+    public void testKeyReset() throws Exception {
+        Sector sector = new Sector(0, 0, 10, 10);
+        SurfaceShapeTextureCache.Key key = new SurfaceShapeTextureCache.Key().set(sector).addContent(new Object());
+
+        key.set(sector);
+
+        assertEquals("reset", new SurfaceShapeTextureCache.Key().set(sector), key);
+    }
+
+    @Test
+    public void testReusesEvictedTextures() throws Exception {
+        int textureSize = 16;
+        SurfaceShapeTextureCache cache = new SurfaceShapeTextureCache(SurfaceShapeTextureCache.textureByteCount(textureSize) * 2, textureSize);
+        SurfaceShapeTextureCache.Key key = new SurfaceShapeTextureCache.Key();
+
+        Texture first = cache.obtainTexture(this.dc);
+        cache.put(key.set(new Sector(0, 0, 1, 1)).copy(), first, first.getByteCount());
+        Texture second = cache.obtainTexture(this.dc);
+        cache.put(key.set(new Sector(1, 0, 1, 1)).copy(), second, second.getByteCount());
+        Texture third = cache.obtainTexture(this.dc);
+        cache.put(key.set(new Sector(2, 0, 1, 1)).copy(), third, third.getByteCount()); // evicts the first texture
+
+        assertNull("evicted", cache.get(key.set(new Sector(0, 0, 1, 1))));
+        assertSame("cached", second, cache.get(key.set(new Sector(1, 0, 1, 1))));
+        assertSame("reused", first, cache.obtainTexture(this.dc));
+    }
+
+    @Test
+    public void testRecommendedCapacity() throws Exception {
+        int textureBytes = SurfaceShapeTextureCache.textureByteCount(SurfaceShapeTextureCache.DEFAULT_TEXTURE_SIZE);
+        int minTextures = SurfaceShapeTextureCache.MIN_TEXTURE_COUNT;
+
+        assertEquals("one eighth", textureBytes * minTextures * 2,
+            SurfaceShapeTextureCache.recommendedCapacity(textureBytes * minTextures * 16));
+        assertEquals("whole textures", textureBytes * minTextures * 2,
+            SurfaceShapeTextureCache.recommendedCapacity(textureBytes * minTextures * 16 + textureBytes));
+        assertEquals("minimum textures", textureBytes * minTextures,
+            SurfaceShapeTextureCache.recommendedCapacity(textureBytes));
+    }
+
+    @Test
+    public void testTextureSize() throws Exception {
+        assertEquals("texture size", SurfaceShapeTextureCache.DEFAULT_TEXTURE_SIZE,
+            this.dc.surfaceShapeTextureCache().getTextureSize());
+    }
+
+    @Test
+    public void testSteadyStateHitRate() throws Exception {
+        // Draw shapes into the same visible terrain tiles for several frames, as when the camera is still.
+        SurfaceShapeTextureCache cache = this.dc.surfaceShapeTextureCache();
+        SurfaceShapeTextureCache.Key key = new SurfaceShapeTextureCache.Key();
+        Object shape = new Object();
+        int tileCount = 48;
+
+        for (int frame = 0; frame < 4; frame++) {
+            if (frame == 1) {
+                cache.resetStatistics(); // ignore the first frame, which rasterizes every tile
+            }
+
+            for (int tile = 0; tile < tileCount; tile++) {
+                key.set(new Sector(tile, 0, 1, 1)).addContent(shape);
+                if (cache.get(key) == null) {
+                    Texture texture = cache.obtainTexture(this.dc);
+                    cache.put(key.copy(), texture, texture.getByteCount());
+                }
+            }
+        }
+
+        assertEquals("hits", tileCount * 3, cache.getHitCount());
+        assertEquals("misses", 0, cache.getMissCount());
+    }
+}
@@ -113,6 +113,29 @@ public class FrustumTest {
         assertEquals("viewport", new Viewport(0, 0, 1, 1), frustum.viewport);
     }
 
+    @Test
+    public void testSet() throws Exception {
+        Plane left = new Plane(0, 1, 0, 2);
+        Plane right = new Plane(0, -1, 0, 2);
+        Plane bottom = new Plane(0, 0, 1, 2);
+        Plane top = new Plane(0, 0, -1, 2);
+        Plane near = new Plane(1, 0, 0, 0);
+        Plane far = new Plane(-1, 0, 0, 1.5);
+        Viewport viewport = new Viewport(1, 2, 3, 4);
+        Frustum other = new Frustum(left, right, bottom, top, near, far, viewport);
+        Frustum frustum = new Frustum();
+
+        frustum.set(other);
+
+        assertEquals("left", left, frustum.left);
+        assertEquals("right", right, frustum.right);
+        assertEquals("bottom", bottom, frustum.bottom);
+        assertEquals("top", top, frustum.top);
+        assertEquals("near", near, frustum.near);
+        assertEquals("far", far, frustum.far);
+        assertEquals("viewport", viewport, frustum.viewport);
+    }
+
     @Test
     public void testContainsPoint() throws Exception {
         // Simple test using a unit frustum
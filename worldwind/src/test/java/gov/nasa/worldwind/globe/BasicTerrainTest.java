@@ -14,6 +14,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Line;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.geom.Vec3;
 import gov.nasa.worldwind.util.LevelSet;
@@ -349,4 +350,84 @@ public class BasicTerrainTest {
         assertEquals("surfacePoint centroid z", expected.z, actual.z, TOLERANCE);
         assertEquals("surfacePoint centroid return", expectedReturn, actualReturn);
     }
+
+    @Test
+    public void testSurfacePoint_OutsideTerrain() throws Exception {
+        Vec3 actual = new Vec3();
+        boolean actualReturn = this.terrain.surfacePoint(1.5, 0.5, actual);
+
+        assertEquals("surfacePoint outside terrain return", false, actualReturn);
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    public void testIntersect_Centroid() throws Exception {
+        Vec3 expected = worldWindEcef(officialWgs84Ecef(0.5, 0.5, 0.0));
+        Vec3 origin = worldWindEcef(officialWgs84Ecef(0.5, 0.5, 1000.0));
+        Line line = new Line(origin, new Vec3(expected).subtract(origin));
+        boolean expectedReturn = true;
+
+        Vec3 actual = new Vec3();
+        boolean actualReturn = this.terrain.intersect(line, actual);
+
+        assertEquals("intersect centroid x", expected.x, actual.x, TOLERANCE);
+        assertEquals("intersect centroid y", expected.y, actual.y, TOLERANCE);
+        assertEquals("intersect centroid z", expected.z, actual.z, TOLERANCE);
+        assertEquals("intersect centroid return", expectedReturn, actualReturn);
+        assertEquals("intersect line origin", origin, line.origin);
+    }
+
+    @Test
+    public void testIntersect_Miss() throws Exception {
+        Vec3 target = worldWindEcef(officialWgs84Ecef(2.5, 2.5, 0.0));
+        Vec3 origin = worldWindEcef(officialWgs84Ecef(2.5, 2.5, 1000.0));
+        Line line = new Line(origin, new Vec3(target).subtract(origin));
+
+        boolean actualReturn = this.terrain.intersect(line, new Vec3());
+
+        assertEquals("intersect miss return", false, actualReturn);
+    }
+
+    @Test
+    public void testSurfacePoint_TileOutsideGlobalGrid() throws Exception {
+        // Tiles from a level set anchored away from -90 latitude and -180 longitude are found by searching every tile.
+        BasicTerrain terrain = new BasicTerrain();
+        LevelSet levelSet = new LevelSet(new Sector(0.5, 0.5, 10, 10), 1.0, 1, 5, 5);
+        TerrainTile tile = new TerrainTile(new Sector(0.5, 0.5, 1, 1), levelSet.firstLevel(), 0, 0);
+        int rowStride = (tile.level.tileWidth + 2) * 3;
+        float[] points = new float[(tile.level.tileWidth + 2) * (tile.level.tileHeight + 2) * 3];
+        Vec3 tileOrigin = this.globe.geographicToCartesian(1.0, 1.0, 0.0, new Vec3());
+        this.globe.geographicToCartesianGrid(tile.sector, tile.level.tileWidth, tile.level.tileHeight, null, 1.0f,
+            tileOrigin, points, rowStride + 3, rowStride);
+        tile.setOrigin(tileOrigin);
+        tile.setPoints(points);
+        terrain.addTile(tile);
+
+        Vec3 expected = worldWindEcef(officialWgs84Ecef(0.75, 0.75, 0.0));
+        Vec3 actual = new Vec3();
+        boolean actualReturn = terrain.surfacePoint(0.75, 0.75, actual);
+
+        assertEquals("surfacePoint return", true, actualReturn);
+        assertEquals("surfacePoint x", expected.x, actual.x, TOLERANCE);
+        assertEquals("surfacePoint y", expected.y, actual.y, TOLERANCE);
+        assertEquals("surfacePoint z", expected.z, actual.z, TOLERANCE);
+    }
+
+    @Test
+    public void testSet_RetainsTilesAfterClear() throws Exception {
+        BasicTerrain snapshot = new BasicTerrain().set((BasicTerrain) this.terrain);
+        Vec3 expected = worldWindEcef(officialWgs84Ecef(0.5, 0.5, 0.0));
+        Vec3 origin = worldWindEcef(officialWgs84Ecef(0.5, 0.5, 1000.0));
+        Line line = new Line(origin, new Vec3(expected).subtract(origin));
+
+        ((BasicTerrain) this.terrain).clear(); // the tessellator clears and refills its terrain every frame
+
+        Vec3 actual = new Vec3();
+        assertEquals("sector", new Sector(0, 0, 1, 1), snapshot.getSector());
+        assertEquals("intersect return", true, snapshot.intersect(line, actual));
+        assertEquals("intersect x", expected.x, actual.x, TOLERANCE);
+        assertEquals("intersect y", expected.y, actual.y, TOLERANCE);
+        assertEquals("intersect z", expected.z, actual.z, TOLERANCE);
+        assertEquals("surface point return", true, snapshot.surfacePoint(0.5, 0.5, actual));
+    }
 }
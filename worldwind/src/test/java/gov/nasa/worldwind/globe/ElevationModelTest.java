@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class ElevationModelTest {
+
+    private ElevationModel model;
+
+    private TestCoverage coverage;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.coverage = new TestCoverage();
+        this.model = new ElevationModel();
+        this.model.addCoverage(this.coverage);
+    }
+
+    @Test
+    public void testHasChangedSince() throws Exception {
+        long generation = this.model.getGeneration();
+
+        this.coverage.updateTimestamp(new Sector(0, 0, 10, 10));
+
+        assertTrue("intersecting", this.model.hasChangedSince(new Sector(5, 5, 10, 10), generation));
+        assertTrue("adjoining", this.model.hasChangedSince(new Sector(10, 0, 10, 10), generation));
+        assertFalse("disjoint", this.model.hasChangedSince(new Sector(20, 20, 10, 10), generation));
+        assertFalse("seen", this.model.hasChangedSince(new Sector(5, 5, 10, 10), this.model.getGeneration()));
+    }
+
+    @Test
+    public void testHasChangedSince_GlobalChangeNotReported() throws Exception {
+        long generation = this.model.getGeneration();
+        long timestamp = this.model.getTimestamp();
+
+        this.coverage.setEnabled(false);
+
+        assertFalse("sector change", this.model.hasChangedSince(new Sector(5, 5, 10, 10), generation));
+        assertTrue("timestamp", timestamp <= this.model.getTimestamp());
+    }
+
+    @Test
+    public void testHasChangedSince_ExpiredChanges() throws Exception {
+        long generation = this.model.getGeneration();
+        this.coverage.updateTimestamp(new Sector(0, 0, 10, 10));
+        long intermediate = this.model.getGeneration();
+
+        for (int idx = 0; idx < AbstractElevationCoverage.MAX_CHANGED_SECTORS; idx++) {
+            this.coverage.updateTimestamp(new Sector(-80, -170, 1, 1)); // push the first change out of the ring
+        }
+
+        assertTrue("expired", this.model.hasChangedSince(new Sector(20, 20, 10, 10), generation));
+        assertFalse("retained", this.model.hasChangedSince(new Sector(20, 20, 10, 10), intermediate));
+    }
+
+    @Test
+    public void testHasChangedSince_CoverageWithoutSectorTracking() throws Exception {
+        // Coverages implementing ElevationCoverage directly report their changes through their timestamp.
+        ElevationCoverage other = mock(ElevationCoverage.class);
+        when(other.getTimestamp()).thenReturn(Long.MAX_VALUE);
+        this.model.addCoverage(other);
+        long generation = this.model.getGeneration();
+
+        assertFalse("sector change", this.model.hasChangedSince(new Sector(5, 5, 10, 10), generation));
+        assertEquals("timestamp", Long.MAX_VALUE, this.model.getTimestamp());
+    }
+
+    @Test
+    public void testRetrievalPriority() throws Exception {
+        this.model.getHeightGrid(new Sector(0, 0, 1, 1), 2, 2, 1000, new float[4]);
+        assertEquals("height grid priority", 1000, this.coverage.priority, 0);
+
+        this.model.getHeightLimits(new Sector(0, 0, 1, 1), 2000, new float[2]);
+        assertEquals("height limits priority", 2000, this.coverage.priority, 0);
+
+        this.model.getHeightGrid(new Sector(0, 0, 1, 1), 2, 2, new float[4]);
+        assertEquals("default priority", 0, this.coverage.priority, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHasChangedSince_NullSector() throws Exception {
+        this.model.hasChangedSince(null, 0);
+    }
+
+    private static class TestCoverage extends AbstractElevationCoverage {
+
+        public double priority = Double.NaN;
+
+        @Override
+        protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, double priority, float[] result) {
+            this.priority = priority;
+        }
+
+        @Override
+        protected void doGetHeightLimits(Sector sector, double priority, float[] result) {
+            this.priority = priority;
+        }
+
+        @Override
+        protected void doGetHeightGrid(Sector gridSector, int gridWidth, int gridHeight, float[] result) {
+        }
+
+        @Override
+        protected void doGetHeightLimits(Sector sector, float[] result) {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.util.DiskCache;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class ElevationRetrieverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ElevationRetriever retriever;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        WorldWind.setDiskCache(new DiskCache(this.folder.getRoot(), 1024 * 1024));
+        this.retriever = new ElevationRetriever(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        WorldWind.setDiskCache(null);
+    }
+
+    @Test
+    public void testCachedCoverageRoundTrip() throws Exception {
+        ImageSource imageSource = ImageSource.fromUrl("http://example.com/elev?row=1&col=2");
+        ShortBuffer coverage = ByteBuffer.allocate(8).asShortBuffer(); // big endian, as decoded from TIFF
+        coverage.put(new short[]{-100, 0, 1, Short.MAX_VALUE}).flip();
+
+        this.retriever.writeCachedCoverage(imageSource, coverage);
+        ShortBuffer cached = this.retriever.readCachedCoverage(imageSource);
+
+        assertEquals("coverage position", 0, coverage.position());
+        assertNotNull("cached coverage", cached);
+        assertEquals("cached coverage", coverage, cached);
+    }
+
+    @Test
+    public void testCachedCoverageMiss() throws Exception {
+        ImageSource imageSource = ImageSource.fromUrl("http://example.com/elev?row=1&col=2");
+
+        assertNull("cached coverage", this.retriever.readCachedCoverage(imageSource));
+    }
+
+    @Test
+    public void testCachedCoverageDisabled() throws Exception {
+        ImageSource imageSource = ImageSource.fromUrl("http://example.com/elev?row=1&col=2");
+        ShortBuffer coverage = ShortBuffer.wrap(new short[]{1, 2, 3, 4});
+        WorldWind.setDiskCache(null);
+
+        this.retriever.writeCachedCoverage(imageSource, coverage);
+
+        assertNull("cached coverage", this.retriever.readCachedCoverage(imageSource));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.globe;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.ShortBuffer;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.ImageSource;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class TiledElevationCoverageTest {
+
+    private TiledElevationCoverage coverage;
+
+    private ElevationModel model;
+
+    private ImageSource tileSource;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.coverage = new TiledElevationCoverage();
+        this.model = new ElevationModel();
+        this.model.addCoverage(this.coverage);
+        this.tileSource = ImageSource.fromUrl("http://example.com/tile");
+        this.coverage.retrievalSectors.put(this.tileSource, new Sector(0, 0, 10, 10), 1); // the tile was requested
+    }
+
+    private void retrieveOnAnotherThread(final short[] array) throws Exception {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                coverage.retrievalSucceeded(null, tileSource, null, ShortBuffer.wrap(array));
+            }
+        });
+        thread.start();
+        thread.join(5000);
+        assertFalse("retrieval blocked", thread.isAlive());
+    }
+
+    @Test
+    public void testRetrievedTileHandedToRequestingThread() throws Exception {
+        long generation = this.model.getGeneration();
+        short[] array = {1, 2, 3, 4};
+
+        this.retrieveOnAnotherThread(array);
+
+        assertNull("cached by the retrieval thread", this.coverage.coverageCache.get(this.tileSource));
+        assertNotNull("retrieval sector", this.coverage.retrievalSectors.get(this.tileSource));
+        assertFalse("changed before handoff", this.model.hasChangedSince(new Sector(5, 5, 10, 10), generation));
+
+        this.coverage.getHeightGrid(new Sector(0, 0, 1, 1), 2, 2, new float[4]); // drains retrieved tiles
+
+        assertArrayEquals("cached", array, this.coverage.coverageCache.get(this.tileSource));
+        assertNull("retrieval sector", this.coverage.retrievalSectors.get(this.tileSource));
+        assertTrue("changed after handoff", this.model.hasChangedSince(new Sector(5, 5, 10, 10), generation));
+        assertTrue("queue drained", this.coverage.retrievedTiles.isEmpty());
+    }
+
+    @Test
+    public void testRetrievedTileHandedToRequestingThread_HeightLimits() throws Exception {
+        this.retrieveOnAnotherThread(new short[]{1, 2, 3, 4});
+
+        this.coverage.getHeightLimits(new Sector(0, 0, 1, 1), new float[2]); // drains retrieved tiles
+
+        assertNotNull("cached", this.coverage.coverageCache.get(this.tileSource));
+    }
+
+    @Test
+    public void testRetrievedTileIgnoredWhenNoLongerRequested() throws Exception {
+        long generation = this.model.getGeneration();
+        this.retrieveOnAnotherThread(new short[]{1, 2, 3, 4});
+        this.coverage.retrievalSectors.remove(this.tileSource); // evicted while the retrieval was in progress
+
+        this.coverage.processRetrievedTiles();
+
+        assertNull("cached", this.coverage.coverageCache.get(this.tileSource));
+        assertFalse("changed", this.model.hasChangedSince(new Sector(5, 5, 10, 10), generation));
+    }
+
+    @Test
+    public void testInvalidateTilesDiscardsRetrievedTiles() throws Exception {
+        this.retrieveOnAnotherThread(new short[]{1, 2, 3, 4});
+
+        this.coverage.setTileFactory(null); // invalidates the coverage's tiles
+
+        assertTrue("queue cleared", this.coverage.retrievedTiles.isEmpty());
+    }
+}
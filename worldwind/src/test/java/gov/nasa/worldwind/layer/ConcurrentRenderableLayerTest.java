@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.layer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.shape.PlacemarkAttributes;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class ConcurrentRenderableLayerTest {
+
+    /**
+     * Concurrent layer that counts redraw requests rather than posting them.
+     */
+    private static class TestLayer extends ConcurrentRenderableLayer {
+
+        public int redrawRequests;
+
+        @Override
+        protected void requestRedraw() {
+            this.redrawRequests++;
+        }
+    }
+
+    private TestLayer layer;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.layer = new TestLayer();
+    }
+
+    @Test
+    public void testPutRenderable() throws Exception {
+        Placemark placemark = new Placemark(Position.fromDegrees(0, 0, 0));
+
+        this.layer.putRenderable("a", placemark);
+
+        assertEquals("count before frame", 0, this.layer.count());
+        assertTrue("pending", this.layer.hasPendingUpdates());
+
+        this.layer.applyPendingUpdates(null);
+
+        assertEquals("count", 1, this.layer.count());
+        assertSame("renderable", placemark, this.layer.getRenderable(0));
+        assertFalse("pending", this.layer.hasPendingUpdates());
+    }
+
+    @Test
+    public void testPutRenderable_Replace() throws Exception {
+        Placemark first = new Placemark(Position.fromDegrees(0, 0, 0));
+        Placemark second = new Placemark(Position.fromDegrees(1, 1, 0));
+
+        this.layer.putRenderable("a", first);
+        this.layer.applyPendingUpdates(null);
+        this.layer.putRenderable("a", second);
+        this.layer.applyPendingUpdates(null);
+
+        assertEquals("count", 1, this.layer.count());
+        assertSame("renderable", second, this.layer.getRenderable(0));
+    }
+
+    @Test
+    public void testDeleteRenderable() throws Exception {
+        Placemark a = new Placemark(Position.fromDegrees(0, 0, 0));
+        Placemark b = new Placemark(Position.fromDegrees(1, 1, 0));
+        Placemark c = new Placemark(Position.fromDegrees(2, 2, 0));
+        this.layer.putRenderable("a", a);
+        this.layer.putRenderable("b", b);
+        this.layer.putRenderable("c", c);
+        this.layer.applyPendingUpdates(null);
+
+        this.layer.deleteRenderable("b");
+        this.layer.deleteRenderable("unknown");
+        this.layer.applyPendingUpdates(null);
+
+        assertEquals("count", 2, this.layer.count());
+        assertSame("first", a, this.layer.getRenderable(0));
+        assertSame("second", c, this.layer.getRenderable(1));
+    }
+
+    @Test
+    public void testDeleteRenderable_SameFrame() throws Exception {
+        this.layer.putRenderable("a", new Placemark(Position.fromDegrees(0, 0, 0)));
+        this.layer.deleteRenderable("a");
+        this.layer.applyPendingUpdates(null);
+
+        assertEquals("count", 0, this.layer.count());
+    }
+
+    @Test
+    public void testUpdatePositions() throws Exception {
+        Placemark a = new Placemark(Position.fromDegrees(0, 0, 0));
+        Placemark b = new Placemark(Position.fromDegrees(0, 0, 0));
+        this.layer.putRenderable(1, a);
+        this.layer.putRenderable(2, b);
+
+        double[] lat = {10, 20};
+        double[] lon = {30, 40};
+        double[] alt = {50, 60};
+        this.layer.updatePositions(new Object[]{1, 2}, lat, lon, alt);
+        lat[0] = 0; // the layer copies the arrays
+
+        assertEquals("position before frame", 0, a.getPosition().latitude, 0);
+
+        this.layer.applyPendingUpdates(null);
+
+        assertEquals("a", Position.fromDegrees(10, 30, 50), a.getPosition());
+        assertEquals("b", Position.fromDegrees(20, 40, 60), b.getPosition());
+    }
+
+    @Test
+    public void testUpdatePositions_InOrder() throws Exception {
+        Placemark a = new Placemark(Position.fromDegrees(0, 0, 0));
+        this.layer.putRenderable("a", a);
+        this.layer.updatePosition("a", 1, 1, 1);
+        this.layer.updatePosition("a", 2, 2, 2);
+        this.layer.applyPendingUpdates(null);
+
+        assertEquals("position", Position.fromDegrees(2, 2, 2), a.getPosition());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdatePositions_ShortArray() throws Exception {
+        this.layer.updatePositions(new Object[]{1, 2}, new double[2], new double[1], new double[2]);
+    }
+
+    @Test
+    public void testUpdateAttributes() throws Exception {
+        Placemark a = new Placemark(Position.fromDegrees(0, 0, 0));
+        PlacemarkAttributes attributes = new PlacemarkAttributes();
+        this.layer.putRenderable("a", a);
+        this.layer.updateAttributes("a", attributes);
+        this.layer.applyPendingUpdates(null);
+
+        assertSame("attributes", attributes, a.getAttributes());
+    }
+
+    @Test
+    public void testRequestRedraw() throws Exception {
+        this.layer.putRenderable("a", new Placemark(Position.fromDegrees(0, 0, 0)));
+        this.layer.updatePosition("a", 1, 1, 1);
+
+        assertEquals("redraw requests", 1, this.layer.redrawRequests);
+
+        this.layer.applyPendingUpdates(null);
+        this.layer.updatePosition("a", 2, 2, 2);
+
+        assertEquals("redraw requests", 2, this.layer.redrawRequests);
+    }
+}
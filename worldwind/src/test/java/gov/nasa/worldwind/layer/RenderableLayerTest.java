@@ -5,17 +5,68 @@
 
 package gov.nasa.worldwind.layer;
 
+import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.Renderable;
+import gov.nasa.worldwind.shape.Placemark;
+import gov.nasa.worldwind.util.Logger;
 
 import static org.junit.Assert.*;
 
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
 public class RenderableLayerTest {
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+    }
+
     @Ignore("not implemented")
     @Test
     public void testConstructor_default() throws Exception {
 
         fail("The test case is a stub");
     }
-}
 
+    @Test
+    public void testFindRenderables_MovedRenderable() throws Exception {
+        RenderableLayer layer = new RenderableLayer();
+        layer.setSpatialIndexEnabled(true);
+        Placemark placemark = new Placemark(Position.fromDegrees(10, 10, 0));
+        layer.addRenderable(placemark);
+        List<Renderable> result = new ArrayList<>();
+
+        placemark.getPosition().set(-10, -10, 0); // moved without calling updateRenderable
+
+        assertTrue("old location", layer.findRenderables(new Sector(5, 5, 10, 10), result).isEmpty());
+        assertSame("new location", placemark, layer.findRenderables(new Sector(-15, -15, 10, 10), result).get(0));
+    }
+
+    @Test
+    public void testRemoveRenderable_Duplicate() throws Exception {
+        RenderableLayer layer = new RenderableLayer();
+        layer.setSpatialIndexEnabled(true);
+        Placemark placemark = new Placemark(Position.fromDegrees(10, 10, 0));
+        layer.addRenderable(placemark);
+        layer.addRenderable(placemark);
+        Sector sector = new Sector(5, 5, 10, 10);
+
+        layer.removeRenderable(placemark);
+        assertEquals("indexed after first removal", 1, layer.findRenderables(sector, new ArrayList<Renderable>()).size());
+
+        layer.removeRenderable(placemark);
+        assertEquals("indexed after last removal", 0, layer.findRenderables(sector, new ArrayList<Renderable>()).size());
+    }
+}
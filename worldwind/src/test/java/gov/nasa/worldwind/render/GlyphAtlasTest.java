@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.shape.TextAttributes;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class GlyphAtlasTest {
+
+    /**
+     * Glyph atlas with fixed glyph metrics that rasterizes glyphs when requested by the test.
+     */
+    private static class TestGlyphAtlas extends GlyphAtlas {
+
+        public List<Object[]> requests = new ArrayList<>();
+
+        public boolean atlasFull;
+
+        public int glyphHeight = 13;
+
+        public long time;
+
+        @Override
+        protected void requestGlyph(Font font, Glyph glyph) {
+            glyph.state = GLYPH_PENDING;
+            this.requests.add(new Object[]{font, glyph});
+        }
+
+        public void loadRequestedGlyphs() {
+            for (Object[] request : this.requests) {
+                this.loadGlyph((Font) request[0], (Glyph) request[1]);
+            }
+            this.requests.clear();
+        }
+
+        @Override
+        protected boolean measureGlyph(Font font, Glyph glyph) {
+            glyph.advance = 10;
+            if (glyph.character == ' ') {
+                return false;
+            }
+
+            glyph.left = 1;
+            glyph.top = -12;
+            glyph.width = 8;
+            glyph.height = this.glyphHeight;
+            return true;
+        }
+
+        @Override
+        protected Bitmap rasterizeGlyph(Font font, Glyph glyph, boolean outline) {
+            return null;
+        }
+
+        @Override
+        protected boolean putGlyphImage(Object key, Bitmap bitmap) {
+            return !this.atlasFull && this.atlas.allocateRegion(key, 8, this.glyphHeight) != null;
+        }
+
+        @Override
+        protected long currentTime() {
+            return this.time;
+        }
+    }
+
+    private TestGlyphAtlas glyphAtlas;
+
+    private TextAttributes attributes;
+
+    private TextLayout layout;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.glyphAtlas = new TestGlyphAtlas();
+        this.attributes = new TextAttributes();
+        this.attributes.setEnableOutline(false);
+        this.layout = new TextLayout();
+    }
+
+    private int[] glyphRects() {
+        int[] result = new int[this.layout.glyphCount * 4];
+        System.arraycopy(this.layout.glyphRects, 0, result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void testLayoutText() throws Exception {
+        assertTrue("first layout", this.glyphAtlas.layoutText("ab", this.attributes, this.layout));
+        assertFalse("first layout complete", this.layout.complete);
+        assertEquals("requests", 2, this.glyphAtlas.requests.size());
+
+        this.glyphAtlas.loadRequestedGlyphs();
+
+        assertTrue("layout", this.glyphAtlas.layoutText("ab", this.attributes, this.layout));
+        assertTrue("complete", this.layout.complete);
+        assertEquals("width", 18, this.layout.width);
+        assertEquals("height", 13, this.layout.height);
+        assertArrayEquals("rects", new int[]{0, 0, 8, 13, 10, 0, 8, 13}, this.glyphRects());
+    }
+
+    @Test
+    public void testLayoutText_Whitespace() throws Exception {
+        this.glyphAtlas.layoutText("a b", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+
+        this.glyphAtlas.layoutText("a b", this.attributes, this.layout);
+
+        assertTrue("complete", this.layout.complete);
+        assertEquals("glyph count", 2, this.layout.glyphCount);
+        assertArrayEquals("rects", new int[]{0, 0, 8, 13, 20, 0, 8, 13}, this.glyphRects());
+    }
+
+    @Test
+    public void testLayoutText_ReusesGlyphs() throws Exception {
+        this.glyphAtlas.layoutText("ab", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+
+        this.glyphAtlas.layoutText("ba", this.attributes, this.layout);
+
+        assertTrue("complete", this.layout.complete);
+        assertEquals("requests", 0, this.glyphAtlas.requests.size());
+    }
+
+    @Test
+    public void testLayoutText_UnsupportedCharacter() throws Exception {
+        assertFalse("Hebrew", this.glyphAtlas.layoutText("a\u05d0", this.attributes, this.layout));
+        assertFalse("combining mark", this.glyphAtlas.layoutText("e\u0301", this.attributes, this.layout));
+        assertFalse("newline", this.glyphAtlas.layoutText("a\nb", this.attributes, this.layout));
+        assertEquals("requests", 0, this.glyphAtlas.requests.size());
+    }
+
+    @Test
+    public void testLayoutText_AtlasFull() throws Exception {
+        this.glyphAtlas.atlasFull = true;
+        this.glyphAtlas.layoutText("ab", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+
+        assertFalse("layout", this.glyphAtlas.layoutText("ab", this.attributes, this.layout));
+    }
+
+    @Test
+    public void testLayoutText_AtlasFullRetry() throws Exception {
+        this.glyphAtlas.atlasFull = true;
+        this.glyphAtlas.layoutText("ab", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+        this.glyphAtlas.atlasFull = false;
+
+        assertFalse("layout before retry", this.glyphAtlas.layoutText("ab", this.attributes, this.layout));
+        assertEquals("requests before retry", 0, this.glyphAtlas.requests.size());
+
+        this.glyphAtlas.time += this.glyphAtlas.atlas.getEvictionAge();
+        assertTrue("layout after retry", this.glyphAtlas.layoutText("ab", this.attributes, this.layout));
+        assertFalse("complete after retry", this.layout.complete);
+        assertEquals("requests after retry", 2, this.glyphAtlas.requests.size());
+
+        this.glyphAtlas.loadRequestedGlyphs();
+        assertTrue("layout", this.glyphAtlas.layoutText("ab", this.attributes, this.layout));
+        assertTrue("complete", this.layout.complete);
+    }
+
+    @Test
+    public void testLayoutText_GlyphTooLarge() throws Exception {
+        this.glyphAtlas.glyphHeight = this.glyphAtlas.atlas.getMaxImageSize() + 1;
+        this.glyphAtlas.layoutText("a", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+
+        this.glyphAtlas.time += this.glyphAtlas.atlas.getEvictionAge();
+        assertFalse("layout", this.glyphAtlas.layoutText("a", this.attributes, this.layout));
+        assertEquals("requests", 0, this.glyphAtlas.requests.size());
+    }
+
+    @Test
+    public void testLayoutText_Outline() throws Exception {
+        this.attributes.setEnableOutline(true);
+        this.glyphAtlas.layoutText("ab", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+
+        this.glyphAtlas.layoutText("ab", this.attributes, this.layout);
+
+        assertTrue("complete", this.layout.complete);
+        assertEquals("glyph count", 4, this.layout.glyphCount);
+        assertArrayEquals("rects", new int[]{0, 0, 8, 13, 10, 0, 8, 13, 0, 0, 8, 13, 10, 0, 8, 13}, this.glyphRects());
+        for (int idx = 0; idx < 2; idx++) {
+            Object outlineKey = ((TextureAtlas.Region) this.layout.glyphTextures[idx]).key;
+            Object fillKey = ((TextureAtlas.Region) this.layout.glyphTextures[idx + 2]).key;
+            assertTrue("outline first", outlineKey == ((GlyphAtlas.Glyph) fillKey).outlineKey);
+        }
+    }
+
+    @Test
+    public void testLayoutText_EvictedGlyph() throws Exception {
+        this.glyphAtlas.layoutText("a", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+        this.glyphAtlas.layoutText("a", this.attributes, this.layout);
+        this.glyphAtlas.atlas.removeTexture(((TextureAtlas.Region) this.layout.glyphTextures[0]).key);
+
+        this.glyphAtlas.layoutText("a", this.attributes, this.layout);
+
+        assertFalse("complete", this.layout.complete);
+        assertEquals("requests", 1, this.glyphAtlas.requests.size());
+    }
+
+    @Test
+    public void testLayoutText_AttributesChange() throws Exception {
+        this.glyphAtlas.layoutText("a", this.attributes, this.layout);
+        this.glyphAtlas.loadRequestedGlyphs();
+
+        this.attributes.setTextSize(this.attributes.getTextSize() * 2);
+        this.glyphAtlas.layoutText("a", this.attributes, this.layout);
+
+        assertFalse("complete", this.layout.complete);
+        assertEquals("requests", 1, this.glyphAtlas.requests.size());
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.render;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.FrameMetrics;
+import gov.nasa.worldwind.FrameProfile;
+import gov.nasa.worldwind.draw.DrawContext;
+import gov.nasa.worldwind.geom.Matrix3;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class TextureAtlasTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static class TestAtlas extends TextureAtlas {
+
+        public long time;
+
+        public TestAtlas(int pageSize, int maxPages) {
+            super(pageSize, pageSize, maxPages, pageSize);
+        }
+
+        @Override
+        protected long currentTime() {
+            return this.time;
+        }
+    }
+
+    private TestAtlas atlas;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.atlas = new TestAtlas(64, 2);
+    }
+
+    private static boolean overlaps(TextureAtlas.Region a, TextureAtlas.Region b) {
+        return a.getPage() == b.getPage()
+            && a.getX() < b.getX() + b.getWidth() && b.getX() < a.getX() + a.getWidth()
+            && a.getY() < b.getY() + b.getHeight() && b.getY() < a.getY() + a.getHeight();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidImageSize() throws Exception {
+        new TextureAtlas(64, 64, 1, 128);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidMaxPages() throws Exception {
+        new TextureAtlas(64, 64, 0, 64);
+    }
+
+    @Test
+    public void testAllocateRegion_NoOverlap() throws Exception {
+        TextureAtlas.Region[] regions = new TextureAtlas.Region[32];
+        for (int idx = 0; idx < regions.length; idx++) {
+            regions[idx] = this.atlas.allocateRegion(idx, 8 + idx % 8, 8 + idx % 5);
+            assertNotNull("region " + idx, regions[idx]);
+        }
+
+        for (int i = 0; i < regions.length; i++) {
+            TextureAtlas.Region a = regions[i];
+            assertTrue("inside page", a.getX() >= 0 && a.getY() >= 0
+                && a.getX() + a.getWidth() <= 64 && a.getY() + a.getHeight() <= 64);
+            for (int j = i + 1; j < regions.length; j++) {
+                if (overlaps(a, regions[j])) {
+                    fail("regions " + i + " and " + j + " overlap");
+                }
+            }
+        }
+
+        assertEquals("texture count", regions.length, this.atlas.getTextureCount());
+    }
+
+    @Test
+    public void testAllocateRegion_AddsPages() throws Exception {
+        TextureAtlas.Region a = this.atlas.allocateRegion("a", 64, 64);
+        TextureAtlas.Region b = this.atlas.allocateRegion("b", 64, 64);
+        TextureAtlas.Region c = this.atlas.allocateRegion("c", 64, 64);
+
+        assertNotNull("a", a);
+        assertNotNull("b", b);
+        assertFalse("separate pages", a.getPage() == b.getPage());
+        assertNull("atlas full", c);
+        assertEquals("page count", 2, this.atlas.getPageCount());
+    }
+
+    @Test
+    public void testAllocateRegion_EvictsUnused() throws Exception {
+        this.atlas.setEvictionAge(100);
+        this.atlas.allocateRegion("a", 64, 64);
+        this.atlas.time = 50;
+        this.atlas.allocateRegion("b", 64, 64);
+
+        this.atlas.time = 120; // "a" is older than the eviction age; "b" is not
+        TextureAtlas.Region c = this.atlas.allocateRegion("c", 64, 64);
+
+        assertNotNull("c", c);
+        assertNull("a evicted", this.atlas.getTexture("a"));
+        assertNotNull("b retained", this.atlas.getTexture("b"));
+    }
+
+    @Test
+    public void testGetTexture_MarksUsed() throws Exception {
+        this.atlas.setEvictionAge(100);
+        this.atlas.allocateRegion("a", 64, 64);
+        this.atlas.allocateRegion("b", 64, 64);
+        this.atlas.time = 90;
+        this.atlas.getTexture("a");
+
+        this.atlas.time = 150;
+        assertNotNull("c", this.atlas.allocateRegion("c", 64, 64));
+        assertNotNull("a retained", this.atlas.getTexture("a"));
+        assertNull("b evicted", this.atlas.getTexture("b"));
+    }
+
+    @Test
+    public void testRemoveTexture_ReusesRegion() throws Exception {
+        TextureAtlas.Region a = this.atlas.allocateRegion("a", 16, 16);
+        this.atlas.allocateRegion("b", 16, 16);
+        this.atlas.allocateRegion("c", 16, 16);
+
+        assertTrue("removed", this.atlas.removeTexture("a"));
+        assertFalse("removed again", this.atlas.removeTexture("a"));
+        TextureAtlas.Region d = this.atlas.allocateRegion("d", 16, 16);
+
+        assertSame("page", a.getPage(), d.getPage());
+        assertEquals("x", a.getX(), d.getX());
+        assertEquals("y", a.getY(), d.getY());
+    }
+
+    @Test
+    public void testRemoveTexture_ReclaimsShelves() throws Exception {
+        this.atlas.allocateRegion("a", 64, 16);
+        this.atlas.allocateRegion("b", 64, 48);
+        this.atlas.removeTexture("b");
+        this.atlas.removeTexture("a");
+
+        TextureAtlas.Region c = this.atlas.allocateRegion("c", 64, 64);
+
+        assertNotNull("c", c);
+        assertEquals("page count", 1, this.atlas.getPageCount());
+    }
+
+    @Test
+    public void testTexCoordTransform() throws Exception {
+        this.atlas.allocateRegion("a", 64, 16);
+        TextureAtlas.Region b = this.atlas.allocateRegion("b", 9, 5);
+        Matrix3 m = b.getTexCoordTransform();
+
+        // The unit square's bottom-left corner maps to the center of the image's bottom-left texel, and its top-right
+        // corner maps to the center of the image's top-right texel. Images are stored top row first.
+        double s0 = m.m[0] * 0 + m.m[1] * 0 + m.m[2];
+        double t0 = m.m[3] * 0 + m.m[4] * 0 + m.m[5];
+        double s1 = m.m[0] * 1 + m.m[1] * 1 + m.m[2];
+        double t1 = m.m[3] * 1 + m.m[4] * 1 + m.m[5];
+        assertEquals("s0", (b.getX() + 0.5) / 64, s0, TOLERANCE);
+        assertEquals("t0", (b.getY() + 4.5) / 64, t0, TOLERANCE);
+        assertEquals("s1", (b.getX() + 8.5) / 64, s1, TOLERANCE);
+        assertEquals("t1", (b.getY() + 0.5) / 64, t1, TOLERANCE);
+    }
+
+    @Test
+    public void testLoadPendingImages_RecordsUpload() throws Exception {
+        TextureAtlas.Region region = this.atlas.allocateRegion("a", 8, 8);
+        TextureAtlas.Page page = region.getPage();
+        page.addPendingImage(region, null);
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.setProfilingEnabled(true);
+        DrawContext dc = new DrawContext();
+
+        metrics.beginDrawing(dc);
+        page.loadPendingImages(dc);
+        page.loadPendingImages(dc); // no pending images
+        metrics.endDrawing(dc);
+
+        FrameProfile.Entry upload = metrics.getProfile().getEntry(FrameProfile.CATEGORY_PHASE,
+            FrameMetrics.PHASE_TEXTURE_UPLOAD);
+        assertNotNull("upload", upload);
+        assertEquals("upload frames", 1, upload.getHistogram().getCount());
+        assertTrue("pending images", page.pendingRegions.isEmpty());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class PathTest {
+
+    private RenderContext rc;
+
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.path = new Path(Arrays.asList(Position.fromDegrees(0, 0, 100), Position.fromDegrees(0, 1, 100)));
+        this.path.setPathType(WorldWind.LINEAR);
+    }
+
+    private static float[] vertexArray(Path path) {
+        float[] result = new float[path.vertexArray.size()];
+        System.arraycopy(path.vertexArray.array(), 0, result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void testAddPosition() throws Exception {
+        this.path.assembleGeometry(this.rc);
+        float[] vertices = vertexArray(this.path);
+
+        this.path.addPosition(Position.fromDegrees(0, 2, 100));
+
+        assertEquals("positions", 3, this.path.getPositions().size());
+        assertFalse("must assemble", this.path.mustAssembleGeometry(this.rc));
+        assertTrue("must append", this.path.mustAppendGeometry(this.rc));
+
+        this.path.appendGeometry(this.rc);
+
+        assertFalse("must append", this.path.mustAppendGeometry(this.rc));
+        assertEquals("outline elements", 3, this.path.outlineElements.size());
+        assertEquals("vertex array", 12, this.path.vertexArray.size());
+        float[] existing = new float[vertices.length];
+        System.arraycopy(vertexArray(this.path), 0, existing, 0, existing.length);
+        assertArrayEquals("existing vertices", vertices, existing, 0);
+    }
+
+    @Test
+    public void testAddPosition_MatchesAssembledGeometry() throws Exception {
+        this.path.setPathType(WorldWind.GREAT_CIRCLE);
+        this.path.setExtrude(true);
+        this.path.assembleGeometry(this.rc);
+        this.path.addPosition(Position.fromDegrees(1, 2, 200));
+        this.path.appendGeometry(this.rc);
+        float[] appended = vertexArray(this.path);
+
+        Path expected = new Path(this.path.getPositions());
+        expected.setExtrude(true);
+        expected.assembleGeometry(this.rc);
+
+        assertArrayEquals("vertices", vertexArray(expected), appended, 1e-3f);
+        assertEquals("vertical elements", expected.verticalElements.size(), this.path.verticalElements.size());
+        assertEquals("interior elements", expected.interiorElements.size(), this.path.interiorElements.size());
+    }
+
+    @Test
+    public void testTrimPositions() throws Exception {
+        this.path.addPosition(Position.fromDegrees(0, 2, 100));
+        this.path.addPosition(Position.fromDegrees(0, 3, 100));
+        this.path.assembleGeometry(this.rc);
+
+        this.path.trimPositions(1);
+
+        assertEquals("positions", 3, this.path.getPositions().size());
+        assertEquals("trimmed positions", 1, this.path.trimmedPositionCount);
+        assertFalse("must assemble", this.path.mustAssembleGeometry(this.rc));
+        assertFalse("must append", this.path.mustAppendGeometry(this.rc));
+    }
+
+    @Test
+    public void testTrimPositions_Reassembles() throws Exception {
+        this.path.addPosition(Position.fromDegrees(0, 2, 100));
+        this.path.addPosition(Position.fromDegrees(0, 3, 100));
+        this.path.assembleGeometry(this.rc);
+
+        this.path.trimPositions(3); // trimmed geometry exceeds the remaining geometry
+
+        assertEquals("positions", 1, this.path.getPositions().size());
+        assertTrue("must assemble", this.path.mustAssembleGeometry(this.rc));
+    }
+
+    /**
+     * Returns a path with many positions, assembled at a simplified level of detail.
+     */
+    private Path simplifiedPath() {
+        List<Position> positions = new ArrayList<>();
+        for (int idx = 0; idx < 300; idx++) { // a line along the equator with spikes every 50 positions
+            positions.add(Position.fromDegrees((idx % 50 == 25) ? 1 : 0, idx * 0.01, 100));
+        }
+
+        Path path = new Path(positions);
+        path.setPathType(WorldWind.LINEAR);
+        path.simplifiedPositions = new SimplifiedPositions(false /*closed*/) {
+            @Override
+            protected void execute(Runnable task) {
+                task.run(); // compute significance on the calling thread
+            }
+
+            @Override
+            protected void requestRedraw() {
+            }
+        };
+
+        List<List<Position>> lists = Collections.singletonList(path.getPositions());
+        path.simplifiedPositions.selectLevel(lists, 0.005); // computes the significance
+        path.assembledLevel = path.simplifiedPositions.selectLevel(lists, 0.005);
+        path.assembleGeometry(this.rc);
+        return path;
+    }
+
+    @Test
+    public void testAddPosition_SimplifiedLevel() throws Exception {
+        Path path = this.simplifiedPath();
+        int positionCount = path.positionPoints.size();
+        float[] vertices = vertexArray(path);
+
+        path.addPosition(Position.fromDegrees(0, 3, 100));
+
+        assertTrue("simplified", positionCount < 300);
+        assertFalse("must assemble", path.mustAssembleGeometry(this.rc));
+        assertTrue("must append", path.mustAppendGeometry(this.rc));
+
+        path.appendGeometry(this.rc);
+
+        assertEquals("assembled positions", positionCount + 1, path.positionPoints.size());
+        float[] existing = new float[vertices.length];
+        System.arraycopy(vertexArray(path), 0, existing, 0, existing.length);
+        assertArrayEquals("existing vertices", vertices, existing, 0);
+    }
+
+    @Test
+    public void testTrimPositions_SimplifiedLevel() throws Exception {
+        Path path = this.simplifiedPath();
+        List<Position> levelPositions = path.levelPositions();
+        int vertexCount = path.vertexArray.size();
+        int firstRetained = path.getPositions().indexOf(levelPositions.get(1)); // the level's second position
+
+        path.trimPositions(firstRetained);
+
+        assertEquals("trimmed positions", 1, path.trimmedPositionCount);
+        assertEquals("vertex array", vertexCount, path.vertexArray.size());
+        assertFalse("must assemble", path.mustAssembleGeometry(this.rc));
+        assertFalse("must append", path.mustAppendGeometry(this.rc));
+    }
+
+    @Test
+    public void testTrimPositions_SimplifiedLevelFirstPositionOmitted() throws Exception {
+        Path path = this.simplifiedPath();
+
+        path.trimPositions(1); // the second position is not retained at the level
+
+        assertTrue("must assemble", path.mustAssembleGeometry(this.rc));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrimPositions_InvalidCount() throws Exception {
+        this.path.trimPositions(3);
+    }
+
+    @Test
+    public void testGetBoundingSector_AlongParallel() throws Exception {
+        Path path = new Path(Arrays.asList(
+            Position.fromDegrees(0, 0, 0), Position.fromDegrees(0, 20, 0), Position.fromDegrees(0, 10, 0)));
+        path.setPathType(WorldWind.LINEAR);
+
+        Sector sector = path.getBoundingSector(new Sector());
+
+        assertEquals("min latitude", 0, sector.minLatitude(), 0);
+        assertEquals("max latitude", 0, sector.maxLatitude(), 0);
+        assertEquals("min longitude", 0, sector.minLongitude(), 0);
+        assertEquals("max longitude", 20, sector.maxLongitude(), 0);
+    }
+
+    @Test
+    public void testGetBoundingSector_AlongMeridian() throws Exception {
+        Path path = new Path(Arrays.asList(
+            Position.fromDegrees(0, 0, 0), Position.fromDegrees(20, 0, 0), Position.fromDegrees(10, 0, 0)));
+        path.setPathType(WorldWind.LINEAR);
+
+        Sector sector = path.getBoundingSector(new Sector());
+
+        assertEquals("min latitude", 0, sector.minLatitude(), 0);
+        assertEquals("max latitude", 20, sector.maxLatitude(), 0);
+        assertEquals("min longitude", 0, sector.minLongitude(), 0);
+        assertEquals("max longitude", 0, sector.maxLongitude(), 0);
+    }
+}
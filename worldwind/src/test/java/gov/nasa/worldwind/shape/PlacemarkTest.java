@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.draw.Drawable;
+import gov.nasa.worldwind.draw.DrawableLines;
+import gov.nasa.worldwind.draw.DrawableQueue;
+import gov.nasa.worldwind.draw.DrawableScreenTexture;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class PlacemarkTest {
+
+    private RenderContext rc;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.verticalExaggeration = 1;
+        this.rc.renderResourceCache = new RenderResourceCache(1024 * 1024);
+        this.rc.drawableQueue = new DrawableQueue();
+        this.rc.horizonDistance = 1e6;
+
+        // Look straight down at latitude 0, longitude 0 from 10 km above the ellipsoid. The camera looks down the
+        // negative Z axis, so its modelview matrix is a translation.
+        double cameraZ = WorldWind.WGS84_ELLIPSOID.semiMajorAxis() + 1e4;
+        this.rc.cameraPoint.set(0, 0, cameraZ);
+        this.rc.viewport.set(0, 0, 100, 100);
+        this.rc.modelview.setToTranslation(0, 0, -cameraZ);
+        this.rc.projection.setToPerspectiveProjection(100, 100, 45, 1, 1e5);
+        this.rc.modelviewProjection.setToMultiply(this.rc.projection, this.rc.modelview);
+        this.rc.frustum.setToModelviewProjection(this.rc.projection, this.rc.modelview, this.rc.viewport);
+    }
+
+    private static Placemark leaderPlacemark(double altitude, Color color) {
+        PlacemarkAttributes attributes = new PlacemarkAttributes().setDrawLeader(true);
+        attributes.getImageColor().set(color);
+        attributes.getLeaderAttributes().getOutlineColor().set(color);
+        return new Placemark(new Position(0, 0, altitude), attributes);
+    }
+
+    @Test
+    public void testRender_LeadersDrawBeforeIcons() throws Exception {
+        Color near = new Color(1, 0, 0, 1);
+        Color middle = new Color(0, 1, 0, 1);
+        Color far = new Color(0, 0, 1, 1);
+
+        // Render the placemarks in an order that is neither nearest nor farthest first.
+        leaderPlacemark(2000, middle).render(this.rc);
+        leaderPlacemark(3000, near).render(this.rc);
+        leaderPlacemark(1000, far).render(this.rc);
+        this.rc.sortDrawables();
+
+        // Every leader precedes every icon, so each kind forms one contiguous run. Each run is back-to-front.
+        DrawableQueue queue = this.rc.drawableQueue;
+        assertEquals("drawable count", 6, queue.count());
+        Color[] expectedColors = {far, middle, near};
+        for (int idx = 0; idx < 3; idx++) {
+            Drawable drawable = queue.pollDrawable();
+            assertTrue("leader " + idx, drawable instanceof DrawableLines);
+            assertEquals("leader color " + idx, expectedColors[idx], ((DrawableLines) drawable).color);
+        }
+        for (int idx = 0; idx < 3; idx++) {
+            Drawable drawable = queue.pollDrawable();
+            assertTrue("icon " + idx, drawable instanceof DrawableScreenTexture);
+            assertEquals("icon color " + idx, expectedColors[idx], ((DrawableScreenTexture) drawable).color);
+        }
+    }
+
+    @Test
+    public void testRender_LeadersDrawBeforeNearerIcons() throws Exception {
+        Color color = new Color(1, 1, 1, 1);
+
+        // The icon of the nearest placemark must not separate the leaders of the farther placemarks.
+        leaderPlacemark(9000, color).render(this.rc);
+        leaderPlacemark(1000, color).render(this.rc);
+        leaderPlacemark(500, color).render(this.rc);
+        this.rc.sortDrawables();
+
+        DrawableQueue queue = this.rc.drawableQueue;
+        assertEquals("drawable count", 6, queue.count());
+        assertTrue("leader 0", queue.getDrawable(0) instanceof DrawableLines);
+        assertTrue("leader 1", queue.getDrawable(1) instanceof DrawableLines);
+        assertTrue("leader 2", queue.getDrawable(2) instanceof DrawableLines);
+        assertTrue("icon 0", queue.getDrawable(3) instanceof DrawableScreenTexture);
+        assertTrue("icon 1", queue.getDrawable(4) instanceof DrawableScreenTexture);
+        assertTrue("icon 2", queue.getDrawable(5) instanceof DrawableScreenTexture);
+    }
+}
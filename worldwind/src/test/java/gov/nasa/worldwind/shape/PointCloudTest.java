@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Frustum;
+import gov.nasa.worldwind.geom.Plane;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.Color;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.render.RenderResourceCache;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class PointCloudTest {
+
+    private static final double TOLERANCE = 1e-5;
+
+    private RenderContext rc;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.verticalExaggeration = 1;
+        this.rc.renderResourceCache = new RenderResourceCache(1024 * 1024);
+    }
+
+    /**
+     * Returns a frustum enclosing a two meter cube centered on a point.
+     */
+    private static Frustum frustumAround(Vec3 p) {
+        return new Frustum(
+            new Plane(1, 0, 0, 1 - p.x), new Plane(-1, 0, 0, p.x + 1),
+            new Plane(0, 1, 0, 1 - p.y), new Plane(0, -1, 0, p.y + 1),
+            new Plane(0, 0, 1, 1 - p.z), new Plane(0, 0, -1, p.z + 1),
+            new Viewport(0, 0, 1, 1));
+    }
+
+    @Test
+    public void testConstructor_InvalidArguments() throws Exception {
+        try {
+            new PointCloud(0, 1);
+            fail("Expected an IllegalArgumentException for capacity");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            new PointCloud(10, 0);
+            fail("Expected an IllegalArgumentException for tile delta");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testAddPoint() throws Exception {
+        PointCloud pointCloud = new PointCloud();
+
+        long pointId = pointCloud.addPoint(34.2, -119.2, 1000, new Color(1, 0, 0, 1), 8);
+
+        Position position = pointCloud.getPosition(pointId, new Position());
+        assertEquals("point count", 1, pointCloud.getPointCount());
+        assertEquals("latitude", 34.2, position.latitude, TOLERANCE);
+        assertEquals("longitude", -119.2, position.longitude, TOLERANCE);
+        assertEquals("altitude", 1000, position.altitude, TOLERANCE);
+        assertEquals("color", new Color(1, 0, 0, 1), pointCloud.getColor(pointId, new Color()));
+        assertEquals("size", 8, pointCloud.getSize(pointId));
+    }
+
+    @Test
+    public void testAddPoint_Chunks() throws Exception {
+        PointCloud pointCloud = new PointCloud(2, 1);
+        Color color = new Color();
+
+        long id0 = pointCloud.addPoint(34.2, -119.2, 0, color, 1);
+        long id1 = pointCloud.addPoint(34.3, -119.3, 0, color, 1);
+        long id2 = pointCloud.addPoint(35.5, -119.2, 0, color, 1); // different tile
+        long id3 = pointCloud.addPoint(34.4, -119.4, 0, color, 1); // first chunk is full
+
+        assertEquals("chunk count", 3, pointCloud.getChunkCount());
+        assertEquals("id0", 0, id0);
+        assertEquals("id1", 1, id1);
+        assertEquals("id2", 2, id2);
+        assertEquals("id3", 4, id3);
+        assertEquals("id3 latitude", 34.4, pointCloud.getPosition(id3, new Position()).latitude, TOLERANCE);
+    }
+
+    @Test
+    public void testAddPoint_GrowsChunk() throws Exception {
+        PointCloud pointCloud = new PointCloud();
+        Color color = new Color();
+
+        for (int idx = 0; idx < 3000; idx++) {
+            pointCloud.addPoint(10 + idx * 1e-4, 20, idx, color, idx);
+        }
+
+        assertEquals("chunk count", 1, pointCloud.getChunkCount());
+        assertEquals("altitude", 2999, pointCloud.getPosition(2999, new Position()).altitude, TOLERANCE);
+        assertEquals("size clamped", 255, pointCloud.getSize(2999));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetPosition_InvalidId() throws Exception {
+        PointCloud pointCloud = new PointCloud(2, 1);
+        pointCloud.addPoint(0, 0, 0, new Color(), 1);
+
+        pointCloud.getPosition(1, new Position());
+    }
+
+    @Test
+    public void testAddPoint_IdBeyondIntRange() throws Exception {
+        PointCloud pointCloud = new PointCloud(1 << 30, 1);
+        Color color = new Color();
+        pointCloud.addPoint(0.5, 0.5, 0, color, 1);
+        pointCloud.addPoint(1.5, 0.5, 0, color, 1);
+
+        long pointId = pointCloud.addPoint(2.5, 0.5, 100, color, 1); // third chunk
+
+        assertEquals("point id", 2L << 30, pointId);
+        assertEquals("latitude", 2.5, pointCloud.getPosition(pointId, new Position()).latitude, TOLERANCE);
+    }
+
+    @Test
+    public void testBoundingBox_ContainsPoints() throws Exception {
+        PointCloud pointCloud = new PointCloud();
+        Color color = new Color();
+        double[][] locations = {{34.1, -119.9, 0}, {34.9, -119.1, 2000}, {34.5, -119.5, 1000}, {34.1, -119.1, 500}};
+        for (double[] location : locations) {
+            pointCloud.addPoint(location[0], location[1], location[2], color, 1);
+        }
+
+        PointCloud.Chunk chunk = pointCloud.chunks.get(0);
+        for (double[] location : locations) {
+            Vec3 point = this.rc.globe.geographicToCartesian(location[0], location[1], location[2], new Vec3());
+            assertTrue("contains point", chunk.boundingBox(this.rc).intersectsFrustum(frustumAround(point)));
+        }
+
+        Vec3 outside = this.rc.globe.geographicToCartesian(36, -119.5, 0, new Vec3());
+        assertFalse("outside point", chunk.boundingBox(this.rc).intersectsFrustum(frustumAround(outside)));
+    }
+
+    @Test
+    public void testRender_CullsBeforeAssembling() throws Exception {
+        PointCloud pointCloud = new PointCloud();
+        pointCloud.addPoint(34.2, -119.2, 0, new Color(), 1);
+        this.rc.frustum.setToUnitFrustum(); // excludes the globe's surface
+
+        pointCloud.render(this.rc);
+
+        assertEquals("vertex buffers", 0, this.rc.renderResourceCache.getEntryCount());
+        assertEquals("vertex count", 0, pointCloud.chunks.get(0).vertexCount);
+    }
+}
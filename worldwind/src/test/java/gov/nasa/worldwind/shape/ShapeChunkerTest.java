@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class ShapeChunkerTest {
+
+    private static final int STRIDE = 4;
+
+    private static final int VERTEX_COUNT = 100;
+
+    private float[] vertices;
+
+    private Vec3 origin = new Vec3(1e6, 2e6, 3e6);
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+
+        // Vertex coordinates identify each vertex, and the fourth value is a texture coordinate.
+        this.vertices = new float[VERTEX_COUNT * STRIDE];
+        for (int idx = 0; idx < VERTEX_COUNT; idx++) {
+            this.vertices[idx * STRIDE] = idx;
+            this.vertices[idx * STRIDE + 1] = idx * 2;
+            this.vertices[idx * STRIDE + 2] = idx * 3;
+            this.vertices[idx * STRIDE + 3] = idx * 0.5f;
+        }
+    }
+
+    private static int[] sequence(int count) {
+        int[] result = new int[count];
+        for (int idx = 0; idx < count; idx++) {
+            result[idx] = idx;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the shape vertex referenced by a chunk element, identified from the vertex's absolute coordinates.
+     */
+    private int shapeVertex(ShapeChunker.Chunk chunk, int element) {
+        float[] array = chunk.vertexArray.array();
+        int vertex = (element & 0xFFFF) * STRIDE;
+        double x = chunk.vertexOrigin.x + array[vertex] - this.origin.x;
+        double y = chunk.vertexOrigin.y + array[vertex + 1] - this.origin.y;
+        double z = chunk.vertexOrigin.z + array[vertex + 2] - this.origin.z;
+        int result = (int) Math.round(x);
+        assertEquals("y", result * 2, y, 1e-6);
+        assertEquals("z", result * 3, z, 1e-6);
+        assertEquals("tex coord", result * 0.5f, array[vertex + 3], 0);
+        return result;
+    }
+
+    /**
+     * Returns the segments or triangles drawn by each chunk's section, as lists of shape vertices. Triangles are
+     * listed in their winding order.
+     */
+    private List<List<Integer>> primitives(List<ShapeChunker.Chunk> chunks, int section, int mode) {
+        List<List<Integer>> result = new ArrayList<>();
+        for (ShapeChunker.Chunk chunk : chunks) {
+            assertTrue("chunk vertex count", chunk.vertexArray.size() / STRIDE <= 10);
+            int offset = chunk.sectionOffsets[section];
+            int count = chunk.sectionCounts[section];
+            int[] v = new int[count];
+            for (int idx = 0; idx < count; idx++) {
+                v[idx] = this.shapeVertex(chunk, chunk.elementArray.get(offset + idx));
+            }
+
+            if (mode == GLES20.GL_LINES) {
+                for (int idx = 0; idx + 1 < count; idx += 2) {
+                    result.add(list(v[idx], v[idx + 1]));
+                }
+            } else if (mode == GLES20.GL_LINE_STRIP) {
+                for (int idx = 0; idx + 1 < count; idx++) {
+                    result.add(list(v[idx], v[idx + 1]));
+                }
+            } else if (mode == GLES20.GL_TRIANGLE_STRIP) {
+                for (int idx = 0; idx + 2 < count; idx++) {
+                    if (v[idx] == v[idx + 1] || v[idx + 1] == v[idx + 2] || v[idx] == v[idx + 2]) {
+                        continue; // degenerate triangle
+                    }
+                    result.add((idx % 2) == 0 ? list(v[idx], v[idx + 1], v[idx + 2]) : list(v[idx + 1], v[idx], v[idx + 2]));
+                }
+            } else if (mode == GLES20.GL_TRIANGLES) {
+                for (int idx = 0; idx + 2 < count; idx += 3) {
+                    result.add(list(v[idx], v[idx + 1], v[idx + 2]));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Integer> list(int... values) {
+        List<Integer> result = new ArrayList<>();
+        for (int value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    @Test
+    public void testChunk_Lines() throws Exception {
+        int[] elements = new int[40];
+        for (int idx = 0; idx < 20; idx++) {
+            elements[idx * 2] = idx;
+            elements[idx * 2 + 1] = VERTEX_COUNT - 1 - idx;
+        }
+
+        List<ShapeChunker.Chunk> chunks = new ShapeChunker(this.vertices, VERTEX_COUNT, STRIDE, this.origin)
+            .setMaxChunkVertices(10)
+            .addSection(GLES20.GL_LINES, elements, 0, elements.length)
+            .chunk();
+
+        assertEquals("chunk count", 4, chunks.size());
+        List<List<Integer>> lines = this.primitives(chunks, 0, GLES20.GL_LINES);
+        assertEquals("line count", 20, lines.size());
+        for (int idx = 0; idx < 20; idx++) {
+            assertEquals("line " + idx, list(idx, VERTEX_COUNT - 1 - idx), lines.get(idx));
+        }
+    }
+
+    @Test
+    public void testChunk_LineStrip() throws Exception {
+        int[] elements = sequence(VERTEX_COUNT);
+
+        List<ShapeChunker.Chunk> chunks = new ShapeChunker(this.vertices, VERTEX_COUNT, STRIDE, this.origin)
+            .setMaxChunkVertices(10)
+            .addSection(GLES20.GL_LINE_STRIP, elements, 5, VERTEX_COUNT - 5)
+            .chunk();
+
+        // Each chunk after the first repeats the last vertex of the previous chunk.
+        assertEquals("chunk count", 11, chunks.size());
+        List<List<Integer>> segments = this.primitives(chunks, 0, GLES20.GL_LINE_STRIP);
+        assertEquals("segment count", VERTEX_COUNT - 6, segments.size());
+        for (int idx = 0; idx < segments.size(); idx++) {
+            assertEquals("segment " + idx, list(idx + 5, idx + 6), segments.get(idx));
+        }
+    }
+
+    @Test
+    public void testChunk_TriangleStrip() throws Exception {
+        int[] elements = sequence(VERTEX_COUNT);
+
+        List<ShapeChunker.Chunk> chunks = new ShapeChunker(this.vertices, VERTEX_COUNT, STRIDE, this.origin)
+            .setMaxChunkVertices(10)
+            .addSection(GLES20.GL_TRIANGLE_STRIP, elements, 0, VERTEX_COUNT)
+            .chunk();
+
+        // Each triangle is drawn once, with the winding order of the original strip.
+        List<List<Integer>> triangles = this.primitives(chunks, 0, GLES20.GL_TRIANGLE_STRIP);
+        assertEquals("triangle count", VERTEX_COUNT - 2, triangles.size());
+        for (int idx = 0; idx < triangles.size(); idx++) {
+            List<Integer> expected = (idx % 2) == 0 ? list(idx, idx + 1, idx + 2) : list(idx + 1, idx, idx + 2);
+            assertEquals("triangle " + idx, expected, triangles.get(idx));
+        }
+    }
+
+    @Test
+    public void testChunk_Sections() throws Exception {
+        int[] triangles = sequence(30);
+        int[] outline = sequence(VERTEX_COUNT);
+
+        List<ShapeChunker.Chunk> chunks = new ShapeChunker(this.vertices, VERTEX_COUNT, STRIDE, this.origin)
+            .setMaxChunkVertices(10)
+            .addSection(GLES20.GL_TRIANGLES, triangles, 0, 30)
+            .addSection(GLES20.GL_LINE_STRIP, outline, 0, VERTEX_COUNT)
+            .chunk();
+
+        assertEquals("triangle count", 10, this.primitives(chunks, 0, GLES20.GL_TRIANGLES).size());
+        assertEquals("segment count", VERTEX_COUNT - 1, this.primitives(chunks, 1, GLES20.GL_LINE_STRIP).size());
+
+        // Each chunk's sections are contiguous in its element array, and its origin is its first vertex.
+        for (ShapeChunker.Chunk chunk : chunks) {
+            assertEquals("section offset", chunk.sectionCounts[0], chunk.sectionOffsets[1]);
+            assertEquals("element count", chunk.sectionCounts[0] + chunk.sectionCounts[1], chunk.elementArray.size());
+            assertEquals("origin x", 0, chunk.vertexArray.get(0), 0);
+            assertEquals("origin y", 0, chunk.vertexArray.get(1), 0);
+            assertEquals("origin z", 0, chunk.vertexArray.get(2), 0);
+        }
+    }
+
+    @Test
+    public void testAddSection_InvalidMode() throws Exception {
+        try {
+            new ShapeChunker(this.vertices, VERTEX_COUNT, STRIDE, this.origin)
+                .addSection(GLES20.GL_LINE_LOOP, sequence(10), 0, 10);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
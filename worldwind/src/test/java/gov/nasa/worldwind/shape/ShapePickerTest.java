@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Line;
+import gov.nasa.worldwind.geom.Vec3;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+import gov.nasa.worldwind.render.RenderContext;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class ShapePickerTest {
+
+    private static final int STRIDE = 3;
+
+    private RenderContext rc;
+
+    private Vec3 origin = new Vec3(1000, 2000, 3000);
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.rc = new RenderContext();
+        this.rc.globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        this.rc.fieldOfView = 90;
+        this.rc.viewport.set(0, 0, 100, 100); // one pixel is 0.02 meters at a distance of one meter
+
+        // The pick ray looks down the negative Z axis from 100 meters above the origin.
+        this.rc.pickRay = new Line(new Vec3(1000, 2000, 3100), new Vec3(0, 0, -1));
+    }
+
+    @Test
+    public void testPickSection_Triangles() throws Exception {
+        // A triangle beneath the ray at the origin, and a triangle beside the ray.
+        float[] vertices = {
+            -1, -1, 0, 1, -1, 0, 0, 1, 0,
+            5, 5, 10, 6, 5, 10, 5, 6, 10};
+        ShapePicker picker = new ShapePicker(this.rc, vertices, STRIDE, this.origin, false, 0);
+
+        picker.pickSection(GLES20.GL_TRIANGLES, new int[]{3, 4, 5}, 0, 3, 0);
+        assertFalse("miss", picker.nearestIntersection(new Vec3()));
+
+        Vec3 result = new Vec3();
+        picker.pickSection(GLES20.GL_TRIANGLES, new int[]{0, 1, 2}, 0, 3, 0);
+        assertTrue("hit", picker.nearestIntersection(result));
+        assertEquals("intersection", new Vec3(1000, 2000, 3000), result);
+    }
+
+    @Test
+    public void testPickSection_NearestTriangle() throws Exception {
+        float[] vertices = {
+            -1, -1, 0, 1, -1, 0, 0, 1, 0,
+            -1, -1, 50, 1, -1, 50, 0, 1, 50};
+
+        Vec3 result = new Vec3();
+        new ShapePicker(this.rc, vertices, STRIDE, this.origin, false, 0)
+            .pickSection(GLES20.GL_TRIANGLE_STRIP, new int[]{0, 1, 2}, 0, 3, 0)
+            .pickSection(GLES20.GL_TRIANGLES, new int[]{3, 4, 5}, 0, 3, 0)
+            .nearestIntersection(result);
+
+        assertEquals("nearest", 3050, result.z, 1e-9);
+    }
+
+    @Test
+    public void testPickSection_LineTolerance() throws Exception {
+        // A line 1 meter from the ray, 100 meters from the ray's origin, where one pixel is 2 meters.
+        float[] vertices = {-10, 1, 0, 10, 1, 0};
+        int[] elements = {0, 1};
+
+        assertFalse("outside tolerance", new ShapePicker(this.rc, vertices, STRIDE, this.origin, false, 0)
+            .pickSection(GLES20.GL_LINES, elements, 0, 2, 0.5)
+            .nearestIntersection(new Vec3()));
+
+        Vec3 result = new Vec3();
+        assertTrue("within tolerance", new ShapePicker(this.rc, vertices, STRIDE, this.origin, false, 0.5)
+            .pickSection(GLES20.GL_LINE_STRIP, elements, 0, 2, 0.5)
+            .nearestIntersection(result));
+        assertEquals("intersection", new Vec3(1000, 2000, 3000), result);
+    }
+
+    @Test
+    public void testPickSection_InvalidArguments() throws Exception {
+        ShapePicker picker = new ShapePicker(this.rc, new float[9], STRIDE, this.origin, false, 0);
+
+        try {
+            picker.pickSection(GLES20.GL_LINE_LOOP, new int[]{0, 1, 2}, 0, 3, 1);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        try {
+            picker.pickSection(GLES20.GL_LINES, new int[]{0, 1}, 0, 3, 1);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.shape;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.util.LineSimplifier;
+import gov.nasa.worldwind.util.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class SimplifiedPositionsTest {
+
+    private static final double TOLERANCE = 0.005; // selects the level whose tolerance is 4^-4 radians
+
+    private static final double LEVEL_TOLERANCE = Math.pow(4, -4);
+
+    private static final int POSITION_COUNT = 300;
+
+    private static class TestSimplifiedPositions extends SimplifiedPositions {
+
+        public TestSimplifiedPositions() {
+            super(false /*closed*/);
+        }
+
+        @Override
+        protected void execute(Runnable task) {
+            task.run(); // compute significance on the calling thread
+        }
+
+        @Override
+        protected void requestRedraw() {
+        }
+    }
+
+    private TestSimplifiedPositions simplified;
+
+    private List<Position> positions;
+
+    private List<Position> original;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.simplified = new TestSimplifiedPositions();
+        this.simplified.setMinimumPositions(100);
+        this.positions = new ArrayList<>();
+        for (int idx = 0; idx < POSITION_COUNT; idx++) { // a line along the equator with spikes every 50 positions
+            this.positions.add(Position.fromDegrees((idx % 50 == 25) ? 1 : 0, idx * 0.01, 0));
+        }
+        this.original = new ArrayList<>(this.positions);
+    }
+
+    private int selectLevel() {
+        return this.simplified.selectLevel(Collections.singletonList(this.positions), TOLERANCE);
+    }
+
+    /**
+     * Returns the positions retained at the test tolerance, as computed from the original positions' significance. The
+     * first and last positions are always retained, as are positions added after the original positions.
+     */
+    private List<Position> expectedLevel(int firstIndex, int lastIndex) {
+        int count = this.original.size();
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        for (int idx = 0; idx < count; idx++) {
+            lats[idx] = this.original.get(idx).latitude;
+            lons[idx] = this.original.get(idx).longitude;
+        }
+
+        double[] significance = LineSimplifier.computeSignificance(lats, lons, count, false, new double[count]);
+        List<Position> result = new ArrayList<>();
+        for (int idx = firstIndex; idx <= lastIndex; idx++) {
+            if (idx == firstIndex || idx == lastIndex || idx >= count || significance[idx] >= LEVEL_TOLERANCE) {
+                result.add(idx < count ? this.original.get(idx) : this.positions.get(idx - firstIndex));
+            }
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testSelectLevel_TooFewPositions() throws Exception {
+        this.simplified.setMinimumPositions(POSITION_COUNT + 1);
+
+        this.selectLevel();
+
+        assertEquals("level", SimplifiedPositions.FULL_RESOLUTION, this.selectLevel());
+    }
+
+    @Test
+    public void testSelectLevel() throws Exception {
+        assertEquals("computing", SimplifiedPositions.FULL_RESOLUTION, this.selectLevel());
+
+        int level = this.selectLevel();
+
+        assertEquals("level", -4, level);
+        assertEquals("positions", this.expectedLevel(0, POSITION_COUNT - 1), this.simplified.getPositions(level, 0));
+    }
+
+    @Test
+    public void testPositionsAdded_ExtendsLevelInPlace() throws Exception {
+        this.selectLevel();
+        int level = this.selectLevel();
+        List<Position> levelPositions = this.simplified.getPositions(level, 0);
+        int levelCount = levelPositions.size();
+        int version = this.simplified.getLevelVersion();
+
+        Position added = Position.fromDegrees(0, POSITION_COUNT * 0.01, 0); // collinear, but retained until recomputed
+        this.positions.add(added);
+        this.simplified.positionsAdded(Collections.singletonList(this.positions));
+
+        assertEquals("level", level, this.selectLevel());
+        assertSame("list", levelPositions, this.simplified.getPositions(level, 0));
+        assertEquals("count", levelCount + 1, levelPositions.size());
+        assertSame("added", added, levelPositions.get(levelCount));
+        assertEquals("version", version, this.simplified.getLevelVersion());
+    }
+
+    @Test
+    public void testPositionsTrimmed_TrimsLevelInPlace() throws Exception {
+        this.selectLevel();
+        int level = this.selectLevel();
+        List<Position> levelPositions = this.simplified.getPositions(level, 0);
+        int firstRetained = this.original.indexOf(levelPositions.get(1)); // the second position retained at the level
+
+        this.positions.subList(0, firstRetained).clear();
+        this.simplified.positionsTrimmed(Collections.singletonList(this.positions), firstRetained);
+
+        assertSame("list", levelPositions, this.simplified.getPositions(level, 0));
+        assertEquals("positions", this.expectedLevel(firstRetained, POSITION_COUNT - 1), levelPositions);
+    }
+
+    @Test
+    public void testPositionsTrimmed_FirstPositionOmitted() throws Exception {
+        this.selectLevel();
+        int level = this.selectLevel();
+        int version = this.simplified.getLevelVersion();
+
+        this.positions.subList(0, 1).clear(); // the second position is not significant at the level
+        this.simplified.positionsTrimmed(Collections.singletonList(this.positions), 1);
+
+        assertNull("level discarded", this.simplified.getPositions(level, 0));
+        assertEquals("level", level, this.selectLevel());
+        assertEquals("positions", this.expectedLevel(1, POSITION_COUNT - 1), this.simplified.getPositions(level, 0));
+        assertEquals("version", version, this.simplified.getLevelVersion());
+    }
+
+    @Test
+    public void testPositionsTrimmed_OffsetsSignificance() throws Exception {
+        this.selectLevel();
+        int level = this.selectLevel();
+
+        // Trim and add positions, then discard the levels so that the level is assembled again from the existing
+        // significance.
+        this.positions.subList(0, 10).clear();
+        this.simplified.positionsTrimmed(Collections.singletonList(this.positions), 10);
+        this.positions.add(Position.fromDegrees(0, POSITION_COUNT * 0.01, 0));
+        this.simplified.positionsAdded(Collections.singletonList(this.positions));
+        this.simplified.levels.clear();
+        this.selectLevel();
+
+        assertEquals("positions", this.expectedLevel(10, POSITION_COUNT), this.simplified.getPositions(level, 0));
+    }
+
+    @Test
+    public void testRecomputesSignificance() throws Exception {
+        this.selectLevel();
+        int level = this.selectLevel();
+        int version = this.simplified.getLevelVersion();
+
+        // Trim more than a quarter of the positions.
+        int count = POSITION_COUNT / 4 + 1;
+        this.positions.subList(0, count).clear();
+        this.simplified.positionsTrimmed(Collections.singletonList(this.positions), count);
+        this.selectLevel(); // computes the significance of the remaining positions
+        this.selectLevel(); // applies the significance
+
+        assertNotEquals("version", version, this.simplified.getLevelVersion());
+        assertEquals("trimmed count", 0, this.simplified.trimmedCount);
+        assertEquals("computed count", POSITION_COUNT - count, this.simplified.significanceCounts[0]);
+        assertEquals("first", this.positions.get(0), this.simplified.getPositions(level, 0).get(0));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class ConcurrentMemoryCacheTest {
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        ConcurrentMemoryCache<Integer, String> cache = new ConcurrentMemoryCache<>(1000, 500, 4);
+
+        for (int key = 0; key < 10; key++) {
+            cache.put(key, Integer.toString(key), 10);
+        }
+
+        assertEquals("entry count", 10, cache.getEntryCount());
+        assertEquals("used capacity", 100, cache.getUsedCapacity());
+        assertEquals("value", "3", cache.get(3));
+        assertEquals("removed", "3", cache.remove(3));
+        assertNull("missing", cache.get(3));
+        assertFalse("contains", cache.containsKey(3));
+        assertEquals("hit count", 1, cache.getHitCount());
+        assertEquals("miss count", 1, cache.getMissCount());
+
+        cache.clear();
+
+        assertEquals("cleared", 0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testEvictsWithinCapacity() throws Exception {
+        final AtomicInteger evicted = new AtomicInteger();
+        ConcurrentMemoryCache<Integer, String> cache = new ConcurrentMemoryCache<Integer, String>(100, 50, 4) {
+            @Override
+            protected void entryRemoved(Integer key, String oldValue, String newValue, boolean wasEvicted) {
+                if (wasEvicted) {
+                    evicted.incrementAndGet();
+                }
+            }
+        };
+
+        for (int key = 0; key < 100; key++) {
+            cache.put(key, Integer.toString(key), 5);
+        }
+
+        assertTrue("used capacity", cache.getUsedCapacity() <= cache.getCapacity());
+        assertEquals("evictions reported", evicted.get(), cache.getEvictionCount());
+        assertEquals("entries accounted for", 100, cache.getEntryCount() + evicted.get());
+    }
+
+    @Test
+    public void testPut_EntryLargerThanStripe() throws Exception {
+        ConcurrentMemoryCache<Integer, String> cache = new ConcurrentMemoryCache<>(100, 50, 4); // 12 per stripe
+        cache.put(0, "small", 10);
+        cache.put(1, "other", 10);
+
+        assertEquals("replaced small", "small", cache.put(0, "large", 40));
+        assertEquals("large", "large", cache.get(0));
+        assertTrue("contains large", cache.containsKey(0));
+        assertEquals("other", "other", cache.get(1));
+        assertEquals("entry count", 2, cache.getEntryCount());
+        assertEquals("used capacity", 50, cache.getUsedCapacity());
+
+        assertEquals("replaced large", "large", cache.put(0, "small again", 10));
+        assertEquals("small again", "small again", cache.get(0));
+        assertEquals("entry count", 2, cache.getEntryCount());
+        assertEquals("used capacity", 20, cache.getUsedCapacity());
+
+        assertNull("put large", cache.put(2, "large", 40));
+        assertEquals("removed large", "large", cache.remove(2));
+        assertFalse("contains removed", cache.containsKey(2));
+        assertEquals("eviction count", 0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testPut_EntriesLargerThanStripeEvictWithinSharedSegment() throws Exception {
+        ConcurrentMemoryCache<Integer, String> cache = new ConcurrentMemoryCache<>(100, 50, 4); // 12 per stripe
+        cache.put(0, "small", 10);
+        cache.put(1, "large", 30);
+        cache.put(2, "larger", 30);
+
+        assertNull("evicted", cache.get(1));
+        assertEquals("larger", "larger", cache.get(2));
+        assertEquals("small", "small", cache.get(0));
+        assertEquals("eviction count", 1, cache.getEvictionCount());
+        assertTrue("used capacity", cache.getUsedCapacity() <= cache.getCapacity());
+
+        cache.put(3, "largest", 60); // larger than the shared segment; cached as LruMemoryCache would
+
+        assertEquals("largest", "largest", cache.get(3));
+        assertNull("evicted", cache.get(2));
+        assertEquals("small", "small", cache.get(0));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final ConcurrentMemoryCache<Integer, Integer> cache = new ConcurrentMemoryCache<>(1 << 20, 1 << 19, 8);
+        final int threadCount = 4, keysPerThread = 1000;
+        final CountDownLatch done = new CountDownLatch(threadCount);
+
+        for (int idx = 0; idx < threadCount; idx++) {
+            final int base = idx * keysPerThread;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int key = base; key < base + keysPerThread; key++) {
+                        cache.put(key, key, 1);
+                        cache.get(key - 1);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        assertTrue("completed", done.await(5, TimeUnit.SECONDS));
+        assertEquals("entry count", threadCount * keysPerThread, cache.getEntryCount());
+        assertEquals("used capacity", threadCount * keysPerThread, cache.getUsedCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidStripeCount() throws Exception {
+        new ConcurrentMemoryCache<>(100, 50, 0);
+    }
+}
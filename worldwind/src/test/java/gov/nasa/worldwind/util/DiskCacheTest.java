@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class DiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.directory = new File(this.folder.getRoot(), "cache");
+        ClockDiskCache.nextTime = 1000000;
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+
+        File file = cache.put("http://example.com/a", new ByteArrayInputStream(new byte[100]));
+
+        assertNotNull("file", file);
+        assertEquals("file length", 100, file.length());
+        assertEquals("get", file, cache.get("http://example.com/a"));
+        assertEquals("used capacity", 100, cache.getUsedCapacity());
+        assertEquals("entry count", 1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testPutByteBuffer() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+
+        File file = cache.put("key", ByteBuffer.allocate(64));
+
+        assertNotNull("file", file);
+        assertEquals("file length", 64, file.length());
+        assertTrue("contains key", cache.containsKey("key"));
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+
+        cache.put("key", new ByteArrayInputStream(new byte[100]));
+        cache.put("key", new ByteArrayInputStream(new byte[200]));
+
+        assertEquals("used capacity", 200, cache.getUsedCapacity());
+        assertEquals("entry count", 1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+        File file = cache.put("key", new ByteArrayInputStream(new byte[100]));
+
+        assertTrue("remove", cache.remove("key"));
+        assertFalse("file exists", file.exists());
+        assertNull("get", cache.get("key"));
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 400);
+        cache.put("a", new ByteArrayInputStream(new byte[100]));
+        cache.put("b", new ByteArrayInputStream(new byte[100]));
+        cache.put("c", new ByteArrayInputStream(new byte[100]));
+        cache.get("a"); // mark 'a' as most recently used
+
+        cache.put("d", new ByteArrayInputStream(new byte[200])); // exceeds capacity; evicts to low water of 300
+
+        assertTrue("a retained", cache.containsKey("a"));
+        assertFalse("b evicted", cache.containsKey("b"));
+        assertFalse("c evicted", cache.containsKey("c"));
+        assertTrue("d retained", cache.containsKey("d"));
+        assertEquals("used capacity", 300, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testContainsKey_DoesNotWaitForLock() throws Exception {
+        final DiskCache cache = new DiskCache(this.directory, 1024);
+        cache.put("a", new ByteArrayInputStream(new byte[100]));
+
+        final boolean[] result = new boolean[2];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = cache.containsKey("a");
+                result[1] = cache.containsKey("b");
+            }
+        });
+
+        synchronized (cache.lock) { // simulate an eviction deleting files while holding the cache lock
+            thread.start();
+            thread.join(5000);
+            assertFalse("containsKey blocked", thread.isAlive());
+        }
+
+        assertTrue("contains a", result[0]);
+        assertFalse("contains b", result[1]);
+    }
+
+    @Test
+    public void testRejectsEntryLargerThanCapacity() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 100);
+
+        File file = cache.put("key", new ByteArrayInputStream(new byte[101]));
+
+        assertNull("file", file);
+        assertEquals("entry count", 0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testIndexSurvivesReopen() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+        cache.put("a", new ByteArrayInputStream(new byte[100]));
+        cache.put("b", new ByteArrayInputStream(new byte[50]));
+        cache.flush();
+
+        DiskCache reopened = new DiskCache(this.directory, 1024);
+
+        assertNotNull("a", reopened.get("a"));
+        assertNotNull("b", reopened.get("b"));
+        assertEquals("used capacity", 150, reopened.getUsedCapacity());
+    }
+
+    @Test
+    public void testReopenDeletesUnindexedFiles() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+        cache.put("a", new ByteArrayInputStream(new byte[100]));
+        cache.flush();
+        File unindexed = cache.put("b", new ByteArrayInputStream(new byte[50])); // added after the index was written
+
+        DiskCache reopened = new DiskCache(this.directory, 1024);
+
+        assertNotNull("a", reopened.get("a"));
+        assertNull("b", reopened.get("b"));
+        assertFalse("unindexed file exists", unindexed.exists());
+    }
+
+    @Test
+    public void testGet_ExpiredEntry() throws Exception {
+        ClockDiskCache cache = new ClockDiskCache(this.directory, 1024, 1000);
+        File file = cache.put("key", new ByteArrayInputStream(new byte[100]));
+
+        cache.time += 999;
+        assertTrue("contains key before expiry", cache.containsKey("key"));
+        assertEquals("get before expiry", file, cache.get("key"));
+
+        cache.time += 1;
+        assertFalse("contains key after expiry", cache.containsKey("key"));
+        assertNull("get after expiry", cache.get("key"));
+        assertFalse("file exists", file.exists());
+        assertEquals("entry count", 0, cache.getEntryCount());
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testReplaceRenewsExpiry() throws Exception {
+        ClockDiskCache cache = new ClockDiskCache(this.directory, 1024, 1000);
+        cache.put("key", new ByteArrayInputStream(new byte[100]));
+
+        cache.time += 500;
+        cache.put("key", new ByteArrayInputStream(new byte[100]));
+        cache.time += 999;
+
+        assertNotNull("get", cache.get("key"));
+    }
+
+    @Test
+    public void testReopenDeletesExpiredEntries() throws Exception {
+        ClockDiskCache cache = new ClockDiskCache(this.directory, 1024, 1000);
+        File file = cache.put("a", new ByteArrayInputStream(new byte[100]));
+        cache.time += 500;
+        cache.put("b", new ByteArrayInputStream(new byte[50]));
+        cache.flush();
+
+        ClockDiskCache.nextTime = cache.time + 500;
+        DiskCache reopened = new ClockDiskCache(this.directory, 1024, 1000);
+
+        assertNull("a", reopened.get("a"));
+        assertNotNull("b", reopened.get("b"));
+        assertFalse("expired file exists", file.exists());
+        assertEquals("used capacity", 50, reopened.getUsedCapacity());
+    }
+
+    @Test
+    public void testGetWritesIndexPeriodically() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+        cache.put("a", new ByteArrayInputStream(new byte[100]));
+        cache.put("b", new ByteArrayInputStream(new byte[100]));
+        cache.flush(); // index order: a, b
+
+        for (int i = 0; i < DiskCache.INDEX_WRITE_INTERVAL; i++) {
+            cache.get("a"); // index order: b, a
+        }
+
+        // Reopen without flushing, then evict the least recently used entry recorded in the index.
+        DiskCache reopened = new DiskCache(this.directory, 280);
+        reopened.put("c", new ByteArrayInputStream(new byte[100]));
+
+        assertNotNull("a", reopened.get("a"));
+        assertNull("b", reopened.get("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetMaxAge_Invalid() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+
+        cache.setMaxAge(0);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+        File file = cache.put("key", new ByteArrayInputStream(new byte[100]));
+
+        cache.clear();
+
+        assertFalse("file exists", file.exists());
+        assertEquals("entry count", 0, cache.getEntryCount());
+        assertEquals("used capacity", 0, cache.getUsedCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPut_InvalidKey() throws Exception {
+        DiskCache cache = new DiskCache(this.directory, 1024);
+
+        cache.put("a\nb", new ByteArrayInputStream(new byte[1]));
+    }
+
+    private static class ClockDiskCache extends DiskCache {
+
+        private static long nextTime; // the initial time of the next cache, used while reading its index
+
+        private long time = nextTime;
+
+        private ClockDiskCache(File directory, long capacity, long maxAge) {
+            super(directory, capacity, maxAge);
+        }
+
+        @Override
+        protected long currentTime() {
+            return (this.time != 0) ? this.time : nextTime; // the field is not yet initialized during the constructor
+        }
+    }
+}
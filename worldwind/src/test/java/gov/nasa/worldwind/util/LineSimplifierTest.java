@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class LineSimplifierTest {
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testComputeSignificance_StraightLine() throws Exception {
+        double[] lats = {0, 0, 0, 0, 0};
+        double[] lons = {0, 1, 2, 3, 4};
+
+        double[] sig = LineSimplifier.computeSignificance(lats, lons, 5, false, new double[5]);
+
+        assertTrue("first", Double.isInfinite(sig[0]));
+        assertTrue("last", Double.isInfinite(sig[4]));
+        assertEquals("interior", 0, sig[1], 1e-12);
+        assertEquals("interior", 0, sig[2], 1e-12);
+        assertEquals("interior", 0, sig[3], 1e-12);
+        assertEquals("significant", 2, LineSimplifier.countSignificant(sig, 5, 1e-9));
+    }
+
+    @Test
+    public void testComputeSignificance_Peak() throws Exception {
+        double[] lats = {0, 0.1, 1, 0.1, 0};
+        double[] lons = {0, 1, 2, 3, 4};
+
+        double[] sig = LineSimplifier.computeSignificance(lats, lons, 5, false, new double[5]);
+
+        assertEquals("peak", Math.toRadians(1), sig[2], 1e-9);
+        assertTrue("shoulder", sig[1] < sig[2]);
+        assertTrue("shoulder", sig[3] < sig[2]);
+        assertEquals("coarse", 3, LineSimplifier.countSignificant(sig, 5, Math.toRadians(0.5)));
+        assertEquals("fine", 5, LineSimplifier.countSignificant(sig, 5, 1e-9));
+    }
+
+    @Test
+    public void testComputeSignificance_Nested() throws Exception {
+        int count = 100;
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        for (int idx = 0; idx < count; idx++) {
+            lats[idx] = Math.sin(idx * 0.7) * (idx % 7);
+            lons[idx] = idx * 0.1;
+        }
+
+        double[] sig = LineSimplifier.computeSignificance(lats, lons, count, false, new double[count]);
+
+        // Each coarser simplification retains no more locations than a finer simplification.
+        int prevCount = count;
+        for (double tolerance = 1e-6; tolerance < 1; tolerance *= 4) {
+            int significant = LineSimplifier.countSignificant(sig, count, tolerance);
+            assertTrue("nested", significant <= prevCount);
+            assertTrue("endpoints", significant >= 2);
+            prevCount = significant;
+        }
+    }
+
+    @Test
+    public void testComputeSignificance_Ring() throws Exception {
+        double[] lats = {0, 0, 0, 1, 2, 2, 2, 1};
+        double[] lons = {0, 1, 2, 2, 2, 1, 0, 0};
+
+        double[] sig = LineSimplifier.computeSignificance(lats, lons, 8, true, new double[8]);
+
+        assertTrue("first", Double.isInfinite(sig[0]));
+        assertTrue("farthest", Double.isInfinite(sig[4]));
+        assertTrue("corner", sig[2] > 0.01);
+        assertTrue("corner", sig[6] > 0.01);
+        assertEquals("corners", 4, LineSimplifier.countSignificant(sig, 8, 0.001));
+    }
+
+    @Test
+    public void testComputeSignificance_ShortLine() throws Exception {
+        double[] sig = LineSimplifier.computeSignificance(new double[2], new double[2], 2, false, new double[2]);
+
+        assertTrue("first", Double.isInfinite(sig[0]));
+        assertTrue("last", Double.isInfinite(sig[1]));
+    }
+
+    @Test
+    public void testComputeSignificance_InvalidArguments() throws Exception {
+        try {
+            LineSimplifier.computeSignificance(null, new double[3], 3, false, new double[3]);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        try {
+            LineSimplifier.computeSignificance(new double[3], new double[3], 3, false, new double[2]);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class LruMemoryCacheTest {
+
+    private TestCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.cache = new TestCache(100, 50);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        this.cache.put("a", "a", 25);
+        this.cache.put("b", "b", 25);
+        this.cache.put("c", "c", 25);
+        this.cache.get("a"); // accessed within the same millisecond as the puts; ordering must not depend on time
+        this.cache.put("d", "d", 25);
+        this.cache.put("e", "e", 25); // exceeds the capacity; evicts to the low-water value
+
+        assertEquals("evicted", Arrays.asList("b", "c"), this.cache.evicted);
+        assertTrue("retained", this.cache.containsKey("a"));
+        assertTrue("retained", this.cache.containsKey("d"));
+        assertTrue("retained", this.cache.containsKey("e"));
+        assertEquals("used capacity", 75, this.cache.getUsedCapacity());
+        assertEquals("entry count", 3, this.cache.getEntryCount());
+        assertEquals("eviction count", 2, this.cache.getEvictionCount());
+    }
+
+    @Test
+    public void testSegmentedProtectsReusedEntries() throws Exception {
+        this.cache.setSegmented(true);
+        this.cache.put("a", "a", 25);
+        this.cache.get("a"); // promoted to the protected segment
+        this.cache.put("b", "b", 25);
+        this.cache.put("c", "c", 25);
+        this.cache.put("d", "d", 25);
+        this.cache.put("e", "e", 25); // entries used once are evicted before entries in regular use
+
+        assertEquals("evicted", Arrays.asList("b", "c"), this.cache.evicted);
+        assertTrue("retained", this.cache.containsKey("a"));
+        assertTrue("retained", this.cache.containsKey("d"));
+        assertTrue("retained", this.cache.containsKey("e"));
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+        this.cache.put("a", "a", 25);
+        String old = this.cache.put("a", "A", 40);
+
+        assertEquals("old value", "a", old);
+        assertEquals("new value", "A", this.cache.get("a"));
+        assertEquals("used capacity", 40, this.cache.getUsedCapacity());
+        assertEquals("removed", Arrays.asList("a"), this.cache.removed);
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        this.cache.put("a", "a", 25);
+        this.cache.put("b", "b", 25);
+
+        assertEquals("removed value", "a", this.cache.remove("a"));
+        assertNull("missing value", this.cache.remove("a"));
+        assertFalse("contains", this.cache.containsKey("a"));
+        assertEquals("used capacity", 25, this.cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testTrimToAge() throws Exception {
+        this.cache.put("a", "a", 10);
+        this.cache.put("b", "b", 20);
+        long now = System.currentTimeMillis();
+
+        assertEquals("nothing trimmed", 0, this.cache.trimToAge(now - 1000));
+        assertEquals("all trimmed", 30, this.cache.trimToAge(now + 1));
+        assertEquals("entry count", 0, this.cache.getEntryCount());
+        assertEquals("used capacity", 0, this.cache.getUsedCapacity());
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        this.cache.put("a", "a", 25);
+        this.cache.get("a");
+        this.cache.get("a");
+        this.cache.get("b");
+
+        assertEquals("hit count", 2, this.cache.getHitCount());
+        assertEquals("miss count", 1, this.cache.getMissCount());
+
+        this.cache.resetStatistics();
+
+        assertEquals("hit count", 0, this.cache.getHitCount());
+        assertEquals("miss count", 0, this.cache.getMissCount());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        this.cache.setSegmented(true);
+        this.cache.put("a", "a", 25);
+        this.cache.get("a");
+        this.cache.put("b", "b", 25);
+        this.cache.clear();
+
+        assertEquals("entry count", 0, this.cache.getEntryCount());
+        assertEquals("used capacity", 0, this.cache.getUsedCapacity());
+
+        this.cache.put("c", "c", 25);
+        assertEquals("value", "c", this.cache.get("c"));
+    }
+
+    private static class TestCache extends LruMemoryCache<String, String> {
+
+        public List<String> evicted = new ArrayList<>();
+
+        public List<String> removed = new ArrayList<>();
+
+        public TestCache(int capacity, int lowWater) {
+            super(capacity, lowWater);
+        }
+
+        @Override
+        protected void entryRemoved(String key, String oldValue, String newValue, boolean evicted) {
+            if (evicted) {
+                this.evicted.add(key);
+            } else {
+                this.removed.add(key);
+            }
+        }
+    }
+}
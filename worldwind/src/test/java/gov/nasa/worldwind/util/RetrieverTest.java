@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class RetrieverTest {
+
+    private TestRetriever retriever;
+
+    private TestCallback callback;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.retriever = new TestRetriever(1, 3); // one retrieval at a time, three queued retrievals
+        this.callback = new TestCallback();
+    }
+
+    @Test
+    public void testRetrievesInPriorityOrder() throws Exception {
+        this.retriever.retrieve("first", null, this.callback, 0); // occupies the only retrieval slot
+        this.retriever.started.await(1, TimeUnit.SECONDS);
+        this.retriever.retrieve("far", null, this.callback, 300);
+        this.retriever.retrieve("near", null, this.callback, 100);
+        this.retriever.retrieve("middle", null, this.callback, 200);
+
+        this.callback.expect(4);
+        this.retriever.release.countDown();
+
+        assertTrue("completed", this.callback.completed.await(1, TimeUnit.SECONDS));
+        assertEquals("order", Arrays.asList("first", "near", "middle", "far"), this.retriever.retrieved);
+    }
+
+    @Test
+    public void testRequestUpdatesPriority() throws Exception {
+        this.retriever.retrieve("first", null, this.callback, 0);
+        this.retriever.started.await(1, TimeUnit.SECONDS);
+        this.retriever.retrieve("a", null, this.callback, 100);
+        this.retriever.retrieve("b", null, this.callback, 200);
+        this.retriever.retrieve("b", null, this.callback, 50); // 'b' moved closer to the camera
+
+        this.callback.expect(3);
+        this.retriever.release.countDown();
+
+        assertTrue("completed", this.callback.completed.await(1, TimeUnit.SECONDS));
+        assertEquals("order", Arrays.asList("first", "b", "a"), this.retriever.retrieved);
+    }
+
+    @Test
+    public void testFullQueueRejectsLeastImportant() throws Exception {
+        this.retriever.retrieve("first", null, this.callback, 0);
+        this.retriever.started.await(1, TimeUnit.SECONDS);
+        this.retriever.retrieve("a", null, this.callback, 100);
+        this.retriever.retrieve("b", null, this.callback, 200);
+        this.retriever.retrieve("c", null, this.callback, 300);
+        this.retriever.retrieve("d", null, this.callback, 400); // less important than every queued request
+        this.retriever.retrieve("e", null, this.callback, 50); // displaces 'c'
+
+        assertEquals("rejected", Arrays.asList("d", "c"), this.callback.rejected);
+
+        this.callback.expect(4);
+        this.retriever.release.countDown();
+
+        assertTrue("completed", this.callback.completed.await(1, TimeUnit.SECONDS));
+        assertEquals("order", Arrays.asList("first", "e", "a", "b"), this.retriever.retrieved);
+    }
+
+    @Test
+    public void testIgnoresRequestsInProgress() throws Exception {
+        this.retriever.retrieve("first", null, this.callback, 0);
+        this.retriever.started.await(1, TimeUnit.SECONDS);
+        this.retriever.retrieve("first", null, this.callback, 0); // requested again in a later frame
+        this.retriever.retrieve("first", null, this.callback, 0);
+
+        assertTrue("rejected", this.callback.rejected.isEmpty());
+
+        this.callback.expect(1);
+        this.retriever.release.countDown();
+
+        assertTrue("completed", this.callback.completed.await(1, TimeUnit.SECONDS));
+        assertEquals("retrieved", Collections.singletonList("first"), this.retriever.retrieved);
+    }
+
+    @Test
+    public void testDiscardsStaleRequests() throws Exception {
+        this.retriever.retrieve("first", null, this.callback, 0);
+        this.retriever.started.await(1, TimeUnit.SECONDS);
+        this.retriever.retrieve("stale", null, this.callback, 100);
+        this.retriever.retrieve("current", null, this.callback, 200);
+
+        for (int i = 0; i <= this.retriever.getMaxStaleFrames(); i++) {
+            Retriever.advanceFrame();
+            this.retriever.retrieve("current", null, this.callback, 200); // requested every frame
+        }
+
+        this.callback.expect(3);
+        this.retriever.release.countDown();
+
+        assertTrue("completed", this.callback.completed.await(1, TimeUnit.SECONDS));
+        assertEquals("order", Arrays.asList("first", "current"), this.retriever.retrieved);
+        assertEquals("rejected", Collections.singletonList("stale"), this.callback.rejected);
+    }
+
+    @Test
+    public void testReportsDiscardedRequestsOnMainThread() throws Exception {
+        // Simulate the main thread's message queue, with the test thread as the main thread.
+        final Thread mainThread = Thread.currentThread();
+        final List<Runnable> messages = Collections.synchronizedList(new ArrayList<Runnable>());
+        this.retriever = new TestRetriever(1, 3) {
+            @Override
+            protected boolean isDispatchThread() {
+                return Thread.currentThread() == mainThread;
+            }
+
+            @Override
+            protected boolean postToDispatchThread(Runnable runnable) {
+                return messages.add(runnable);
+            }
+        };
+
+        this.retriever.retrieve("first", null, this.callback, 0);
+        runMessages(messages);
+        this.retriever.started.await(1, TimeUnit.SECONDS);
+        this.retriever.retrieve("stale", null, this.callback, 100);
+        runMessages(messages);
+        for (int i = 0; i <= this.retriever.getMaxStaleFrames(); i++) {
+            Retriever.advanceFrame();
+        }
+
+        this.callback.expect(1);
+        this.retriever.release.countDown(); // the retrieval thread discards the stale request when "first" completes
+        assertTrue("completed", this.callback.completed.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && messages.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue("not reported on the retrieval thread", this.callback.rejected.isEmpty());
+        runMessages(messages);
+        assertEquals("rejected", Collections.singletonList("stale"), this.callback.rejected);
+        assertSame("thread", mainThread, this.callback.rejectedThread);
+    }
+
+    private static void runMessages(List<Runnable> messages) {
+        while (!messages.isEmpty()) {
+            messages.remove(0).run();
+        }
+    }
+
+    private static class TestRetriever extends Retriever<String, Void, String> {
+
+        public CountDownLatch started = new CountDownLatch(1);
+
+        public CountDownLatch release = new CountDownLatch(1);
+
+        public List<String> retrieved = Collections.synchronizedList(new ArrayList<String>());
+
+        public TestRetriever(int maxSimultaneousRetrievals, int maxQueuedRetrievals) {
+            super(maxSimultaneousRetrievals, maxQueuedRetrievals);
+        }
+
+        @Override
+        protected void retrieveAsync(String key, Void options, Callback<String, Void, String> callback) {
+            this.retrieved.add(key);
+            this.started.countDown();
+
+            try {
+                this.release.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+
+            callback.retrievalSucceeded(this, key, options, key);
+        }
+    }
+
+    private static class TestCallback implements Retriever.Callback<String, Void, String> {
+
+        public List<String> rejected = Collections.synchronizedList(new ArrayList<String>());
+
+        public volatile Thread rejectedThread;
+
+        public CountDownLatch completed = new CountDownLatch(Integer.MAX_VALUE);
+
+        public void expect(int count) {
+            this.completed = new CountDownLatch(count);
+        }
+
+        @Override
+        public void retrievalSucceeded(Retriever<String, Void, String> retriever, String key, Void options, String value) {
+            this.completed.countDown();
+        }
+
+        @Override
+        public void retrievalFailed(Retriever<String, Void, String> retriever, String key, Throwable ex) {
+        }
+
+        @Override
+        public void retrievalRejected(Retriever<String, Void, String> retriever, String key) {
+            this.rejected.add(key);
+            this.rejectedThread = Thread.currentThread();
+            this.completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Frustum;
+import gov.nasa.worldwind.geom.Location;
+import gov.nasa.worldwind.geom.Matrix4;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.Viewport;
+import gov.nasa.worldwind.globe.Globe;
+import gov.nasa.worldwind.globe.ProjectionWgs84;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class SectorTreeTest {
+
+    private SectorTree<String> tree;
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        this.tree = new SectorTree<>();
+    }
+
+    private static Sector point(double latitude, double longitude) {
+        return new Sector().union(latitude, longitude).union(latitude, longitude);
+    }
+
+    @Test
+    public void testFindItems_Sector() throws Exception {
+        this.tree.add("a", point(10, 10), 0);
+        this.tree.add("b", Sector.fromDegrees(-5, -5, 10, 10), 0);
+        this.tree.add("c", point(-40, 120), 0);
+        this.tree.add("d", new Sector(), 0); // unbounded
+
+        List<String> result = this.tree.findItems(Sector.fromDegrees(0, 0, 10, 10), new ArrayList<String>());
+
+        assertEquals("items", Arrays.asList("a", "b"), result); // includes items touching the boundary
+    }
+
+    @Test
+    public void testFindItems_ManyItems() throws Exception {
+        Random random = new Random(7);
+        List<Location> locations = new ArrayList<>();
+        for (int idx = 0; idx < 5000; idx++) {
+            Location location = new Location(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            locations.add(location);
+            this.tree.add(Integer.toString(idx), point(location.latitude, location.longitude), 0);
+        }
+
+        Sector sector = Sector.fromDegrees(20, -30, 15, 25);
+        List<String> expected = new ArrayList<>();
+        for (int idx = 0; idx < locations.size(); idx++) {
+            if (sector.contains(locations.get(idx).latitude, locations.get(idx).longitude)) {
+                expected.add(Integer.toString(idx));
+            }
+        }
+
+        assertEquals("size", 5000, this.tree.size());
+        assertEquals("items", expected, this.tree.findItems(sector, new ArrayList<String>()));
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        this.tree.add("a", point(10, 10), 0);
+        this.tree.add("b", point(11, 11), 0);
+
+        assertTrue("updated", this.tree.update("a", point(-60, -100), 0));
+        assertFalse("not in tree", this.tree.update("c", point(0, 0), 0));
+
+        assertEquals("old region", Collections.singletonList("b"),
+            this.tree.findItems(Sector.fromDegrees(0, 0, 20, 20), new ArrayList<String>()));
+        assertEquals("new region", Collections.singletonList("a"),
+            this.tree.findItems(Sector.fromDegrees(-70, -110, 20, 20), new ArrayList<String>()));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        for (int idx = 0; idx < 100; idx++) {
+            this.tree.add(Integer.toString(idx), point(idx * 0.1, idx * 0.1), 0);
+        }
+
+        for (int idx = 0; idx < 100; idx += 2) {
+            assertTrue("removed", this.tree.remove(Integer.toString(idx)));
+        }
+
+        List<String> result = this.tree.findItems(Sector.fromDegrees(-90, -180, 180, 360), new ArrayList<String>());
+        assertEquals("size", 50, this.tree.size());
+        assertEquals("count", 50, result.size());
+        for (String item : result) {
+            assertEquals("odd items remain", 1, Integer.parseInt(item) % 2);
+        }
+    }
+
+    @Test
+    public void testReorder() throws Exception {
+        this.tree.add("a", point(1, 1), 0);
+        this.tree.add("b", point(2, 2), 0);
+        this.tree.add("c", point(3, 3), 0);
+
+        this.tree.reorder(Arrays.asList("c", "a"));
+        this.tree.add("d", point(4, 4), 0);
+
+        assertEquals("order", Arrays.asList("c", "a", "b", "d"),
+            this.tree.findItems(Sector.fromDegrees(0, 0, 10, 10), new ArrayList<String>()));
+    }
+
+    @Test
+    public void testFindItems_Radius() throws Exception {
+        this.tree.add("near", point(0, 179.5), 0);
+        this.tree.add("acrossAntimeridian", point(0, -179.5), 0);
+        this.tree.add("far", point(0, 170), 0);
+        this.tree.add("unbounded", new Sector(), 0);
+
+        List<String> result = this.tree.findItems(new Location(0, 180), Math.toRadians(1), new ArrayList<String>());
+
+        assertEquals("items", Arrays.asList("near", "acrossAntimeridian"), result);
+    }
+
+    @Test
+    public void testFindItems_Frustum() throws Exception {
+        Globe globe = new Globe(WorldWind.WGS84_ELLIPSOID, new ProjectionWgs84());
+        Random random = new Random(11);
+        for (int idx = 0; idx < 2000; idx++) {
+            this.tree.add("far" + idx, point(random.nextDouble() * 60 - 30, random.nextDouble() * 60 + 90), 0);
+        }
+        this.tree.add("visible", point(0.1, 0.1), 1000);
+        this.tree.add("unbounded", new Sector(), 0);
+
+        // Look straight down at 0, 0 from an altitude of 100km.
+        Matrix4 modelview = globe.geographicToCartesianTransform(0, 0, 1e5, new Matrix4()).invertOrthonormal();
+        Matrix4 projection = new Matrix4().setToPerspectiveProjection(100, 100, 45, 1, 2e5);
+        Frustum frustum = new Frustum().setToModelviewProjection(projection, modelview, new Viewport(0, 0, 100, 100));
+
+        List<String> result = this.tree.findItems(frustum, globe, 1, new ArrayList<String>());
+
+        assertTrue("visible", result.contains("visible"));
+        assertTrue("unbounded", result.contains("unbounded"));
+        for (String item : result) {
+            assertFalse("culled", item.startsWith("far"));
+        }
+    }
+}
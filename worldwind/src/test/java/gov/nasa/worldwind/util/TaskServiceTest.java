@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class TaskServiceTest {
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        TaskService taskService = new TaskService();
+        final CountDownLatch done = new CountDownLatch(3);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        };
+
+        taskService.execute(TaskService.NETWORK, task);
+        taskService.execute(TaskService.DECODE, task);
+        taskService.execute(TaskService.DATABASE, task);
+
+        assertTrue("completed", done.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecuteWithoutLaneNeverRejects() throws Exception {
+        TaskService taskService = new TaskService();
+        final CountDownLatch release = new CountDownLatch(1);
+        final int taskCount = 256; // more tasks than any bounded lane's threads and queue hold
+        final CountDownLatch done = new CountDownLatch(taskCount);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                done.countDown();
+            }
+        };
+
+        for (int idx = 0; idx < taskCount; idx++) {
+            taskService.execute(task);
+        }
+
+        release.countDown();
+
+        assertTrue("completed", done.await(5, TimeUnit.SECONDS));
+        assertEquals("rejected", 0, taskService.getLane(TaskService.GENERAL).getRejectedCount());
+    }
+
+    @Test
+    public void testRejectsWhenLaneIsFull() throws Exception {
+        TaskService.Lane lane = new TaskService.Lane("Test ", 1, 1); // one thread, one queued task
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                done.countDown();
+            }
+        };
+
+        lane.execute(task); // occupies the only thread
+        started.await(1, TimeUnit.SECONDS);
+        lane.execute(task); // waits in the queue
+
+        try {
+            lane.execute(task);
+            fail("Expected a RejectedExecutionException");
+        } catch (RejectedExecutionException expected) {
+        }
+
+        release.countDown();
+
+        assertTrue("completed", done.await(1, TimeUnit.SECONDS));
+        assertEquals("rejected count", 1, lane.getRejectedCount());
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        TaskService.Lane lane = new TaskService.Lane("Test ", 1, 4);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        };
+
+        lane.execute(task);
+        lane.execute(task);
+        done.await(1, TimeUnit.SECONDS);
+
+        // The completed count is updated after the task returns; wait for the lane to finish its bookkeeping.
+        for (int i = 0; i < 100 && lane.getCompletedCount() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals("completed count", 2, lane.getCompletedCount());
+        assertEquals("active count", 0, lane.getActiveCount());
+        assertTrue("max latency", lane.getMaxLatencyNanos() > 0);
+
+        lane.resetMetrics();
+
+        assertEquals("reset", 0, lane.getCompletedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetLane_Invalid() throws Exception {
+        new TaskService().getLane(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetParallelism_Invalid() throws Exception {
+        new TaskService.Lane("Test ", 1, 1).setParallelism(0);
+    }
+}
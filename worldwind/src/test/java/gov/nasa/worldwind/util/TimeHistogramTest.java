@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class TimeHistogramTest {
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+    }
+
+    @Test
+    public void testRecord() throws Exception {
+        TimeHistogram histogram = new TimeHistogram();
+        histogram.record(300);
+        histogram.record(100);
+        histogram.record(200);
+
+        assertEquals("count", 3, histogram.getCount());
+        assertEquals("sum", 600, histogram.getSum());
+        assertEquals("min", 100, histogram.getMin());
+        assertEquals("max", 300, histogram.getMax());
+        assertEquals("mean", 200, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void testGetPercentile() throws Exception {
+        TimeHistogram histogram = new TimeHistogram();
+        for (int idx = 1; idx <= 1000; idx++) {
+            histogram.record(idx * 1000000L); // 1 to 1000 milliseconds
+        }
+
+        // Percentiles are within the histogram's relative error of 12.5%.
+        assertEquals("p50", 500e6, histogram.getPercentile(0.5), 500e6 * 0.125);
+        assertEquals("p95", 950e6, histogram.getPercentile(0.95), 950e6 * 0.125);
+        assertEquals("p99", 990e6, histogram.getPercentile(0.99), 990e6 * 0.125);
+        assertEquals("p100", 1000000000L, histogram.getPercentile(1));
+        assertEquals("p0", 1e6, histogram.getPercentile(0), 1e6 * 0.125);
+        assertTrue("ordered", histogram.getPercentile(0.5) <= histogram.getPercentile(0.95));
+    }
+
+    @Test
+    public void testGetPercentile_SmallValues() throws Exception {
+        TimeHistogram histogram = new TimeHistogram();
+        for (int idx = 0; idx < 16; idx++) {
+            histogram.record(idx);
+        }
+
+        assertEquals("p50", 7, histogram.getPercentile(0.5));
+        assertEquals("max", 15, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void testGetPercentile_Empty() throws Exception {
+        assertEquals("empty", 0, new TimeHistogram().getPercentile(0.5));
+    }
+
+    @Test
+    public void testGetPercentile_InvalidFraction() throws Exception {
+        try {
+            new TimeHistogram().getPercentile(1.5);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void testRecord_LongestDuration() throws Exception {
+        TimeHistogram histogram = new TimeHistogram();
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals("max", Long.MAX_VALUE, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void testSet() throws Exception {
+        TimeHistogram histogram = new TimeHistogram();
+        histogram.record(1000);
+        histogram.record(2000);
+
+        TimeHistogram copy = new TimeHistogram(histogram);
+        histogram.reset();
+
+        assertEquals("count", 2, copy.getCount());
+        assertEquals("max", 2000, copy.getMax());
+        assertEquals("reset count", 0, histogram.getCount());
+        assertEquals("reset max", 0, histogram.getMax());
+    }
+}
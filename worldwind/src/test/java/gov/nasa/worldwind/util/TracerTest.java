@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration. All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(PowerMockRunner.class) // Support for mocking static methods
+@PrepareForTest(Logger.class) // We mock the Logger class to avoid its calls to android.util.log
+public class TracerTest {
+
+    @Before
+    public void setUp() throws Exception {
+        PowerMockito.mockStatic(Logger.class);
+        Tracer.clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Tracer.setEnabled(false);
+        Tracer.clear();
+    }
+
+    private static int count(String string, String substring) {
+        int count = 0;
+        for (int idx = string.indexOf(substring); idx != -1; idx = string.indexOf(substring, idx + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String export() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        Tracer.exportChromeTrace(sb);
+        return sb.toString();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        Tracer.begin(Tracer.DECODE);
+        Tracer.end(Tracer.DECODE);
+
+        assertFalse("no spans", export().contains(Tracer.DECODE));
+    }
+
+    @Test
+    public void testExportChromeTrace() throws Exception {
+        Tracer.setEnabled(true);
+        Tracer.begin(Tracer.RETRIEVE);
+        Tracer.begin(Tracer.DECODE);
+        Tracer.end(Tracer.DECODE);
+        Tracer.end(Tracer.RETRIEVE);
+
+        String json = export();
+        assertTrue("trace events", json.startsWith("{\"traceEvents\":["));
+        assertTrue("thread name", json.contains("\"name\":\"thread_name\",\"ph\":\"M\""));
+        assertEquals("begin events", 2, count(json, "\"ph\":\"B\""));
+        assertEquals("end events", 2, count(json, "\"ph\":\"E\""));
+        assertTrue("span order", json.indexOf("\"name\":\"retrieve\",\"ph\":\"B\"") < json.indexOf("\"name\":\"decode\",\"ph\":\"B\""));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        Tracer.setEnabled(true);
+        Tracer.begin(Tracer.DECODE);
+        Tracer.end(Tracer.DECODE);
+        Tracer.clear();
+
+        assertFalse("cleared", export().contains(Tracer.DECODE));
+    }
+
+    @Test
+    public void testRingBuffer() throws Exception {
+        Tracer.setEnabled(true);
+        int capacity = Tracer.getCapacity();
+        for (int idx = 0; idx < capacity; idx++) {
+            Tracer.begin(Tracer.CACHE_PUT);
+            Tracer.end(Tracer.CACHE_PUT);
+        }
+
+        // Older events are overwritten, and the oldest remaining slot is skipped since its thread may be writing it.
+        String json = export();
+        assertEquals("events kept", capacity - 1, count(json, "\"name\":\"cachePut\""));
+    }
+
+    @Test
+    public void testEndedThreadBuffersPruned() throws Exception {
+        Tracer.setEnabled(true);
+        int bufferCount = Tracer.buffers.size();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Tracer.begin(Tracer.DATABASE_READ);
+                Tracer.end(Tracer.DATABASE_READ);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals("thread buffer", bufferCount + 1, Tracer.buffers.size());
+        assertTrue("exported once", export().contains(Tracer.DATABASE_READ));
+        assertEquals("pruned", bufferCount, Tracer.buffers.size());
+        assertFalse("discarded", export().contains(Tracer.DATABASE_READ));
+    }
+
+    @Test
+    public void testClearPrunesEndedThreadBuffers() throws Exception {
+        Tracer.setEnabled(true);
+        Tracer.begin(Tracer.DECODE); // this thread's buffer is kept
+        Tracer.end(Tracer.DECODE);
+        int bufferCount = Tracer.buffers.size();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Tracer.begin(Tracer.DATABASE_READ);
+                Tracer.end(Tracer.DATABASE_READ);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Tracer.clear();
+
+        assertEquals("pruned", bufferCount, Tracer.buffers.size());
+    }
+
+    @Test
+    public void testSetCapacity_Invalid() throws Exception {
+        try {
+            Tracer.setCapacity(0);
+            fail("Expected an IllegalArgumentException to be thrown.");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}